@@ -0,0 +1,61 @@
+package com.scada.monitoring.benchmark;
+
+import com.scada.monitoring.ScadaMonitoringApplication;
+import com.scada.monitoring.dto.CreateSensorRequest;
+import com.scada.monitoring.service.SensorService;
+import org.springframework.boot.SpringApplication;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Starts the application against its embedded H2 database without the web server and with
+ * SQL and debug logging switched off, so benchmarks measure the service layer rather than logging.
+ * Extra {@code --property=value} arguments override the application's configuration.
+ * {@link #startServer} also starts the web server, on a random port, for HTTP load tests.
+ */
+public final class BenchmarkContext {
+
+    private BenchmarkContext() {
+    }
+
+    public static ConfigurableApplicationContext start(String... overrides) {
+        return start(WebApplicationType.NONE, overrides);
+    }
+
+    public static ConfigurableApplicationContext startServer(String... overrides) {
+        List<String> args = new ArrayList<>(Arrays.asList(overrides));
+        args.add(0, "--server.port=0");
+        return start(WebApplicationType.SERVLET, args.toArray(new String[0]));
+    }
+
+    public static int port(ConfigurableApplicationContext context) {
+        return context.getEnvironment().getRequiredProperty("local.server.port", Integer.class);
+    }
+
+    private static ConfigurableApplicationContext start(WebApplicationType type, String... overrides) {
+        SpringApplication application = new SpringApplication(ScadaMonitoringApplication.class);
+        application.setWebApplicationType(type);
+        List<String> args = new ArrayList<>(Arrays.asList(
+                "--spring.jpa.show-sql=false",
+                "--spring.jpa.properties.hibernate.format_sql=false",
+                "--spring.h2.console.enabled=false",
+                "--logging.level.root=WARN",
+                "--logging.level.com.scada=WARN"));
+        args.addAll(Arrays.asList(overrides));
+        return application.run(args.toArray(new String[0]));
+    }
+
+    public static void createSensor(ConfigurableApplicationContext context, String sensorId) {
+        CreateSensorRequest request = new CreateSensorRequest();
+        request.setSensorId(sensorId);
+        request.setName("Benchmark " + sensorId);
+        request.setTempThreshold(80.0);
+        request.setPressureThreshold(30.0);
+        request.setMotorOn(true);
+        context.getBean(SensorService.class).createSensor(request);
+    }
+}
@@ -0,0 +1,92 @@
+package com.scada.monitoring.benchmark;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.scada.monitoring.dto.CreateReadingRequest;
+import com.scada.monitoring.entity.SensorReading;
+import com.scada.monitoring.ingest.ReadingFrames;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Request body to {@link SensorReading}s for the same batch sent as a {@code /bulk} JSON array
+ * and as a {@code /frames} binary batch. Only decoding is measured; sensor lookup, threshold
+ * evaluation and the ingest pipeline are identical for both endpoints.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class FrameDecodeBenchmark {
+
+    private static final int SENSORS = 20;
+    private static final TypeReference<List<CreateReadingRequest>> REQUEST_LIST =
+            new TypeReference<List<CreateReadingRequest>>() { };
+
+    @Param({"100", "5000"})
+    public int size;
+
+    private ObjectMapper objectMapper;
+    private byte[] json;
+    private byte[] frames;
+
+    @Setup
+    public void setUp() throws IOException {
+        objectMapper = Jackson2ObjectMapperBuilder.json().build();
+        Random random = new Random(42);
+        List<String> sensorIds = new ArrayList<>(SENSORS);
+        for (int i = 0; i < SENSORS; i++) {
+            sensorIds.add("BENCH-FRAME-" + i);
+        }
+
+        List<CreateReadingRequest> requests = new ArrayList<>(size);
+        ReadingFrames.Writer writer = new ReadingFrames.Writer(sensorIds);
+        for (int i = 0; i < size; i++) {
+            CreateReadingRequest request = new CreateReadingRequest();
+            request.setSensorId(sensorIds.get(i % SENSORS));
+            request.setTemperature(60.0 + random.nextDouble() * 30.0);
+            request.setPressure(20.0 + random.nextDouble() * 15.0);
+            request.setMotorOn(true);
+            requests.add(request);
+            writer.add(i % SENSORS, 0, request.getTemperature(), request.getPressure(), true);
+        }
+        json = objectMapper.writeValueAsBytes(requests);
+        frames = writer.toByteArray();
+        System.out.printf("%nsize=%d json=%d bytes frames=%d bytes%n", size, json.length, frames.length);
+    }
+
+    @Benchmark
+    public List<SensorReading> json() throws IOException {
+        List<CreateReadingRequest> requests = objectMapper.readValue(json, REQUEST_LIST);
+        LocalDateTime arrival = LocalDateTime.now();
+        List<SensorReading> readings = new ArrayList<>(requests.size());
+        for (CreateReadingRequest request : requests) {
+            SensorReading reading = new SensorReading();
+            reading.setSensorId(request.getSensorId());
+            reading.setTemperature(request.getTemperature());
+            reading.setPressure(request.getPressure());
+            reading.setMotorOn(request.getMotorOn());
+            reading.setTimestamp(arrival);
+            readings.add(reading);
+        }
+        return readings;
+    }
+
+    @Benchmark
+    public List<SensorReading> frames() {
+        ReadingFrames batch = ReadingFrames.parse(ByteBuffer.wrap(frames));
+        List<SensorReading> readings = new ArrayList<>(batch.getFrameCount());
+        batch.forEach((reading, sensorIndex) -> readings.add(reading));
+        return readings;
+    }
+}
@@ -0,0 +1,104 @@
+package com.scada.monitoring.benchmark;
+
+import org.openjdk.jmh.annotations.*;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.file.Files;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * HTTP load test of the reading endpoints with Tomcat on platform threads versus virtual threads
+ * ({@code spring.threads.virtual.enabled}). More clients than {@code server.tomcat.threads.max}
+ * send requests back to back, so platform mode runs out of request threads:
+ * <ul>
+ *   <li>{@code createReading}: {@code POST /api/readings}, which holds a pooled JDBC connection
+ *       for the insert, so both modes are bounded by the connection pool.</li>
+ *   <li>{@code enqueueDurable}: {@code POST /api/readings/async?durable=true}, which waits for the
+ *       ingest pipeline's next batch without holding a connection.</li>
+ * </ul>
+ * Run with {@code -bm thrpt} for throughput and {@code -bm sample} for latency percentiles
+ * (p0.99). Responses other than 201 (503 when the connection pool times out, 500 when a durable
+ * wait times out) are counted as {@code failed} rather than ending the run. Virtual threads need
+ * a Java 21 runtime.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Threads(400)
+@Warmup(iterations = 2, time = 10)
+@Measurement(iterations = 3, time = 10)
+@Fork(value = 1, jvmArgsAppend = "-Xmx2g")
+public class HttpLoadBenchmark {
+
+    private static final String SENSOR_ID = "BENCH-HTTP";
+
+    @Param({"false", "true"})
+    public boolean virtualThreads;
+
+    private ConfigurableApplicationContext context;
+    private HttpClient client;
+    private URI createReading;
+    private URI enqueueDurable;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        if (virtualThreads && Runtime.version().feature() < 21) {
+            throw new IllegalStateException("Virtual threads need Java 21, running " + Runtime.version());
+        }
+        context = BenchmarkContext.startServer(
+                "--spring.threads.virtual.enabled=" + virtualThreads,
+                "--scada.ingest.wal.dir=" + Files.createTempDirectory("jmh-http-wal"),
+                "--logging.level.org.springframework.web=WARN");
+        BenchmarkContext.createSensor(context, SENSOR_ID);
+
+        String base = "http://localhost:" + BenchmarkContext.port(context) + "/api/readings";
+        createReading = URI.create(base);
+        enqueueDurable = URI.create(base + "/async?durable=true");
+        client = HttpClient.newBuilder().version(HttpClient.Version.HTTP_1_1).build();
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+
+    @State(Scope.Thread)
+    @AuxCounters(AuxCounters.Type.EVENTS)
+    public static class Responses {
+        public long created;
+        public long failed;
+    }
+
+    @Benchmark
+    public int createReading(Responses responses) throws Exception {
+        return post(createReading, responses);
+    }
+
+    @Benchmark
+    public int enqueueDurable(Responses responses) throws Exception {
+        return post(enqueueDurable, responses);
+    }
+
+    private int post(URI uri, Responses responses) throws Exception {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        String body = "{\"sensorId\":\"" + SENSOR_ID + "\",\"temperature\":" + (60.0 + random.nextDouble(30.0))
+                + ",\"pressure\":" + (20.0 + random.nextDouble(15.0)) + ",\"motorOn\":true}";
+        HttpRequest request = HttpRequest.newBuilder(uri)
+                .header("Content-Type", "application/json")
+                .POST(HttpRequest.BodyPublishers.ofString(body))
+                .build();
+        int status = client.send(request, HttpResponse.BodyHandlers.discarding()).statusCode();
+        if (status == 201) {
+            responses.created++;
+        } else {
+            responses.failed++;
+        }
+        return status;
+    }
+}
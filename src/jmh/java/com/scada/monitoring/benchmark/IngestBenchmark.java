@@ -0,0 +1,69 @@
+package com.scada.monitoring.benchmark;
+
+import com.scada.monitoring.dto.CreateReadingRequest;
+import com.scada.monitoring.dto.SensorReadingResponse;
+import com.scada.monitoring.service.SensorReadingService;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Synchronous ingestion through {@link SensorReadingService} into embedded H2.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(value = 1, jvmArgsAppend = "-Xmx2g")
+public class IngestBenchmark {
+
+    private static final String SENSOR_ID = "BENCH-INGEST";
+    private static final int BULK_SIZE = 100;
+
+    private ConfigurableApplicationContext context;
+    private SensorReadingService readingService;
+    private List<CreateReadingRequest> bulk;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        context = BenchmarkContext.start();
+        readingService = context.getBean(SensorReadingService.class);
+        BenchmarkContext.createSensor(context, SENSOR_ID);
+
+        bulk = new ArrayList<>(BULK_SIZE);
+        for (int i = 0; i < BULK_SIZE; i++) {
+            bulk.add(request());
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public SensorReadingResponse createReading() {
+        return readingService.createReading(request());
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(BULK_SIZE)
+    public List<SensorReadingResponse> createBulkReadings() {
+        return readingService.createBulkReadings(bulk);
+    }
+
+    private static CreateReadingRequest request() {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        CreateReadingRequest request = new CreateReadingRequest();
+        request.setSensorId(SENSOR_ID);
+        request.setTemperature(60.0 + random.nextDouble(30.0));
+        request.setPressure(20.0 + random.nextDouble(15.0));
+        request.setMotorOn(true);
+        return request;
+    }
+}
@@ -0,0 +1,164 @@
+package com.scada.monitoring.benchmark;
+
+import com.scada.monitoring.entity.SensorReading;
+import com.scada.monitoring.repository.SensorReadingBatchWriter;
+import com.scada.monitoring.repository.SensorReadingQueryRepository;
+import com.scada.monitoring.repository.SensorReadingRepository;
+import com.scada.monitoring.util.EpochTime;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Per-sensor recent and range queries against a large readings table, comparing managed
+ * entities with constructor-expression projections. {@code layout=single-column} recreates
+ * the old separate {@code sensorId} and {@code timestamp} indexes as a baseline for the
+ * composite {@code (sensorId, timestamp DESC)} index.
+ * <p>
+ * Each sensor gets one reading per second; range queries ask for a random hour of one sensor.
+ * The table lives in an H2 file database under {@code target/} so it can exceed the heap; it is
+ * loaded by the first trial and only rebuilt when {@code rows} or {@code sensors} changes.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 2, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(value = 1, jvmArgsAppend = "-Xmx4g")
+public class ReadingQueryBenchmark {
+
+    private static final int LOAD_BATCH = 10_000;
+    private static final int RECENT_LIMIT = 100;
+
+    @Param({"10000000"})
+    public int rows;
+
+    @Param({"1000"})
+    public int sensors;
+
+    @Param({"composite", "single-column"})
+    public String layout;
+
+    private ConfigurableApplicationContext context;
+    private SensorReadingRepository readingRepository;
+    private SensorReadingQueryRepository queryRepository;
+    private TransactionTemplate readOnly;
+    private LocalDateTime start;
+    private int secondsPerSensor;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        // Ten million rows do not fit in an in-memory H2 heap, and take minutes to insert, so they
+        // live in a file database that later trials reuse while the row count still matches
+        context = BenchmarkContext.start(
+                "--spring.datasource.url=jdbc:h2:file:./target/jmh-readings",
+                "--spring.jpa.hibernate.ddl-auto=update");
+        readingRepository = context.getBean(SensorReadingRepository.class);
+        queryRepository = context.getBean(SensorReadingQueryRepository.class);
+        readOnly = new TransactionTemplate(context.getBean(TransactionTemplate.class).getTransactionManager());
+        readOnly.setReadOnly(true);
+        secondsPerSensor = rows / sensors;
+
+        JdbcTemplate jdbcTemplate = context.getBean(JdbcTemplate.class);
+        Long existing = jdbcTemplate.queryForObject("SELECT COUNT(*) FROM sensor_readings", Long.class);
+        Long firstSensor = jdbcTemplate.queryForObject("SELECT COUNT(*) FROM sensor_readings WHERE sensor_id = ?",
+                Long.class, sensorId(0));
+        if (existing == null || existing != rows || firstSensor == null || firstSensor != secondsPerSensor) {
+            // Secondary indexes are built once after the load rather than maintained row by row
+            jdbcTemplate.execute("TRUNCATE TABLE sensor_readings");
+            jdbcTemplate.execute("DROP INDEX IF EXISTS idx_reading_sensor_time");
+            jdbcTemplate.execute("DROP INDEX IF EXISTS idx_sensor_id");
+            jdbcTemplate.execute("DROP INDEX IF EXISTS idx_timestamp");
+            load(context.getBean(SensorReadingBatchWriter.class));
+            jdbcTemplate.execute("CREATE INDEX idx_timestamp ON sensor_readings (timestamp)");
+        }
+        start = jdbcTemplate.queryForObject("SELECT MIN(timestamp) FROM sensor_readings", LocalDateTime.class);
+
+        if ("single-column".equals(layout)) {
+            jdbcTemplate.execute("DROP INDEX IF EXISTS idx_reading_sensor_time");
+            jdbcTemplate.execute("CREATE INDEX IF NOT EXISTS idx_sensor_id ON sensor_readings (sensor_id)");
+        } else {
+            jdbcTemplate.execute("DROP INDEX IF EXISTS idx_sensor_id");
+            jdbcTemplate.execute("CREATE INDEX IF NOT EXISTS idx_reading_sensor_time ON sensor_readings (sensor_id, timestamp DESC)");
+        }
+        jdbcTemplate.execute("ANALYZE");
+    }
+
+    private void load(SensorReadingBatchWriter writer) {
+        Random random = new Random(42);
+        LocalDateTime first = EpochTime.now().minusSeconds(secondsPerSensor);
+        List<SensorReading> batch = new ArrayList<>(LOAD_BATCH);
+        for (int i = 0; i < rows; i++) {
+            SensorReading reading = new SensorReading();
+            reading.setSensorId(sensorId(i % sensors));
+            reading.setTemperature(60.0 + random.nextDouble() * 30.0);
+            reading.setPressure(20.0 + random.nextDouble() * 15.0);
+            reading.setMotorOn(true);
+            reading.setTimestamp(first.plusSeconds(i / sensors));
+            reading.setTempLimit(80.0);
+            reading.setPressureLimit(30.0);
+            batch.add(reading);
+            if (batch.size() == LOAD_BATCH) {
+                writer.insertBatch(batch);
+                batch.clear();
+            }
+        }
+        if (!batch.isEmpty()) {
+            writer.insertBatch(batch);
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public List<SensorReading> recentEntities() {
+        String sensorId = randomSensor();
+        return readOnly.execute(status ->
+                readingRepository.findBySensorIdOrderByTimestampDesc(sensorId, PageRequest.of(0, RECENT_LIMIT)));
+    }
+
+    @Benchmark
+    public List<SensorReading> recentProjected() {
+        String sensorId = randomSensor();
+        return readOnly.execute(status -> queryRepository.findRecent(sensorId, PageRequest.of(0, RECENT_LIMIT)));
+    }
+
+    @Benchmark
+    public List<SensorReading> rangeEntities() {
+        String sensorId = randomSensor();
+        LocalDateTime from = randomHour();
+        return readOnly.execute(status ->
+                readingRepository.findBySensorIdAndTimestampBetweenOrderByTimestampDesc(sensorId, from, from.plusHours(1)));
+    }
+
+    @Benchmark
+    public List<SensorReading> rangeProjected() {
+        String sensorId = randomSensor();
+        LocalDateTime from = randomHour();
+        return readOnly.execute(status -> queryRepository.findRange(sensorId, from, from.plusHours(1)));
+    }
+
+    private String randomSensor() {
+        return sensorId(ThreadLocalRandom.current().nextInt(sensors));
+    }
+
+    private LocalDateTime randomHour() {
+        return start.plusSeconds(ThreadLocalRandom.current().nextInt(Math.max(1, secondsPerSensor - 3600)));
+    }
+
+    private static String sensorId(int index) {
+        return "BENCH-QUERY-" + index;
+    }
+}
@@ -0,0 +1,67 @@
+package com.scada.monitoring.benchmark;
+
+import com.scada.monitoring.cache.SensorDictionary;
+import com.scada.monitoring.cache.SensorTable;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Per-sensor state lookup as done by each ingest listener, keyed by sensor ID string versus by
+ * {@link SensorDictionary} key. Each reading carries its own ID String instance, as it does when
+ * decoded from a request, so the string lookup pays for a character compare. Its hash is cached
+ * after the first iteration, which understates the cost for freshly decoded IDs.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class SensorLookupBenchmark {
+
+    private static final int READINGS = 1024;
+
+    @Param({"100", "10000"})
+    public int sensors;
+
+    private final ConcurrentHashMap<String, LongAdder> byId = new ConcurrentHashMap<>();
+    private final SensorTable<LongAdder> byKey = new SensorTable<>();
+    private String[] readingIds;
+    private int[] readingKeys;
+
+    @Setup
+    public void setUp() {
+        SensorDictionary dictionary = new SensorDictionary();
+        for (int i = 0; i < sensors; i++) {
+            String sensorId = "BENCH-LOOKUP-SENSOR-" + i;
+            byId.put(sensorId, new LongAdder());
+            byKey.computeIfAbsent(dictionary.keyOf(sensorId), key -> new LongAdder());
+        }
+        readingIds = new String[READINGS];
+        readingKeys = new int[READINGS];
+        for (int i = 0; i < READINGS; i++) {
+            String sensorId = new String("BENCH-LOOKUP-SENSOR-" + (i * 7919 % sensors));
+            readingIds[i] = sensorId;
+            readingKeys[i] = dictionary.keyOf(sensorId);
+        }
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(READINGS)
+    public void bySensorId() {
+        for (String sensorId : readingIds) {
+            byId.get(sensorId).increment();
+        }
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(READINGS)
+    public void bySensorKey() {
+        for (int key : readingKeys) {
+            byKey.get(key).increment();
+        }
+    }
+}
@@ -0,0 +1,66 @@
+package com.scada.monitoring.benchmark;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.scada.monitoring.dto.SensorReadingResponse;
+import com.scada.monitoring.entity.SensorReading;
+import com.scada.monitoring.service.SensorReadingService;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * {@code mapToResponse} plus Jackson serialization of a reading list, using an ObjectMapper
+ * configured the way Spring MVC builds its own.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class SerializationBenchmark {
+
+    @Param({"100", "10000"})
+    public int size;
+
+    private ObjectMapper objectMapper;
+    private List<SensorReading> readings;
+
+    @Setup
+    public void setUp() {
+        objectMapper = Jackson2ObjectMapperBuilder.json().build();
+        Random random = new Random(42);
+        LocalDateTime start = LocalDateTime.now().minusSeconds(size);
+        readings = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+            SensorReading reading = new SensorReading();
+            reading.setId((long) i);
+            reading.setSensorId("BENCH-JSON");
+            reading.setTemperature(60.0 + random.nextDouble() * 30.0);
+            reading.setPressure(20.0 + random.nextDouble() * 15.0);
+            reading.setMotorOn(true);
+            reading.setTimestamp(start.plusSeconds(i));
+            readings.add(reading);
+        }
+    }
+
+    @Benchmark
+    public List<SensorReadingResponse> mapToResponse() {
+        List<SensorReadingResponse> responses = new ArrayList<>(readings.size());
+        for (SensorReading reading : readings) {
+            responses.add(SensorReadingService.mapToResponse(reading));
+        }
+        return responses;
+    }
+
+    @Benchmark
+    public byte[] mapAndSerialize() throws JsonProcessingException {
+        return objectMapper.writeValueAsBytes(mapToResponse());
+    }
+}
@@ -0,0 +1,73 @@
+package com.scada.monitoring.benchmark;
+
+import com.scada.monitoring.dto.StreamIngestResponse;
+import com.scada.monitoring.service.ReadingStreamService;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * One NDJSON stream of {@value #LINES} readings through {@link ReadingStreamService}, from body
+ * bytes to the write-ahead log and the ingest queue, with the batch writer draining into the
+ * chosen storage backend. The HTTP layer is left out; the score is readings per second for a
+ * single stream. Values stay below the sensor thresholds: a reading that raises or clears an
+ * alarm writes the alarm to the database, and with random values on both sides of a threshold
+ * that write dominates.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(value = 1, jvmArgsAppend = "-Xmx2g")
+public class StreamIngestBenchmark {
+
+    private static final int SENSORS = 20;
+    private static final int LINES = 100_000;
+
+    @Param({"jpa", "columnar"})
+    public String backend;
+
+    private ConfigurableApplicationContext context;
+    private ReadingStreamService streamService;
+    private byte[] body;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        context = BenchmarkContext.start(
+                "--scada.storage.backend=" + backend,
+                "--scada.storage.columnar.data-dir=" + Files.createTempDirectory("jmh-stream-columnar"),
+                "--scada.ingest.wal.dir=" + Files.createTempDirectory("jmh-stream-wal"));
+        streamService = context.getBean(ReadingStreamService.class);
+
+        Random random = new Random(42);
+        StringBuilder ndjson = new StringBuilder(LINES * 90);
+        for (int i = 0; i < SENSORS; i++) {
+            BenchmarkContext.createSensor(context, "BENCH-STREAM-" + i);
+        }
+        for (int i = 0; i < LINES; i++) {
+            ndjson.append("{\"sensorId\":\"BENCH-STREAM-").append(i % SENSORS)
+                    .append("\",\"temperature\":").append(60.0 + random.nextDouble() * 15.0)
+                    .append(",\"pressure\":").append(20.0 + random.nextDouble() * 8.0)
+                    .append(",\"motorOn\":true}\n");
+        }
+        body = ndjson.toString().getBytes(StandardCharsets.UTF_8);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(LINES)
+    public StreamIngestResponse ingest() throws IOException {
+        return streamService.ingest(new ByteArrayInputStream(body));
+    }
+}
@@ -0,0 +1,76 @@
+package com.scada.monitoring.benchmark;
+
+import com.scada.monitoring.dto.TrendAnalysisResponse;
+import com.scada.monitoring.entity.SensorReading;
+import com.scada.monitoring.repository.SensorReadingBatchWriter;
+import com.scada.monitoring.service.SensorReadingService;
+import com.scada.monitoring.util.EpochTime;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * {@code getTrendAnalysis} over the last N stored readings of one sensor, with N readings loaded
+ * into H2 up front.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(value = 1, jvmArgsAppend = "-Xmx4g")
+public class TrendAnalysisBenchmark {
+
+    private static final String SENSOR_ID = "BENCH-TREND";
+    private static final int LOAD_BATCH = 10_000;
+
+    @Param({"100", "10000", "1000000"})
+    public int readings;
+
+    private ConfigurableApplicationContext context;
+    private SensorReadingService readingService;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        context = BenchmarkContext.start();
+        readingService = context.getBean(SensorReadingService.class);
+        BenchmarkContext.createSensor(context, SENSOR_ID);
+
+        SensorReadingBatchWriter writer = context.getBean(SensorReadingBatchWriter.class);
+        Random random = new Random(42);
+        LocalDateTime start = EpochTime.now().minusSeconds(readings);
+        List<SensorReading> batch = new ArrayList<>(LOAD_BATCH);
+        for (int i = 0; i < readings; i++) {
+            SensorReading reading = new SensorReading();
+            reading.setSensorId(SENSOR_ID);
+            reading.setTemperature(60.0 + random.nextDouble() * 30.0);
+            reading.setPressure(20.0 + random.nextDouble() * 15.0);
+            reading.setMotorOn(true);
+            reading.setTimestamp(start.plusSeconds(i));
+            reading.setTempWarning(reading.getTemperature() > 80.0);
+            batch.add(reading);
+            if (batch.size() == LOAD_BATCH) {
+                writer.insertBatch(batch);
+                batch.clear();
+            }
+        }
+        if (!batch.isEmpty()) {
+            writer.insertBatch(batch);
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public TrendAnalysisResponse getTrendAnalysis() {
+        return readingService.getTrendAnalysis(SENSOR_ID, readings);
+    }
+}
@@ -0,0 +1,68 @@
+package com.scada.monitoring.service;
+
+import com.scada.monitoring.benchmark.BenchmarkContext;
+import com.scada.monitoring.cache.SensorSnapshot;
+import com.scada.monitoring.dto.CreateReadingRequest;
+import com.scada.monitoring.entity.SensorReading;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Threshold check ({@code buildReading}) and warning-message rendering ({@code mapToResponse})
+ * in isolation, with no database access. Lives in the service package because {@code buildReading} is
+ * package-private.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ThresholdBenchmark {
+
+    private ConfigurableApplicationContext context;
+    private SensorReadingService readingService;
+    private SensorSnapshot sensor;
+    private CreateReadingRequest normal;
+    private CreateReadingRequest bothWarnings;
+
+    @Setup
+    public void setUp() {
+        context = BenchmarkContext.start();
+        readingService = context.getBean(SensorReadingService.class);
+        sensor = new SensorSnapshot(1L, "BENCH-THRESHOLD", 0, 80.0, 30.0, true);
+        normal = request(65.0, 22.0);
+        bothWarnings = request(95.0, 35.0);
+    }
+
+    @TearDown
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public SensorReading withinThresholds() {
+        return readingService.buildReading(normal, sensor);
+    }
+
+    @Benchmark
+    public SensorReading bothThresholdsExceeded() {
+        return readingService.buildReading(bothWarnings, sensor);
+    }
+
+    @Benchmark
+    public String renderWarningMessage() {
+        return SensorReadingService.mapToResponse(readingService.buildReading(bothWarnings, sensor)).getWarningMessage();
+    }
+
+    private static CreateReadingRequest request(double temperature, double pressure) {
+        CreateReadingRequest request = new CreateReadingRequest();
+        request.setSensorId("BENCH-THRESHOLD");
+        request.setTemperature(temperature);
+        request.setPressure(pressure);
+        request.setMotorOn(true);
+        return request;
+    }
+}
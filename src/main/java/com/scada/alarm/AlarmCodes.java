@@ -0,0 +1,103 @@
+package com.scada.monitoring.alarm;
+
+import com.scada.monitoring.entity.RuleType;
+import com.scada.monitoring.entity.RuleVariable;
+
+/**
+ * Alarms encoded as bits of an {@code int}. Ingest only computes the mask; the human-readable
+ * text is rendered from the mask and the stored limits when a response is built.
+ */
+public final class AlarmCodes {
+
+    public static final int NONE = 0;
+    public static final int HIGH_TEMPERATURE = 1;
+    public static final int HIGH_PRESSURE = 1 << 1;
+    public static final int LOW_TEMPERATURE = 1 << 2;
+    public static final int LOW_PRESSURE = 1 << 3;
+    public static final int TEMPERATURE_RATE = 1 << 4;
+    public static final int PRESSURE_RATE = 1 << 5;
+
+    public static final int TEMPERATURE_ALARMS = HIGH_TEMPERATURE | LOW_TEMPERATURE | TEMPERATURE_RATE;
+    public static final int PRESSURE_ALARMS = HIGH_PRESSURE | LOW_PRESSURE | PRESSURE_RATE;
+
+    private AlarmCodes() {
+    }
+
+    public static int codeFor(RuleVariable variable, RuleType type) {
+        boolean temperature = variable == RuleVariable.TEMPERATURE;
+        switch (type) {
+            case HIGH:
+                return temperature ? HIGH_TEMPERATURE : HIGH_PRESSURE;
+            case LOW:
+                return temperature ? LOW_TEMPERATURE : LOW_PRESSURE;
+            default:
+                return temperature ? TEMPERATURE_RATE : PRESSURE_RATE;
+        }
+    }
+
+    public static boolean isTemperature(int code) {
+        return has(code, TEMPERATURE_ALARMS);
+    }
+
+    /**
+     * Name of a single alarm bit, e.g. {@code HIGH_TEMPERATURE}.
+     */
+    public static String name(int code) {
+        switch (code) {
+            case HIGH_TEMPERATURE:
+                return "HIGH_TEMPERATURE";
+            case HIGH_PRESSURE:
+                return "HIGH_PRESSURE";
+            case LOW_TEMPERATURE:
+                return "LOW_TEMPERATURE";
+            case LOW_PRESSURE:
+                return "LOW_PRESSURE";
+            case TEMPERATURE_RATE:
+                return "TEMPERATURE_RATE";
+            case PRESSURE_RATE:
+                return "PRESSURE_RATE";
+            default:
+                return "UNKNOWN";
+        }
+    }
+
+    public static boolean has(int mask, int code) {
+        return (mask & code) != 0;
+    }
+
+    /**
+     * Renders the warning text for a mask, or null when no alarm is set. {@code tempLimit} and
+     * {@code pressureLimit} are the high limits the reading was evaluated against.
+     */
+    public static String describe(int mask, double temperature, double pressure, double tempLimit, double pressureLimit) {
+        if (mask == NONE) {
+            return null;
+        }
+        StringBuilder message = new StringBuilder(96);
+        if (has(mask, HIGH_TEMPERATURE)) {
+            separate(message).append("HIGH TEMPERATURE WARNING: ").append(temperature).append("°C >= ")
+                    .append(tempLimit).append("°C");
+        }
+        if (has(mask, HIGH_PRESSURE)) {
+            separate(message).append("HIGH PRESSURE WARNING: ").append(pressure).append(" PSI >= ")
+                    .append(pressureLimit).append(" PSI");
+        }
+        if (has(mask, LOW_TEMPERATURE)) {
+            separate(message).append("LOW TEMPERATURE WARNING: ").append(temperature).append("°C");
+        }
+        if (has(mask, LOW_PRESSURE)) {
+            separate(message).append("LOW PRESSURE WARNING: ").append(pressure).append(" PSI");
+        }
+        if (has(mask, TEMPERATURE_RATE)) {
+            separate(message).append("TEMPERATURE RATE OF CHANGE WARNING: ").append(temperature).append("°C");
+        }
+        if (has(mask, PRESSURE_RATE)) {
+            separate(message).append("PRESSURE RATE OF CHANGE WARNING: ").append(pressure).append(" PSI");
+        }
+        return message.toString();
+    }
+
+    private static StringBuilder separate(StringBuilder message) {
+        return message.length() > 0 ? message.append(" | ") : message;
+    }
+}
@@ -0,0 +1,95 @@
+package com.scada.monitoring.alarm;
+
+import com.scada.monitoring.cache.SensorDictionary;
+import com.scada.monitoring.cache.SensorSnapshot;
+import com.scada.monitoring.cache.SensorTable;
+import com.scada.monitoring.entity.SensorReading;
+import com.scada.monitoring.repository.AlarmRuleRepository;
+import com.scada.monitoring.util.EpochTime;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+
+/**
+ * Evaluates each reading against its sensor's compiled alarm rules.
+ * <p>
+ * Rules are loaded and compiled on a sensor's first reading and again after
+ * {@link #invalidate}; between those points evaluation never touches the database.
+ */
+@Component
+@Slf4j
+public class AlarmEngine {
+
+    private final AlarmRuleRepository ruleRepository;
+    private final SensorDictionary dictionary;
+    private final SensorTable<SensorAlarmState> states = new SensorTable<>();
+
+    public AlarmEngine(AlarmRuleRepository ruleRepository, SensorDictionary dictionary) {
+        this.ruleRepository = ruleRepository;
+        this.dictionary = dictionary;
+    }
+
+    /**
+     * Sets the alarm mask, warning flags and reported limits of {@code reading}.
+     */
+    public void evaluate(SensorSnapshot sensor, SensorReading reading) {
+        SensorAlarmState state = stateFor(sensor);
+        int mask = state.evaluate(reading.getTemperature(), reading.getPressure(), reading.isMotorOn(),
+                EpochTime.toEpochMillis(reading.getTimestamp()));
+
+        reading.setAlarmMask(mask);
+        reading.setTempWarning(AlarmCodes.has(mask, AlarmCodes.TEMPERATURE_ALARMS));
+        reading.setPressureWarning(AlarmCodes.has(mask, AlarmCodes.PRESSURE_ALARMS));
+        reading.setTempLimit(state.ruleSet.tempLimit);
+        reading.setPressureLimit(state.ruleSet.pressureLimit);
+    }
+
+    /**
+     * The sensor's alarm state before a batch of readings is evaluated, so that the batch can be
+     * undone with {@link #rollback} if it is not stored.
+     */
+    public Checkpoint checkpoint(SensorSnapshot sensor) {
+        SensorAlarmState state = stateFor(sensor);
+        return new Checkpoint(state, state.snapshot());
+    }
+
+    /**
+     * Undoes the {@code readings} evaluations made since {@code checkpoint}. Nothing is undone if
+     * the sensor has evaluated other readings since, or its rules were recompiled.
+     *
+     * @return whether the state was put back
+     */
+    public boolean rollback(Checkpoint checkpoint, int readings) {
+        return checkpoint.state.restore(checkpoint.snapshot, readings);
+    }
+
+    /**
+     * Drops the compiled rules and alarm state of a sensor; they are rebuilt on its next reading.
+     */
+    public void invalidate(String sensorId) {
+        states.remove(dictionary.find(sensorId));
+    }
+
+    private SensorAlarmState stateFor(SensorSnapshot sensor) {
+        SensorAlarmState state = states.get(sensor.getKey());
+        if (state != null && state.ruleSet.isCurrentFor(sensor)) {
+            return state;
+        }
+        CompiledRuleSet ruleSet = CompiledRuleSet.compile(
+                ruleRepository.findBySensorIdAndEnabledTrueOrderByIdAsc(sensor.getSensorId()), sensor);
+        log.debug("Compiled {} alarm rules for sensor {}", ruleSet.rules.length, sensor.getSensorId());
+        SensorAlarmState compiled = new SensorAlarmState(ruleSet);
+        // Another thread may have compiled concurrently; keep whichever is current
+        return states.compute(sensor.getKey(), existing ->
+                existing != null && existing != state && existing.ruleSet.isCurrentFor(sensor) ? existing : compiled);
+    }
+
+    public static final class Checkpoint {
+        private final SensorAlarmState state;
+        private final SensorAlarmState.Snapshot snapshot;
+
+        private Checkpoint(SensorAlarmState state, SensorAlarmState.Snapshot snapshot) {
+            this.state = state;
+            this.snapshot = snapshot;
+        }
+    }
+}
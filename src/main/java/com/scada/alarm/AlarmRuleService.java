@@ -0,0 +1,102 @@
+package com.scada.monitoring.alarm;
+
+import com.scada.monitoring.cache.SensorRegistry;
+import com.scada.monitoring.dto.AlarmRuleResponse;
+import com.scada.monitoring.dto.CreateAlarmRuleRequest;
+import com.scada.monitoring.entity.AlarmRule;
+import com.scada.monitoring.entity.MotorCondition;
+import com.scada.monitoring.repository.AlarmRuleRepository;
+import com.scada.monitoring.util.AfterCommit;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.List;
+import java.util.stream.Collectors;
+
+/**
+ * Stores alarm rules and tells {@link AlarmEngine} to recompile a sensor's rules once a change commits.
+ * Once a sensor has any rule, its thresholds no longer raise alarms on their own.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class AlarmRuleService {
+
+    private final AlarmRuleRepository ruleRepository;
+    private final SensorRegistry sensorRegistry;
+    private final AlarmEngine alarmEngine;
+
+    @Transactional
+    public AlarmRuleResponse createRule(CreateAlarmRuleRequest request) {
+        log.info("Creating {} {} alarm rule for sensor {}", request.getType(), request.getVariable(), request.getSensorId());
+        if (!sensorRegistry.find(request.getSensorId()).isPresent()) {
+            throw new IllegalArgumentException("Sensor not found: " + request.getSensorId());
+        }
+
+        if (request.getCombinator() != null && (request.getSecondVariable() == null
+                || request.getSecondType() == null || request.getSecondLimit() == null)) {
+            throw new IllegalArgumentException("A combined rule needs secondVariable, secondType and secondLimit");
+        }
+
+        AlarmRule rule = new AlarmRule();
+        rule.setSensorId(request.getSensorId());
+        rule.setVariable(request.getVariable());
+        rule.setType(request.getType());
+        rule.setLimit(request.getLimit());
+        rule.setDeadband(request.getDeadband() != null ? request.getDeadband() : 0.0);
+        rule.setDelayOnMs(request.getDelayOnMs() != null ? request.getDelayOnMs() : 0L);
+        rule.setDelayOffMs(request.getDelayOffMs() != null ? request.getDelayOffMs() : 0L);
+        rule.setMotorCondition(request.getMotorCondition() != null ? request.getMotorCondition() : MotorCondition.ANY);
+        rule.setEnabled(request.getEnabled() != null ? request.getEnabled() : true);
+        if (request.getCombinator() != null) {
+            rule.setCombinator(request.getCombinator());
+            rule.setSecondVariable(request.getSecondVariable());
+            rule.setSecondType(request.getSecondType());
+            rule.setSecondLimit(request.getSecondLimit());
+            rule.setSecondDeadband(request.getSecondDeadband() != null ? request.getSecondDeadband() : 0.0);
+        }
+
+        AlarmRule saved = ruleRepository.save(rule);
+        recompile(saved.getSensorId());
+        return mapToResponse(saved);
+    }
+
+    @Transactional(readOnly = true)
+    public List<AlarmRuleResponse> getRules(String sensorId) {
+        log.debug("Fetching alarm rules for sensor: {}", sensorId);
+        List<AlarmRule> rules = sensorId != null && !sensorId.isEmpty()
+                ? ruleRepository.findBySensorIdOrderByIdAsc(sensorId)
+                : ruleRepository.findAll();
+        return rules.stream()
+                .map(this::mapToResponse)
+                .collect(Collectors.toList());
+    }
+
+    @Transactional
+    public void deleteRule(Long id) {
+        log.info("Deleting alarm rule: {}", id);
+        AlarmRule rule = ruleRepository.findById(id)
+                .orElseThrow(() -> new IllegalArgumentException("Alarm rule not found: " + id));
+        ruleRepository.delete(rule);
+        recompile(rule.getSensorId());
+    }
+
+    @Transactional
+    public void deleteRulesForSensor(String sensorId) {
+        ruleRepository.deleteBySensorId(sensorId);
+        recompile(sensorId);
+    }
+
+    private void recompile(String sensorId) {
+        AfterCommit.run(() -> alarmEngine.invalidate(sensorId));
+    }
+
+    private AlarmRuleResponse mapToResponse(AlarmRule rule) {
+        return new AlarmRuleResponse(rule.getId(), rule.getSensorId(), rule.getVariable(), rule.getType(),
+                rule.getLimit(), rule.getDeadband(), rule.getDelayOnMs(), rule.getDelayOffMs(),
+                rule.getMotorCondition(), rule.isEnabled(), rule.getCreatedAt(), rule.getCombinator(),
+                rule.getSecondVariable(), rule.getSecondType(), rule.getSecondLimit(), rule.getSecondDeadband());
+    }
+}
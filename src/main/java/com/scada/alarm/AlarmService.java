@@ -0,0 +1,262 @@
+package com.scada.monitoring.alarm;
+
+import com.scada.monitoring.cache.SensorDictionary;
+import com.scada.monitoring.cache.SensorTable;
+import com.scada.monitoring.dto.AlarmResponse;
+import com.scada.monitoring.entity.Alarm;
+import com.scada.monitoring.entity.AlarmState;
+import com.scada.monitoring.entity.SensorReading;
+import com.scada.monitoring.ingest.ReadingIngestListener;
+import com.scada.monitoring.repository.AlarmRepository;
+import com.scada.monitoring.util.EpochTime;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Service;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.stream.Collectors;
+
+/**
+ * Alarm lifecycle driven by the alarm mask of each ingested reading: a bit that turns on
+ * raises an alarm, a bit that turns off clears it. Operators acknowledge alarms through
+ * {@link #acknowledge}.
+ * <p>
+ * Every alarm that is not CLOSED is kept in an in-memory index, so listing what is alarming
+ * now costs O(open alarms) and never reads the history. The {@code alarms} table is written
+ * only on transitions. A reading whose mask did not change costs one array lookup by sensor key.
+ * <p>
+ * Readings of a sensor from concurrent requests can be published in either order. A reading
+ * older than the one behind the sensor's last transition is ignored, so the alarms follow the
+ * newest sample rather than whichever request published last.
+ */
+@Service
+@Slf4j
+public class AlarmService implements ReadingIngestListener {
+
+    private final AlarmRepository alarmRepository;
+    private final SensorDictionary dictionary;
+    private final SensorTable<SensorAlarms> bySensor = new SensorTable<>();
+    private final ConcurrentHashMap<Long, Alarm> open = new ConcurrentHashMap<>();
+    private final ReentrantLock orphanLock = new ReentrantLock();
+
+    public AlarmService(AlarmRepository alarmRepository, SensorDictionary dictionary) {
+        this.alarmRepository = alarmRepository;
+        this.dictionary = dictionary;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void load() {
+        List<Alarm> alarms = alarmRepository.findByStateNot(AlarmState.CLOSED);
+        for (Alarm alarm : alarms) {
+            SensorAlarms sensor = bySensor.computeIfAbsent(dictionary.keyOf(alarm.getSensorId()), k -> new SensorAlarms());
+            sensor.byCode.put(alarm.getCode(), alarm);
+            if (alarm.getState() != AlarmState.CLEARED) {
+                sensor.mask |= alarm.getCode();
+            }
+            open.put(alarm.getId(), alarm);
+        }
+        log.info("Alarm index loaded with {} open alarms", alarms.size());
+    }
+
+    @Override
+    public void onReading(SensorReading reading) {
+        int mask = reading.getAlarmMask();
+        int key = dictionary.keyOf(reading);
+        SensorAlarms sensor = bySensor.get(key);
+        if (sensor == null) {
+            if (mask == AlarmCodes.NONE) {
+                return;
+            }
+            sensor = bySensor.computeIfAbsent(key, k -> new SensorAlarms());
+        }
+        if (sensor.mask == mask) {
+            return;
+        }
+
+        sensor.lock.lock();
+        try {
+            if (sensor.transitionAt != null && reading.getTimestamp().isBefore(sensor.transitionAt)) {
+                return;
+            }
+            sensor.transitionAt = reading.getTimestamp();
+            int raised = mask & ~sensor.mask;
+            int cleared = sensor.mask & ~mask;
+            sensor.mask = mask;
+            for (int bits = raised; bits != 0; bits &= bits - 1) {
+                raise(sensor, reading, Integer.lowestOneBit(bits));
+            }
+            for (int bits = cleared; bits != 0; bits &= bits - 1) {
+                clear(sensor, reading.getSensorId(), Integer.lowestOneBit(bits), reading.getTimestamp());
+            }
+        } finally {
+            sensor.lock.unlock();
+        }
+    }
+
+    @Override
+    public void onSensorRemoved(String sensorId) {
+        SensorAlarms sensor = bySensor.remove(dictionary.find(sensorId));
+        if (sensor == null) {
+            return;
+        }
+        sensor.lock.lock();
+        try {
+            LocalDateTime now = EpochTime.now();
+            for (Alarm alarm : sensor.byCode.values()) {
+                if (alarm.getClearedAt() == null) {
+                    alarm.setClearedAt(now);
+                }
+                alarm.setState(AlarmState.CLOSED);
+                alarmRepository.save(alarm);
+                open.remove(alarm.getId());
+            }
+            sensor.byCode.clear();
+        } finally {
+            sensor.lock.unlock();
+        }
+    }
+
+    /**
+     * Alarms that are active or still unacknowledged, newest first, optionally for one sensor.
+     */
+    public List<AlarmResponse> getOpenAlarms(String sensorId) {
+        List<Alarm> alarms = new ArrayList<>();
+        if (sensorId != null && !sensorId.isEmpty()) {
+            SensorAlarms sensor = bySensor.get(dictionary.find(sensorId));
+            if (sensor != null) {
+                sensor.lock.lock();
+                try {
+                    alarms.addAll(sensor.byCode.values());
+                } finally {
+                    sensor.lock.unlock();
+                }
+            }
+        } else {
+            alarms.addAll(open.values());
+        }
+        return alarms.stream()
+                .sorted((a, b) -> b.getRaisedAt().compareTo(a.getRaisedAt()))
+                .map(AlarmService::mapToResponse)
+                .collect(Collectors.toList());
+    }
+
+    public int getOpenAlarmCount() {
+        return open.size();
+    }
+
+    /**
+     * Acknowledges an open alarm. An acknowledged alarm whose condition has already cleared is closed.
+     */
+    public AlarmResponse acknowledge(Long alarmId, String user) {
+        Alarm alarm = open.get(alarmId);
+        if (alarm == null) {
+            throw new IllegalArgumentException("Open alarm not found: " + alarmId);
+        }
+        SensorAlarms sensor = bySensor.get(dictionary.find(alarm.getSensorId()));
+        // An alarm whose sensor was removed has no per-sensor lock; those share one
+        ReentrantLock lock = sensor != null ? sensor.lock : orphanLock;
+        lock.lock();
+        try {
+            if (alarm.getAcknowledgedAt() == null) {
+                log.info("Alarm {} ({} on sensor {}) acknowledged by {}", alarm.getId(), AlarmCodes.name(alarm.getCode()),
+                        alarm.getSensorId(), user);
+                alarm.setAcknowledgedAt(EpochTime.now());
+                alarm.setAcknowledgedBy(user);
+                if (alarm.getState() == AlarmState.CLEARED) {
+                    close(sensor, alarm);
+                } else {
+                    alarm.setState(AlarmState.ACKNOWLEDGED);
+                }
+                alarmRepository.save(alarm);
+            }
+            return mapToResponse(alarm);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public List<AlarmResponse> getHistory(String sensorId, int limit) {
+        PageRequest page = PageRequest.of(0, limit);
+        List<Alarm> alarms = sensorId != null && !sensorId.isEmpty()
+                ? alarmRepository.findBySensorIdOrderByRaisedAtDesc(sensorId, page)
+                : alarmRepository.findAllByOrderByRaisedAtDesc(page);
+        return alarms.stream()
+                .map(AlarmService::mapToResponse)
+                .collect(Collectors.toList());
+    }
+
+    private void raise(SensorAlarms sensor, SensorReading reading, int code) {
+        Alarm alarm = sensor.byCode.get(code);
+        if (alarm != null) {
+            // Returned before an operator acknowledged the previous occurrence: re-activate it
+            alarm.setState(alarm.getAcknowledgedAt() != null ? AlarmState.ACKNOWLEDGED : AlarmState.ACTIVE);
+            alarm.setClearedAt(null);
+            alarmRepository.save(alarm);
+            return;
+        }
+
+        boolean temperature = AlarmCodes.isTemperature(code);
+        alarm = new Alarm();
+        alarm.setSensorId(reading.getSensorId());
+        alarm.setCode(code);
+        alarm.setState(AlarmState.ACTIVE);
+        alarm.setValue(temperature ? reading.getTemperature() : reading.getPressure());
+        if (code == AlarmCodes.HIGH_TEMPERATURE || code == AlarmCodes.HIGH_PRESSURE) {
+            alarm.setLimit(temperature ? reading.getTempLimit() : reading.getPressureLimit());
+        }
+        alarm.setRaisedAt(reading.getTimestamp());
+        Alarm saved = alarmRepository.save(alarm);
+        sensor.byCode.put(code, saved);
+        open.put(saved.getId(), saved);
+        log.warn("Alarm raised: {} on sensor {} (value {})", AlarmCodes.name(code), saved.getSensorId(), saved.getValue());
+    }
+
+    private void clear(SensorAlarms sensor, String sensorId, int code, LocalDateTime timestamp) {
+        Alarm alarm = sensor.byCode.get(code);
+        if (alarm == null) {
+            return;
+        }
+        alarm.setClearedAt(timestamp);
+        if (alarm.getAcknowledgedAt() != null) {
+            close(sensor, alarm);
+        } else {
+            alarm.setState(AlarmState.CLEARED);
+        }
+        alarmRepository.save(alarm);
+        log.info("Alarm cleared: {} on sensor {}", AlarmCodes.name(code), sensorId);
+    }
+
+    private void close(SensorAlarms sensor, Alarm alarm) {
+        alarm.setState(AlarmState.CLOSED);
+        open.remove(alarm.getId());
+        if (sensor != null) {
+            sensor.byCode.remove(alarm.getCode());
+        }
+    }
+
+    static AlarmResponse mapToResponse(Alarm alarm) {
+        double limit = alarm.getLimit() != null ? alarm.getLimit() : 0.0;
+        return new AlarmResponse(alarm.getId(), alarm.getSensorId(), alarm.getCode(), AlarmCodes.name(alarm.getCode()),
+                alarm.getState(), alarm.getValue(), alarm.getLimit(),
+                AlarmCodes.describe(alarm.getCode(), alarm.getValue(), alarm.getValue(), limit, limit),
+                alarm.getRaisedAt(), alarm.getAcknowledgedAt(), alarm.getAcknowledgedBy(), alarm.getClearedAt());
+    }
+
+    private static final class SensorAlarms {
+        /** Alarm mask of the last reading; written under the lock, read without it as a fast path. */
+        private volatile int mask;
+        /** Sample time of the reading behind the last transition; guarded by the lock. */
+        private LocalDateTime transitionAt;
+        private final Map<Integer, Alarm> byCode = new HashMap<>();
+        /** Held across alarm table writes, so a lock rather than a monitor that would pin a virtual thread. */
+        private final ReentrantLock lock = new ReentrantLock();
+    }
+}
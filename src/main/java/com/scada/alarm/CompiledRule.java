@@ -0,0 +1,61 @@
+package com.scada.monitoring.alarm;
+
+import com.scada.monitoring.entity.MotorCondition;
+import com.scada.monitoring.entity.RuleCombinator;
+
+final class CompiledRule {
+    final int code;
+    final boolean temperature;
+    final ConditionEvaluator condition;
+    /** Null for a single-condition rule. */
+    final RuleCombinator combinator;
+    final boolean secondTemperature;
+    final ConditionEvaluator second;
+    final MotorCondition motorCondition;
+    final long delayOnMs;
+    final long delayOffMs;
+    /** Whether either condition needs the rate of change. */
+    final boolean usesRate;
+
+    CompiledRule(int code, boolean temperature, ConditionEvaluator condition, MotorCondition motorCondition,
+                 long delayOnMs, long delayOffMs) {
+        this(code, temperature, condition, null, false, null, motorCondition, delayOnMs, delayOffMs);
+    }
+
+    CompiledRule(int code, boolean temperature, ConditionEvaluator condition, RuleCombinator combinator,
+                 boolean secondTemperature, ConditionEvaluator second, MotorCondition motorCondition,
+                 long delayOnMs, long delayOffMs) {
+        this.code = code;
+        this.temperature = temperature;
+        this.condition = condition;
+        this.combinator = combinator;
+        this.secondTemperature = secondTemperature;
+        this.second = second;
+        this.motorCondition = motorCondition;
+        this.delayOnMs = delayOnMs;
+        this.delayOffMs = delayOffMs;
+        this.usesRate = condition instanceof ConditionEvaluator.RateOfChange
+                || second instanceof ConditionEvaluator.RateOfChange;
+    }
+
+    /**
+     * Raw condition, before delays: {@code (first [AND|OR second]) AND motor}. Both conditions
+     * use their clear levels while the rule is active.
+     */
+    boolean test(double temperature, double temperatureRate, double pressure, double pressureRate,
+                 boolean motorOn, boolean active) {
+        if (!motorCondition.matches(motorOn)) {
+            return false;
+        }
+        boolean first = this.temperature
+                ? condition.test(temperature, temperatureRate, active)
+                : condition.test(pressure, pressureRate, active);
+        if (combinator == null) {
+            return first;
+        }
+        boolean other = secondTemperature
+                ? second.test(temperature, temperatureRate, active)
+                : second.test(pressure, pressureRate, active);
+        return combinator.combine(first, other);
+    }
+}
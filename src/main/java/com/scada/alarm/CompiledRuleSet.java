@@ -0,0 +1,93 @@
+package com.scada.monitoring.alarm;
+
+import com.scada.monitoring.cache.SensorSnapshot;
+import com.scada.monitoring.entity.AlarmRule;
+import com.scada.monitoring.entity.MotorCondition;
+import com.scada.monitoring.entity.RuleType;
+import com.scada.monitoring.entity.RuleVariable;
+
+import java.util.List;
+
+/**
+ * Immutable, compiled form of one sensor's alarm rules. A sensor without configured rules gets
+ * a high-limit rule per variable from its thresholds, which is the original {@code >=} check.
+ */
+final class CompiledRuleSet {
+
+    final CompiledRule[] rules;
+    final boolean usesRate;
+    /** High limits reported with each reading so its warning text can be rendered later. */
+    final double tempLimit;
+    final double pressureLimit;
+    private final boolean fromThresholds;
+
+    private CompiledRuleSet(CompiledRule[] rules, double tempLimit, double pressureLimit, boolean fromThresholds) {
+        this.rules = rules;
+        this.tempLimit = tempLimit;
+        this.pressureLimit = pressureLimit;
+        this.fromThresholds = fromThresholds;
+        boolean rate = false;
+        for (CompiledRule rule : rules) {
+            rate |= rule.usesRate;
+        }
+        this.usesRate = rate;
+    }
+
+    static CompiledRuleSet compile(List<AlarmRule> definitions, SensorSnapshot sensor) {
+        if (definitions.isEmpty()) {
+            return new CompiledRuleSet(new CompiledRule[]{
+                    new CompiledRule(AlarmCodes.HIGH_TEMPERATURE, true,
+                            new ConditionEvaluator.High(sensor.getTempThreshold(), 0), MotorCondition.ANY, 0, 0),
+                    new CompiledRule(AlarmCodes.HIGH_PRESSURE, false,
+                            new ConditionEvaluator.High(sensor.getPressureThreshold(), 0), MotorCondition.ANY, 0, 0)
+            }, sensor.getTempThreshold(), sensor.getPressureThreshold(), true);
+        }
+
+        CompiledRule[] rules = new CompiledRule[definitions.size()];
+        double tempLimit = sensor.getTempThreshold();
+        double pressureLimit = sensor.getPressureThreshold();
+        boolean tempLimitSet = false;
+        boolean pressureLimitSet = false;
+        for (int i = 0; i < rules.length; i++) {
+            AlarmRule rule = definitions.get(i);
+            boolean temperature = rule.getVariable() == RuleVariable.TEMPERATURE;
+            boolean combined = rule.getCombinator() != null;
+            // A combined rule raises the code of its first condition
+            rules[i] = new CompiledRule(AlarmCodes.codeFor(rule.getVariable(), rule.getType()), temperature,
+                    condition(rule.getType(), rule.getLimit(), rule.getDeadband()), rule.getCombinator(),
+                    combined && rule.getSecondVariable() == RuleVariable.TEMPERATURE,
+                    combined ? condition(rule.getSecondType(), rule.getSecondLimit(), rule.getSecondDeadband()) : null,
+                    rule.getMotorCondition(), rule.getDelayOnMs(), rule.getDelayOffMs());
+            if (rule.getType() == RuleType.HIGH) {
+                // Report the lowest high limit, i.e. the first one a rising value trips
+                if (temperature) {
+                    tempLimit = tempLimitSet ? Math.min(tempLimit, rule.getLimit()) : rule.getLimit();
+                    tempLimitSet = true;
+                } else {
+                    pressureLimit = pressureLimitSet ? Math.min(pressureLimit, rule.getLimit()) : rule.getLimit();
+                    pressureLimitSet = true;
+                }
+            }
+        }
+        return new CompiledRuleSet(rules, tempLimit, pressureLimit, false);
+    }
+
+    /**
+     * False when the rules were derived from thresholds that have since changed.
+     */
+    boolean isCurrentFor(SensorSnapshot sensor) {
+        return !fromThresholds
+                || (tempLimit == sensor.getTempThreshold() && pressureLimit == sensor.getPressureThreshold());
+    }
+
+    private static ConditionEvaluator condition(RuleType type, double limit, double deadband) {
+        switch (type) {
+            case HIGH:
+                return new ConditionEvaluator.High(limit, deadband);
+            case LOW:
+                return new ConditionEvaluator.Low(limit, deadband);
+            default:
+                return new ConditionEvaluator.RateOfChange(limit, deadband);
+        }
+    }
+}
@@ -0,0 +1,61 @@
+package com.scada.monitoring.alarm;
+
+/**
+ * One compiled alarm condition. Implementations hold their limits in final fields so the
+ * per-reading check is a couple of comparisons with no lookups or allocation.
+ */
+abstract class ConditionEvaluator {
+
+    /**
+     * @param value  current value of the rule's variable
+     * @param rate   change per second since the previous reading, NaN for the first one
+     * @param active whether the alarm is currently active, for hysteresis
+     */
+    abstract boolean test(double value, double rate, boolean active);
+
+    static final class High extends ConditionEvaluator {
+        private final double limit;
+        private final double clearBelow;
+
+        High(double limit, double deadband) {
+            this.limit = limit;
+            this.clearBelow = limit - deadband;
+        }
+
+        @Override
+        boolean test(double value, double rate, boolean active) {
+            return value >= (active ? clearBelow : limit);
+        }
+    }
+
+    static final class Low extends ConditionEvaluator {
+        private final double limit;
+        private final double clearAbove;
+
+        Low(double limit, double deadband) {
+            this.limit = limit;
+            this.clearAbove = limit + deadband;
+        }
+
+        @Override
+        boolean test(double value, double rate, boolean active) {
+            return value <= (active ? clearAbove : limit);
+        }
+    }
+
+    static final class RateOfChange extends ConditionEvaluator {
+        private final double limit;
+        private final double clearBelow;
+
+        RateOfChange(double limit, double deadband) {
+            this.limit = limit;
+            this.clearBelow = limit - deadband;
+        }
+
+        @Override
+        boolean test(double value, double rate, boolean active) {
+            // NaN (no previous reading) compares false
+            return Math.abs(rate) >= (active ? clearBelow : limit);
+        }
+    }
+}
@@ -0,0 +1,131 @@
+package com.scada.monitoring.alarm;
+
+import java.util.Arrays;
+
+/**
+ * Mutable per-sensor state for a {@link CompiledRuleSet}: which rules are active, when a
+ * pending delay-on/off started, and the previous values for rate-of-change. Evaluation uses
+ * only primitive arrays and fields, so it does not allocate.
+ */
+final class SensorAlarmState {
+
+    private static final long NOT_PENDING = Long.MIN_VALUE;
+
+    final CompiledRuleSet ruleSet;
+    private final boolean[] active;
+    private final long[] pendingSince;
+
+    private long lastMillis = NOT_PENDING;
+    private double lastTemperature;
+    private double lastPressure;
+    private long evaluations;
+
+    SensorAlarmState(CompiledRuleSet ruleSet) {
+        this.ruleSet = ruleSet;
+        this.active = new boolean[ruleSet.rules.length];
+        this.pendingSince = new long[ruleSet.rules.length];
+        Arrays.fill(pendingSince, NOT_PENDING);
+    }
+
+    /**
+     * Evaluates every rule against one reading and returns the {@link AlarmCodes} mask of the
+     * rules that are active afterwards. Readings of a sensor should be evaluated in time order; a
+     * reading sampled no later than the previous one has no rate of change, so it leaves
+     * rate-of-change rules as they are.
+     */
+    synchronized int evaluate(double temperature, double pressure, boolean motorOn, long epochMillis) {
+        double temperatureRate = Double.NaN;
+        double pressureRate = Double.NaN;
+        boolean noRate = false;
+        if (ruleSet.usesRate) {
+            noRate = lastMillis != NOT_PENDING && epochMillis <= lastMillis;
+            if (lastMillis != NOT_PENDING && epochMillis > lastMillis) {
+                double seconds = (epochMillis - lastMillis) / 1000.0;
+                temperatureRate = (temperature - lastTemperature) / seconds;
+                pressureRate = (pressure - lastPressure) / seconds;
+            }
+            if (epochMillis > lastMillis) {
+                lastMillis = epochMillis;
+                lastTemperature = temperature;
+                lastPressure = pressure;
+            }
+        }
+
+        evaluations++;
+        CompiledRule[] rules = ruleSet.rules;
+        int mask = AlarmCodes.NONE;
+        for (int i = 0; i < rules.length; i++) {
+            CompiledRule rule = rules[i];
+            if (noRate && rule.usesRate) {
+                if (active[i]) {
+                    mask |= rule.code;
+                }
+                continue;
+            }
+            boolean raw = rule.test(temperature, temperatureRate, pressure, pressureRate, motorOn, active[i]);
+
+            if (raw == active[i]) {
+                pendingSince[i] = NOT_PENDING;
+            } else {
+                if (pendingSince[i] == NOT_PENDING) {
+                    pendingSince[i] = epochMillis;
+                }
+                if (epochMillis - pendingSince[i] >= (raw ? rule.delayOnMs : rule.delayOffMs)) {
+                    active[i] = raw;
+                    pendingSince[i] = NOT_PENDING;
+                }
+            }
+            if (active[i]) {
+                mask |= rule.code;
+            }
+        }
+        return mask;
+    }
+
+    /**
+     * Copy of the state, to put back with {@link #restore} if the readings evaluated after it are
+     * discarded.
+     */
+    synchronized Snapshot snapshot() {
+        return new Snapshot(active.clone(), pendingSince.clone(), lastMillis, lastTemperature, lastPressure,
+                evaluations);
+    }
+
+    /**
+     * Puts back {@code snapshot} if exactly {@code evaluated} readings were evaluated since it was
+     * taken. Otherwise readings that are kept have built on the state since, and it stays.
+     *
+     * @return whether the state was put back
+     */
+    synchronized boolean restore(Snapshot snapshot, int evaluated) {
+        if (evaluations != snapshot.evaluations + evaluated) {
+            return false;
+        }
+        System.arraycopy(snapshot.active, 0, active, 0, active.length);
+        System.arraycopy(snapshot.pendingSince, 0, pendingSince, 0, pendingSince.length);
+        lastMillis = snapshot.lastMillis;
+        lastTemperature = snapshot.lastTemperature;
+        lastPressure = snapshot.lastPressure;
+        evaluations = snapshot.evaluations;
+        return true;
+    }
+
+    static final class Snapshot {
+        private final boolean[] active;
+        private final long[] pendingSince;
+        private final long lastMillis;
+        private final double lastTemperature;
+        private final double lastPressure;
+        private final long evaluations;
+
+        private Snapshot(boolean[] active, long[] pendingSince, long lastMillis, double lastTemperature,
+                         double lastPressure, long evaluations) {
+            this.active = active;
+            this.pendingSince = pendingSince;
+            this.lastMillis = lastMillis;
+            this.lastTemperature = lastTemperature;
+            this.lastPressure = lastPressure;
+            this.evaluations = evaluations;
+        }
+    }
+}
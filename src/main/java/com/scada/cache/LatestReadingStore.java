@@ -0,0 +1,76 @@
+package com.scada.monitoring.cache;
+
+import com.scada.monitoring.entity.SensorReading;
+import com.scada.monitoring.ingest.ReadingIngestListener;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * One slot per sensor holding its most recent reading. Writers swap the slot with a CAS that
+ * only moves forward in time, so readers never lock and a late-arriving older reading can
+ * never replace a newer one.
+ */
+@Component
+public class LatestReadingStore implements ReadingIngestListener {
+
+    private final SensorDictionary dictionary;
+    private final SensorTable<AtomicReference<SensorReading>> slots = new SensorTable<>();
+
+    public LatestReadingStore(SensorDictionary dictionary) {
+        this.dictionary = dictionary;
+    }
+
+    @Override
+    public void onReading(SensorReading reading) {
+        int key = dictionary.keyOf(reading);
+        AtomicReference<SensorReading> slot = slots.get(key);
+        if (slot == null) {
+            slot = slots.computeIfAbsent(key, k -> new AtomicReference<>());
+        }
+        SensorReading current;
+        do {
+            current = slot.get();
+            if (current != null && current.getTimestamp().isAfter(reading.getTimestamp())) {
+                return;
+            }
+        } while (!slot.compareAndSet(current, reading));
+    }
+
+    public SensorReading get(String sensorId) {
+        AtomicReference<SensorReading> slot = slots.get(dictionary.find(sensorId));
+        return slot != null ? slot.get() : null;
+    }
+
+    /**
+     * Latest reading of each requested sensor, or of every known sensor when {@code sensorIds}
+     * is null or empty. Sensors that have not reported yet are skipped.
+     */
+    public List<SensorReading> getAll(Collection<String> sensorIds) {
+        List<SensorReading> latest = new ArrayList<>();
+        if (sensorIds == null || sensorIds.isEmpty()) {
+            for (AtomicReference<SensorReading> slot : slots.values()) {
+                SensorReading reading = slot.get();
+                if (reading != null) {
+                    latest.add(reading);
+                }
+            }
+        } else {
+            for (String sensorId : sensorIds) {
+                SensorReading reading = get(sensorId);
+                if (reading != null) {
+                    latest.add(reading);
+                }
+            }
+        }
+        return latest;
+    }
+
+    @Override
+    public void onSensorRemoved(String sensorId) {
+        slots.remove(dictionary.find(sensorId));
+    }
+}
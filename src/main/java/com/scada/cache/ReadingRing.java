@@ -0,0 +1,160 @@
+package com.scada.monitoring.cache;
+
+import com.scada.monitoring.alarm.AlarmCodes;
+import com.scada.monitoring.entity.SensorReading;
+import com.scada.monitoring.trend.WindowSummary;
+import com.scada.monitoring.util.EpochTime;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * The newest {@code capacity} readings of one sensor, in parallel primitive arrays ordered by
+ * sample time. Warnings are derived from the stored alarm mask and the motor state is one bit,
+ * so a sample costs {@link #BYTES_PER_SAMPLE} bytes and the ring a fixed amount, allocated up
+ * front. {@link SensorReading}s are only built when a query asks for them, with the id the
+ * reading was published with; readings queued for a batched write are published before they have
+ * one.
+ * <p>
+ * A reading older than the newest one is inserted at its place in time; one older than every
+ * reading in a full ring is not among the newest {@code capacity} and is not kept.
+ */
+final class ReadingRing {
+
+    /** Id, timestamp, temperature, pressure and both limits, plus the alarm mask; the motor bit is extra. */
+    static final int BYTES_PER_SAMPLE = 6 * Long.BYTES + Integer.BYTES;
+
+    // Stored ids start at 1
+    private static final long NO_ID = 0;
+
+    private static final int WARNINGS = AlarmCodes.TEMPERATURE_ALARMS | AlarmCodes.PRESSURE_ALARMS;
+
+    private final String sensorId;
+    private final int capacity;
+    private final long[] ids;
+    private final long[] timestamps;
+    private final double[] temperatures;
+    private final double[] pressures;
+    private final double[] tempLimits;
+    private final double[] pressureLimits;
+    private final int[] alarmMasks;
+    private final long[] motorOn;
+    // Slot of the oldest sample, and the number held
+    private int start;
+    private int size;
+
+    ReadingRing(String sensorId, int capacity) {
+        this.sensorId = sensorId;
+        this.capacity = capacity;
+        this.ids = new long[capacity];
+        this.timestamps = new long[capacity];
+        this.temperatures = new double[capacity];
+        this.pressures = new double[capacity];
+        this.tempLimits = new double[capacity];
+        this.pressureLimits = new double[capacity];
+        this.alarmMasks = new int[capacity];
+        this.motorOn = new long[(capacity + 63) >>> 6];
+    }
+
+    static long bytesFor(int capacity) {
+        return (long) capacity * BYTES_PER_SAMPLE + (long) ((capacity + 63) >>> 6) * Long.BYTES;
+    }
+
+    synchronized void add(SensorReading reading) {
+        long timestamp = EpochTime.toEpochNanos(reading.getTimestamp());
+        if (size == capacity) {
+            if (timestamp < timestamps[start]) {
+                return;
+            }
+            start = slot(1);
+            size--;
+        }
+        int position = size;
+        while (position > 0 && timestamps[slot(position - 1)] > timestamp) {
+            copy(slot(position - 1), slot(position));
+            position--;
+        }
+        int slot = slot(position);
+        ids[slot] = reading.getId() != null ? reading.getId() : NO_ID;
+        timestamps[slot] = timestamp;
+        temperatures[slot] = reading.getTemperature();
+        pressures[slot] = reading.getPressure();
+        tempLimits[slot] = reading.getTempLimit();
+        pressureLimits[slot] = reading.getPressureLimit();
+        alarmMasks[slot] = reading.getAlarmMask();
+        setMotorOn(slot, reading.isMotorOn());
+        size++;
+    }
+
+    synchronized int size() {
+        return size;
+    }
+
+    /**
+     * The newest {@code limit} readings, newest first.
+     */
+    synchronized List<SensorReading> newest(int limit) {
+        int count = Math.min(limit, size);
+        List<SensorReading> readings = new ArrayList<>(count);
+        for (int i = size - 1; i >= size - count; i--) {
+            readings.add(toReading(slot(i)));
+        }
+        return readings;
+    }
+
+    /**
+     * Adds the newest {@code limit} readings to {@code summary} without building readings.
+     */
+    synchronized void summarize(int limit, WindowSummary summary) {
+        for (int i = Math.max(0, size - limit); i < size; i++) {
+            int slot = slot(i);
+            summary.add(timestamps[slot] / 1_000_000L, temperatures[slot], pressures[slot],
+                    AlarmCodes.has(alarmMasks[slot], WARNINGS));
+        }
+    }
+
+    private SensorReading toReading(int slot) {
+        int mask = alarmMasks[slot];
+        SensorReading reading = new SensorReading();
+        reading.setId(ids[slot] != NO_ID ? ids[slot] : null);
+        reading.setSensorId(sensorId);
+        reading.setTimestamp(EpochTime.fromEpochNanos(timestamps[slot]));
+        reading.setTemperature(temperatures[slot]);
+        reading.setPressure(pressures[slot]);
+        reading.setMotorOn(isMotorOn(slot));
+        reading.setAlarmMask(mask);
+        reading.setTempWarning(AlarmCodes.has(mask, AlarmCodes.TEMPERATURE_ALARMS));
+        reading.setPressureWarning(AlarmCodes.has(mask, AlarmCodes.PRESSURE_ALARMS));
+        reading.setTempLimit(tempLimits[slot]);
+        reading.setPressureLimit(pressureLimits[slot]);
+        return reading;
+    }
+
+    private void copy(int from, int to) {
+        ids[to] = ids[from];
+        timestamps[to] = timestamps[from];
+        temperatures[to] = temperatures[from];
+        pressures[to] = pressures[from];
+        tempLimits[to] = tempLimits[from];
+        pressureLimits[to] = pressureLimits[from];
+        alarmMasks[to] = alarmMasks[from];
+        setMotorOn(to, isMotorOn(from));
+    }
+
+    private int slot(int position) {
+        int slot = start + position;
+        return slot < capacity ? slot : slot - capacity;
+    }
+
+    private boolean isMotorOn(int slot) {
+        return (motorOn[slot >>> 6] & (1L << slot)) != 0;
+    }
+
+    private void setMotorOn(int slot, boolean on) {
+        if (on) {
+            motorOn[slot >>> 6] |= 1L << slot;
+        } else {
+            motorOn[slot >>> 6] &= ~(1L << slot);
+        }
+    }
+}
@@ -0,0 +1,93 @@
+package com.scada.monitoring.cache;
+
+import com.scada.monitoring.entity.SensorReading;
+import com.scada.monitoring.ingest.ReadingIngestListener;
+import com.scada.monitoring.trend.WindowSummary;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * The newest {@code depth} readings of every sensor in memory, one {@link ReadingRing} per
+ * sensor, so recent-reading and last-N trend queries for data ingested moments ago do not go to
+ * storage. Each sensor costs {@code depth * }{@value ReadingRing#BYTES_PER_SAMPLE}{@code  bytes}
+ * plus one bit per sample, fixed when its first reading arrives.
+ * <p>
+ * A query is answered here only once the sensor's ring holds at least as many readings as it
+ * asks for; until then, after a restart, or for more than {@code depth} readings, callers fall
+ * back to storage. Readings served from here carry the id they were published with: readings
+ * saved one at a time have it, readings queued for a batched write do not, as in their response.
+ */
+@Component
+public class RecentReadingStore implements ReadingIngestListener {
+
+    private final SensorDictionary dictionary;
+    private final int depth;
+    private final SensorTable<ReadingRing> rings = new SensorTable<>();
+
+    public RecentReadingStore(SensorDictionary dictionary,
+                              @Value("${scada.readings.recent.depth:256}") int depth,
+                              MeterRegistry meterRegistry) {
+        if (depth < 1) {
+            throw new IllegalArgumentException("scada.readings.recent.depth must be at least 1, was " + depth);
+        }
+        this.dictionary = dictionary;
+        this.depth = depth;
+        Gauge.builder("scada.readings.recent.bytes", rings, r -> r.size() * (double) ReadingRing.bytesFor(depth))
+                .description("Memory held by the per-sensor recent reading buffers")
+                .baseUnit("bytes")
+                .register(meterRegistry);
+    }
+
+    @Override
+    public void onReading(SensorReading reading) {
+        int key = dictionary.keyOf(reading);
+        ReadingRing ring = rings.get(key);
+        if (ring == null) {
+            ring = rings.computeIfAbsent(key, k -> new ReadingRing(reading.getSensorId(), depth));
+        }
+        ring.add(reading);
+    }
+
+    @Override
+    public void onSensorRemoved(String sensorId) {
+        rings.remove(dictionary.find(sensorId));
+    }
+
+    public int getDepth() {
+        return depth;
+    }
+
+    /**
+     * The sensor's newest {@code limit} readings, newest first, or empty if fewer are held.
+     */
+    public Optional<List<SensorReading>> findRecent(String sensorId, int limit) {
+        ReadingRing ring = ringHolding(sensorId, limit);
+        return ring != null ? Optional.of(ring.newest(limit)) : Optional.empty();
+    }
+
+    /**
+     * Summary of the sensor's newest {@code limit} readings, or empty if fewer are held.
+     */
+    public Optional<WindowSummary> summarize(String sensorId, int limit) {
+        ReadingRing ring = ringHolding(sensorId, limit);
+        if (ring == null) {
+            return Optional.empty();
+        }
+        WindowSummary summary = new WindowSummary();
+        ring.summarize(limit, summary);
+        return Optional.of(summary);
+    }
+
+    private ReadingRing ringHolding(String sensorId, int limit) {
+        if (limit > depth) {
+            return null;
+        }
+        ReadingRing ring = rings.get(dictionary.find(sensorId));
+        return ring != null && ring.size() >= limit ? ring : null;
+    }
+}
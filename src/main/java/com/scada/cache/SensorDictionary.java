@@ -0,0 +1,82 @@
+package com.scada.monitoring.cache;
+
+import com.scada.monitoring.entity.SensorReading;
+import org.springframework.stereotype.Component;
+
+import java.util.Arrays;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Maps each sensor ID to a small dense integer key, assigned the first time the ID is seen.
+ * Per-sensor state on the ingest path is indexed by this key (see {@link SensorTable}) so
+ * readings are routed with an array load instead of hashing and comparing ID strings; the
+ * string is looked up only where a request names a sensor.
+ * <p>
+ * Keys are never reused or released, and are only meaningful inside this process: anything
+ * written to disk or the database keeps the sensor ID string.
+ */
+@Component
+public class SensorDictionary {
+
+    public static final int NO_KEY = -1;
+
+    private final ConcurrentHashMap<String, Integer> keys = new ConcurrentHashMap<>();
+    private volatile String[] sensorIds = new String[64];
+    private int size;
+
+    /**
+     * Key of {@code sensorId}, assigning the next free key if it has none yet.
+     */
+    public int keyOf(String sensorId) {
+        Integer key = keys.get(sensorId);
+        return key != null ? key : assign(sensorId);
+    }
+
+    /**
+     * Key carried by {@code reading}, or the key of its sensor ID for a reading that was not
+     * built on the ingest path (replayed or decoded from storage). The key is stored on the
+     * reading so the lookup happens once.
+     */
+    public int keyOf(SensorReading reading) {
+        int key = reading.getSensorKey();
+        if (key == NO_KEY) {
+            key = keyOf(reading.getSensorId());
+            reading.setSensorKey(key);
+        }
+        return key;
+    }
+
+    /**
+     * Key of {@code sensorId}, or {@link #NO_KEY} if it has never been seen; never assigns one.
+     */
+    public int find(String sensorId) {
+        Integer key = sensorId != null ? keys.get(sensorId) : null;
+        return key != null ? key : NO_KEY;
+    }
+
+    public String sensorIdOf(int key) {
+        String[] ids = sensorIds;
+        return key >= 0 && key < ids.length ? ids[key] : null;
+    }
+
+    public int size() {
+        return keys.size();
+    }
+
+    private synchronized int assign(String sensorId) {
+        Integer existing = keys.get(sensorId);
+        if (existing != null) {
+            return existing;
+        }
+        int key = size++;
+        String[] ids = sensorIds;
+        if (key == ids.length) {
+            ids = Arrays.copyOf(ids, ids.length * 2);
+        }
+        ids[key] = sensorId;
+        // Publish the id before the key so sensorIdOf never sees a key it cannot resolve
+        sensorIds = ids;
+        keys.put(sensorId, key);
+        return key;
+    }
+}
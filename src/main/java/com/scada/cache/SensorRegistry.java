@@ -0,0 +1,185 @@
+package com.scada.monitoring.cache;
+
+import com.scada.monitoring.dto.SensorRegistryStatsResponse;
+import com.scada.monitoring.entity.Sensor;
+import com.scada.monitoring.repository.SensorLookupRepository;
+import com.scada.monitoring.repository.SensorRepository;
+import com.scada.monitoring.util.AfterCommit;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Read-through cache of sensor thresholds and motor state used by the ingest path.
+ * <p>
+ * Warmed at startup and kept coherent by {@code SensorService}, which calls {@link #put} and
+ * {@link #evict} once its transaction commits. When full, an approximate LRU victim is chosen
+ * by sampling a handful of entries rather than maintaining a global access order. Every
+ * snapshot carries the sensor's {@link SensorDictionary} key.
+ */
+@Component
+@Slf4j
+public class SensorRegistry {
+
+    private static final int EVICTION_SAMPLE_SIZE = 8;
+
+    private final SensorRepository sensorRepository;
+    private final SensorLookupRepository sensorLookupRepository;
+    private final SensorDictionary dictionary;
+    private final int maxSize;
+
+    private final ConcurrentHashMap<String, Entry> entries = new ConcurrentHashMap<>();
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder evictions = new LongAdder();
+
+    public SensorRegistry(SensorRepository sensorRepository,
+                          SensorLookupRepository sensorLookupRepository,
+                          SensorDictionary dictionary,
+                          @Value("${scada.sensor-registry.max-size:10000}") int maxSize) {
+        this.sensorRepository = sensorRepository;
+        this.sensorLookupRepository = sensorLookupRepository;
+        this.dictionary = dictionary;
+        this.maxSize = maxSize;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void warm() {
+        List<Sensor> sensors = sensorRepository.findAll(PageRequest.of(0, maxSize)).getContent();
+        for (Sensor sensor : sensors) {
+            entries.put(sensor.getSensorId(), new Entry(snapshotOf(sensor)));
+        }
+        log.info("Sensor registry warmed with {} sensors", sensors.size());
+    }
+
+    public Optional<SensorSnapshot> find(String sensorId) {
+        Entry entry = entries.get(sensorId);
+        if (entry != null) {
+            hits.increment();
+            entry.lastAccess = System.nanoTime();
+            return entry.found;
+        }
+
+        misses.increment();
+        Optional<Sensor> sensor = sensorRepository.findBySensorId(sensorId);
+        if (!sensor.isPresent()) {
+            return Optional.empty();
+        }
+        return cacheLoaded(snapshotOf(sensor.get())).found;
+    }
+
+    /**
+     * Resolves several sensors at once, loading all misses with a single query.
+     * Unknown sensor IDs are absent from the returned map.
+     */
+    public Map<String, SensorSnapshot> findAll(Collection<String> sensorIds) {
+        Map<String, SensorSnapshot> result = new HashMap<>();
+        List<String> missing = new ArrayList<>();
+        long now = System.nanoTime();
+        for (String sensorId : sensorIds) {
+            Entry entry = entries.get(sensorId);
+            if (entry != null) {
+                entry.lastAccess = now;
+                result.put(sensorId, entry.snapshot);
+            } else {
+                missing.add(sensorId);
+            }
+        }
+        hits.add(result.size());
+
+        if (!missing.isEmpty()) {
+            misses.add(missing.size());
+            for (Sensor sensor : sensorLookupRepository.findBySensorIdIn(missing)) {
+                result.put(sensor.getSensorId(), cacheLoaded(snapshotOf(sensor)).snapshot);
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Replaces the cached copy of a sensor, deferred until the surrounding transaction commits.
+     */
+    public void put(Sensor sensor) {
+        SensorSnapshot snapshot = snapshotOf(sensor);
+        AfterCommit.run(() -> {
+            entries.put(snapshot.getSensorId(), new Entry(snapshot));
+            evictIfFull();
+        });
+    }
+
+    /**
+     * Drops a sensor from the cache, deferred until the surrounding transaction commits.
+     */
+    public void evict(String sensorId) {
+        AfterCommit.run(() -> entries.remove(sensorId));
+    }
+
+    public SensorRegistryStatsResponse getStats() {
+        long hitCount = hits.sum();
+        long missCount = misses.sum();
+        long total = hitCount + missCount;
+        return new SensorRegistryStatsResponse(hitCount, missCount, evictions.sum(), entries.size(), maxSize,
+                total == 0 ? 0.0 : (double) hitCount / total);
+    }
+
+    private SensorSnapshot snapshotOf(Sensor sensor) {
+        return SensorSnapshot.of(sensor, dictionary.keyOf(sensor.getSensorId()));
+    }
+
+    private Entry cacheLoaded(SensorSnapshot snapshot) {
+        // putIfAbsent so a stale DB read never overwrites a newer value put by SensorService
+        Entry loaded = new Entry(snapshot);
+        Entry existing = entries.putIfAbsent(snapshot.getSensorId(), loaded);
+        if (existing != null) {
+            return existing;
+        }
+        evictIfFull();
+        return loaded;
+    }
+
+    private void evictIfFull() {
+        while (entries.size() > maxSize) {
+            String victim = null;
+            long oldest = Long.MAX_VALUE;
+            Iterator<Map.Entry<String, Entry>> it = entries.entrySet().iterator();
+            for (int i = 0; i < EVICTION_SAMPLE_SIZE && it.hasNext(); i++) {
+                Map.Entry<String, Entry> candidate = it.next();
+                if (candidate.getValue().lastAccess < oldest) {
+                    oldest = candidate.getValue().lastAccess;
+                    victim = candidate.getKey();
+                }
+            }
+            if (victim == null) {
+                return;
+            }
+            if (entries.remove(victim) != null) {
+                evictions.increment();
+            }
+        }
+    }
+
+    private static final class Entry {
+        private final SensorSnapshot snapshot;
+        private final Optional<SensorSnapshot> found;
+        private volatile long lastAccess;
+
+        private Entry(SensorSnapshot snapshot) {
+            this.snapshot = snapshot;
+            this.found = Optional.of(snapshot);
+            this.lastAccess = System.nanoTime();
+        }
+    }
+}
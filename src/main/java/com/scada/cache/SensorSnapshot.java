@@ -0,0 +1,23 @@
+package com.scada.monitoring.cache;
+
+import com.scada.monitoring.entity.Sensor;
+import lombok.Value;
+
+/**
+ * Immutable copy of the sensor fields the ingest path needs, safe to share across threads.
+ */
+@Value
+public class SensorSnapshot {
+    Long id;
+    String sensorId;
+    /** {@link SensorDictionary} key of {@link #sensorId}. */
+    int key;
+    double tempThreshold;
+    double pressureThreshold;
+    boolean motorOn;
+
+    public static SensorSnapshot of(Sensor sensor, int key) {
+        return new SensorSnapshot(sensor.getId(), sensor.getSensorId(), key, sensor.getTempThreshold(),
+                sensor.getPressureThreshold(), sensor.isMotorOn());
+    }
+}
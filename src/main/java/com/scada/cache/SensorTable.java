@@ -0,0 +1,119 @@
+package com.scada.monitoring.cache;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.IntFunction;
+import java.util.function.UnaryOperator;
+
+/**
+ * Per-sensor values indexed by {@link SensorDictionary} key. Lookups are a volatile array read
+ * and never lock; creating, replacing or removing a value takes the table's lock, which only
+ * happens on a sensor's first reading or when it is reset. The lock is a {@link ReentrantLock}
+ * because value factories may do I/O, and a monitor would pin a waiting virtual thread.
+ */
+public final class SensorTable<T> {
+
+    private final ReentrantLock lock = new ReentrantLock();
+    private volatile AtomicReferenceArray<T> slots = new AtomicReferenceArray<>(16);
+    private int size;
+
+    public T get(int key) {
+        AtomicReferenceArray<T> current = slots;
+        return key >= 0 && key < current.length() ? current.get(key) : null;
+    }
+
+    public T computeIfAbsent(int key, IntFunction<? extends T> factory) {
+        T value = get(key);
+        return value != null ? value : compute(key, existing -> existing != null ? existing : factory.apply(key));
+    }
+
+    /**
+     * Replaces the value for {@code key} with the result of {@code remapping}, which receives the
+     * current value or null; a null result removes it.
+     */
+    public T compute(int key, UnaryOperator<T> remapping) {
+        if (key < 0) {
+            throw new IllegalArgumentException("Invalid sensor key: " + key);
+        }
+        lock.lock();
+        try {
+            AtomicReferenceArray<T> current = slots;
+            T existing = key < current.length() ? current.get(key) : null;
+            T updated = remapping.apply(existing);
+            if (updated == existing) {
+                return updated;
+            }
+            if (key >= current.length()) {
+                current = grow(current, key);
+            }
+            current.set(key, updated);
+            size += (updated != null ? 1 : 0) - (existing != null ? 1 : 0);
+            return updated;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public T remove(int key) {
+        lock.lock();
+        try {
+            T existing = get(key);
+            if (existing != null) {
+                slots.set(key, null);
+                size--;
+            }
+            return existing;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public void clear() {
+        lock.lock();
+        try {
+            slots = new AtomicReferenceArray<>(slots.length());
+            size = 0;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Point-in-time copy of the values, in key order.
+     */
+    public List<T> values() {
+        AtomicReferenceArray<T> current = slots;
+        List<T> values = new ArrayList<>();
+        for (int i = 0; i < current.length(); i++) {
+            T value = current.get(i);
+            if (value != null) {
+                values.add(value);
+            }
+        }
+        return values;
+    }
+
+    public int size() {
+        lock.lock();
+        try {
+            return size;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private AtomicReferenceArray<T> grow(AtomicReferenceArray<T> current, int key) {
+        int length = current.length();
+        while (length <= key) {
+            length *= 2;
+        }
+        AtomicReferenceArray<T> grown = new AtomicReferenceArray<>(length);
+        for (int i = 0; i < current.length(); i++) {
+            grown.set(i, current.get(i));
+        }
+        slots = grown;
+        return grown;
+    }
+}
@@ -0,0 +1,62 @@
+package com.scada.monitoring.config;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.ResolvableType;
+import org.springframework.http.HttpOutputMessage;
+import org.springframework.http.converter.HttpMessageNotWritableException;
+import org.springframework.http.converter.json.MappingJackson2HttpMessageConverter;
+
+import java.io.IOException;
+import java.lang.reflect.Type;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Replaces Boot's JSON message converter with one that times serialization, so response time
+ * ({@code http.server.requests}) can be split into database time
+ * ({@code spring.data.repository.invocations}) and JSON writing time ({@code scada.http.serialization}).
+ */
+@Configuration
+public class MetricsConfig {
+
+    @Bean
+    public MappingJackson2HttpMessageConverter mappingJackson2HttpMessageConverter(ObjectMapper objectMapper,
+                                                                                   MeterRegistry meterRegistry) {
+        return new MappingJackson2HttpMessageConverter(objectMapper) {
+            // One timer per type, so a response write does not build and look one up in the registry
+            private final ConcurrentHashMap<String, Timer> timers = new ConcurrentHashMap<>();
+
+            @Override
+            protected void writeInternal(Object object, Type type, HttpOutputMessage outputMessage)
+                    throws IOException, HttpMessageNotWritableException {
+                long start = System.nanoTime();
+                try {
+                    super.writeInternal(object, type, outputMessage);
+                } finally {
+                    timers.computeIfAbsent(typeName(object, type), name -> Timer.builder("scada.http.serialization")
+                                    .description("Time spent writing JSON response bodies")
+                                    .tag("type", name)
+                                    .register(meterRegistry))
+                            .record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+                }
+            }
+        };
+    }
+
+    // "List<SensorReadingResponse>" rather than "ArrayList", keeping the tag's cardinality bounded
+    static String typeName(Object object, Type type) {
+        ResolvableType resolved = type != null ? ResolvableType.forType(type) : ResolvableType.forInstance(object);
+        Class<?> raw = resolved.resolve(object.getClass());
+        if (resolved.hasGenerics()) {
+            Class<?> element = resolved.getGeneric(0).resolve();
+            if (element != null) {
+                return raw.getSimpleName() + "<" + element.getSimpleName() + ">";
+            }
+        }
+        return raw.getSimpleName();
+    }
+}
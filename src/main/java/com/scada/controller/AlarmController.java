@@ -0,0 +1,61 @@
+package com.scada.monitoring.controller;
+
+import com.scada.monitoring.alarm.AlarmService;
+import com.scada.monitoring.dto.AlarmResponse;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.Parameter;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.List;
+
+@RestController
+@RequestMapping("/api/alarms")
+@RequiredArgsConstructor
+@Slf4j
+@Tag(name = "Alarms", description = "APIs for active alarms, acknowledgement and alarm history")
+public class AlarmController {
+
+    private static final int MAX_HISTORY = 1000;
+
+    private final AlarmService alarmService;
+
+    @GetMapping("/active")
+    @Operation(summary = "Get open alarms", description = "Alarms that are active or not yet acknowledged, newest first. Served from memory without scanning history")
+    public ResponseEntity<List<AlarmResponse>> getActiveAlarms(
+            @Parameter(description = "Optional sensor ID to filter alarms")
+            @RequestParam(required = false) String sensorId) {
+        return ResponseEntity.ok(alarmService.getOpenAlarms(sensorId));
+    }
+
+    @PostMapping("/{id}/acknowledge")
+    @Operation(summary = "Acknowledge alarm", description = "Acknowledge an open alarm. An alarm whose condition already cleared is closed")
+    public ResponseEntity<AlarmResponse> acknowledge(
+            @PathVariable Long id,
+            @Parameter(description = "Operator acknowledging the alarm")
+            @RequestParam(defaultValue = "operator") String user) {
+        log.info("POST /api/alarms/{}/acknowledge - by {}", id, user);
+        return ResponseEntity.ok(alarmService.acknowledge(id, user));
+    }
+
+    @GetMapping("/history")
+    @Operation(summary = "Get alarm history", description = "Most recent alarms in any state, newest first")
+    public ResponseEntity<List<AlarmResponse>> getHistory(
+            @Parameter(description = "Optional sensor ID to filter alarms")
+            @RequestParam(required = false) String sensorId,
+            @Parameter(description = "Maximum number of alarms to return (1-1000)")
+            @RequestParam(defaultValue = "100") int limit) {
+        if (limit < 1 || limit > MAX_HISTORY) {
+            return ResponseEntity.badRequest().build();
+        }
+        return ResponseEntity.ok(alarmService.getHistory(sensorId, limit));
+    }
+
+    @ExceptionHandler(IllegalArgumentException.class)
+    public ResponseEntity<Void> handleNotFound(IllegalArgumentException ex) {
+        return ResponseEntity.notFound().build();
+    }
+}
@@ -0,0 +1,51 @@
+package com.scada.monitoring.controller;
+
+import com.scada.monitoring.alarm.AlarmRuleService;
+import com.scada.monitoring.dto.AlarmRuleResponse;
+import com.scada.monitoring.dto.CreateAlarmRuleRequest;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.Parameter;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import jakarta.validation.Valid;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.List;
+
+@RestController
+@RequestMapping("/api/alarm-rules")
+@RequiredArgsConstructor
+@Slf4j
+@Tag(name = "Alarm Rules", description = "APIs for configuring per-sensor alarm rules")
+public class AlarmRuleController {
+
+    private final AlarmRuleService alarmRuleService;
+
+    @PostMapping
+    @Operation(summary = "Create alarm rule", description = "Add a high/low limit or rate-of-change rule with optional deadband, delay-on/off, a second condition combined by AND/OR, and a motor-state condition. A sensor with rules no longer alarms on its plain thresholds")
+    public ResponseEntity<AlarmRuleResponse> createRule(@Valid @RequestBody CreateAlarmRuleRequest request) {
+        log.info("POST /api/alarm-rules - Creating rule for sensor: {}", request.getSensorId());
+        AlarmRuleResponse response = alarmRuleService.createRule(request);
+        return ResponseEntity.status(HttpStatus.CREATED).body(response);
+    }
+
+    @GetMapping
+    @Operation(summary = "Get alarm rules", description = "Retrieve all alarm rules, optionally filtered by sensor ID")
+    public ResponseEntity<List<AlarmRuleResponse>> getRules(
+            @Parameter(description = "Optional sensor ID to filter rules")
+            @RequestParam(required = false) String sensorId) {
+        log.info("GET /api/alarm-rules - Fetching rules for sensor: {}", sensorId);
+        return ResponseEntity.ok(alarmRuleService.getRules(sensorId));
+    }
+
+    @DeleteMapping("/{id}")
+    @Operation(summary = "Delete alarm rule", description = "Remove an alarm rule")
+    public ResponseEntity<Void> deleteRule(@PathVariable Long id) {
+        log.info("DELETE /api/alarm-rules/{} - Deleting rule", id);
+        alarmRuleService.deleteRule(id);
+        return ResponseEntity.noContent().build();
+    }
+}
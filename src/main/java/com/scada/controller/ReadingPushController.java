@@ -0,0 +1,61 @@
+package com.scada.monitoring.controller;
+
+import com.scada.monitoring.dto.PushStatsResponse;
+import com.scada.monitoring.push.ReadingPushService;
+import com.scada.monitoring.push.SubscriberLimitException;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.Parameter;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.util.List;
+
+@RestController
+@RequestMapping("/api/push")
+@RequiredArgsConstructor
+@Slf4j
+@Tag(name = "Real-time Push", description = "Server-sent event streams of readings and threshold alarms")
+public class ReadingPushController {
+
+    private final ReadingPushService pushService;
+
+    @GetMapping(value = "/readings", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    @Operation(summary = "Subscribe to readings", description = "Server-sent events: 'reading' events carry the latest value per sensor (slow clients skip intermediate values), 'alarm' events carry every reading with a threshold warning, in order")
+    public SseEmitter subscribe(
+            @Parameter(description = "Sensor IDs to follow (comma separated)")
+            @RequestParam(required = false) List<String> sensorIds,
+            @Parameter(description = "Sensor ID glob patterns to follow, e.g. PUMP-* (comma separated)")
+            @RequestParam(required = false) List<String> patterns) {
+        if ((sensorIds == null || sensorIds.isEmpty()) && (patterns == null || patterns.isEmpty())) {
+            throw new IllegalArgumentException("At least one sensor ID or pattern is required");
+        }
+        log.info("GET /api/push/readings - Subscribing to sensors {} and patterns {}", sensorIds, patterns);
+        return pushService.subscribe(sensorIds, patterns);
+    }
+
+    @GetMapping("/stats")
+    @Operation(summary = "Get push statistics", description = "Subscriber count and delivery, conflation and drop counters")
+    public ResponseEntity<PushStatsResponse> getStats() {
+        return ResponseEntity.ok(pushService.getStats());
+    }
+
+    @ExceptionHandler(SubscriberLimitException.class)
+    public ResponseEntity<Void> handleSubscriberLimit(SubscriberLimitException ex) {
+        log.warn("Rejecting push subscriber: {}", ex.getMessage());
+        return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                .header(HttpHeaders.RETRY_AFTER, "5")
+                .build();
+    }
+
+    @ExceptionHandler(IllegalArgumentException.class)
+    public ResponseEntity<Void> handleBadRequest(IllegalArgumentException ex) {
+        return ResponseEntity.badRequest().build();
+    }
+}
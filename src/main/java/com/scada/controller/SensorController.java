@@ -7,8 +7,10 @@ import io.swagger.v3.oas.annotations.tags.Tag;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
+import org.springframework.transaction.CannotCreateTransactionException;
 import org.springframework.web.bind.annotation.*;
 
 import java.util.List;
@@ -38,6 +40,13 @@ public class SensorController {
         return ResponseEntity.ok(sensors);
     }
 
+    @GetMapping("/registry/stats")
+    @Operation(summary = "Get sensor registry statistics", description = "Hit/miss counters of the in-memory sensor cache used by reading ingestion")
+    public ResponseEntity<SensorRegistryStatsResponse> getRegistryStats() {
+        log.debug("GET /api/sensors/registry/stats - Fetching sensor registry statistics");
+        return ResponseEntity.ok(sensorService.getRegistryStats());
+    }
+
     @GetMapping("/{sensorId}")
     @Operation(summary = "Get sensor by ID", description = "Retrieve detailed information about a specific sensor")
     public ResponseEntity<SensorResponse> getSensor(@PathVariable String sensorId) {
@@ -73,4 +82,12 @@ public class SensorController {
         sensorService.deleteSensor(sensorId);
         return ResponseEntity.noContent().build();
     }
+
+    @ExceptionHandler(CannotCreateTransactionException.class)
+    public ResponseEntity<Void> handleNoConnection(CannotCreateTransactionException ex) {
+        log.warn("Rejecting request, no database connection: {}", ex.getMessage());
+        return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                .header(HttpHeaders.RETRY_AFTER, "1")
+                .build();
+    }
 }
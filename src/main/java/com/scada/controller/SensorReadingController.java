@@ -1,6 +1,13 @@
 package com.scada.monitoring.controller;
 
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
 import com.scada.monitoring.dto.*;
+import com.scada.monitoring.ingest.IngestQueueFullException;
+import com.scada.monitoring.ingest.MalformedFrameException;
+import com.scada.monitoring.ingest.ReadingFrames;
+import com.scada.monitoring.rollup.RollupService;
+import com.scada.monitoring.service.ReadingStreamService;
 import com.scada.monitoring.service.SensorReadingService;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.Parameter;
@@ -9,10 +16,18 @@ import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
+import org.springframework.transaction.CannotCreateTransactionException;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
 import java.time.LocalDateTime;
 import java.util.List;
 
@@ -24,6 +39,9 @@ import java.util.List;
 public class SensorReadingController {
 
     private final SensorReadingService readingService;
+    private final ReadingStreamService readingStreamService;
+    private final RollupService rollupService;
+    private final ObjectMapper objectMapper;
 
     @PostMapping
     @Operation(summary = "Submit sensor reading", description = "Post a new sensor reading with automatic threshold checking")
@@ -33,6 +51,33 @@ public class SensorReadingController {
         return ResponseEntity.status(HttpStatus.CREATED).body(response);
     }
 
+    @PostMapping("/async")
+    @Operation(summary = "Queue sensor reading", description = "Queue a reading for batched persistence. Returns 202 once the reading is in the write-ahead log, or 201 once written to storage when durable=true. Returns 503 when the ingest queue is full")
+    public ResponseEntity<SensorReadingResponse> enqueueReading(
+            @Valid @RequestBody CreateReadingRequest request,
+            @Parameter(description = "Wait until the reading has been persisted before responding (default: false)")
+            @RequestParam(required = false, defaultValue = "false") boolean durable) {
+        log.debug("POST /api/readings/async - Queueing reading for sensor: {}", request.getSensorId());
+        SensorReadingResponse response = readingService.enqueueReading(request, durable);
+        return ResponseEntity.status(durable ? HttpStatus.CREATED : HttpStatus.ACCEPTED).body(response);
+    }
+
+    @PostMapping(value = "/frames", consumes = ReadingFrames.MEDIA_TYPE)
+    @Operation(summary = "Queue binary reading frames", description = "Queue a batch of fixed-width binary frames (" + ReadingFrames.MEDIA_TYPE + ", see ReadingFrames) for batched persistence. Returns 202 once the whole batch is in the write-ahead log, 400 for a malformed batch or one larger than the ingest queue, and 503 when the ingest queue cannot take it")
+    public ResponseEntity<FrameIngestResponse> enqueueFrames(@RequestBody byte[] body) {
+        log.debug("POST /api/readings/frames - Queueing {} bytes of frames", body.length);
+        FrameIngestResponse response = readingService.enqueueFrames(ByteBuffer.wrap(body));
+        return ResponseEntity.status(HttpStatus.ACCEPTED).body(response);
+    }
+
+    @PostMapping(value = "/stream", consumes = MediaType.APPLICATION_NDJSON_VALUE)
+    @Operation(summary = "Queue an NDJSON stream of readings", description = "Queue one reading per line for batched persistence, parsed and evaluated in parallel stages. The server reads the body only as fast as readings are queued, so a fast client is slowed down rather than buffered. Returns 202 with accepted and rejected line counts once every reading is in the write-ahead log, or 503 if the ingest queue stayed full")
+    public ResponseEntity<StreamIngestResponse> ingestStream(InputStream body) throws IOException {
+        log.debug("POST /api/readings/stream - Queueing NDJSON readings");
+        StreamIngestResponse response = readingStreamService.ingest(body);
+        return ResponseEntity.status(HttpStatus.ACCEPTED).body(response);
+    }
+
     @PostMapping("/bulk")
     @Operation(summary = "Submit multiple readings", description = "Post multiple sensor readings simultaneously for concurrent sensor support")
     public ResponseEntity<List<SensorReadingResponse>> createBulkReadings(@Valid @RequestBody List<CreateReadingRequest> requests) {
@@ -51,6 +96,52 @@ public class SensorReadingController {
         return ResponseEntity.ok(readings);
     }
 
+    @GetMapping(value = "/stream", produces = MediaType.APPLICATION_NDJSON_VALUE)
+    @Operation(summary = "Stream all readings as NDJSON", description = "Stream every reading, one JSON object per line, in id order. Memory use is constant regardless of table size")
+    public ResponseEntity<StreamingResponseBody> streamReadingsNdjson(
+            @Parameter(description = "Optional sensor ID to filter readings")
+            @RequestParam(required = false) String sensorId) {
+        log.info("GET /api/readings/stream - Streaming NDJSON readings for sensor: {}", sensorId);
+        return ResponseEntity.ok()
+                .contentType(MediaType.APPLICATION_NDJSON)
+                .body(out -> writeReadings(sensorId, objectMapper.getFactory().createGenerator(out), false));
+    }
+
+    @GetMapping(value = "/stream", produces = MediaType.APPLICATION_JSON_VALUE)
+    @Operation(summary = "Stream all readings as a JSON array", description = "Stream every reading as a chunked JSON array in id order. Memory use is constant regardless of table size")
+    public ResponseEntity<StreamingResponseBody> streamReadingsJson(
+            @Parameter(description = "Optional sensor ID to filter readings")
+            @RequestParam(required = false) String sensorId) {
+        log.info("GET /api/readings/stream - Streaming JSON readings for sensor: {}", sensorId);
+        return ResponseEntity.ok()
+                .contentType(MediaType.APPLICATION_JSON)
+                .body(out -> writeReadings(sensorId, objectMapper.getFactory().createGenerator(out), true));
+    }
+
+    @GetMapping("/page")
+    @Operation(summary = "Get a page of readings", description = "Keyset pagination: in id order with the table backend, in sample-time order with the columnar backend, which does not assign ids. Pass nextAfterId from the previous page as 'after'")
+    public ResponseEntity<ReadingPageResponse> getReadingsPage(
+            @Parameter(description = "Optional sensor ID to filter readings")
+            @RequestParam(required = false) String sensorId,
+            @Parameter(description = "Cursor from the previous page (omit for the first page)")
+            @RequestParam(required = false) Long after,
+            @Parameter(description = "Page size (default: 500, max: 5000)")
+            @RequestParam(required = false, defaultValue = "500") Integer size) {
+        log.debug("GET /api/readings/page - Fetching {} readings after {} for sensor: {}", size, after, sensorId);
+        ReadingPageResponse page = readingService.getReadingsPage(sensorId, after, Math.max(1, Math.min(size, 5000)));
+        return ResponseEntity.ok(page);
+    }
+
+    @GetMapping("/latest")
+    @Operation(summary = "Get latest readings", description = "Current value of every sensor, or of the selected sensors, served from memory without a database query")
+    public ResponseEntity<List<SensorReadingResponse>> getLatestReadings(
+            @Parameter(description = "Optional sensor IDs to include (comma separated); all sensors when omitted")
+            @RequestParam(required = false) List<String> sensorIds) {
+        log.debug("GET /api/readings/latest - Fetching latest readings for sensors: {}", sensorIds);
+        List<SensorReadingResponse> readings = readingService.getLatestReadings(sensorIds);
+        return ResponseEntity.ok(readings);
+    }
+
     @GetMapping("/recent")
     @Operation(summary = "Get recent readings", description = "Retrieve the most recent N readings for trend analysis")
     public ResponseEntity<List<SensorReadingResponse>> getRecentReadings(
@@ -64,19 +155,39 @@ public class SensorReadingController {
     }
 
     @GetMapping("/range")
-    @Operation(summary = "Get readings by time range", description = "Retrieve readings within a specific time period")
+    @Operation(summary = "Get readings by time range", description = "Retrieve readings within a specific time period, optionally downsampled to at most maxPoints readings")
     public ResponseEntity<List<SensorReadingResponse>> getReadingsByTimeRange(
             @Parameter(description = "Sensor ID", required = true)
             @RequestParam String sensorId,
             @Parameter(description = "Start time (ISO format: yyyy-MM-dd'T'HH:mm:ss)")
             @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime start,
             @Parameter(description = "End time (ISO format: yyyy-MM-dd'T'HH:mm:ss)")
-            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime end) {
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime end,
+            @Parameter(description = "Optional maximum number of readings; keeps the min/max temperature and pressure of each time bucket")
+            @RequestParam(required = false) Integer maxPoints) {
         log.info("GET /api/readings/range - Fetching readings for sensor {} between {} and {}", sensorId, start, end);
-        List<SensorReadingResponse> readings = readingService.getReadingsByTimeRange(sensorId, start, end);
+        List<SensorReadingResponse> readings = (maxPoints != null && maxPoints > 0)
+                ? readingService.getDownsampledReadings(sensorId, start, end, maxPoints)
+                : readingService.getReadingsByTimeRange(sensorId, start, end);
         return ResponseEntity.ok(readings);
     }
 
+    @GetMapping("/rollups")
+    @Operation(summary = "Get downsampled readings by time range", description = "Min/max/avg buckets at the coarsest of 1s/1m/1h that still yields the requested number of points; short windows return raw readings")
+    public ResponseEntity<RollupRangeResponse> getRollups(
+            @Parameter(description = "Sensor ID", required = true)
+            @RequestParam String sensorId,
+            @Parameter(description = "Start time (ISO format: yyyy-MM-dd'T'HH:mm:ss)")
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime start,
+            @Parameter(description = "End time (ISO format: yyyy-MM-dd'T'HH:mm:ss)")
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime end,
+            @Parameter(description = "Minimum number of points wanted (default: 500)")
+            @RequestParam(required = false, defaultValue = "500") Integer points) {
+        log.info("GET /api/readings/rollups - Fetching rollups for sensor {} between {} and {}", sensorId, start, end);
+        RollupRangeResponse rollups = rollupService.getRollups(sensorId, start, end, points);
+        return ResponseEntity.ok(rollups);
+    }
+
     @GetMapping("/warnings")
     @Operation(summary = "Get threshold warnings", description = "Retrieve all readings that triggered threshold warnings")
     public ResponseEntity<List<SensorReadingResponse>> getWarnings(
@@ -90,13 +201,66 @@ public class SensorReadingController {
     }
 
     @GetMapping("/trends/{sensorId}")
-    @Operation(summary = "Get trend analysis", description = "Retrieve statistical analysis of sensor readings for trend monitoring")
+    @Operation(summary = "Get trend analysis", description = "Retrieve statistical analysis of sensor readings for trend monitoring, over the last N readings or a 1m/15m/1h time window")
     public ResponseEntity<TrendAnalysisResponse> getTrendAnalysis(
             @PathVariable String sensorId,
             @Parameter(description = "Number of readings to analyze (default: 100)")
-            @RequestParam(required = false, defaultValue = "100") Integer limit) {
+            @RequestParam(required = false, defaultValue = "100") Integer limit,
+            @Parameter(description = "Optional time window instead of a reading count: 1m, 15m or 1h")
+            @RequestParam(required = false) String window) {
         log.info("GET /api/readings/trends/{} - Generating trend analysis", sensorId);
-        TrendAnalysisResponse analysis = readingService.getTrendAnalysis(sensorId, limit);
+        TrendAnalysisResponse analysis = window != null
+                ? readingService.getWindowedTrendAnalysis(sensorId, window)
+                : readingService.getTrendAnalysis(sensorId, limit);
         return ResponseEntity.ok(analysis);
     }
+
+    private void writeReadings(String sensorId, JsonGenerator generator, boolean array) throws IOException {
+        try (JsonGenerator json = generator) {
+            if (array) {
+                json.writeStartArray();
+            }
+            try {
+                readingService.streamReadings(sensorId, reading -> {
+                    try {
+                        json.writeObject(reading);
+                        if (!array) {
+                            json.writeRaw('\n');
+                        }
+                    } catch (IOException e) {
+                        throw new UncheckedIOException(e);
+                    }
+                });
+            } catch (UncheckedIOException e) {
+                throw e.getCause();
+            }
+            if (array) {
+                json.writeEndArray();
+            }
+        }
+    }
+
+    @ExceptionHandler(IngestQueueFullException.class)
+    public ResponseEntity<Void> handleIngestQueueFull(IngestQueueFullException ex) {
+        log.warn("Rejecting reading: {}", ex.getMessage());
+        return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                .header(HttpHeaders.RETRY_AFTER, "1")
+                .build();
+    }
+
+    @ExceptionHandler(MalformedFrameException.class)
+    public ResponseEntity<Void> handleMalformedFrames(MalformedFrameException ex) {
+        log.warn("Rejecting frame batch: {}", ex.getMessage());
+        return ResponseEntity.badRequest().build();
+    }
+
+    // Connection pool exhausted for connection-timeout; with virtual threads this, not the request
+    // thread pool, is where excess load queues
+    @ExceptionHandler(CannotCreateTransactionException.class)
+    public ResponseEntity<Void> handleNoConnection(CannotCreateTransactionException ex) {
+        log.warn("Rejecting request, no database connection: {}", ex.getMessage());
+        return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                .header(HttpHeaders.RETRY_AFTER, "1")
+                .build();
+    }
 }
\ No newline at end of file
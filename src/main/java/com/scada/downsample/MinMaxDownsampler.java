@@ -0,0 +1,110 @@
+package com.scada.monitoring.downsample;
+
+import com.scada.monitoring.entity.SensorReading;
+import com.scada.monitoring.util.EpochTime;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Single-pass min/max-per-bucket downsampler. The time range is split into equal buckets and
+ * each bucket keeps only the readings holding its temperature and pressure extremes, so peaks
+ * and alarm excursions survive while memory stays constant regardless of the input size.
+ * Readings must be supplied in ascending timestamp order.
+ */
+public final class MinMaxDownsampler {
+
+    /** Up to four readings are kept per bucket: min/max temperature and min/max pressure. */
+    private static final int POINTS_PER_BUCKET = 4;
+
+    private final long startMillis;
+    private final long bucketMillis;
+    private final List<SensorReading> output;
+    private final SensorReading[] extremes = new SensorReading[POINTS_PER_BUCKET];
+
+    private long currentBucket = Long.MIN_VALUE;
+    private SensorReading minTemperature;
+    private SensorReading maxTemperature;
+    private SensorReading minPressure;
+    private SensorReading maxPressure;
+
+    public MinMaxDownsampler(long startMillis, long endMillis, int maxPoints) {
+        int buckets = Math.max(1, maxPoints / POINTS_PER_BUCKET);
+        this.startMillis = startMillis;
+        this.bucketMillis = Math.max(1, (endMillis - startMillis + buckets) / buckets);
+        this.output = new ArrayList<>(Math.max(maxPoints, POINTS_PER_BUCKET));
+    }
+
+    public void accept(SensorReading reading) {
+        long bucket = (EpochTime.toEpochMillis(reading.getTimestamp()) - startMillis) / bucketMillis;
+        if (bucket != currentBucket) {
+            emit();
+            currentBucket = bucket;
+            minTemperature = reading;
+            maxTemperature = reading;
+            minPressure = reading;
+            maxPressure = reading;
+            return;
+        }
+        if (reading.getTemperature() < minTemperature.getTemperature()) {
+            minTemperature = reading;
+        }
+        if (reading.getTemperature() > maxTemperature.getTemperature()) {
+            maxTemperature = reading;
+        }
+        if (reading.getPressure() < minPressure.getPressure()) {
+            minPressure = reading;
+        }
+        if (reading.getPressure() > maxPressure.getPressure()) {
+            maxPressure = reading;
+        }
+    }
+
+    /**
+     * Flushes the last bucket and returns the selected readings in ascending timestamp order.
+     */
+    public List<SensorReading> finish() {
+        emit();
+        return output;
+    }
+
+    private void emit() {
+        if (minTemperature == null) {
+            return;
+        }
+        int count = 0;
+        count = addDistinct(minTemperature, count);
+        count = addDistinct(maxTemperature, count);
+        count = addDistinct(minPressure, count);
+        count = addDistinct(maxPressure, count);
+
+        // Insertion sort of at most four readings keeps the output in time order
+        for (int i = 1; i < count; i++) {
+            SensorReading key = extremes[i];
+            int j = i - 1;
+            while (j >= 0 && extremes[j].getTimestamp().isAfter(key.getTimestamp())) {
+                extremes[j + 1] = extremes[j];
+                j--;
+            }
+            extremes[j + 1] = key;
+        }
+        for (int i = 0; i < count; i++) {
+            output.add(extremes[i]);
+            extremes[i] = null;
+        }
+        minTemperature = null;
+        maxTemperature = null;
+        minPressure = null;
+        maxPressure = null;
+    }
+
+    private int addDistinct(SensorReading reading, int count) {
+        for (int i = 0; i < count; i++) {
+            if (extremes[i] == reading) {
+                return count;
+            }
+        }
+        extremes[count] = reading;
+        return count + 1;
+    }
+}
@@ -0,0 +1,27 @@
+package com.scada.monitoring.dto;
+
+import com.scada.monitoring.entity.AlarmState;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class AlarmResponse {
+    private Long id;
+    private String sensorId;
+    private int code;
+    /** e.g. HIGH_TEMPERATURE */
+    private String type;
+    private AlarmState state;
+    private double value;
+    private Double limit;
+    private String message;
+    private LocalDateTime raisedAt;
+    private LocalDateTime acknowledgedAt;
+    private String acknowledgedBy;
+    private LocalDateTime clearedAt;
+}
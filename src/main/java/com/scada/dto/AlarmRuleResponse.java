@@ -0,0 +1,33 @@
+package com.scada.monitoring.dto;
+
+import com.scada.monitoring.entity.MotorCondition;
+import com.scada.monitoring.entity.RuleCombinator;
+import com.scada.monitoring.entity.RuleType;
+import com.scada.monitoring.entity.RuleVariable;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class AlarmRuleResponse {
+    private Long id;
+    private String sensorId;
+    private RuleVariable variable;
+    private RuleType type;
+    private double limit;
+    private double deadband;
+    private long delayOnMs;
+    private long delayOffMs;
+    private MotorCondition motorCondition;
+    private boolean enabled;
+    private LocalDateTime createdAt;
+    private RuleCombinator combinator;
+    private RuleVariable secondVariable;
+    private RuleType secondType;
+    private Double secondLimit;
+    private double secondDeadband;
+}
@@ -0,0 +1,40 @@
+package com.scada.monitoring.dto;
+
+import com.scada.monitoring.entity.MotorCondition;
+import com.scada.monitoring.entity.RuleCombinator;
+import com.scada.monitoring.entity.RuleType;
+import com.scada.monitoring.entity.RuleVariable;
+import jakarta.validation.constraints.NotBlank;
+import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.PositiveOrZero;
+import lombok.Data;
+
+@Data
+public class CreateAlarmRuleRequest {
+    @NotBlank
+    private String sensorId;
+    @NotNull
+    private RuleVariable variable;
+    @NotNull
+    private RuleType type;
+    /** Value limit, or change per second for RATE_OF_CHANGE. */
+    @NotNull
+    private Double limit;
+    @PositiveOrZero
+    private Double deadband;
+    @PositiveOrZero
+    private Long delayOnMs;
+    @PositiveOrZero
+    private Long delayOffMs;
+    /** Combines a second condition with the first; the second* fields are required with it. */
+    private RuleCombinator combinator;
+    private RuleVariable secondVariable;
+    private RuleType secondType;
+    private Double secondLimit;
+    @PositiveOrZero
+    private Double secondDeadband;
+    /** Defaults to ANY. */
+    private MotorCondition motorCondition;
+    /** Defaults to true. */
+    private Boolean enabled;
+}
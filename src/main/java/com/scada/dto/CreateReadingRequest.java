@@ -0,0 +1,21 @@
+package com.scada.monitoring.dto;
+
+import jakarta.validation.constraints.NotBlank;
+import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Positive;
+import lombok.Data;
+
+@Data
+public class CreateReadingRequest {
+    @NotBlank
+    private String sensorId;
+    @NotNull
+    private Double temperature;
+    @NotNull
+    private Double pressure;
+    @NotNull
+    private Boolean motorOn;
+    /** Sample time on the device, in nanoseconds since the epoch (UTC). Defaults to the time the server received it. */
+    @Positive
+    private Long timestampNanos;
+}
@@ -0,0 +1,15 @@
+package com.scada.monitoring.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class FrameIngestResponse {
+    /** Readings queued from the batch; a batch is accepted or rejected as a whole. */
+    private int accepted;
+    /** Accepted readings older than their sensor's watermark by more than the lateness window. */
+    private int late;
+}
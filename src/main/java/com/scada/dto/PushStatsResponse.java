@@ -0,0 +1,18 @@
+package com.scada.monitoring.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class PushStatsResponse {
+    private int subscribers;
+    private int maxSubscribers;
+    private long delivered;
+    /** Readings replaced by a newer value for the same sensor before a slow client received them. */
+    private long conflated;
+    private long droppedAlarms;
+    private long droppedReadings;
+}
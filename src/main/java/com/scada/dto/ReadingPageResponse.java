@@ -0,0 +1,16 @@
+package com.scada.monitoring.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ReadingPageResponse {
+    private List<SensorReadingResponse> readings;
+    /** Cursor for the next page ({@code after} parameter); null once the last page is reached. A reading id with the table backend, opaque with the columnar one. */
+    private Long nextAfterId;
+}
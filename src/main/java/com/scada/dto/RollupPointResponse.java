@@ -0,0 +1,22 @@
+package com.scada.monitoring.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class RollupPointResponse {
+    private LocalDateTime bucketStart;
+    private long sampleCount;
+    private double minTemperature;
+    private double maxTemperature;
+    private double avgTemperature;
+    private double minPressure;
+    private double maxPressure;
+    private double avgPressure;
+    private long warningCount;
+}
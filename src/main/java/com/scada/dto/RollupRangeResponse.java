@@ -0,0 +1,17 @@
+package com.scada.monitoring.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class RollupRangeResponse {
+    private String sensorId;
+    /** "1s", "1m", "1h", or "raw" when the window was short enough to read readings directly. */
+    private String resolution;
+    private List<RollupPointResponse> points;
+}
@@ -0,0 +1,21 @@
+package com.scada.monitoring.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class StreamIngestResponse {
+    /** Readings queued from the stream. */
+    private long accepted;
+    /** Lines skipped because they were malformed or named an unknown sensor. */
+    private long rejected;
+    /** Accepted readings older than their sensor's watermark by more than the lateness window. */
+    private long late;
+    /** The first few rejections, as "line N: reason". */
+    private List<String> errors;
+}
@@ -14,9 +14,13 @@ public class TrendAnalysisResponse {
     private Double avgTemperature;
     private Double maxTemperature;
     private Double minTemperature;
+    private Double stdDevTemperature;
+    private Double temperatureRateOfChange;
     private Double avgPressure;
     private Double maxPressure;
     private Double minPressure;
+    private Double stdDevPressure;
+    private Double pressureRateOfChange;
     private int totalReadings;
     private int warningCount;
     private LocalDateTime startTime;
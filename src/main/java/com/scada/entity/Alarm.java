@@ -0,0 +1,52 @@
+package com.scada.monitoring.entity;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+@Entity
+@Table(name = "alarms", indexes = {
+        @Index(name = "idx_alarms_state", columnList = "state"),
+        @Index(name = "idx_alarms_sensor_raised", columnList = "sensorId, raisedAt")
+})
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class Alarm {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(nullable = false)
+    private String sensorId;
+
+    /** Single AlarmCodes bit. */
+    @Column(nullable = false)
+    private int code;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false, length = 16)
+    private AlarmState state;
+
+    /** Value of the alarmed variable when the alarm was raised. */
+    @Column(name = "trigger_value", nullable = false)
+    private double value;
+
+    /** Limit that was crossed; only recorded for high-limit alarms. */
+    @Column(name = "limit_value")
+    private Double limit;
+
+    @Column(nullable = false)
+    private LocalDateTime raisedAt;
+
+    private LocalDateTime acknowledgedAt;
+
+    @Column(length = 64)
+    private String acknowledgedBy;
+
+    private LocalDateTime clearedAt;
+}
@@ -0,0 +1,84 @@
+package com.scada.monitoring.entity;
+
+import com.scada.monitoring.util.EpochTime;
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+@Entity
+@Table(name = "alarm_rules", indexes = {
+        @Index(name = "idx_alarm_rules_sensor_id", columnList = "sensorId")
+})
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class AlarmRule {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(nullable = false)
+    private String sensorId;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false, length = 16)
+    private RuleVariable variable;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false, length = 16)
+    private RuleType type;
+
+    // "limit" is a reserved word in H2
+    @Column(name = "limit_value", nullable = false)
+    private double limit;
+
+    /** Hysteresis: how far the value must move back past the limit before the alarm clears. */
+    @Column(nullable = false)
+    private double deadband;
+
+    /** How long the condition must hold before the alarm activates. */
+    @Column(nullable = false)
+    private long delayOnMs;
+
+    /** How long the condition must be clear before the alarm deactivates. */
+    @Column(nullable = false)
+    private long delayOffMs;
+
+    /** Set when the rule has a second condition; null for a single condition. */
+    @Enumerated(EnumType.STRING)
+    @Column(length = 8)
+    private RuleCombinator combinator;
+
+    @Enumerated(EnumType.STRING)
+    @Column(length = 16)
+    private RuleVariable secondVariable;
+
+    @Enumerated(EnumType.STRING)
+    @Column(length = 16)
+    private RuleType secondType;
+
+    @Column(name = "second_limit_value")
+    private Double secondLimit;
+
+    @Column(nullable = false)
+    private double secondDeadband;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false, length = 8)
+    private MotorCondition motorCondition = MotorCondition.ANY;
+
+    @Column(nullable = false)
+    private boolean enabled = true;
+
+    @Column(nullable = false)
+    private LocalDateTime createdAt;
+
+    @PrePersist
+    protected void onCreate() {
+        createdAt = EpochTime.now();
+    }
+}
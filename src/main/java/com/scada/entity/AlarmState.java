@@ -0,0 +1,15 @@
+package com.scada.monitoring.entity;
+
+/**
+ * Alarm lifecycle. An alarm stays in the active index until it is both cleared and
+ * acknowledged, at which point it becomes CLOSED.
+ */
+public enum AlarmState {
+    /** Condition present, not acknowledged. */
+    ACTIVE,
+    /** Condition present, acknowledged by an operator. */
+    ACKNOWLEDGED,
+    /** Condition gone, still waiting for acknowledgement. */
+    CLEARED,
+    CLOSED
+}
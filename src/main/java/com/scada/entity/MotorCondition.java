@@ -0,0 +1,12 @@
+package com.scada.monitoring.entity;
+
+/** Motor state ANDed with a rule's conditions; ANY ignores the motor. */
+public enum MotorCondition {
+    ANY,
+    ON,
+    OFF;
+
+    public boolean matches(boolean motorOn) {
+        return this == ANY || (this == ON) == motorOn;
+    }
+}
@@ -0,0 +1,62 @@
+package com.scada.monitoring.entity;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+/**
+ * Min/max/avg summary of one sensor's readings over one time bucket at a given resolution.
+ */
+@Entity
+@Table(name = "sensor_reading_rollups", uniqueConstraints = {
+        @UniqueConstraint(name = "uk_rollup_bucket", columnNames = {"sensorId", "resolution", "bucketStart"})
+}, indexes = {
+        @Index(name = "idx_rollup_expiry", columnList = "resolution, bucketStart")
+})
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ReadingRollup {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "sensor_reading_rollups_seq")
+    @SequenceGenerator(name = "sensor_reading_rollups_seq", sequenceName = "sensor_reading_rollups_seq", allocationSize = 50)
+    private Long id;
+
+    @Column(nullable = false)
+    private String sensorId;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false, length = 16)
+    private RollupResolution resolution;
+
+    @Column(nullable = false)
+    private LocalDateTime bucketStart;
+
+    @Column(nullable = false)
+    private long sampleCount;
+
+    @Column(nullable = false)
+    private double minTemperature;
+
+    @Column(nullable = false)
+    private double maxTemperature;
+
+    @Column(nullable = false)
+    private double avgTemperature;
+
+    @Column(nullable = false)
+    private double minPressure;
+
+    @Column(nullable = false)
+    private double maxPressure;
+
+    @Column(nullable = false)
+    private double avgPressure;
+
+    @Column(nullable = false)
+    private long warningCount;
+}
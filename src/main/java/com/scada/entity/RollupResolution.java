@@ -0,0 +1,29 @@
+package com.scada.monitoring.entity;
+
+import java.util.concurrent.TimeUnit;
+
+public enum RollupResolution {
+    ONE_SECOND("1s", TimeUnit.SECONDS.toMillis(1)),
+    ONE_MINUTE("1m", TimeUnit.MINUTES.toMillis(1)),
+    ONE_HOUR("1h", TimeUnit.HOURS.toMillis(1));
+
+    private final String code;
+    private final long millis;
+
+    RollupResolution(String code, long millis) {
+        this.code = code;
+        this.millis = millis;
+    }
+
+    public String getCode() {
+        return code;
+    }
+
+    public long getMillis() {
+        return millis;
+    }
+
+    public long bucketStart(long epochMillis) {
+        return Math.floorDiv(epochMillis, millis) * millis;
+    }
+}
@@ -0,0 +1,11 @@
+package com.scada.monitoring.entity;
+
+/** How a rule's second condition combines with its first. */
+public enum RuleCombinator {
+    AND,
+    OR;
+
+    public boolean combine(boolean first, boolean second) {
+        return this == AND ? first && second : first || second;
+    }
+}
@@ -0,0 +1,10 @@
+package com.scada.monitoring.entity;
+
+public enum RuleType {
+    /** Active while the value is at or above the limit. */
+    HIGH,
+    /** Active while the value is at or below the limit. */
+    LOW,
+    /** Active while the absolute change per second is at or above the limit. */
+    RATE_OF_CHANGE
+}
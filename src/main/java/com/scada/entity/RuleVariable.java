@@ -0,0 +1,6 @@
+package com.scada.monitoring.entity;
+
+public enum RuleVariable {
+    TEMPERATURE,
+    PRESSURE
+}
@@ -1,5 +1,6 @@
 package com.scada.monitoring.entity;
 
+import com.scada.monitoring.util.EpochTime;
 import jakarta.persistence.*;
 import lombok.AllArgsConstructor;
 import lombok.Data;
@@ -41,12 +42,12 @@ public class Sensor {
 
     @PrePersist
     protected void onCreate() {
-        createdAt = LocalDateTime.now();
-        updatedAt = LocalDateTime.now();
+        createdAt = EpochTime.now();
+        updatedAt = EpochTime.now();
     }
 
     @PreUpdate
     protected void onUpdate() {
-        updatedAt = LocalDateTime.now();
+        updatedAt = EpochTime.now();
     }
 }
\ No newline at end of file
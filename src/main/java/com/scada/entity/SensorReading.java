@@ -1,29 +1,40 @@
 package com.scada.monitoring.entity;
 
+import com.scada.monitoring.util.EpochTime;
 import jakarta.persistence.*;
-import lombok.AllArgsConstructor;
 import lombok.Data;
+import lombok.EqualsAndHashCode;
 import lombok.NoArgsConstructor;
+import lombok.ToString;
 
 import java.time.LocalDateTime;
 
 @Entity
+// Per-sensor queries filter on sensorId and order by newest first, so the composite index serves
+// both without a sort; it also covers lookups by sensorId alone. idx_timestamp serves retention.
 @Table(name = "sensor_readings", indexes = {
-        @Index(name = "idx_sensor_id", columnList = "sensorId"),
+        @Index(name = "idx_reading_sensor_time", columnList = "sensorId, timestamp DESC"),
         @Index(name = "idx_timestamp", columnList = "timestamp")
 })
 @Data
 @NoArgsConstructor
-@AllArgsConstructor
 public class SensorReading {
 
+    // Pooled sequence rather than IDENTITY so Hibernate can assign IDs up front and batch the inserts
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "sensor_readings_seq")
+    @SequenceGenerator(name = "sensor_readings_seq", sequenceName = "sensor_readings_seq", allocationSize = 50)
     private Long id;
 
     @Column(nullable = false)
     private String sensorId;
 
+    // SensorDictionary key, set on the ingest path; -1 (NO_KEY) for readings loaded from storage
+    @Transient
+    @EqualsAndHashCode.Exclude
+    @ToString.Exclude
+    private int sensorKey = -1;
+
     @Column(nullable = false)
     private Double temperature;
 
@@ -40,13 +51,37 @@ public class SensorReading {
 
     private boolean pressureWarning;
 
-    @Column(length = 500)
-    private String warningMessage;
+    // AlarmCodes bitmask plus the limits it was evaluated against; the message is rendered on read
+    @Column(nullable = false)
+    private int alarmMask;
+
+    @Column(nullable = false)
+    private double tempLimit;
+
+    @Column(nullable = false)
+    private double pressureLimit;
+
+    // Used by the projected queries in SensorReadingQueryRepository
+    public SensorReading(Long id, String sensorId, Double temperature, Double pressure, boolean motorOn,
+                         LocalDateTime timestamp, boolean tempWarning, boolean pressureWarning, int alarmMask,
+                         double tempLimit, double pressureLimit) {
+        this.id = id;
+        this.sensorId = sensorId;
+        this.temperature = temperature;
+        this.pressure = pressure;
+        this.motorOn = motorOn;
+        this.timestamp = timestamp;
+        this.tempWarning = tempWarning;
+        this.pressureWarning = pressureWarning;
+        this.alarmMask = alarmMask;
+        this.tempLimit = tempLimit;
+        this.pressureLimit = pressureLimit;
+    }
 
     @PrePersist
     protected void onCreate() {
         if (timestamp == null) {
-            timestamp = LocalDateTime.now();
+            timestamp = EpochTime.now();
         }
     }
 }
\ No newline at end of file
@@ -0,0 +1,8 @@
+package com.scada.monitoring.ingest;
+
+public class IngestQueueFullException extends RuntimeException {
+
+    public IngestQueueFullException(int capacity) {
+        super("Ingest queue is full (capacity: " + capacity + ")");
+    }
+}
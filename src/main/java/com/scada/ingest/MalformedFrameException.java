@@ -0,0 +1,8 @@
+package com.scada.monitoring.ingest;
+
+public class MalformedFrameException extends IllegalArgumentException {
+
+    public MalformedFrameException(String message) {
+        super(message);
+    }
+}
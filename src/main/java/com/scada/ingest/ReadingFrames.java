@@ -0,0 +1,188 @@
+package com.scada.monitoring.ingest;
+
+import com.scada.monitoring.entity.SensorReading;
+import com.scada.monitoring.util.EpochTime;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.function.ObjIntConsumer;
+
+/**
+ * Binary ingest format for {@code POST /api/readings/frames}. All values are big-endian:
+ * <pre>
+ *   header:       int magic ("SCRF"), byte version, byte reserved, short sensorCount
+ *   sensor table: sensorCount x (short idLength, byte[idLength] sensorId as UTF-8)
+ *   frame:        short sensorIndex, long epochNanos, double temperature, double pressure,
+ *                 byte flags (bit 0 = motor on); repeated to the end of the body
+ * </pre>
+ * Sensor ids are sent once per request and every frame refers to one by its position in the
+ * table, so frames are fixed-width and are decoded straight out of the request buffer into
+ * {@link SensorReading}s. A timestamp of 0 means "stamp on arrival".
+ */
+public final class ReadingFrames {
+
+    public static final String MEDIA_TYPE = "application/vnd.scada.frames";
+    public static final int FRAME_BYTES = 2 + 8 + 8 + 8 + 1;
+
+    private static final int MAGIC = 0x53435246;
+    private static final byte VERSION = 1;
+    private static final int HEADER_BYTES = 8;
+    private static final int MOTOR_ON = 1;
+
+    private final ByteBuffer buffer;
+    private final String[] sensorIds;
+    private final int firstFrame;
+    private final int frameCount;
+
+    private ReadingFrames(ByteBuffer buffer, String[] sensorIds, int firstFrame, int frameCount) {
+        this.buffer = buffer;
+        this.sensorIds = sensorIds;
+        this.firstFrame = firstFrame;
+        this.frameCount = frameCount;
+    }
+
+    /**
+     * Validates the header, sensor table and body length. Frames are decoded by {@link #forEach}.
+     *
+     * @throws MalformedFrameException if the body is not a complete frame batch
+     */
+    public static ReadingFrames parse(ByteBuffer body) {
+        return parse(body, Integer.MAX_VALUE);
+    }
+
+    /**
+     * Like {@link #parse(ByteBuffer)}, and rejects a batch of more than {@code maxFrames} frames
+     * before any is decoded, such as one that could never fit the ingest queue.
+     *
+     * @throws MalformedFrameException if the body is not a complete frame batch or is too large
+     */
+    public static ReadingFrames parse(ByteBuffer body, int maxFrames) {
+        ByteBuffer buffer = body.duplicate();
+        if (buffer.remaining() < HEADER_BYTES || buffer.getInt() != MAGIC) {
+            throw new MalformedFrameException("Not a reading frame batch");
+        }
+        byte version = buffer.get();
+        if (version != VERSION) {
+            throw new MalformedFrameException("Unsupported frame version: " + version);
+        }
+        buffer.get();
+        int sensorCount = buffer.getShort() & 0xFFFF;
+
+        String[] sensorIds = new String[sensorCount];
+        for (int i = 0; i < sensorCount; i++) {
+            if (buffer.remaining() < 2) {
+                throw new MalformedFrameException("Sensor table is truncated");
+            }
+            int length = buffer.getShort() & 0xFFFF;
+            if (length == 0 || buffer.remaining() < length) {
+                throw new MalformedFrameException("Sensor table is truncated");
+            }
+            byte[] id = new byte[length];
+            buffer.get(id);
+            sensorIds[i] = new String(id, StandardCharsets.UTF_8);
+        }
+
+        if (buffer.remaining() % FRAME_BYTES != 0) {
+            throw new MalformedFrameException("Frame data is " + buffer.remaining() + " bytes, not a multiple of " + FRAME_BYTES);
+        }
+        int frameCount = buffer.remaining() / FRAME_BYTES;
+        if (frameCount > maxFrames) {
+            throw new MalformedFrameException("Batch has " + frameCount + " frames, more than the " + maxFrames
+                    + " the ingest queue can hold; split it");
+        }
+        return new ReadingFrames(buffer, sensorIds, buffer.position(), frameCount);
+    }
+
+    public String[] getSensorIds() {
+        return sensorIds;
+    }
+
+    public int getFrameCount() {
+        return frameCount;
+    }
+
+    /**
+     * Decodes every frame, in order, into a new reading and hands it to {@code sink} together with
+     * the index of its sensor in {@link #getSensorIds()}. Thresholds are not evaluated.
+     *
+     * @throws MalformedFrameException on an unknown sensor index or a non-finite value
+     */
+    public void forEach(ObjIntConsumer<SensorReading> sink) {
+        LocalDateTime arrival = null;
+        int position = firstFrame;
+        for (int i = 0; i < frameCount; i++, position += FRAME_BYTES) {
+            int sensorIndex = buffer.getShort(position) & 0xFFFF;
+            long epochNanos = buffer.getLong(position + 2);
+            double temperature = buffer.getDouble(position + 10);
+            double pressure = buffer.getDouble(position + 18);
+            int flags = buffer.get(position + 26);
+            if (sensorIndex >= sensorIds.length) {
+                throw new MalformedFrameException("Frame " + i + " refers to sensor " + sensorIndex
+                        + " but the table has " + sensorIds.length);
+            }
+            if (Double.isNaN(temperature) || Double.isInfinite(temperature)
+                    || Double.isNaN(pressure) || Double.isInfinite(pressure)) {
+                throw new MalformedFrameException("Frame " + i + " has a non-finite value");
+            }
+
+            SensorReading reading = new SensorReading();
+            reading.setSensorId(sensorIds[sensorIndex]);
+            reading.setTemperature(temperature);
+            reading.setPressure(pressure);
+            reading.setMotorOn((flags & MOTOR_ON) != 0);
+            if (epochNanos != 0) {
+                reading.setTimestamp(EpochTime.fromEpochNanos(epochNanos));
+            } else {
+                if (arrival == null) {
+                    arrival = EpochTime.now();
+                }
+                reading.setTimestamp(arrival);
+            }
+            sink.accept(reading, sensorIndex);
+        }
+    }
+
+    /**
+     * Builds a frame batch, for clients, simulators and tests.
+     */
+    public static final class Writer {
+        private final byte[][] sensorIds;
+        private final ByteArrayOutputStream frames = new ByteArrayOutputStream();
+        private final ByteBuffer frame = ByteBuffer.allocate(FRAME_BYTES);
+
+        public Writer(List<String> sensorIds) {
+            if (sensorIds.size() > 0xFFFF) {
+                throw new IllegalArgumentException("At most 65535 sensors per frame batch");
+            }
+            this.sensorIds = new byte[sensorIds.size()][];
+            for (int i = 0; i < sensorIds.size(); i++) {
+                this.sensorIds[i] = sensorIds.get(i).getBytes(StandardCharsets.UTF_8);
+            }
+        }
+
+        public Writer add(int sensorIndex, long epochNanos, double temperature, double pressure, boolean motorOn) {
+            frame.clear();
+            frame.putShort((short) sensorIndex).putLong(epochNanos).putDouble(temperature).putDouble(pressure)
+                    .put((byte) (motorOn ? MOTOR_ON : 0));
+            frames.write(frame.array(), 0, FRAME_BYTES);
+            return this;
+        }
+
+        public byte[] toByteArray() {
+            int tableBytes = 0;
+            for (byte[] id : sensorIds) {
+                tableBytes += 2 + id.length;
+            }
+            ByteBuffer out = ByteBuffer.allocate(HEADER_BYTES + tableBytes + frames.size());
+            out.putInt(MAGIC).put(VERSION).put((byte) 0).putShort((short) sensorIds.length);
+            for (byte[] id : sensorIds) {
+                out.putShort((short) id.length).put(id);
+            }
+            out.put(frames.toByteArray());
+            return out.array();
+        }
+    }
+}
@@ -0,0 +1,256 @@
+package com.scada.monitoring.ingest;
+
+import com.scada.monitoring.cache.SensorDictionary;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Supplier;
+
+/**
+ * Single-writer lanes for the order-sensitive part of ingest: stamping, alarm evaluation and
+ * queueing for storage. Each sensor is pinned to lane {@code key % lanes} by its
+ * {@link SensorDictionary} key, and every lane runs its tasks one at a time, in submission order,
+ * on its own thread. A sensor's readings are therefore evaluated in the order they arrived, so
+ * rate-of-change and hysteresis state never see them reordered, while sensors on different lanes
+ * proceed in parallel.
+ * <p>
+ * Tasks must not wait for I/O beyond what they exist to order. Callers write to storage, publish
+ * to listeners, some of which write alarms, and wait for durability on their own thread after the
+ * lane has evaluated or queued the reading. {@code scada.ingest.lane.busy} is the time each lane
+ * spent running tasks, so its rate is the lane's utilization.
+ */
+@Component
+@Slf4j
+public class ReadingIngestLanes {
+
+    private static final int MAX_DRAIN = 256;
+
+    private final Lane[] lanes;
+    private final int queueCapacity;
+    private volatile boolean running;
+
+    public ReadingIngestLanes(@Value("${scada.ingest.lanes.count:4}") int laneCount,
+                              @Value("${scada.ingest.lanes.queue-capacity:10000}") int queueCapacity,
+                              MeterRegistry meterRegistry) {
+        if (laneCount < 1) {
+            throw new IllegalArgumentException("scada.ingest.lanes.count must be at least 1, was " + laneCount);
+        }
+        this.queueCapacity = queueCapacity;
+        this.lanes = new Lane[laneCount];
+        for (int i = 0; i < laneCount; i++) {
+            lanes[i] = new Lane(i, queueCapacity, meterRegistry);
+        }
+    }
+
+    @PostConstruct
+    public void start() {
+        running = true;
+        for (Lane lane : lanes) {
+            lane.thread.start();
+        }
+        log.info("Reading ingest lanes started (lanes: {}, capacity: {})", lanes.length, queueCapacity);
+    }
+
+    /**
+     * Lets every lane finish the tasks already queued, then stops its thread.
+     */
+    @PreDestroy
+    public void stop() throws InterruptedException {
+        running = false;
+        for (Lane lane : lanes) {
+            lane.thread.join(TimeUnit.SECONDS.toMillis(10));
+        }
+    }
+
+    public int getLaneCount() {
+        return lanes.length;
+    }
+
+    public int laneOf(int sensorKey) {
+        return sensorKey % lanes.length;
+    }
+
+    /**
+     * Queues {@code task} on the lane of {@code sensorKey}. The future completes with its result
+     * once it has run, exceptionally if it threw.
+     *
+     * @throws IngestQueueFullException if the lane already has {@code queue-capacity} tasks waiting
+     */
+    public <T> CompletableFuture<T> submit(int sensorKey, Supplier<T> task) {
+        return lanes[laneOf(sensorKey)].offer(task);
+    }
+
+    /**
+     * Queues {@code tasks.get(i)} on the lane of {@code sensorKeys[i]}, all or none: if any of
+     * those lanes cannot take its tasks, none is queued. Futures are returned in task order.
+     *
+     * @throws IngestQueueFullException if a lane does not have room for its tasks
+     */
+    public <T> List<CompletableFuture<T>> submitAll(int[] sensorKeys, List<? extends Supplier<T>> tasks) {
+        int[] needed = new int[lanes.length];
+        for (int sensorKey : sensorKeys) {
+            needed[laneOf(sensorKey)]++;
+        }
+        // Producers lock lanes in index order, so batches spanning the same lanes cannot deadlock.
+        // Only the lane thread takes from a queue, so room seen under the locks stays free
+        int locked = 0;
+        try {
+            for (; locked < lanes.length; locked++) {
+                if (needed[locked] > 0) {
+                    lanes[locked].producerLock.lock();
+                }
+            }
+            for (int i = 0; i < lanes.length; i++) {
+                if (needed[i] > lanes[i].queue.remainingCapacity()) {
+                    lanes[i].rejected.increment();
+                    throw new IngestQueueFullException(queueCapacity);
+                }
+            }
+            List<CompletableFuture<T>> futures = new ArrayList<>(tasks.size());
+            for (int i = 0; i < sensorKeys.length; i++) {
+                futures.add(lanes[laneOf(sensorKeys[i])].add(tasks.get(i)));
+            }
+            return futures;
+        } finally {
+            for (int i = locked - 1; i >= 0; i--) {
+                if (needed[i] > 0) {
+                    lanes[i].producerLock.unlock();
+                }
+            }
+        }
+    }
+
+    public CompletableFuture<Void> execute(int sensorKey, Runnable task) {
+        return submit(sensorKey, () -> {
+            task.run();
+            return null;
+        });
+    }
+
+    /**
+     * Runs {@code task} on the lane of {@code sensorKey} and waits for its result. Exceptions the
+     * task throws are rethrown as they are.
+     *
+     * @throws IngestQueueFullException if the lane already has {@code queue-capacity} tasks waiting
+     */
+    public <T> T call(int sensorKey, Supplier<T> task) {
+        return join(submit(sensorKey, task));
+    }
+
+    /**
+     * Waits for a future returned by {@link #submit}, rethrowing what its task threw.
+     */
+    public static <T> T join(CompletableFuture<T> future) {
+        try {
+            return future.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException) {
+                throw (RuntimeException) e.getCause();
+            }
+            if (e.getCause() instanceof Error) {
+                throw (Error) e.getCause();
+            }
+            throw e;
+        }
+    }
+
+    private final class Lane {
+        private final BlockingQueue<Runnable> queue;
+        // Held to check and fill the queue, so submitAll can queue on several lanes atomically
+        private final ReentrantLock producerLock = new ReentrantLock();
+        private final Thread thread;
+        private final Counter rejected;
+        // Written only by the lane thread
+        private volatile long busyNanos;
+        private volatile long tasks;
+
+        private Lane(int index, int capacity, MeterRegistry meterRegistry) {
+            this.queue = new ArrayBlockingQueue<>(capacity);
+            this.thread = new Thread(this::run, "reading-ingest-lane-" + index);
+            this.thread.setDaemon(true);
+
+            String lane = String.valueOf(index);
+            Gauge.builder("scada.ingest.lane.queue.depth", queue, BlockingQueue::size)
+                    .description("Tasks waiting for the lane")
+                    .tag("lane", lane)
+                    .register(meterRegistry);
+            FunctionCounter.builder("scada.ingest.lane.busy", this, l -> l.busyNanos / 1e9)
+                    .description("Time the lane spent running tasks; its rate is the lane's utilization")
+                    .baseUnit("seconds")
+                    .tag("lane", lane)
+                    .register(meterRegistry);
+            FunctionCounter.builder("scada.ingest.lane.tasks", this, l -> l.tasks)
+                    .tag("lane", lane)
+                    .register(meterRegistry);
+            this.rejected = Counter.builder("scada.ingest.lane.rejected")
+                    .description("Tasks rejected because the lane's queue was full")
+                    .tag("lane", lane)
+                    .register(meterRegistry);
+        }
+
+        private <T> CompletableFuture<T> offer(Supplier<T> task) {
+            producerLock.lock();
+            try {
+                if (queue.remainingCapacity() == 0) {
+                    rejected.increment();
+                    throw new IngestQueueFullException(queueCapacity);
+                }
+                return add(task);
+            } finally {
+                producerLock.unlock();
+            }
+        }
+
+        // Called with producerLock held and room in the queue
+        private <T> CompletableFuture<T> add(Supplier<T> task) {
+            CompletableFuture<T> done = new CompletableFuture<>();
+            queue.add(() -> {
+                try {
+                    done.complete(task.get());
+                } catch (Throwable e) {
+                    done.completeExceptionally(e);
+                }
+            });
+            return done;
+        }
+
+        private void run() {
+            List<Runnable> batch = new ArrayList<>(MAX_DRAIN);
+            try {
+                while (running || !queue.isEmpty()) {
+                    Runnable first = queue.poll(100, TimeUnit.MILLISECONDS);
+                    if (first == null) {
+                        continue;
+                    }
+                    batch.add(first);
+                    queue.drainTo(batch, MAX_DRAIN - 1);
+                    // Timed per drained batch rather than per task to keep clock reads off the hot path
+                    long start = System.nanoTime();
+                    for (int i = 0; i < batch.size(); i++) {
+                        batch.get(i).run();
+                    }
+                    busyNanos += System.nanoTime() - start;
+                    tasks += batch.size();
+                    batch.clear();
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+}
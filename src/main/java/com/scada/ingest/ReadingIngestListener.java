@@ -0,0 +1,18 @@
+package com.scada.monitoring.ingest;
+
+import com.scada.monitoring.entity.SensorReading;
+
+/**
+ * Receives every reading accepted by one of the ingest paths. Implementations run on the
+ * ingesting thread, so they must be fast and must not block.
+ */
+public interface ReadingIngestListener {
+
+    void onReading(SensorReading reading);
+
+    /**
+     * Called after a sensor has been deleted so per-sensor state can be released.
+     */
+    default void onSensorRemoved(String sensorId) {
+    }
+}
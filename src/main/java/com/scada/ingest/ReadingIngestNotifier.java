@@ -0,0 +1,43 @@
+package com.scada.monitoring.ingest;
+
+import com.scada.monitoring.entity.SensorReading;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+
+/**
+ * Fans accepted readings out to all {@link ReadingIngestListener} beans. A failing listener
+ * is logged and skipped so it can never reject a reading that was already accepted.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class ReadingIngestNotifier {
+
+    private final List<ReadingIngestListener> listeners;
+
+    public void publish(SensorReading reading) {
+        for (int i = 0; i < listeners.size(); i++) {
+            try {
+                listeners.get(i).onReading(reading);
+            } catch (RuntimeException e) {
+                log.error("Reading listener {} failed for sensor {}", listeners.get(i).getClass().getSimpleName(),
+                        reading.getSensorId(), e);
+            }
+        }
+    }
+
+    public void publishAll(List<SensorReading> readings) {
+        for (int i = 0; i < readings.size(); i++) {
+            publish(readings.get(i));
+        }
+    }
+
+    public void sensorRemoved(String sensorId) {
+        for (ReadingIngestListener listener : listeners) {
+            listener.onSensorRemoved(sensorId);
+        }
+    }
+}
@@ -0,0 +1,629 @@
+package com.scada.monitoring.ingest;
+
+import com.scada.monitoring.entity.SensorReading;
+import com.scada.monitoring.storage.ReadingStore;
+import com.scada.monitoring.wal.WriteAheadLog;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Bounded in-memory queue in front of the {@link ReadingStore}. Producers never touch
+ * storage; a single writer thread drains the queue and flushes a batch whenever
+ * {@code batch-size} readings are waiting or the oldest one has waited {@code max-latency-ms}.
+ * <p>
+ * When the {@link WriteAheadLog} is enabled, every reading is logged before it is queued, so
+ * readings accepted before a crash are replayed on the next start, before the writer thread
+ * begins. Replayed readings are written like queued ones and then published to the
+ * {@link ReadingIngestNotifier}, since listeners lost them with the crash. The log is only
+ * checkpointed up to the store's {@link ReadingStore#durableSequence() durable sequence}: a
+ * backend that buffers readings in memory keeps them in the log until they are on disk, and one
+ * whose readings have stayed buffered for {@code max-checkpoint-lag-ms} is told to flush them.
+ * <p>
+ * A batch that fails to write is kept and retried, with the delay doubling from
+ * {@code retry-backoff-ms} up to {@value #MAX_RETRY_BACKOFF_MS} ms, until it is written. Its
+ * readings count against the queue capacity meanwhile, so a storage outage turns into rejected
+ * submissions rather than unbounded memory, and the log is not checkpointed past them.
+ */
+@Component
+@Slf4j
+public class ReadingIngestPipeline {
+
+    private static final long MAX_RETRY_BACKOFF_MS = 30_000;
+
+    private final ReadingStore readingStore;
+    private final WriteAheadLog wal;
+    private final ReadingIngestNotifier ingestNotifier;
+    private final ReentrantLock enqueueLock = new ReentrantLock();
+    private final Condition notFull = enqueueLock.newCondition();
+    private final BlockingQueue<PendingReading> queue;
+    private final int queueCapacity;
+    private final int batchSize;
+    private final long maxLatencyNanos;
+    private final long durableAckTimeoutMs;
+    private final long retryBackoffMs;
+    private final long maxCheckpointLagNanos;
+
+    private final DistributionSummary batchSizes;
+    private final Timer batchWrites;
+    private final Counter rejected;
+    private final Counter failed;
+
+    private volatile boolean running;
+    private Thread writerThread;
+
+    /** Queue space promised to open {@link Reservation}s; guarded by enqueueLock. */
+    private int reserved;
+    /** Queue space taken by readings of failed batches awaiting a retry; changed under enqueueLock. */
+    private final AtomicInteger retrying = new AtomicInteger();
+
+    // Writer thread only. Every logged reading is queued, in a failed batch, in a written batch
+    // the store has not made durable yet, or durable; the log is checkpointed up to the first
+    // LSN of the middle two, or the last LSN taken off the queue when both are empty
+    private final Deque<FailedBatch> failedBatches = new ArrayDeque<>();
+    private final Deque<WrittenBatch> notDurable = new ArrayDeque<>();
+    private long dequeuedLsn;
+
+    public ReadingIngestPipeline(ReadingStore readingStore,
+                                 WriteAheadLog wal,
+                                 ReadingIngestNotifier ingestNotifier,
+                                 @Value("${scada.ingest.queue-capacity:10000}") int queueCapacity,
+                                 @Value("${scada.ingest.batch-size:500}") int batchSize,
+                                 @Value("${scada.ingest.max-latency-ms:50}") long maxLatencyMs,
+                                 @Value("${scada.ingest.durable-ack-timeout-ms:5000}") long durableAckTimeoutMs,
+                                 @Value("${scada.ingest.retry-backoff-ms:100}") long retryBackoffMs,
+                                 @Value("${scada.ingest.wal.max-checkpoint-lag-ms:60000}") long maxCheckpointLagMs,
+                                 MeterRegistry meterRegistry) {
+        this.readingStore = readingStore;
+        this.wal = wal;
+        this.ingestNotifier = ingestNotifier;
+        this.queue = new ArrayBlockingQueue<>(queueCapacity);
+        this.queueCapacity = queueCapacity;
+        this.batchSize = batchSize;
+        this.maxLatencyNanos = TimeUnit.MILLISECONDS.toNanos(maxLatencyMs);
+        this.durableAckTimeoutMs = durableAckTimeoutMs;
+        this.retryBackoffMs = retryBackoffMs;
+        this.maxCheckpointLagNanos = TimeUnit.MILLISECONDS.toNanos(maxCheckpointLagMs);
+
+        Gauge.builder("scada.ingest.queue.depth", queue, BlockingQueue::size)
+                .description("Readings waiting for the batch writer")
+                .register(meterRegistry);
+        Gauge.builder("scada.ingest.queue.capacity", () -> queueCapacity)
+                .register(meterRegistry);
+        Gauge.builder("scada.ingest.retrying", retrying, AtomicInteger::get)
+                .description("Readings of failed batches waiting to be written again")
+                .register(meterRegistry);
+        this.batchSizes = DistributionSummary.builder("scada.ingest.batch.size")
+                .description("Readings per batch write")
+                .baseUnit("readings")
+                .register(meterRegistry);
+        this.batchWrites = Timer.builder("scada.ingest.batch.write")
+                .description("Time spent writing one batch to storage")
+                .register(meterRegistry);
+        this.rejected = Counter.builder("scada.ingest.rejected")
+                .description("Readings rejected because the queue was full")
+                .register(meterRegistry);
+        this.failed = Counter.builder("scada.ingest.failed")
+                .description("Readings whose batch failed to write, counted once per failed attempt")
+                .register(meterRegistry);
+    }
+
+    @PostConstruct
+    public void start() {
+        List<PendingReading> replayed = new ArrayList<>(batchSize);
+        wal.replay((reading, lsn) -> {
+            replayed.add(new PendingReading(reading, null, lsn));
+            if (replayed.size() >= batchSize) {
+                replay(replayed);
+            }
+        });
+        replay(replayed);
+        checkpoint();
+        running = true;
+        writerThread = new Thread(this::drainLoop, "reading-ingest-writer");
+        writerThread.setDaemon(true);
+        writerThread.start();
+        log.info("Reading ingest pipeline started (capacity: {}, batch size: {})", queueCapacity, batchSize);
+    }
+
+    @PreDestroy
+    public void stop() throws InterruptedException {
+        running = false;
+        if (writerThread != null) {
+            writerThread.join(TimeUnit.SECONDS.toMillis(10));
+        }
+        log.info("Reading ingest pipeline stopped ({} readings left in queue, {} awaiting retry)",
+                queue.size(), retrying.get());
+    }
+
+    /**
+     * Queues a reading and returns once it is in the write-ahead log, without waiting for storage.
+     * How long that takes depends on the log's fsync policy; without the log it returns immediately.
+     *
+     * @throws IngestQueueFullException if the queue is at capacity
+     */
+    public void submit(SensorReading reading) {
+        enqueue(reading, false).await();
+    }
+
+    /**
+     * Queues a reading and blocks until the batch containing it has been written.
+     *
+     * @throws IngestQueueFullException if the queue is at capacity
+     * @throws IllegalStateException if the batch was not written within the ack timeout; a batch
+     *                               that fails to write is retried until then
+     */
+    public void submitDurable(SensorReading reading) {
+        enqueue(reading, true).await();
+    }
+
+    /**
+     * Queues a reading without waiting for it. {@link Receipt#await()} then waits as
+     * {@link #submit} would or, with {@code untilPersisted}, as {@link #submitDurable}, so an
+     * ingest lane can queue readings in order and leave the waiting to the request thread.
+     *
+     * @throws IngestQueueFullException if the queue is at capacity
+     */
+    public Receipt enqueue(SensorReading reading, boolean untilPersisted) {
+        PendingReading pending = new PendingReading(reading, untilPersisted ? new CompletableFuture<>() : null, 0);
+        enqueueLock.lock();
+        try {
+            if (freeSlots() == 0) {
+                reject(1);
+            }
+            appendToLog(pending);
+            queue.add(pending);
+        } finally {
+            enqueueLock.unlock();
+        }
+        return new Receipt(pending);
+    }
+
+    /**
+     * Queues a batch of readings, all or none, and returns once the whole batch is in the
+     * write-ahead log. One log sync covers the batch.
+     *
+     * @throws IngestQueueFullException if the queue cannot take the whole batch
+     */
+    public void submitAll(List<SensorReading> readings) {
+        submitAll(readings, 0);
+    }
+
+    /**
+     * Like {@link #submitAll(List)}, but waits up to {@code maxWaitMs} for the writer to make room
+     * for the whole batch before rejecting it. Streaming producers use this so a full queue slows
+     * them down instead of failing them.
+     *
+     * @throws IngestQueueFullException if the queue still cannot take the batch after
+     *                                  {@code maxWaitMs}, or the batch is larger than the queue
+     */
+    public void submitAll(List<SensorReading> readings, long maxWaitMs) {
+        Reservation reservation = reserve(readings.size(), maxWaitMs);
+        reservation.enqueueAll(readings);
+        reservation.await();
+    }
+
+    /**
+     * Sets aside queue space for {@code readings} readings, waiting up to {@code maxWaitMs} for the
+     * writer to make room. A batch spread over several ingest lanes reserves its space first, so
+     * it is accepted or rejected as a whole before any lane queues part of it.
+     *
+     * @throws IngestQueueFullException if the space is not free after {@code maxWaitMs}, or
+     *                                  {@code readings} is more than the queue holds
+     */
+    public Reservation reserve(int readings, long maxWaitMs) {
+        if (readings > queueCapacity) {
+            reject(readings);
+        }
+        enqueueLock.lock();
+        try {
+            awaitCapacity(readings, maxWaitMs);
+            reserved += readings;
+        } finally {
+            enqueueLock.unlock();
+        }
+        return new Reservation(readings);
+    }
+
+    public int getQueueDepth() {
+        return queue.size();
+    }
+
+    public int getQueueCapacity() {
+        return queueCapacity;
+    }
+
+    // Producers enqueue under one lock: only they add and the writer only removes, so a capacity
+    // check makes batches all-or-nothing, and queue order matches log order so each flushed batch
+    // can checkpoint its last LSN. A ReentrantLock, not a monitor, because the log append does
+    // file I/O while request threads, possibly virtual, queue behind it. Reserved space is free in
+    // the queue but promised to a Reservation, and retrying readings have left it but still count
+    private int freeSlots() {
+        return queue.remainingCapacity() - reserved - retrying.get();
+    }
+
+    // Called with enqueueLock held; awaiting releases it so other producers and the writer's
+    // signal are not blocked
+    private void awaitCapacity(int readings, long maxWaitMs) {
+        long remaining = TimeUnit.MILLISECONDS.toNanos(maxWaitMs);
+        try {
+            while (freeSlots() < readings) {
+                if (remaining <= 0) {
+                    reject(readings);
+                }
+                remaining = notFull.awaitNanos(remaining);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while waiting for ingest queue capacity", e);
+        }
+    }
+
+    private long appendToLog(PendingReading pending) {
+        if (wal.isEnabled()) {
+            pending.lsn = wal.append(pending.reading);
+        }
+        return pending.lsn;
+    }
+
+    private void reject(int readings) {
+        rejected.increment(readings);
+        throw new IngestQueueFullException(queueCapacity);
+    }
+
+    private void drainLoop() {
+        List<PendingReading> batch = new ArrayList<>(batchSize);
+        try {
+            while (running) {
+                retryFailed(false);
+                checkpoint();
+                PendingReading first = queue.poll(100, TimeUnit.MILLISECONDS);
+                if (first == null) {
+                    continue;
+                }
+                batch.add(first);
+                long deadline = System.nanoTime() + maxLatencyNanos;
+                while (batch.size() < batchSize) {
+                    queue.drainTo(batch, batchSize - batch.size());
+                    long remaining = deadline - System.nanoTime();
+                    if (batch.size() >= batchSize || remaining <= 0) {
+                        break;
+                    }
+                    PendingReading next = queue.poll(remaining, TimeUnit.NANOSECONDS);
+                    if (next == null) {
+                        break;
+                    }
+                    batch.add(next);
+                }
+                flush(batch);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+
+        // Drain whatever is left so a graceful shutdown does not drop accepted readings. Batches
+        // that still fail stay in the write-ahead log for the next start
+        while (!queue.isEmpty()) {
+            queue.drainTo(batch, batchSize);
+            flush(batch);
+        }
+        retryFailed(true);
+        try {
+            readingStore.flush(readingStore.appendSequence());
+        } catch (RuntimeException e) {
+            log.error("Failed to flush the reading store on shutdown", e);
+        }
+        checkpoint();
+    }
+
+    private void replay(List<PendingReading> batch) {
+        if (batch.isEmpty()) {
+            return;
+        }
+        List<SensorReading> readings = new ArrayList<>(batch.size());
+        for (PendingReading pending : batch) {
+            readings.add(pending.reading);
+        }
+        flush(batch);
+        ingestNotifier.publishAll(readings);
+    }
+
+    private void flush(List<PendingReading> batch) {
+        if (batch.isEmpty()) {
+            return;
+        }
+        signalNotFull();
+        dequeuedLsn = Math.max(dequeuedLsn, batch.get(batch.size() - 1).lsn);
+        List<PendingReading> taken = new ArrayList<>(batch);
+        batch.clear();
+        if (write(taken)) {
+            acknowledge(taken);
+        } else {
+            enqueueLock.lock();
+            try {
+                retrying.addAndGet(taken.size());
+            } finally {
+                enqueueLock.unlock();
+            }
+            failedBatches.addLast(new FailedBatch(taken, retryBackoffMs));
+        }
+    }
+
+    /**
+     * Writes failed batches again, oldest first, stopping at the first one that is not yet due
+     * or fails again. On shutdown every batch gets one more attempt.
+     */
+    private void retryFailed(boolean all) {
+        long now = System.nanoTime();
+        Iterator<FailedBatch> batches = failedBatches.iterator();
+        while (batches.hasNext()) {
+            FailedBatch next = batches.next();
+            if (!all && now - next.retryAt < 0) {
+                return;
+            }
+            if (!write(next.batch)) {
+                next.backOff(now);
+                if (!all) {
+                    return;
+                }
+                continue;
+            }
+            batches.remove();
+            enqueueLock.lock();
+            try {
+                retrying.addAndGet(-next.batch.size());
+                notFull.signalAll();
+            } finally {
+                enqueueLock.unlock();
+            }
+            acknowledge(next.batch);
+            log.info("Wrote batch of {} readings after {} failed attempts", next.batch.size(), next.attempts);
+        }
+    }
+
+    private boolean write(List<PendingReading> batch) {
+        List<SensorReading> readings = new ArrayList<>(batch.size());
+        for (PendingReading pending : batch) {
+            readings.add(pending.reading);
+        }
+        try {
+            batchWrites.record(() -> readingStore.appendBatch(readings));
+        } catch (RuntimeException e) {
+            log.error("Failed to flush batch of {} readings; it will be retried", readings.size(), e);
+            failed.increment(readings.size());
+            return false;
+        }
+        batchSizes.record(readings.size());
+        log.debug("Flushed batch of {} readings", readings.size());
+        if (wal.isEnabled()) {
+            notDurable.addLast(new WrittenBatch(readingStore.appendSequence(), batch.get(0).lsn, System.nanoTime()));
+        }
+        return true;
+    }
+
+    private static void acknowledge(List<PendingReading> batch) {
+        for (PendingReading pending : batch) {
+            if (pending.persisted != null) {
+                pending.persisted.complete(null);
+            }
+        }
+    }
+
+    // Once per batch: the batch has already left the queue, so producers waiting in
+    // awaitCapacity can go ahead while it is written
+    private void signalNotFull() {
+        enqueueLock.lock();
+        try {
+            notFull.signalAll();
+        } finally {
+            enqueueLock.unlock();
+        }
+    }
+
+    private void checkpoint() {
+        if (!wal.isEnabled()) {
+            return;
+        }
+        long lsn = dequeuedLsn;
+        try {
+            long durable = readingStore.durableSequence();
+            while (!notDurable.isEmpty() && notDurable.peekFirst().sequence <= durable) {
+                notDurable.pollFirst();
+            }
+            WrittenBatch oldest = notDurable.peekFirst();
+            if (oldest != null && System.nanoTime() - oldest.writtenAt > maxCheckpointLagNanos) {
+                readingStore.flush(oldest.sequence);
+            }
+            // A retried batch is written after later ones, so the oldest LSN may be anywhere
+            for (WrittenBatch written : notDurable) {
+                lsn = Math.min(lsn, written.firstLsn - 1);
+            }
+            for (FailedBatch failedBatch : failedBatches) {
+                lsn = Math.min(lsn, failedBatch.batch.get(0).lsn - 1);
+            }
+            wal.markApplied(lsn);
+        } catch (RuntimeException e) {
+            log.error("Failed to checkpoint the write-ahead log at LSN {}", lsn, e);
+        }
+    }
+
+    /**
+     * A reading queued by {@link #enqueue}.
+     */
+    public final class Receipt {
+        private final PendingReading pending;
+
+        private Receipt(PendingReading pending) {
+            this.pending = pending;
+        }
+
+        public SensorReading getReading() {
+            return pending.reading;
+        }
+
+        /**
+         * Waits until the reading is in the write-ahead log or, if it was queued until persisted,
+         * until its batch has been written.
+         *
+         * @throws IllegalStateException if the batch was not written within the ack timeout; a batch
+         *                               that fails to write is retried until then
+         */
+        public void await() {
+            if (pending.persisted == null) {
+                wal.awaitDurable(pending.lsn);
+                return;
+            }
+            String sensorId = pending.reading.getSensorId();
+            try {
+                pending.persisted.get(durableAckTimeoutMs, TimeUnit.MILLISECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new IllegalStateException("Interrupted while waiting for reading to be persisted", e);
+            } catch (ExecutionException e) {
+                throw new IllegalStateException("Failed to persist reading for sensor: " + sensorId, e.getCause());
+            } catch (TimeoutException e) {
+                throw new IllegalStateException("Timed out waiting for reading to be persisted for sensor: " + sensorId);
+            }
+        }
+    }
+
+    /**
+     * Queue space set aside by {@link #reserve}. Readings queued through it are never rejected,
+     * and may be queued in parts from different threads.
+     */
+    public final class Reservation {
+        // Both guarded by enqueueLock
+        private int remaining;
+        private long lastLsn;
+
+        private Reservation(int readings) {
+            this.remaining = readings;
+        }
+
+        /**
+         * Queues readings into the reserved space without waiting for the log.
+         *
+         * @throws IllegalStateException if more readings are queued than were reserved
+         */
+        public void enqueueAll(List<SensorReading> readings) {
+            enqueueLock.lock();
+            try {
+                if (readings.size() > remaining) {
+                    throw new IllegalStateException("Queueing " + readings.size() + " readings into a reservation of " + remaining);
+                }
+                remaining -= readings.size();
+                reserved -= readings.size();
+                for (SensorReading reading : readings) {
+                    PendingReading pending = new PendingReading(reading, null, 0);
+                    lastLsn = Math.max(lastLsn, appendToLog(pending));
+                    queue.add(pending);
+                }
+            } finally {
+                enqueueLock.unlock();
+            }
+        }
+
+        /**
+         * Releases the unused space and waits until every reading queued through the reservation
+         * is in the write-ahead log. One log sync covers them all.
+         */
+        public void await() {
+            long lsn;
+            enqueueLock.lock();
+            try {
+                lsn = lastLsn;
+            } finally {
+                enqueueLock.unlock();
+            }
+            release();
+            wal.awaitDurable(lsn);
+        }
+
+        /**
+         * Gives back the space that was not used, for a batch that was abandoned part way.
+         */
+        public void release() {
+            enqueueLock.lock();
+            try {
+                if (remaining > 0) {
+                    reserved -= remaining;
+                    remaining = 0;
+                    notFull.signalAll();
+                }
+            } finally {
+                enqueueLock.unlock();
+            }
+        }
+    }
+
+    private static final class PendingReading {
+        private final SensorReading reading;
+        private final CompletableFuture<Void> persisted;
+        private long lsn;
+
+        private PendingReading(SensorReading reading, CompletableFuture<Void> persisted, long lsn) {
+            this.reading = reading;
+            this.persisted = persisted;
+            this.lsn = lsn;
+        }
+    }
+
+    /**
+     * A batch that failed to write, with its readings still waiting for their acknowledgement.
+     */
+    private static final class FailedBatch {
+        private final List<PendingReading> batch;
+        private long backoffMs;
+        private long retryAt;
+        private int attempts = 1;
+
+        private FailedBatch(List<PendingReading> batch, long backoffMs) {
+            this.batch = batch;
+            this.backoffMs = backoffMs;
+            this.retryAt = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(backoffMs);
+        }
+
+        private void backOff(long now) {
+            attempts++;
+            backoffMs = Math.min(backoffMs * 2, MAX_RETRY_BACKOFF_MS);
+            retryAt = now + TimeUnit.MILLISECONDS.toNanos(backoffMs);
+        }
+    }
+
+    /**
+     * A written batch whose readings the store has not reported durable yet.
+     */
+    private static final class WrittenBatch {
+        private final long sequence;
+        private final long firstLsn;
+        private final long writtenAt;
+
+        private WrittenBatch(long sequence, long firstLsn, long writtenAt) {
+            this.sequence = sequence;
+            this.firstLsn = firstLsn;
+            this.writtenAt = writtenAt;
+        }
+    }
+}
@@ -0,0 +1,108 @@
+package com.scada.monitoring.ingest;
+
+import com.scada.monitoring.cache.SensorDictionary;
+import com.scada.monitoring.cache.SensorTable;
+import com.scada.monitoring.entity.SensorReading;
+import com.scada.monitoring.util.EpochTime;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Per-sensor event-time watermark: the newest sample time seen for each sensor, in epoch nanos.
+ * Readings carry the device's sample time, so a gateway that buffers can deliver a sensor's
+ * readings late and out of order. A reading up to {@code lateness-ms} older than its sensor's
+ * watermark is in time: storage and the aggregates reorder or merge it. One older than that is
+ * late; it is still stored, but is counted in {@code scada.ingest.late} and reported to the client.
+ * <p>
+ * A sample time more than {@code max-future-ms} ahead of the server's UTC clock is rejected before
+ * the reading is evaluated: it would move the watermark, and storage's reorder buffer, so far
+ * forward that every later reading of the sensor would be late.
+ */
+@Component
+public class ReadingWatermarks {
+
+    private final SensorDictionary dictionary;
+    private final long latenessNanos;
+    private final long maxFutureMillis;
+    private final SensorTable<AtomicLong> watermarks = new SensorTable<>();
+    private final Counter lateReadings;
+
+    public ReadingWatermarks(SensorDictionary dictionary,
+                             @Value("${scada.ingest.lateness-ms:5000}") long latenessMs,
+                             @Value("${scada.ingest.max-future-ms:60000}") long maxFutureMs,
+                             MeterRegistry meterRegistry) {
+        this.dictionary = dictionary;
+        this.latenessNanos = TimeUnit.MILLISECONDS.toNanos(latenessMs);
+        this.maxFutureMillis = maxFutureMs;
+        this.lateReadings = Counter.builder("scada.ingest.late")
+                .description("Readings older than their sensor's watermark by more than the lateness window")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Whether the reading's sample time is more than {@code max-future-ms} ahead of the clock.
+     */
+    public boolean isAhead(SensorReading reading) {
+        return EpochTime.toEpochMillis(reading.getTimestamp()) - EpochTime.nowMillis() > maxFutureMillis;
+    }
+
+    /**
+     * Rejects a reading whose sample time is more than {@code max-future-ms} ahead of the clock.
+     *
+     * @throws IllegalArgumentException if it is
+     */
+    public void checkNotAhead(SensorReading reading) {
+        if (isAhead(reading)) {
+            throw new IllegalArgumentException(aheadMessage(reading));
+        }
+    }
+
+    public String aheadMessage(SensorReading reading) {
+        return "Sample time " + reading.getTimestamp() + " of sensor " + reading.getSensorId()
+                + " is more than " + maxFutureMillis + " ms ahead of the server clock";
+    }
+
+    /**
+     * Moves the sensor's watermark up to the reading's sample time.
+     *
+     * @return whether the reading is late
+     */
+    public boolean advance(SensorReading reading) {
+        int key = dictionary.keyOf(reading);
+        AtomicLong watermark = watermarks.get(key);
+        if (watermark == null) {
+            watermark = watermarks.computeIfAbsent(key, k -> new AtomicLong(Long.MIN_VALUE));
+        }
+        long sampleNanos = EpochTime.toEpochNanos(reading.getTimestamp());
+        long newest = watermark.accumulateAndGet(sampleNanos, Math::max);
+        if (newest - sampleNanos > latenessNanos) {
+            lateReadings.increment();
+            return true;
+        }
+        return false;
+    }
+
+    /**
+     * Moves the sensor's watermark back to {@code previous}, if it is still at {@code expected}, for
+     * readings that were not stored after all.
+     */
+    public void rollback(String sensorId, long expected, long previous) {
+        AtomicLong watermark = watermarks.get(dictionary.find(sensorId));
+        if (watermark != null) {
+            watermark.compareAndSet(expected, previous);
+        }
+    }
+
+    /**
+     * Sensor's watermark in epoch nanos, or {@link Long#MIN_VALUE} before its first reading.
+     */
+    public long get(String sensorId) {
+        AtomicLong watermark = watermarks.get(dictionary.find(sensorId));
+        return watermark != null ? watermark.get() : Long.MIN_VALUE;
+    }
+}
@@ -0,0 +1,82 @@
+package com.scada.monitoring.metrics;
+
+import com.scada.monitoring.cache.SensorDictionary;
+import com.scada.monitoring.cache.SensorTable;
+import com.scada.monitoring.entity.SensorReading;
+import com.scada.monitoring.ingest.ReadingIngestListener;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.stereotype.Component;
+
+/**
+ * Per-sensor reading and threshold-warning counters. Meters are looked up once per sensor and
+ * cached by sensor key, so the ingest path only pays for an array lookup and an increment.
+ */
+@Component
+public class ReadingMetrics implements ReadingIngestListener {
+
+    private final MeterRegistry meterRegistry;
+    private final SensorDictionary dictionary;
+    private final SensorTable<SensorCounters> counters = new SensorTable<>();
+
+    public ReadingMetrics(MeterRegistry meterRegistry, SensorDictionary dictionary) {
+        this.meterRegistry = meterRegistry;
+        this.dictionary = dictionary;
+    }
+
+    @Override
+    public void onReading(SensorReading reading) {
+        int key = dictionary.keyOf(reading);
+        SensorCounters sensor = counters.get(key);
+        if (sensor == null) {
+            sensor = counters.computeIfAbsent(key, k -> register(reading.getSensorId()));
+        }
+        sensor.readings.increment();
+        if (reading.isTempWarning()) {
+            sensor.temperatureWarnings.increment();
+        }
+        if (reading.isPressureWarning()) {
+            sensor.pressureWarnings.increment();
+        }
+    }
+
+    @Override
+    public void onSensorRemoved(String sensorId) {
+        SensorCounters removed = counters.remove(dictionary.find(sensorId));
+        if (removed != null) {
+            meterRegistry.remove(removed.readings);
+            meterRegistry.remove(removed.temperatureWarnings);
+            meterRegistry.remove(removed.pressureWarnings);
+        }
+    }
+
+    private SensorCounters register(String sensorId) {
+        return new SensorCounters(
+                Counter.builder("scada.readings.ingested")
+                        .description("Readings accepted")
+                        .tag("sensor", sensorId)
+                        .register(meterRegistry),
+                Counter.builder("scada.readings.warnings")
+                        .description("Readings that exceeded a threshold")
+                        .tag("sensor", sensorId)
+                        .tag("type", "temperature")
+                        .register(meterRegistry),
+                Counter.builder("scada.readings.warnings")
+                        .description("Readings that exceeded a threshold")
+                        .tag("sensor", sensorId)
+                        .tag("type", "pressure")
+                        .register(meterRegistry));
+    }
+
+    private static final class SensorCounters {
+        private final Counter readings;
+        private final Counter temperatureWarnings;
+        private final Counter pressureWarnings;
+
+        private SensorCounters(Counter readings, Counter temperatureWarnings, Counter pressureWarnings) {
+            this.readings = readings;
+            this.temperatureWarnings = temperatureWarnings;
+            this.pressureWarnings = pressureWarnings;
+        }
+    }
+}
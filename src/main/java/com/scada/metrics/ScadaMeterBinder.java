@@ -0,0 +1,54 @@
+package com.scada.monitoring.metrics;
+
+import com.scada.monitoring.cache.SensorRegistry;
+import com.scada.monitoring.push.ReadingPushService;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Component;
+
+/**
+ * Exposes the counters the caches and the push channel already keep as meters. Values are
+ * read at scrape time, so nothing is added to the hot paths.
+ */
+@Component
+@RequiredArgsConstructor
+public class ScadaMeterBinder implements MeterBinder {
+
+    private final SensorRegistry sensorRegistry;
+    private final ReadingPushService pushService;
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        FunctionCounter.builder("scada.sensor.registry.requests", sensorRegistry, r -> r.getStats().getHits())
+                .description("Sensor registry lookups")
+                .tag("result", "hit")
+                .register(registry);
+        FunctionCounter.builder("scada.sensor.registry.requests", sensorRegistry, r -> r.getStats().getMisses())
+                .description("Sensor registry lookups")
+                .tag("result", "miss")
+                .register(registry);
+        FunctionCounter.builder("scada.sensor.registry.evictions", sensorRegistry, r -> r.getStats().getEvictions())
+                .register(registry);
+        Gauge.builder("scada.sensor.registry.size", sensorRegistry, r -> r.getStats().getSize())
+                .register(registry);
+        Gauge.builder("scada.sensor.registry.hit.ratio", sensorRegistry, r -> r.getStats().getHitRatio())
+                .register(registry);
+
+        Gauge.builder("scada.push.subscribers", pushService, p -> p.getStats().getSubscribers())
+                .register(registry);
+        FunctionCounter.builder("scada.push.delivered", pushService, p -> p.getStats().getDelivered())
+                .register(registry);
+        FunctionCounter.builder("scada.push.conflated", pushService, p -> p.getStats().getConflated())
+                .description("Readings replaced by a newer value before a slow subscriber received them")
+                .register(registry);
+        FunctionCounter.builder("scada.push.dropped", pushService, p -> p.getStats().getDroppedAlarms())
+                .tag("kind", "alarm")
+                .register(registry);
+        FunctionCounter.builder("scada.push.dropped", pushService, p -> p.getStats().getDroppedReadings())
+                .tag("kind", "reading")
+                .register(registry);
+    }
+}
@@ -18,5 +18,7 @@ public class SensorReadingResponse {
     private LocalDateTime timestamp;
     private boolean tempWarning;
     private boolean pressureWarning;
+    /** AlarmCodes bitmask: 1 = high temperature, 2 = high pressure. */
+    private int alarmMask;
     private String warningMessage;
 }
\ No newline at end of file
@@ -0,0 +1,11 @@
+package com.scada.monitoring.push;
+
+import java.util.concurrent.atomic.LongAdder;
+
+/** Counters shared by all subscribers of a {@link ReadingPushService}. */
+final class PushStats {
+    final LongAdder delivered = new LongAdder();
+    final LongAdder conflated = new LongAdder();
+    final LongAdder droppedAlarms = new LongAdder();
+    final LongAdder droppedReadings = new LongAdder();
+}
@@ -0,0 +1,149 @@
+package com.scada.monitoring.push;
+
+import com.scada.monitoring.dto.SensorReadingResponse;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.MediaType;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.regex.Pattern;
+
+/**
+ * One SSE client. Ingest threads only touch the in-memory buffers; a sender thread drains them.
+ * <p>
+ * Plain readings are conflated per sensor (latest value wins), so a slow client skips
+ * intermediate values instead of building a backlog. Readings carrying a threshold warning go
+ * to a bounded FIFO instead and are delivered in order; when it overflows the oldest alarm is
+ * dropped.
+ */
+@Slf4j
+final class PushSubscriber {
+
+    private final long id;
+    private final SseEmitter emitter;
+    private final Set<String> sensorIds;
+    private final List<Pattern> patterns;
+    private final int maxPending;
+
+    private final ConcurrentHashMap<String, SensorReadingResponse> latest = new ConcurrentHashMap<>();
+    private final ArrayBlockingQueue<SensorReadingResponse> alarms;
+    private final AtomicBoolean scheduled = new AtomicBoolean();
+    private volatile boolean closed;
+
+    PushSubscriber(long id, SseEmitter emitter, Set<String> sensorIds, List<Pattern> patterns,
+                   int alarmBufferSize, int maxPending) {
+        this.id = id;
+        this.emitter = emitter;
+        this.sensorIds = sensorIds;
+        this.patterns = patterns;
+        this.maxPending = maxPending;
+        this.alarms = new ArrayBlockingQueue<>(alarmBufferSize);
+    }
+
+    long getId() {
+        return id;
+    }
+
+    SseEmitter getEmitter() {
+        return emitter;
+    }
+
+    Set<String> getSensorIds() {
+        return sensorIds;
+    }
+
+    boolean hasPatterns() {
+        return !patterns.isEmpty();
+    }
+
+    boolean isClosed() {
+        return closed;
+    }
+
+    boolean matchesPattern(String sensorId) {
+        for (int i = 0; i < patterns.size(); i++) {
+            if (patterns.get(i).matcher(sensorId).matches()) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Buffers a reading without blocking.
+     *
+     * @return true if the caller should schedule {@link #drain} on a sender thread
+     */
+    boolean offer(SensorReadingResponse reading, PushStats stats) {
+        if (closed) {
+            return false;
+        }
+        if (reading.isTempWarning() || reading.isPressureWarning()) {
+            // The alarm supersedes any older plain value still waiting for this sensor
+            latest.remove(reading.getSensorId());
+            while (!alarms.offer(reading)) {
+                if (alarms.poll() != null) {
+                    stats.droppedAlarms.increment();
+                }
+            }
+        } else if (latest.size() >= maxPending && !latest.containsKey(reading.getSensorId())) {
+            stats.droppedReadings.increment();
+            return false;
+        } else if (latest.put(reading.getSensorId(), reading) != null) {
+            stats.conflated.increment();
+        }
+        return scheduled.compareAndSet(false, true);
+    }
+
+    /**
+     * Sends everything buffered so far. Runs on at most one sender thread at a time.
+     */
+    void drain(PushStats stats) {
+        do {
+            try {
+                SensorReadingResponse alarm;
+                while ((alarm = alarms.poll()) != null) {
+                    send("alarm", alarm);
+                    stats.delivered.increment();
+                }
+                for (Map.Entry<String, SensorReadingResponse> entry : latest.entrySet()) {
+                    SensorReadingResponse reading = entry.getValue();
+                    // A newer value offered since it was read stays for the next pass
+                    if (latest.remove(entry.getKey(), reading)) {
+                        send("reading", reading);
+                        stats.delivered.increment();
+                    }
+                }
+            } catch (IOException | IllegalStateException e) {
+                log.debug("Push subscriber {} disconnected: {}", id, e.getMessage());
+                close();
+                return;
+            }
+            scheduled.set(false);
+            // Re-check: an offer may have arrived after the buffers were emptied but before the flag cleared
+        } while ((!alarms.isEmpty() || !latest.isEmpty()) && scheduled.compareAndSet(false, true));
+    }
+
+    void discard(String sensorId) {
+        latest.remove(sensorId);
+    }
+
+    void close() {
+        closed = true;
+        latest.clear();
+        alarms.clear();
+    }
+
+    private void send(String event, SensorReadingResponse reading) throws IOException {
+        if (closed) {
+            throw new IllegalStateException("Subscriber closed");
+        }
+        emitter.send(SseEmitter.event().name(event).data(reading, MediaType.APPLICATION_JSON));
+    }
+}
@@ -0,0 +1,299 @@
+package com.scada.monitoring.push;
+
+import com.scada.monitoring.cache.LatestReadingStore;
+import com.scada.monitoring.cache.SensorDictionary;
+import com.scada.monitoring.cache.SensorTable;
+import com.scada.monitoring.dto.PushStatsResponse;
+import com.scada.monitoring.dto.SensorReadingResponse;
+import com.scada.monitoring.entity.SensorReading;
+import com.scada.monitoring.ingest.ReadingIngestListener;
+import com.scada.monitoring.service.SensorReadingService;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.regex.Pattern;
+
+/**
+ * Fans ingested readings out to SSE subscribers.
+ * <p>
+ * The ingest thread never blocks on a client: it looks up matching subscribers (an exact-ID
+ * index plus a per-sensor cache of glob-pattern matches, both by sensor key), buffers the reading in each one and
+ * schedules a drain on the sender pool. Network writes happen only on sender threads, and each
+ * subscriber is drained by at most one of them at a time.
+ * <p>
+ * Subscribing never allocates a dictionary key, since the IDs come from anonymous clients. An ID
+ * that has no key yet is held by name until its sensor first reports, and is dropped with the
+ * last subscriber that asked for it.
+ */
+@Component
+@Slf4j
+public class ReadingPushService implements ReadingIngestListener {
+
+    private final LatestReadingStore latestReadingStore;
+    private final SensorDictionary dictionary;
+    private final Executor sender;
+    private final int maxSubscribers;
+    private final int alarmBufferSize;
+    private final int maxPending;
+    private final long timeoutMs;
+
+    private final AtomicLong nextId = new AtomicLong();
+    private final AtomicInteger subscriberCount = new AtomicInteger();
+    private final ConcurrentHashMap<Long, PushSubscriber> subscribers = new ConcurrentHashMap<>();
+    private final SensorTable<Set<PushSubscriber>> bySensorKey = new SensorTable<>();
+    private final ConcurrentHashMap<String, Set<PushSubscriber>> unresolved = new ConcurrentHashMap<>();
+    private final CopyOnWriteArrayList<PushSubscriber> patternSubscribers = new CopyOnWriteArrayList<>();
+    private final SensorTable<List<PushSubscriber>> patternMatches = new SensorTable<>();
+    private final PushStats stats = new PushStats();
+
+    @Autowired
+    public ReadingPushService(LatestReadingStore latestReadingStore,
+                              SensorDictionary dictionary,
+                              @Value("${scada.push.sender-threads:8}") int senderThreads,
+                              @Value("${scada.push.max-subscribers:5000}") int maxSubscribers,
+                              @Value("${scada.push.alarm-buffer-size:256}") int alarmBufferSize,
+                              @Value("${scada.push.max-pending-per-subscriber:10000}") int maxPending,
+                              @Value("${scada.push.timeout-ms:1800000}") long timeoutMs) {
+        this(latestReadingStore, dictionary, newSenderPool(senderThreads), maxSubscribers, alarmBufferSize, maxPending, timeoutMs);
+    }
+
+    ReadingPushService(LatestReadingStore latestReadingStore, SensorDictionary dictionary, Executor sender,
+                       int maxSubscribers, int alarmBufferSize, int maxPending, long timeoutMs) {
+        this.latestReadingStore = latestReadingStore;
+        this.dictionary = dictionary;
+        this.sender = sender;
+        this.maxSubscribers = maxSubscribers;
+        this.alarmBufferSize = alarmBufferSize;
+        this.maxPending = maxPending;
+        this.timeoutMs = timeoutMs;
+    }
+
+    /**
+     * Opens a subscription for the given sensor IDs and glob patterns ({@code *} and {@code ?}).
+     * The current value of every matching sensor is queued immediately so the client does not
+     * start from an empty screen.
+     *
+     * @throws SubscriberLimitException if {@code max-subscribers} clients are already connected
+     */
+    public SseEmitter subscribe(Collection<String> sensorIds, Collection<String> patterns) {
+        if (subscriberCount.incrementAndGet() > maxSubscribers) {
+            subscriberCount.decrementAndGet();
+            throw new SubscriberLimitException(maxSubscribers);
+        }
+
+        Set<String> ids = sensorIds != null ? new HashSet<>(sensorIds) : Collections.emptySet();
+        List<Pattern> compiled = new ArrayList<>();
+        if (patterns != null) {
+            for (String glob : patterns) {
+                compiled.add(compileGlob(glob));
+            }
+        }
+
+        SseEmitter emitter = new SseEmitter(timeoutMs);
+        PushSubscriber subscriber = new PushSubscriber(nextId.incrementAndGet(), emitter, ids, compiled,
+                alarmBufferSize, maxPending);
+        subscribers.put(subscriber.getId(), subscriber);
+        for (String sensorId : ids) {
+            int key = dictionary.find(sensorId);
+            if (key == SensorDictionary.NO_KEY) {
+                unresolved.computeIfAbsent(sensorId, id -> ConcurrentHashMap.newKeySet()).add(subscriber);
+                // The sensor may have reported and taken the pending set just before the add
+                key = dictionary.find(sensorId);
+                if (key == SensorDictionary.NO_KEY) {
+                    continue;
+                }
+                resolve(sensorId, key);
+            }
+            bySensorKey.computeIfAbsent(key, k -> ConcurrentHashMap.newKeySet()).add(subscriber);
+        }
+        if (subscriber.hasPatterns()) {
+            patternSubscribers.add(subscriber);
+            patternMatches.clear();
+        }
+
+        emitter.onCompletion(() -> unsubscribe(subscriber));
+        emitter.onTimeout(() -> unsubscribe(subscriber));
+        emitter.onError(e -> unsubscribe(subscriber));
+
+        for (SensorReading reading : latestReadingStore.getAll(null)) {
+            if (ids.contains(reading.getSensorId()) || subscriber.matchesPattern(reading.getSensorId())) {
+                deliver(subscriber, SensorReadingService.mapToResponse(reading));
+            }
+        }
+        log.debug("Push subscriber {} opened ({} sensor IDs, {} patterns)", subscriber.getId(), ids.size(), compiled.size());
+        return emitter;
+    }
+
+    @Override
+    public void onReading(SensorReading reading) {
+        String sensorId = reading.getSensorId();
+        int key = dictionary.keyOf(reading);
+        Set<PushSubscriber> exact = bySensorKey.get(key);
+        if (exact == null && !unresolved.isEmpty()) {
+            exact = resolve(sensorId, key);
+        }
+        List<PushSubscriber> matched = patternSubscribers.isEmpty()
+                ? Collections.emptyList()
+                : patternMatches.computeIfAbsent(key, k -> matchPatterns(sensorId));
+        if ((exact == null || exact.isEmpty()) && matched.isEmpty()) {
+            return;
+        }
+
+        SensorReadingResponse response = SensorReadingService.mapToResponse(reading);
+        if (exact != null) {
+            for (PushSubscriber subscriber : exact) {
+                deliver(subscriber, response);
+            }
+        }
+        for (int i = 0; i < matched.size(); i++) {
+            PushSubscriber subscriber = matched.get(i);
+            // Avoid a duplicate when a client lists an ID that its own pattern also matches
+            if (!subscriber.getSensorIds().contains(sensorId)) {
+                deliver(subscriber, response);
+            }
+        }
+    }
+
+    @Override
+    public void onSensorRemoved(String sensorId) {
+        patternMatches.remove(dictionary.find(sensorId));
+        for (PushSubscriber subscriber : subscribers.values()) {
+            subscriber.discard(sensorId);
+        }
+    }
+
+    public PushStatsResponse getStats() {
+        return new PushStatsResponse(subscribers.size(), maxSubscribers, stats.delivered.sum(), stats.conflated.sum(),
+                stats.droppedAlarms.sum(), stats.droppedReadings.sum());
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        for (PushSubscriber subscriber : subscribers.values()) {
+            subscriber.getEmitter().complete();
+        }
+        if (sender instanceof ExecutorService) {
+            ((ExecutorService) sender).shutdownNow();
+        }
+    }
+
+    void unsubscribe(PushSubscriber subscriber) {
+        if (subscribers.remove(subscriber.getId()) == null) {
+            return;
+        }
+        subscriber.close();
+        subscriberCount.decrementAndGet();
+        for (String sensorId : subscriber.getSensorIds()) {
+            unresolved.computeIfPresent(sensorId, (id, set) -> {
+                set.remove(subscriber);
+                return set.isEmpty() ? null : set;
+            });
+            int key = dictionary.find(sensorId);
+            if (key != SensorDictionary.NO_KEY) {
+                removeExact(key, subscriber);
+            }
+        }
+        if (patternSubscribers.remove(subscriber)) {
+            patternMatches.clear();
+        }
+        log.debug("Push subscriber {} closed", subscriber.getId());
+    }
+
+    /**
+     * Moves the subscribers waiting for a sensor's first key into the exact-ID index.
+     */
+    private Set<PushSubscriber> resolve(String sensorId, int key) {
+        Set<PushSubscriber> waiting = unresolved.remove(sensorId);
+        if (waiting != null) {
+            for (PushSubscriber subscriber : waiting) {
+                bySensorKey.computeIfAbsent(key, k -> ConcurrentHashMap.newKeySet()).add(subscriber);
+                // Undo the move if the subscriber closed while it was being resolved
+                if (!subscribers.containsKey(subscriber.getId())) {
+                    removeExact(key, subscriber);
+                }
+            }
+        }
+        return bySensorKey.get(key);
+    }
+
+    private void removeExact(int key, PushSubscriber subscriber) {
+        bySensorKey.compute(key, set -> {
+            if (set == null) {
+                return null;
+            }
+            set.remove(subscriber);
+            return set.isEmpty() ? null : set;
+        });
+    }
+
+    private void deliver(PushSubscriber subscriber, SensorReadingResponse response) {
+        if (subscriber.offer(response, stats)) {
+            try {
+                sender.execute(() -> {
+                    subscriber.drain(stats);
+                    if (subscriber.isClosed()) {
+                        unsubscribe(subscriber);
+                    }
+                });
+            } catch (RejectedExecutionException e) {
+                log.debug("Push sender rejected drain for subscriber {}", subscriber.getId());
+            }
+        }
+    }
+
+    private List<PushSubscriber> matchPatterns(String sensorId) {
+        List<PushSubscriber> matched = new ArrayList<>();
+        for (PushSubscriber subscriber : patternSubscribers) {
+            if (subscriber.matchesPattern(sensorId)) {
+                matched.add(subscriber);
+            }
+        }
+        return matched;
+    }
+
+    static Pattern compileGlob(String glob) {
+        StringBuilder regex = new StringBuilder();
+        int literalStart = 0;
+        for (int i = 0; i < glob.length(); i++) {
+            char c = glob.charAt(i);
+            if (c == '*' || c == '?') {
+                if (i > literalStart) {
+                    regex.append(Pattern.quote(glob.substring(literalStart, i)));
+                }
+                regex.append(c == '*' ? ".*" : ".");
+                literalStart = i + 1;
+            }
+        }
+        if (literalStart < glob.length()) {
+            regex.append(Pattern.quote(glob.substring(literalStart)));
+        }
+        return Pattern.compile(regex.toString());
+    }
+
+    private static ExecutorService newSenderPool(int threads) {
+        AtomicInteger counter = new AtomicInteger();
+        return Executors.newFixedThreadPool(threads, runnable -> {
+            Thread thread = new Thread(runnable, "reading-push-sender-" + counter.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+}
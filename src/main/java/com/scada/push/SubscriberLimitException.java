@@ -0,0 +1,8 @@
+package com.scada.monitoring.push;
+
+public class SubscriberLimitException extends RuntimeException {
+
+    public SubscriberLimitException(int maxSubscribers) {
+        super("Push subscriber limit reached (max: " + maxSubscribers + ")");
+    }
+}
@@ -0,0 +1,17 @@
+package com.scada.monitoring.repository;
+
+import com.scada.monitoring.entity.Alarm;
+import com.scada.monitoring.entity.AlarmState;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+
+import java.util.List;
+
+public interface AlarmRepository extends JpaRepository<Alarm, Long> {
+
+    List<Alarm> findByStateNot(AlarmState state);
+
+    List<Alarm> findBySensorIdOrderByRaisedAtDesc(String sensorId, Pageable pageable);
+
+    List<Alarm> findAllByOrderByRaisedAtDesc(Pageable pageable);
+}
@@ -0,0 +1,15 @@
+package com.scada.monitoring.repository;
+
+import com.scada.monitoring.entity.AlarmRule;
+import org.springframework.data.jpa.repository.JpaRepository;
+
+import java.util.List;
+
+public interface AlarmRuleRepository extends JpaRepository<AlarmRule, Long> {
+
+    List<AlarmRule> findBySensorIdOrderByIdAsc(String sensorId);
+
+    List<AlarmRule> findBySensorIdAndEnabledTrueOrderByIdAsc(String sensorId);
+
+    void deleteBySensorId(String sensorId);
+}
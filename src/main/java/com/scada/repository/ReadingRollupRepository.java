@@ -0,0 +1,28 @@
+package com.scada.monitoring.repository;
+
+import com.scada.monitoring.entity.ReadingRollup;
+import com.scada.monitoring.entity.RollupResolution;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+
+public interface ReadingRollupRepository extends JpaRepository<ReadingRollup, Long> {
+
+    List<ReadingRollup> findBySensorIdAndResolutionAndBucketStartBetweenOrderByBucketStartAsc(
+            String sensorId, RollupResolution resolution, LocalDateTime start, LocalDateTime end);
+
+    Optional<ReadingRollup> findBySensorIdAndResolutionAndBucketStart(
+            String sensorId, RollupResolution resolution, LocalDateTime bucketStart);
+
+    /**
+     * Deletes at most {@code limit} buckets of one resolution that start before {@code before}.
+     */
+    @Modifying
+    @Query(value = "DELETE FROM sensor_reading_rollups WHERE resolution = ?1 AND bucket_start < ?2 FETCH FIRST ?3 ROWS ONLY",
+            nativeQuery = true)
+    int deleteExpired(String resolution, LocalDateTime before, int limit);
+}
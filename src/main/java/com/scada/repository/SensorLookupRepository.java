@@ -0,0 +1,15 @@
+package com.scada.monitoring.repository;
+
+import com.scada.monitoring.entity.Sensor;
+import org.springframework.data.repository.Repository;
+
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * Set-based sensor lookups for the batch ingest paths.
+ */
+public interface SensorLookupRepository extends Repository<Sensor, Long> {
+
+    List<Sensor> findBySensorIdIn(Collection<String> sensorIds);
+}
@@ -0,0 +1,66 @@
+package com.scada.monitoring.repository;
+
+import com.scada.monitoring.entity.SensorReading;
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * Writes readings with plain JDBC batches so a drained ingest queue becomes a single
+ * round trip instead of one Hibernate insert per reading.
+ */
+@Repository
+@RequiredArgsConstructor
+public class SensorReadingBatchWriter {
+
+    private static final String INSERT_SQL =
+            "INSERT INTO sensor_readings (id, sensor_id, temperature, pressure, motor_on, timestamp, " +
+            "temp_warning, pressure_warning, alarm_mask, temp_limit, pressure_limit) " +
+            "VALUES (NEXT VALUE FOR sensor_readings_seq, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?)";
+
+    private static final int DELETE_BATCH_SIZE = 10_000;
+
+    private static final String DELETE_EXPIRED_SQL =
+            "DELETE FROM sensor_readings WHERE timestamp < ? FETCH FIRST " + DELETE_BATCH_SIZE + " ROWS ONLY";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    @Transactional
+    public void insertBatch(List<SensorReading> readings) {
+        if (readings.isEmpty()) {
+            return;
+        }
+        jdbcTemplate.batchUpdate(INSERT_SQL, readings, readings.size(), (ps, reading) -> {
+            ps.setString(1, reading.getSensorId());
+            ps.setDouble(2, reading.getTemperature());
+            ps.setDouble(3, reading.getPressure());
+            ps.setBoolean(4, reading.isMotorOn());
+            ps.setTimestamp(5, Timestamp.valueOf(reading.getTimestamp()));
+            ps.setBoolean(6, reading.isTempWarning());
+            ps.setBoolean(7, reading.isPressureWarning());
+            ps.setInt(8, reading.getAlarmMask());
+            ps.setDouble(9, reading.getTempLimit());
+            ps.setDouble(10, reading.getPressureLimit());
+        });
+    }
+
+    /**
+     * Deletes readings older than {@code cutoff} in auto-committed batches so that a large
+     * expiry never holds one long transaction or lock.
+     */
+    public long deleteOlderThan(LocalDateTime cutoff) {
+        Timestamp before = Timestamp.valueOf(cutoff);
+        long total = 0;
+        int deleted;
+        do {
+            deleted = jdbcTemplate.update(DELETE_EXPIRED_SQL, before);
+            total += deleted;
+        } while (deleted == DELETE_BATCH_SIZE);
+        return total;
+    }
+}
@@ -0,0 +1,45 @@
+package com.scada.monitoring.repository;
+
+import com.scada.monitoring.entity.SensorReading;
+import jakarta.persistence.QueryHint;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.Repository;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.stream.Stream;
+
+import static org.hibernate.jpa.HibernateHints.HINT_FETCH_SIZE;
+
+/**
+ * Per-sensor read paths served by the {@code (sensorId, timestamp DESC)} index. Rows are
+ * built with a JPQL constructor expression, so the results are plain objects rather than
+ * managed entities: Hibernate keeps no persistence-context entry or dirty-checking snapshot
+ * for them, and they never need to be detached.
+ * <p>
+ * Newest-first queries order by {@code sensorId, timestamp DESC}, the exact index order.
+ * The leading column is constant under the filter, but H2 only reads rows in index order,
+ * and stops after the limit, when the ORDER BY names it.
+ */
+public interface SensorReadingQueryRepository extends Repository<SensorReading, Long> {
+
+    String READING = "new com.scada.monitoring.entity.SensorReading(r.id, r.sensorId, r.temperature, r.pressure, " +
+            "r.motorOn, r.timestamp, r.tempWarning, r.pressureWarning, r.alarmMask, r.tempLimit, r.pressureLimit)";
+
+    @Query("SELECT " + READING + " FROM SensorReading r WHERE r.sensorId = ?1 ORDER BY r.sensorId, r.timestamp DESC")
+    List<SensorReading> findRecent(String sensorId, Pageable pageable);
+
+    @Query("SELECT " + READING + " FROM SensorReading r WHERE r.sensorId = ?1 AND r.timestamp BETWEEN ?2 AND ?3 " +
+            "ORDER BY r.sensorId, r.timestamp DESC")
+    List<SensorReading> findRange(String sensorId, LocalDateTime start, LocalDateTime end);
+
+    /**
+     * Oldest-first cursor over a range; must be consumed inside a transaction and closed.
+     */
+    @QueryHints(@QueryHint(name = HINT_FETCH_SIZE, value = "500"))
+    @Query("SELECT " + READING + " FROM SensorReading r WHERE r.sensorId = ?1 AND r.timestamp BETWEEN ?2 AND ?3 " +
+            "ORDER BY r.timestamp ASC")
+    Stream<SensorReading> streamRange(String sensorId, LocalDateTime start, LocalDateTime end);
+}
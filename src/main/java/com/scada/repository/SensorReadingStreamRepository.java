@@ -0,0 +1,37 @@
+package com.scada.monitoring.repository;
+
+import com.scada.monitoring.entity.SensorReading;
+import jakarta.persistence.QueryHint;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.Repository;
+
+import java.util.List;
+import java.util.stream.Stream;
+
+import static org.hibernate.jpa.HibernateHints.HINT_FETCH_SIZE;
+import static org.hibernate.jpa.HibernateHints.HINT_READ_ONLY;
+
+/**
+ * Cursor-backed reading queries. Streams must be consumed inside a transaction and closed;
+ * callers should detach each entity once processed so the persistence context stays small.
+ */
+public interface SensorReadingStreamRepository extends Repository<SensorReading, Long> {
+
+    @QueryHints({
+            @QueryHint(name = HINT_FETCH_SIZE, value = "500"),
+            @QueryHint(name = HINT_READ_ONLY, value = "true")
+    })
+    Stream<SensorReading> streamAllByOrderByIdAsc();
+
+    @QueryHints({
+            @QueryHint(name = HINT_FETCH_SIZE, value = "500"),
+            @QueryHint(name = HINT_READ_ONLY, value = "true")
+    })
+    Stream<SensorReading> streamBySensorIdOrderByIdAsc(String sensorId);
+
+    // Keyset pages: the sequence-generated id is the cursor, so each page is an index range scan
+    List<SensorReading> findByIdGreaterThanOrderByIdAsc(Long afterId, Pageable pageable);
+
+    List<SensorReading> findBySensorIdAndIdGreaterThanOrderByIdAsc(String sensorId, Long afterId, Pageable pageable);
+}
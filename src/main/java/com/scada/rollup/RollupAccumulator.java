@@ -0,0 +1,100 @@
+package com.scada.monitoring.rollup;
+
+import com.scada.monitoring.dto.RollupPointResponse;
+import com.scada.monitoring.entity.ReadingRollup;
+import com.scada.monitoring.entity.RollupResolution;
+import com.scada.monitoring.util.EpochTime;
+
+/**
+ * Open (not yet persisted) bucket of one sensor at one resolution.
+ */
+final class RollupAccumulator {
+
+    final String sensorId;
+    final RollupResolution resolution;
+    final long bucketStart;
+    boolean late;
+
+    long count;
+    double sumTemperature;
+    double minTemperature = Double.POSITIVE_INFINITY;
+    double maxTemperature = Double.NEGATIVE_INFINITY;
+    double sumPressure;
+    double minPressure = Double.POSITIVE_INFINITY;
+    double maxPressure = Double.NEGATIVE_INFINITY;
+    long warningCount;
+
+    RollupAccumulator(String sensorId, RollupResolution resolution, long bucketStart) {
+        this.sensorId = sensorId;
+        this.resolution = resolution;
+        this.bucketStart = bucketStart;
+    }
+
+    void add(double temperature, double pressure, boolean warning) {
+        count++;
+        sumTemperature += temperature;
+        minTemperature = Math.min(minTemperature, temperature);
+        maxTemperature = Math.max(maxTemperature, temperature);
+        sumPressure += pressure;
+        minPressure = Math.min(minPressure, pressure);
+        maxPressure = Math.max(maxPressure, pressure);
+        if (warning) {
+            warningCount++;
+        }
+    }
+
+    /**
+     * Adds the samples of another bucket of the same sensor, resolution and start.
+     */
+    void addAll(RollupAccumulator other) {
+        count += other.count;
+        sumTemperature += other.sumTemperature;
+        minTemperature = Math.min(minTemperature, other.minTemperature);
+        maxTemperature = Math.max(maxTemperature, other.maxTemperature);
+        sumPressure += other.sumPressure;
+        minPressure = Math.min(minPressure, other.minPressure);
+        maxPressure = Math.max(maxPressure, other.maxPressure);
+        warningCount += other.warningCount;
+    }
+
+    RollupAccumulator copy() {
+        RollupAccumulator copy = new RollupAccumulator(sensorId, resolution, bucketStart);
+        copy.late = late;
+        copy.count = count;
+        copy.sumTemperature = sumTemperature;
+        copy.minTemperature = minTemperature;
+        copy.maxTemperature = maxTemperature;
+        copy.sumPressure = sumPressure;
+        copy.minPressure = minPressure;
+        copy.maxPressure = maxPressure;
+        copy.warningCount = warningCount;
+        return copy;
+    }
+
+    ReadingRollup toEntity() {
+        return new ReadingRollup(null, sensorId, resolution, EpochTime.toLocalDateTime(bucketStart), count,
+                minTemperature, maxTemperature, sumTemperature / count,
+                minPressure, maxPressure, sumPressure / count, warningCount);
+    }
+
+    /**
+     * Folds this bucket into a row that was already persisted for the same bucket.
+     */
+    void mergeInto(ReadingRollup existing) {
+        long total = existing.getSampleCount() + count;
+        existing.setAvgTemperature((existing.getAvgTemperature() * existing.getSampleCount() + sumTemperature) / total);
+        existing.setAvgPressure((existing.getAvgPressure() * existing.getSampleCount() + sumPressure) / total);
+        existing.setMinTemperature(Math.min(existing.getMinTemperature(), minTemperature));
+        existing.setMaxTemperature(Math.max(existing.getMaxTemperature(), maxTemperature));
+        existing.setMinPressure(Math.min(existing.getMinPressure(), minPressure));
+        existing.setMaxPressure(Math.max(existing.getMaxPressure(), maxPressure));
+        existing.setWarningCount(existing.getWarningCount() + warningCount);
+        existing.setSampleCount(total);
+    }
+
+    RollupPointResponse toPoint() {
+        return new RollupPointResponse(EpochTime.toLocalDateTime(bucketStart), count,
+                minTemperature, maxTemperature, sumTemperature / count,
+                minPressure, maxPressure, sumPressure / count, warningCount);
+    }
+}
@@ -0,0 +1,123 @@
+package com.scada.monitoring.rollup;
+
+import com.scada.monitoring.cache.SensorDictionary;
+import com.scada.monitoring.cache.SensorTable;
+import com.scada.monitoring.entity.ReadingRollup;
+import com.scada.monitoring.entity.RollupResolution;
+import com.scada.monitoring.entity.SensorReading;
+import com.scada.monitoring.ingest.ReadingIngestListener;
+import com.scada.monitoring.repository.ReadingRollupRepository;
+import com.scada.monitoring.util.EpochTime;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * Downsamples ingested readings into 1s/1m/1h min/max/avg buckets. Buckets are accumulated in
+ * memory and written to {@code sensor_reading_rollups} once they have been closed for
+ * {@code grace-ms}; a reading that arrives after its bucket was written is merged into the
+ * existing row on the next flush. The grace period defaults to the ingest lateness window, so
+ * only late readings (see {@link com.scada.monitoring.ingest.ReadingWatermarks}) cause merges.
+ * Buckets of a flush that fails are put back, marked late, and written by the next one.
+ */
+@Component
+@Slf4j
+public class RollupAggregator implements ReadingIngestListener {
+
+    private final ReadingRollupRepository rollupRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final SensorDictionary dictionary;
+    private final long graceMillis;
+    private final SensorTable<SensorRollupState> states = new SensorTable<>();
+
+    public RollupAggregator(ReadingRollupRepository rollupRepository,
+                            TransactionTemplate transactionTemplate,
+                            SensorDictionary dictionary,
+                            @Value("${scada.rollups.grace-ms:${scada.ingest.lateness-ms:5000}}") long graceMillis) {
+        this.rollupRepository = rollupRepository;
+        this.transactionTemplate = transactionTemplate;
+        this.dictionary = dictionary;
+        this.graceMillis = graceMillis;
+    }
+
+    @Override
+    public void onReading(SensorReading reading) {
+        int key = dictionary.keyOf(reading);
+        SensorRollupState state = states.get(key);
+        if (state == null) {
+            state = states.computeIfAbsent(key, k -> new SensorRollupState(reading.getSensorId()));
+        }
+        state.add(EpochTime.toEpochMillis(reading.getTimestamp()), reading.getTemperature(),
+                reading.getPressure(), reading.isTempWarning() || reading.isPressureWarning());
+    }
+
+    @Override
+    public void onSensorRemoved(String sensorId) {
+        states.remove(dictionary.find(sensorId));
+    }
+
+    @Scheduled(fixedDelayString = "${scada.rollups.flush-interval-ms:1000}")
+    public void flush() {
+        flush(EpochTime.nowMillis());
+    }
+
+    void flush(long nowMillis) {
+        List<RollupAccumulator> closed = new ArrayList<>();
+        for (SensorRollupState state : states.values()) {
+            closed.addAll(state.drainClosed(nowMillis, graceMillis));
+        }
+        if (closed.isEmpty()) {
+            return;
+        }
+
+        List<ReadingRollup> inserts = new ArrayList<>(closed.size());
+        List<RollupAccumulator> late = new ArrayList<>();
+        for (RollupAccumulator bucket : closed) {
+            if (bucket.late) {
+                late.add(bucket);
+            } else {
+                inserts.add(bucket.toEntity());
+            }
+        }
+
+        try {
+            transactionTemplate.executeWithoutResult(status -> {
+                rollupRepository.saveAll(inserts);
+                for (RollupAccumulator bucket : late) {
+                    Optional<ReadingRollup> existing = rollupRepository.findBySensorIdAndResolutionAndBucketStart(
+                            bucket.sensorId, bucket.resolution, EpochTime.toLocalDateTime(bucket.bucketStart));
+                    if (existing.isPresent()) {
+                        bucket.mergeInto(existing.get());
+                        rollupRepository.save(existing.get());
+                    } else {
+                        rollupRepository.save(bucket.toEntity());
+                    }
+                }
+            });
+            log.debug("Flushed {} rollup buckets ({} late)", closed.size(), late.size());
+        } catch (RuntimeException e) {
+            log.error("Failed to flush {} rollup buckets, retrying on the next flush", closed.size(), e);
+            for (RollupAccumulator bucket : closed) {
+                SensorRollupState state = states.get(dictionary.find(bucket.sensorId));
+                if (state != null) {
+                    state.restore(bucket);
+                }
+            }
+        }
+    }
+
+    /**
+     * Buckets still held in memory for a sensor, so range queries include the last few seconds.
+     */
+    List<RollupAccumulator> openBuckets(String sensorId, RollupResolution resolution, long fromMillis, long toMillis) {
+        SensorRollupState state = states.get(dictionary.find(sensorId));
+        return state != null ? state.snapshotOpen(resolution, fromMillis, toMillis) : Collections.emptyList();
+    }
+}
@@ -0,0 +1,108 @@
+package com.scada.monitoring.rollup;
+
+import com.scada.monitoring.dto.RollupPointResponse;
+import com.scada.monitoring.dto.RollupRangeResponse;
+import com.scada.monitoring.entity.ReadingRollup;
+import com.scada.monitoring.entity.RollupResolution;
+import com.scada.monitoring.entity.SensorReading;
+import com.scada.monitoring.repository.ReadingRollupRepository;
+import com.scada.monitoring.storage.ReadingStore;
+import com.scada.monitoring.util.EpochTime;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.TreeMap;
+
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class RollupService {
+
+    private static final int DEFAULT_POINTS = 500;
+
+    private final ReadingRollupRepository rollupRepository;
+    private final RollupAggregator rollupAggregator;
+    private final ReadingStore readingStore;
+
+    /**
+     * Returns the range at the coarsest resolution that still yields at least {@code points}
+     * buckets. Raw readings are only read when the window is so short that even 1s buckets
+     * would give fewer points than requested.
+     */
+    @Transactional(readOnly = true)
+    public RollupRangeResponse getRollups(String sensorId, LocalDateTime start, LocalDateTime end, Integer points) {
+        if (!end.isAfter(start)) {
+            throw new IllegalArgumentException("End time must be after start time");
+        }
+        int targetPoints = (points != null && points > 0) ? points : DEFAULT_POINTS;
+        long startMillis = EpochTime.toEpochMillis(start);
+        long endMillis = EpochTime.toEpochMillis(end);
+
+        RollupResolution resolution = selectResolution(endMillis - startMillis, targetPoints);
+        log.debug("Fetching rollups for sensor {} between {} and {} at {}", sensorId, start, end,
+                resolution != null ? resolution.getCode() : "raw");
+
+        if (resolution == null) {
+            return new RollupRangeResponse(sensorId, "raw", readRaw(sensorId, start, end));
+        }
+
+        long firstBucket = resolution.bucketStart(startMillis);
+        TreeMap<Long, RollupPointResponse> buckets = new TreeMap<>();
+        for (ReadingRollup rollup : rollupRepository.findBySensorIdAndResolutionAndBucketStartBetweenOrderByBucketStartAsc(
+                sensorId, resolution, EpochTime.toLocalDateTime(firstBucket), end)) {
+            buckets.put(EpochTime.toEpochMillis(rollup.getBucketStart()), toPoint(rollup));
+        }
+        for (RollupAccumulator open : rollupAggregator.openBuckets(sensorId, resolution, firstBucket, endMillis)) {
+            RollupPointResponse stored = buckets.get(open.bucketStart);
+            buckets.put(open.bucketStart, stored == null ? open.toPoint() : merge(stored, open.toPoint()));
+        }
+        return new RollupRangeResponse(sensorId, resolution.getCode(), new ArrayList<>(buckets.values()));
+    }
+
+    static RollupResolution selectResolution(long rangeMillis, int targetPoints) {
+        RollupResolution[] resolutions = RollupResolution.values();
+        for (int i = resolutions.length - 1; i >= 0; i--) {
+            if (rangeMillis / resolutions[i].getMillis() >= targetPoints) {
+                return resolutions[i];
+            }
+        }
+        return null;
+    }
+
+    private List<RollupPointResponse> readRaw(String sensorId, LocalDateTime start, LocalDateTime end) {
+        List<SensorReading> readings = readingStore.findRange(sensorId, start, end);
+        List<RollupPointResponse> points = new ArrayList<>(readings.size());
+        for (int i = readings.size() - 1; i >= 0; i--) {
+            SensorReading reading = readings.get(i);
+            points.add(new RollupPointResponse(reading.getTimestamp(), 1,
+                    reading.getTemperature(), reading.getTemperature(), reading.getTemperature(),
+                    reading.getPressure(), reading.getPressure(), reading.getPressure(),
+                    reading.isTempWarning() || reading.isPressureWarning() ? 1 : 0));
+        }
+        return points;
+    }
+
+    private RollupPointResponse toPoint(ReadingRollup rollup) {
+        return new RollupPointResponse(rollup.getBucketStart(), rollup.getSampleCount(),
+                rollup.getMinTemperature(), rollup.getMaxTemperature(), rollup.getAvgTemperature(),
+                rollup.getMinPressure(), rollup.getMaxPressure(), rollup.getAvgPressure(),
+                rollup.getWarningCount());
+    }
+
+    private RollupPointResponse merge(RollupPointResponse a, RollupPointResponse b) {
+        long total = a.getSampleCount() + b.getSampleCount();
+        return new RollupPointResponse(a.getBucketStart(), total,
+                Math.min(a.getMinTemperature(), b.getMinTemperature()),
+                Math.max(a.getMaxTemperature(), b.getMaxTemperature()),
+                (a.getAvgTemperature() * a.getSampleCount() + b.getAvgTemperature() * b.getSampleCount()) / total,
+                Math.min(a.getMinPressure(), b.getMinPressure()),
+                Math.max(a.getMaxPressure(), b.getMaxPressure()),
+                (a.getAvgPressure() * a.getSampleCount() + b.getAvgPressure() * b.getSampleCount()) / total,
+                a.getWarningCount() + b.getWarningCount());
+    }
+}
@@ -0,0 +1,87 @@
+package com.scada.monitoring.rollup;
+
+import com.scada.monitoring.entity.RollupResolution;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Open buckets of one sensor at every resolution. Normally only the current (and possibly the
+ * previous) bucket per resolution is open, so memory stays small.
+ */
+final class SensorRollupState {
+
+    private static final RollupResolution[] RESOLUTIONS = RollupResolution.values();
+
+    private final String sensorId;
+    private final List<Map<Long, RollupAccumulator>> open = new ArrayList<>(RESOLUTIONS.length);
+    private final long[] flushedUpTo = new long[RESOLUTIONS.length];
+
+    SensorRollupState(String sensorId) {
+        this.sensorId = sensorId;
+        for (int i = 0; i < RESOLUTIONS.length; i++) {
+            open.add(new HashMap<>());
+            flushedUpTo[i] = Long.MIN_VALUE;
+        }
+    }
+
+    synchronized void add(long epochMillis, double temperature, double pressure, boolean warning) {
+        for (int i = 0; i < RESOLUTIONS.length; i++) {
+            long bucketStart = RESOLUTIONS[i].bucketStart(epochMillis);
+            Map<Long, RollupAccumulator> buckets = open.get(i);
+            RollupAccumulator bucket = buckets.get(bucketStart);
+            if (bucket == null) {
+                bucket = new RollupAccumulator(sensorId, RESOLUTIONS[i], bucketStart);
+                // A bucket at or before the last flushed one already has a row to merge into
+                bucket.late = bucketStart <= flushedUpTo[i];
+                buckets.put(bucketStart, bucket);
+            }
+            bucket.add(temperature, pressure, warning);
+        }
+    }
+
+    /**
+     * Removes and returns every bucket that ended at least {@code graceMillis} before now.
+     */
+    synchronized List<RollupAccumulator> drainClosed(long nowMillis, long graceMillis) {
+        List<RollupAccumulator> closed = new ArrayList<>();
+        for (int i = 0; i < RESOLUTIONS.length; i++) {
+            Iterator<RollupAccumulator> it = open.get(i).values().iterator();
+            while (it.hasNext()) {
+                RollupAccumulator bucket = it.next();
+                if (bucket.bucketStart + RESOLUTIONS[i].getMillis() + graceMillis <= nowMillis) {
+                    it.remove();
+                    flushedUpTo[i] = Math.max(flushedUpTo[i], bucket.bucketStart);
+                    closed.add(bucket);
+                }
+            }
+        }
+        return closed;
+    }
+
+    /**
+     * Puts back a drained bucket whose write failed. It is marked late, so the next flush merges it
+     * into any row that exists by then, and readings added to its bucket since are folded in.
+     */
+    synchronized void restore(RollupAccumulator bucket) {
+        bucket.late = true;
+        Map<Long, RollupAccumulator> buckets = open.get(bucket.resolution.ordinal());
+        RollupAccumulator since = buckets.put(bucket.bucketStart, bucket);
+        if (since != null) {
+            bucket.addAll(since);
+        }
+    }
+
+    synchronized List<RollupAccumulator> snapshotOpen(RollupResolution resolution, long fromMillis, long toMillis) {
+        List<RollupAccumulator> snapshot = new ArrayList<>();
+        for (RollupAccumulator bucket : open.get(resolution.ordinal()).values()) {
+            if (bucket.bucketStart >= fromMillis && bucket.bucketStart <= toMillis) {
+                snapshot.add(bucket.copy());
+            }
+        }
+        return snapshot;
+    }
+}
@@ -0,0 +1,235 @@
+package com.scada.monitoring.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.scada.monitoring.cache.SensorRegistry;
+import com.scada.monitoring.cache.SensorSnapshot;
+import com.scada.monitoring.dto.CreateReadingRequest;
+import com.scada.monitoring.dto.StreamIngestResponse;
+import com.scada.monitoring.entity.SensorReading;
+import com.scada.monitoring.ingest.ReadingIngestLanes;
+import com.scada.monitoring.ingest.ReadingIngestPipeline;
+import com.scada.monitoring.util.EpochTime;
+import jakarta.annotation.PreDestroy;
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validator;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Collectors;
+
+/**
+ * NDJSON stream ingest for {@code POST /api/readings/stream}. The body is cut into chunks of
+ * {@code chunk-lines} lines and every chunk goes through three stages:
+ * <ol>
+ *   <li>parse: JSON to readings and sensor lookup, on the parse pool. Chunks of a stream parse
+ *       concurrently.</li>
+ *   <li>admit: queue space for the whole chunk is reserved, in stream order, on the request
+ *       thread, waiting up to {@code queue-wait-ms} for the writer to make room.</li>
+ *   <li>evaluate and queue: alarm rules and queueing on the sensors' ingest lanes, then publishing
+ *       on the request thread (see {@link SensorReadingService#enqueueOnLanes}). A chunk is handed
+ *       to the lanes only after the previous chunk of its stream is done, so each sensor's
+ *       readings keep stream order.</li>
+ * </ol>
+ * At most {@code max-in-flight-chunks} chunks of a stream are read ahead of the lanes.
+ * When that many are pending, or the ingest queue is full, the request thread stops reading the
+ * body, so a client sending faster than readings can be queued is held back by TCP flow control
+ * instead of being buffered in memory.
+ */
+@Service
+@Slf4j
+public class ReadingStreamService {
+
+    private static final int MAX_ERRORS = 10;
+
+    private final SensorRegistry sensorRegistry;
+    private final SensorReadingService readingService;
+    private final ReadingIngestPipeline ingestPipeline;
+    private final ObjectReader requestReader;
+    private final Validator validator;
+    private final ExecutorService parsePool;
+    private final int chunkLines;
+    private final int maxInFlightChunks;
+    private final long queueWaitMs;
+
+    public ReadingStreamService(SensorRegistry sensorRegistry,
+                                SensorReadingService readingService,
+                                ReadingIngestPipeline ingestPipeline,
+                                ObjectMapper objectMapper,
+                                Validator validator,
+                                @Value("${scada.ingest.stream.parse-threads:4}") int parseThreads,
+                                @Value("${scada.ingest.stream.chunk-lines:1000}") int chunkLines,
+                                @Value("${scada.ingest.stream.max-in-flight-chunks:8}") int maxInFlightChunks,
+                                @Value("${scada.ingest.stream.queue-wait-ms:5000}") long queueWaitMs) {
+        if (chunkLines > ingestPipeline.getQueueCapacity()) {
+            throw new IllegalArgumentException("scada.ingest.stream.chunk-lines (" + chunkLines
+                    + ") must not exceed the ingest queue capacity (" + ingestPipeline.getQueueCapacity() + ")");
+        }
+        this.sensorRegistry = sensorRegistry;
+        this.readingService = readingService;
+        this.ingestPipeline = ingestPipeline;
+        this.requestReader = objectMapper.readerFor(CreateReadingRequest.class);
+        this.validator = validator;
+        this.parsePool = newPool("reading-stream-parse-", parseThreads);
+        this.chunkLines = chunkLines;
+        this.maxInFlightChunks = maxInFlightChunks;
+        this.queueWaitMs = queueWaitMs;
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        parsePool.shutdownNow();
+    }
+
+    /**
+     * Queues every valid line of an NDJSON body of {@link CreateReadingRequest}s. Malformed lines,
+     * lines failing the request's bean validation constraints and unknown sensors are skipped and
+     * reported; blank lines are ignored. Readings without a
+     * device {@code timestampNanos} are stamped with the time their chunk was read.
+     *
+     * @throws com.scada.monitoring.ingest.IngestQueueFullException if the ingest queue stayed full
+     *         for {@code queue-wait-ms}; readings queued before that are kept
+     */
+    public StreamIngestResponse ingest(InputStream body) throws IOException {
+        BufferedReader reader = new BufferedReader(new InputStreamReader(body, StandardCharsets.UTF_8), 64 * 1024);
+        Deque<CompletableFuture<Chunk>> inFlight = new ArrayDeque<>();
+        StreamIngestResponse result = new StreamIngestResponse(0, 0, 0, new ArrayList<>());
+
+        long lineNumber = 0;
+        Chunk chunk = null;
+        String line;
+        while ((line = reader.readLine()) != null) {
+            if (chunk == null) {
+                chunk = new Chunk(lineNumber + 1, chunkLines);
+            }
+            lineNumber++;
+            chunk.lines.add(line);
+            if (chunk.lines.size() == chunkLines) {
+                inFlight.add(dispatch(chunk));
+                chunk = null;
+                while (inFlight.size() >= maxInFlightChunks) {
+                    persist(inFlight.poll(), result);
+                }
+            }
+        }
+        if (chunk != null) {
+            inFlight.add(dispatch(chunk));
+        }
+        while (!inFlight.isEmpty()) {
+            persist(inFlight.poll(), result);
+        }
+        log.debug("Stream ingest finished: {} lines, {} accepted, {} rejected",
+                lineNumber, result.getAccepted(), result.getRejected());
+        return result;
+    }
+
+    private CompletableFuture<Chunk> dispatch(Chunk chunk) {
+        return CompletableFuture.supplyAsync(() -> parse(chunk), parsePool);
+    }
+
+    private Chunk parse(Chunk chunk) {
+        Map<String, SensorSnapshot> sensors = new HashMap<>();
+        for (int i = 0; i < chunk.lines.size(); i++) {
+            String line = chunk.lines.get(i);
+            if (line.isBlank()) {
+                continue;
+            }
+            try {
+                CreateReadingRequest request = requestReader.readValue(line);
+                validate(request);
+                SensorSnapshot sensor = sensors.computeIfAbsent(request.getSensorId(), this::findSensor);
+                chunk.sensors.add(sensor);
+                chunk.readings.add(readingService.newReading(request, sensor, chunk.receivedAt));
+            } catch (JsonProcessingException e) {
+                chunk.reject(chunk.firstLine + i, e.getOriginalMessage());
+            } catch (IllegalArgumentException e) {
+                chunk.reject(chunk.firstLine + i, e.getMessage());
+            }
+        }
+        chunk.lines.clear();
+        return chunk;
+    }
+
+    private void persist(CompletableFuture<Chunk> parsed, StreamIngestResponse result) {
+        Chunk chunk = ReadingIngestLanes.join(parsed);
+        ReadingIngestPipeline.Reservation reservation = ingestPipeline.reserve(chunk.readings.size(), queueWaitMs);
+        int late = readingService.enqueueOnLanes(chunk.readings, chunk.sensors, reservation);
+        reservation.await();
+
+        result.setAccepted(result.getAccepted() + chunk.readings.size());
+        result.setRejected(result.getRejected() + chunk.rejected);
+        result.setLate(result.getLate() + late);
+        for (String error : chunk.errors) {
+            if (result.getErrors().size() < MAX_ERRORS) {
+                result.getErrors().add(error);
+            }
+        }
+    }
+
+    private SensorSnapshot findSensor(String sensorId) {
+        return sensorRegistry.find(sensorId)
+                .orElseThrow(() -> new IllegalArgumentException("Sensor not found: " + sensorId));
+    }
+
+    private void validate(CreateReadingRequest request) {
+        Set<ConstraintViolation<CreateReadingRequest>> violations = validator.validate(request);
+        if (!violations.isEmpty()) {
+            throw new IllegalArgumentException(violations.stream()
+                    .map(violation -> violation.getPropertyPath() + " " + violation.getMessage())
+                    .sorted()
+                    .collect(Collectors.joining(", ")));
+        }
+    }
+
+    private static ExecutorService newPool(String name, int threads) {
+        AtomicInteger counter = new AtomicInteger();
+        return Executors.newFixedThreadPool(threads, runnable -> {
+            Thread thread = new Thread(runnable, name + counter.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    private static final class Chunk {
+        private final long firstLine;
+        private final LocalDateTime receivedAt = EpochTime.now();
+        private final List<String> lines;
+        private final List<SensorReading> readings;
+        private final List<SensorSnapshot> sensors;
+        private final List<String> errors = new ArrayList<>();
+        private int rejected;
+
+        private Chunk(long firstLine, int size) {
+            this.firstLine = firstLine;
+            this.lines = new ArrayList<>(size);
+            this.readings = new ArrayList<>(size);
+            this.sensors = new ArrayList<>(size);
+        }
+
+        private void reject(long line, String reason) {
+            rejected++;
+            if (errors.size() < MAX_ERRORS) {
+                errors.add("line " + line + ": " + reason);
+            }
+        }
+    }
+}
@@ -1,20 +1,48 @@
 package com.scada.monitoring.service;
 
+import com.scada.monitoring.alarm.AlarmCodes;
+import com.scada.monitoring.alarm.AlarmEngine;
+import com.scada.monitoring.cache.LatestReadingStore;
+import com.scada.monitoring.cache.RecentReadingStore;
+import com.scada.monitoring.cache.SensorRegistry;
+import com.scada.monitoring.cache.SensorSnapshot;
+import com.scada.monitoring.downsample.MinMaxDownsampler;
 import com.scada.monitoring.dto.*;
-import com.scada.monitoring.entity.Sensor;
 import com.scada.monitoring.entity.SensorReading;
-import com.scada.monitoring.repository.SensorReadingRepository;
-import com.scada.monitoring.repository.SensorRepository;
+import com.scada.monitoring.ingest.MalformedFrameException;
+import com.scada.monitoring.ingest.ReadingFrames;
+import com.scada.monitoring.ingest.ReadingIngestLanes;
+import com.scada.monitoring.ingest.ReadingIngestNotifier;
+import com.scada.monitoring.ingest.ReadingIngestPipeline;
+import com.scada.monitoring.ingest.ReadingWatermarks;
+import com.scada.monitoring.storage.ReadingPage;
+import com.scada.monitoring.storage.ReadingStore;
+import com.scada.monitoring.trend.TrendAggregator;
+import com.scada.monitoring.trend.TrendWindow;
+import com.scada.monitoring.trend.WindowSummary;
+import com.scada.monitoring.util.AfterCommit;
+import com.scada.monitoring.util.EpochTime;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
-import org.springframework.data.domain.PageRequest;
-import org.springframework.data.domain.Pageable;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.nio.ByteBuffer;
 import java.time.LocalDateTime;
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Queue;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
 import java.util.stream.Collectors;
 
 @Service
@@ -22,90 +50,387 @@ import java.util.stream.Collectors;
 @Slf4j
 public class SensorReadingService {
 
-    private final SensorReadingRepository readingRepository;
-    private final SensorRepository sensorRepository;
-
-    @Transactional
+    private final ReadingStore readingStore;
+    private final SensorRegistry sensorRegistry;
+    private final ReadingIngestPipeline ingestPipeline;
+    private final ReadingIngestNotifier ingestNotifier;
+    private final ReadingIngestLanes ingestLanes;
+    private final ReadingWatermarks watermarks;
+    private final LatestReadingStore latestReadingStore;
+    private final RecentReadingStore recentReadings;
+    private final TrendAggregator trendAggregator;
+    private final AlarmEngine alarmEngine;
+
+    /**
+     * Stamps and evaluates the reading on its sensor's ingest lane, so readings of one sensor see
+     * alarm state in the order they arrived, then saves it on the caller's thread, in a
+     * transaction of its own, and publishes it once stored. The lane never waits for the database.
+     */
     public SensorReadingResponse createReading(CreateReadingRequest request) {
         log.debug("Creating reading for sensor: {}", request.getSensorId());
 
-        Sensor sensor = sensorRepository.findBySensorId(request.getSensorId())
-                .orElseThrow(() -> new IllegalArgumentException("Sensor not found: " + request.getSensorId()));
+        SensorSnapshot sensor = findSensor(request.getSensorId());
+        SensorReading reading = ingestLanes.call(sensor.getKey(), () -> {
+            SensorReading evaluated = buildReading(request, sensor);
+            watermarks.advance(evaluated);
+            return evaluated;
+        });
+        SensorReading savedReading = readingStore.save(reading);
+        // Listeners order readings by sample time, so concurrent saves may publish in either order
+        ingestNotifier.publish(savedReading);
+        log.debug("Reading saved for sensor: {}", request.getSensorId());
 
-        SensorReading reading = new SensorReading();
-        reading.setSensorId(request.getSensorId());
-        reading.setTemperature(request.getTemperature());
-        reading.setPressure(request.getPressure());
-        reading.setMotorOn(request.getMotorOn());
-        reading.setTimestamp(LocalDateTime.now());
+        return mapToResponse(savedReading);
+    }
 
-        List<String> warnings = new ArrayList<>();
-        if (request.getTemperature() >= sensor.getTempThreshold()) {
-            reading.setTempWarning(true);
-            warnings.add("HIGH TEMPERATURE WARNING: " + request.getTemperature() + "°C >= " + sensor.getTempThreshold() + "°C");
-            log.warn("Temperature threshold exceeded for sensor {}: {}°C", request.getSensorId(), request.getTemperature());
+    /**
+     * Evaluates thresholds and hands the reading to the batched ingest pipeline instead of
+     * inserting it in the caller's transaction. The returned response has no ID because the
+     * row is written later by the pipeline's writer thread. Either way the reading is in the
+     * write-ahead log, if enabled, before this returns, so an acknowledged reading survives a crash.
+     * <p>
+     * The reading is stamped, evaluated and queued on its sensor's ingest lane. Listeners, some of
+     * which write to the database, are called on the caller's thread once it is queued, as is the
+     * wait for the log or the write.
+     */
+    public SensorReadingResponse enqueueReading(CreateReadingRequest request, boolean awaitDurable) {
+        log.debug("Queueing reading for sensor: {} (durable: {})", request.getSensorId(), awaitDurable);
+
+        SensorSnapshot sensor = findSensor(request.getSensorId());
+        ReadingIngestPipeline.Receipt receipt = ingestLanes.call(sensor.getKey(), () -> {
+            SensorReading reading = buildReading(request, sensor);
+            watermarks.advance(reading);
+            return ingestPipeline.enqueue(reading, awaitDurable);
+        });
+        ingestNotifier.publish(receipt.getReading());
+        receipt.await();
+
+        return mapToResponse(receipt.getReading());
+    }
+
+    /**
+     * Queues every reading in a binary frame batch (see {@link ReadingFrames}). Sensors are resolved
+     * once per request from the batch's sensor table and readings are decoded straight from the
+     * buffer, with no request DTO or response per reading. Queue space for the whole batch is
+     * reserved before it is split over the ingest lanes, so a full queue rejects it as a whole.
+     *
+     * @return the number of readings queued, and how many of them were late
+     */
+    public FrameIngestResponse enqueueFrames(ByteBuffer body) {
+        // A batch larger than the whole queue would be rejected as full on every retry
+        ReadingFrames frames = ReadingFrames.parse(body, ingestPipeline.getQueueCapacity());
+        String[] sensorIds = frames.getSensorIds();
+        log.debug("Queueing {} frames for {} sensors", frames.getFrameCount(), sensorIds.length);
+
+        Map<String, SensorSnapshot> found = sensorRegistry.findAll(Arrays.asList(sensorIds));
+        SensorSnapshot[] sensors = new SensorSnapshot[sensorIds.length];
+        for (int i = 0; i < sensorIds.length; i++) {
+            sensors[i] = found.get(sensorIds[i]);
+            if (sensors[i] == null) {
+                throw new IllegalArgumentException("Sensor not found: " + sensorIds[i]);
+            }
         }
 
-        if (request.getPressure() >= sensor.getPressureThreshold()) {
-            reading.setPressureWarning(true);
-            warnings.add("HIGH PRESSURE WARNING: " + request.getPressure() + " PSI >= " + sensor.getPressureThreshold() + " PSI");
-            log.warn("Pressure threshold exceeded for sensor {}: {} PSI", request.getSensorId(), request.getPressure());
+        List<SensorReading> readings = new ArrayList<>(frames.getFrameCount());
+        List<SensorSnapshot> readingSensors = new ArrayList<>(frames.getFrameCount());
+        frames.forEach((reading, sensorIndex) -> {
+            SensorSnapshot sensor = sensors[sensorIndex];
+            reading.setSensorId(sensor.getSensorId());
+            reading.setSensorKey(sensor.getKey());
+            if (watermarks.isAhead(reading)) {
+                throw new MalformedFrameException(watermarks.aheadMessage(reading));
+            }
+            readings.add(reading);
+            readingSensors.add(sensor);
+        });
+        ReadingIngestPipeline.Reservation reservation = ingestPipeline.reserve(readings.size(), 0);
+        int late = enqueueOnLanes(readings, readingSensors, reservation);
+        reservation.await();
+        return new FrameIngestResponse(readings.size(), late);
+    }
+
+    /**
+     * Evaluates and queues readings of any number of sensors on their ingest lanes, into queue
+     * space already reserved for all of them, waits until every lane is done, and then publishes
+     * the queued readings on the caller's thread. Does not wait for the write-ahead log;
+     * {@link ReadingIngestPipeline.Reservation#await()} does.
+     *
+     * @param sensors the sensor of each reading, by position
+     * @return how many of the readings were late (see {@link ReadingWatermarks})
+     * @throws com.scada.monitoring.ingest.IngestQueueFullException if a lane is full; then no
+     *         reading has been evaluated or queued
+     */
+    public int enqueueOnLanes(List<SensorReading> readings, List<SensorSnapshot> sensors,
+                              ReadingIngestPipeline.Reservation reservation) {
+        Queue<List<SensorReading>> queued = new ConcurrentLinkedQueue<>();
+        try {
+            return evaluateOnLanes(readings, sensors, slice -> {
+                reservation.enqueueAll(slice);
+                queued.add(slice);
+            }, null);
+        } finally {
+            reservation.release();
+            // Also when a lane failed: what the other lanes queued will be stored
+            for (List<SensorReading> slice : queued) {
+                ingestNotifier.publishAll(slice);
+            }
         }
+    }
 
-        if (!warnings.isEmpty()) {
-            reading.setWarningMessage(String.join(" | ", warnings));
+    /**
+     * Evaluates readings of any number of sensors on their ingest lanes, one task per lane, hands
+     * each lane's slice to {@code evaluated} on that lane, and waits until every lane is done. Each
+     * sensor's readings keep their order in {@code readings}. The tasks are queued on all lanes or
+     * none, so a full lane rejects the whole batch before anything is evaluated; a task that
+     * throws afterwards fails the call, but slices on other lanes have been handled.
+     *
+     * @param sensors the sensor of each reading, by position
+     * @param undo    if not null, collects by sensor key what evaluation changed, for {@link #undo}
+     * @return how many of the readings were late (see {@link ReadingWatermarks})
+     */
+    private int evaluateOnLanes(List<SensorReading> readings, List<SensorSnapshot> sensors,
+                                Consumer<List<SensorReading>> evaluated, Map<Integer, SensorUndo> undo) {
+        int laneCount = ingestLanes.getLaneCount();
+        List<List<Integer>> byLane = new ArrayList<>(laneCount);
+        for (int i = 0; i < laneCount; i++) {
+            byLane.add(new ArrayList<>());
+        }
+        for (int i = 0; i < readings.size(); i++) {
+            byLane.get(ingestLanes.laneOf(sensors.get(i).getKey())).add(i);
         }
 
-        SensorReading savedReading = readingRepository.save(reading);
-        log.debug("Reading saved for sensor: {}", request.getSensorId());
+        int[] keys = new int[laneCount];
+        List<Supplier<Integer>> tasks = new ArrayList<>(laneCount);
+        for (List<Integer> positions : byLane) {
+            if (positions.isEmpty()) {
+                continue;
+            }
+            keys[tasks.size()] = sensors.get(positions.get(0)).getKey();
+            tasks.add(() -> {
+                List<SensorReading> slice = new ArrayList<>(positions.size());
+                int late = 0;
+                for (int position : positions) {
+                    SensorReading reading = readings.get(position);
+                    SensorSnapshot sensor = sensors.get(position);
+                    SensorUndo sensorUndo = undo != null ? undo.computeIfAbsent(sensor.getKey(), k ->
+                            new SensorUndo(sensor, alarmEngine.checkpoint(sensor), watermarks.get(sensor.getSensorId())))
+                            : null;
+                    alarmEngine.evaluate(sensor, reading);
+                    if (watermarks.advance(reading)) {
+                        late++;
+                    }
+                    if (sensorUndo != null) {
+                        sensorUndo.readings++;
+                        sensorUndo.watermarkAfter = watermarks.get(sensor.getSensorId());
+                    }
+                    slice.add(reading);
+                }
+                evaluated.accept(slice);
+                return late;
+            });
+        }
+        List<CompletableFuture<Integer>> lanes = ingestLanes.submitAll(Arrays.copyOf(keys, tasks.size()), tasks);
+        // Wait for every lane before rethrowing, so nothing is still running when the caller returns
+        for (CompletableFuture<Integer> lane : lanes) {
+            lane.exceptionally(e -> 0).join();
+        }
+        int late = 0;
+        for (CompletableFuture<Integer> lane : lanes) {
+            late += ReadingIngestLanes.join(lane);
+        }
+        return late;
+    }
 
-        return mapToResponse(savedReading);
+    /**
+     * Puts back the alarm state and watermarks of readings that were evaluated but not stored, for
+     * every sensor that has not evaluated other readings since.
+     */
+    private void undo(Map<Integer, SensorUndo> undo) {
+        for (SensorUndo sensorUndo : undo.values()) {
+            String sensorId = sensorUndo.sensor.getSensorId();
+            if (!alarmEngine.rollback(sensorUndo.alarms, sensorUndo.readings)) {
+                log.warn("Alarm state of sensor {} kept readings that were not stored", sensorId);
+            }
+            watermarks.rollback(sensorId, sensorUndo.watermarkAfter, sensorUndo.watermarkBefore);
+        }
+    }
+
+    private SensorSnapshot findSensor(String sensorId) {
+        return sensorRegistry.find(sensorId)
+                .orElseThrow(() -> new IllegalArgumentException("Sensor not found: " + sensorId));
+    }
+
+    SensorReading buildReading(CreateReadingRequest request, SensorSnapshot sensor) {
+        SensorReading reading = newReading(request, sensor, EpochTime.now());
+
+        // Only the bitmask and limits are stored; warning text is rendered by mapToResponse
+        alarmEngine.evaluate(sensor, reading);
+
+        return reading;
+    }
+
+    /**
+     * The reading a request describes, before alarm evaluation, stamped with the device's sample
+     * time or, if the request has none, {@code receivedAt}. A sample time too far ahead of the
+     * clock is rejected (see {@link ReadingWatermarks#checkNotAhead}). Shared with {@link ReadingStreamService},
+     * which evaluates alarms later on the ingest lanes.
+     */
+    SensorReading newReading(CreateReadingRequest request, SensorSnapshot sensor, LocalDateTime receivedAt) {
+        SensorReading reading = new SensorReading();
+        // The registry's copy of the ID, so readings share one String per sensor
+        reading.setSensorId(sensor.getSensorId());
+        reading.setSensorKey(sensor.getKey());
+        reading.setTemperature(request.getTemperature());
+        reading.setPressure(request.getPressure());
+        reading.setMotorOn(request.getMotorOn());
+        if (request.getTimestampNanos() != null) {
+            reading.setTimestamp(EpochTime.fromEpochNanos(request.getTimestampNanos()));
+            watermarks.checkNotAhead(reading);
+        } else {
+            reading.setTimestamp(receivedAt);
+        }
+        return reading;
     }
 
-    @Transactional
+    /**
+     * Resolves every distinct sensor in one registry lookup, evaluates thresholds on the sensors'
+     * ingest lanes and hands the whole list to Hibernate, which writes it as JDBC batches of
+     * {@code hibernate.jdbc.batch_size}. The throughput target for this path is 50k readings/s
+     * against embedded H2.
+     * <p>
+     * Evaluation is ordered with the other ingest paths and happens before the write, so no
+     * connection is held while the lanes work. The write is one transaction on the caller's
+     * thread, and the readings are published only once it commits. If it fails, the alarm state
+     * and watermarks the readings moved are put back.
+     */
     public List<SensorReadingResponse> createBulkReadings(List<CreateReadingRequest> requests) {
         log.info("Creating {} bulk readings", requests.size());
-        return requests.stream()
-                .map(this::createReading)
+
+        Set<String> sensorIds = new HashSet<>();
+        for (CreateReadingRequest request : requests) {
+            sensorIds.add(request.getSensorId());
+        }
+        Map<String, SensorSnapshot> sensors = sensorRegistry.findAll(sensorIds);
+
+        LocalDateTime receivedAt = EpochTime.now();
+        List<SensorReading> readings = new ArrayList<>(requests.size());
+        List<SensorSnapshot> readingSensors = new ArrayList<>(requests.size());
+        for (CreateReadingRequest request : requests) {
+            SensorSnapshot sensor = sensors.get(request.getSensorId());
+            if (sensor == null) {
+                throw new IllegalArgumentException("Sensor not found: " + request.getSensorId());
+            }
+            readings.add(newReading(request, sensor, receivedAt));
+            readingSensors.add(sensor);
+        }
+        Map<Integer, SensorUndo> undo = new ConcurrentHashMap<>();
+        List<SensorReading> savedReadings;
+        try {
+            evaluateOnLanes(readings, readingSensors, slice -> { }, undo);
+            savedReadings = readingStore.saveAll(readings);
+        } catch (RuntimeException e) {
+            undo(undo);
+            throw e;
+        }
+        AfterCommit.run(() -> ingestNotifier.publishAll(savedReadings));
+        return savedReadings.stream()
+                .map(SensorReadingService::mapToResponse)
                 .collect(Collectors.toList());
     }
 
-    @Transactional(readOnly = true)
+    /**
+     * Newest readings of the sensor, newest first. Served from {@link RecentReadingStore} when it
+     * holds enough of them, otherwise read from storage. Readings queued through the ingest
+     * pipeline reach the buffer before they are written, so from there they carry no id.
+     */
     public List<SensorReadingResponse> getRecentReadings(String sensorId, Integer limit) {
         log.debug("Fetching recent readings for sensor: {} (limit: {})", sensorId, limit);
         int pageSize = (limit != null && limit > 0) ? limit : 10;
-        Pageable pageable = PageRequest.of(0, pageSize);
 
-        List<SensorReading> readings = readingRepository.findBySensorIdOrderByTimestampDesc(sensorId, pageable);
+        List<SensorReading> readings = recentReadings.findRecent(sensorId, pageSize)
+                .orElseGet(() -> readingStore.findRecent(sensorId, pageSize));
         return readings.stream()
-                .map(this::mapToResponse)
+                .map(SensorReadingService::mapToResponse)
+                .collect(Collectors.toList());
+    }
+
+    /**
+     * Current value of each requested sensor (or of all sensors), served from memory.
+     */
+    public List<SensorReadingResponse> getLatestReadings(List<String> sensorIds) {
+        log.debug("Fetching latest readings for sensors: {}", sensorIds);
+        return latestReadingStore.getAll(sensorIds).stream()
+                .map(SensorReadingService::mapToResponse)
                 .collect(Collectors.toList());
     }
 
     @Transactional(readOnly = true)
     public List<SensorReadingResponse> getAllReadings(String sensorId) {
         log.debug("Fetching all readings for sensor: {}", sensorId);
-        List<SensorReading> readings;
-
-        if (sensorId != null && !sensorId.isEmpty()) {
-            readings = readingRepository.findBySensorIdOrderByTimestampDesc(sensorId, Pageable.unpaged());
-        } else {
-            readings = readingRepository.findAll();
-        }
+        List<SensorReading> readings = readingStore.findAll(sensorId != null && !sensorId.isEmpty() ? sensorId : null);
 
         return readings.stream()
-                .map(this::mapToResponse)
+                .map(SensorReadingService::mapToResponse)
                 .collect(Collectors.toList());
     }
 
+    /**
+     * Hands every reading, optionally filtered by sensor, to {@code sink} in insertion order
+     * without materialising the result, so memory use is independent of how much is stored.
+     * Must be called through the proxy so a database cursor stays inside a read-only transaction.
+     */
+    @Transactional(readOnly = true)
+    public void streamReadings(String sensorId, Consumer<SensorReadingResponse> sink) {
+        log.debug("Streaming readings for sensor: {}", sensorId);
+        readingStore.scan(sensorId != null && !sensorId.isEmpty() ? sensorId : null,
+                reading -> sink.accept(mapToResponse(reading)));
+    }
+
+    /**
+     * Keyset page of readings after the cursor {@code afterId}: in id order with the table
+     * backend, in sample-time order with the columnar one. Pass the returned {@code nextAfterId}
+     * to fetch the following page; it is null on the last page.
+     */
+    @Transactional(readOnly = true)
+    public ReadingPageResponse getReadingsPage(String sensorId, Long afterId, int size) {
+        log.debug("Fetching {} readings after {} for sensor: {}", size, afterId, sensorId);
+        long cursor = afterId != null ? afterId : 0L;
+        ReadingPage page = readingStore.findPage(sensorId != null && !sensorId.isEmpty() ? sensorId : null, cursor, size);
+
+        return new ReadingPageResponse(page.getReadings().stream()
+                .map(SensorReadingService::mapToResponse)
+                .collect(Collectors.toList()), page.getNext());
+    }
+
     @Transactional(readOnly = true)
     public List<SensorReadingResponse> getReadingsByTimeRange(String sensorId, LocalDateTime start, LocalDateTime end) {
         log.debug("Fetching readings for sensor {} between {} and {}", sensorId, start, end);
-        List<SensorReading> readings = readingRepository.findBySensorIdAndTimestampBetweenOrderByTimestampDesc(
-                sensorId, start, end);
+        List<SensorReading> readings = readingStore.findRange(sensorId, start, end);
 
         return readings.stream()
-                .map(this::mapToResponse)
+                .map(SensorReadingService::mapToResponse)
+                .collect(Collectors.toList());
+    }
+
+    /**
+     * Range query reduced to at most {@code maxPoints} readings with {@link MinMaxDownsampler}.
+     * The range is scanned rather than loaded, so memory and payload size do not depend on
+     * how many readings it contains.
+     */
+    @Transactional(readOnly = true)
+    public List<SensorReadingResponse> getDownsampledReadings(String sensorId, LocalDateTime start,
+                                                              LocalDateTime end, int maxPoints) {
+        log.debug("Fetching at most {} readings for sensor {} between {} and {}", maxPoints, sensorId, start, end);
+        MinMaxDownsampler downsampler = new MinMaxDownsampler(
+                EpochTime.toEpochMillis(start), EpochTime.toEpochMillis(end), maxPoints);
+
+        readingStore.scanRange(sensorId, start, end, downsampler::accept);
+
+        // Same newest-first order as the full range query
+        List<SensorReading> sampled = downsampler.finish();
+        Collections.reverse(sampled);
+        return sampled.stream()
+                .map(SensorReadingService::mapToResponse)
                 .collect(Collectors.toList());
     }
 
@@ -113,73 +438,61 @@ public class SensorReadingService {
     public List<SensorReadingResponse> getWarnings(String sensorId, Integer limit) {
         log.debug("Fetching warnings for sensor: {}", sensorId);
         int pageSize = (limit != null && limit > 0) ? limit : 50;
-        Pageable pageable = PageRequest.of(0, pageSize);
 
-        List<SensorReading> warnings;
-        if (sensorId != null && !sensorId.isEmpty()) {
-            warnings = readingRepository.findWarningsBySensorId(sensorId, pageable);
-        } else {
-            warnings = readingRepository.findAllWarnings(pageable);
-        }
+        List<SensorReading> warnings = readingStore.findWarnings(
+                sensorId != null && !sensorId.isEmpty() ? sensorId : null, pageSize);
 
         return warnings.stream()
-                .map(this::mapToResponse)
+                .map(SensorReadingService::mapToResponse)
                 .collect(Collectors.toList());
     }
 
-    @Transactional(readOnly = true)
+    /**
+     * Trend over the last {@code limit} readings. The default window size is answered from the
+     * running aggregates in {@link TrendAggregator}; other sizes up to the depth of
+     * {@link RecentReadingStore} from its buffers, and anything else in a single pass over the
+     * stored readings.
+     */
     public TrendAnalysisResponse getTrendAnalysis(String sensorId, Integer limit) {
         log.debug("Generating trend analysis for sensor: {}", sensorId);
         int analysisLimit = (limit != null && limit > 0) ? limit : 100;
-        Pageable pageable = PageRequest.of(0, analysisLimit);
 
-        List<SensorReading> readings = readingRepository.findBySensorIdOrderByTimestampDesc(sensorId, pageable);
-
-        if (readings.isEmpty()) {
-            throw new IllegalArgumentException("No readings found for sensor: " + sensorId);
+        if (analysisLimit == trendAggregator.getWindowSize()) {
+            Optional<TrendAnalysisResponse> running = trendAggregator.getLastNTrend(sensorId);
+            if (running.isPresent()) {
+                return running.get();
+            }
         }
 
-        TrendAnalysisResponse analysis = new TrendAnalysisResponse();
-        analysis.setSensorId(sensorId);
-        analysis.setTotalReadings(readings.size());
+        Optional<WindowSummary> buffered = recentReadings.summarize(sensorId, analysisLimit);
+        if (buffered.isPresent()) {
+            return buffered.get().toResponse(sensorId);
+        }
 
-        double sumTemp = 0, sumPressure = 0;
-        double maxTemp = Double.MIN_VALUE, minTemp = Double.MAX_VALUE;
-        double maxPressure = Double.MIN_VALUE, minPressure = Double.MAX_VALUE;
-        int warningCount = 0;
+        List<SensorReading> readings = readingStore.findRecent(sensorId, analysisLimit);
 
-        LocalDateTime earliest = readings.get(readings.size() - 1).getTimestamp();
-        LocalDateTime latest = readings.get(0).getTimestamp();
+        if (readings.isEmpty()) {
+            throw new IllegalArgumentException("No readings found for sensor: " + sensorId);
+        }
 
+        WindowSummary summary = new WindowSummary();
         for (SensorReading reading : readings) {
-            sumTemp += reading.getTemperature();
-            sumPressure += reading.getPressure();
-
-            maxTemp = Math.max(maxTemp, reading.getTemperature());
-            minTemp = Math.min(minTemp, reading.getTemperature());
-
-            maxPressure = Math.max(maxPressure, reading.getPressure());
-            minPressure = Math.min(minPressure, reading.getPressure());
-
-            if (reading.isTempWarning() || reading.isPressureWarning()) {
-                warningCount++;
-            }
+            summary.add(EpochTime.toEpochMillis(reading.getTimestamp()), reading.getTemperature(),
+                    reading.getPressure(), reading.isTempWarning() || reading.isPressureWarning());
         }
+        return summary.toResponse(sensorId);
+    }
 
-        analysis.setAvgTemperature(sumTemp / readings.size());
-        analysis.setMaxTemperature(maxTemp);
-        analysis.setMinTemperature(minTemp);
-        analysis.setAvgPressure(sumPressure / readings.size());
-        analysis.setMaxPressure(maxPressure);
-        analysis.setMinPressure(minPressure);
-        analysis.setWarningCount(warningCount);
-        analysis.setStartTime(earliest);
-        analysis.setEndTime(latest);
-
-        return analysis;
+    /**
+     * Trend over a wall-clock window (1m, 15m or 1h), answered entirely from running aggregates.
+     */
+    public TrendAnalysisResponse getWindowedTrendAnalysis(String sensorId, String window) {
+        log.debug("Generating {} trend analysis for sensor: {}", window, sensorId);
+        return trendAggregator.getTrend(sensorId, TrendWindow.fromCode(window))
+                .orElseThrow(() -> new IllegalArgumentException("No readings found for sensor " + sensorId + " in the last " + window));
     }
 
-    private SensorReadingResponse mapToResponse(SensorReading reading) {
+    public static SensorReadingResponse mapToResponse(SensorReading reading) {
         SensorReadingResponse response = new SensorReadingResponse();
         response.setId(reading.getId());
         response.setSensorId(reading.getSensorId());
@@ -189,7 +502,26 @@ public class SensorReadingService {
         response.setTimestamp(reading.getTimestamp());
         response.setTempWarning(reading.isTempWarning());
         response.setPressureWarning(reading.isPressureWarning());
-        response.setWarningMessage(reading.getWarningMessage());
+        response.setAlarmMask(reading.getAlarmMask());
+        response.setWarningMessage(AlarmCodes.describe(reading.getAlarmMask(), reading.getTemperature(),
+                reading.getPressure(), reading.getTempLimit(), reading.getPressureLimit()));
         return response;
     }
-}
\ No newline at end of file
+
+    /**
+     * What evaluating a bulk request changed for one sensor, to put back if the write fails.
+     */
+    private static final class SensorUndo {
+        private final SensorSnapshot sensor;
+        private final AlarmEngine.Checkpoint alarms;
+        private final long watermarkBefore;
+        private long watermarkAfter;
+        private int readings;
+
+        private SensorUndo(SensorSnapshot sensor, AlarmEngine.Checkpoint alarms, long watermarkBefore) {
+            this.sensor = sensor;
+            this.alarms = alarms;
+            this.watermarkBefore = watermarkBefore;
+        }
+    }
+}
@@ -1,7 +1,10 @@
 package com.scada.monitoring.service;
 
+import com.scada.monitoring.alarm.AlarmRuleService;
+import com.scada.monitoring.cache.SensorRegistry;
 import com.scada.monitoring.dto.*;
 import com.scada.monitoring.entity.Sensor;
+import com.scada.monitoring.ingest.ReadingIngestNotifier;
 import com.scada.monitoring.repository.SensorRepository;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
@@ -17,6 +20,9 @@ import java.util.stream.Collectors;
 public class SensorService {
 
     private final SensorRepository sensorRepository;
+    private final SensorRegistry sensorRegistry;
+    private final ReadingIngestNotifier ingestNotifier;
+    private final AlarmRuleService alarmRuleService;
 
     @Transactional
     public SensorResponse createSensor(CreateSensorRequest request) {
@@ -34,6 +40,7 @@ public class SensorService {
         sensor.setPressureThreshold(request.getPressureThreshold());
 
         Sensor savedSensor = sensorRepository.save(sensor);
+        sensorRegistry.put(savedSensor);
         log.info("Sensor created successfully: {}", savedSensor.getSensorId());
 
         return mapToResponse(savedSensor);
@@ -63,6 +70,7 @@ public class SensorService {
 
         sensor.setMotorOn(motorOn);
         Sensor updatedSensor = sensorRepository.save(sensor);
+        sensorRegistry.put(updatedSensor);
 
         log.info("Motor state updated successfully for sensor: {}", sensorId);
         return mapToResponse(updatedSensor);
@@ -82,6 +90,7 @@ public class SensorService {
         }
 
         Sensor updatedSensor = sensorRepository.save(sensor);
+        sensorRegistry.put(updatedSensor);
         log.info("Thresholds updated successfully for sensor: {}", sensorId);
 
         return mapToResponse(updatedSensor);
@@ -93,9 +102,16 @@ public class SensorService {
         Sensor sensor = sensorRepository.findBySensorId(sensorId)
                 .orElseThrow(() -> new IllegalArgumentException("Sensor not found: " + sensorId));
         sensorRepository.delete(sensor);
+        alarmRuleService.deleteRulesForSensor(sensorId);
+        sensorRegistry.evict(sensorId);
+        ingestNotifier.sensorRemoved(sensorId);
         log.info("Sensor deleted successfully: {}", sensorId);
     }
 
+    public SensorRegistryStatsResponse getRegistryStats() {
+        return sensorRegistry.getStats();
+    }
+
     private SensorResponse mapToResponse(Sensor sensor) {
         SensorResponse response = new SensorResponse();
         response.setId(sensor.getId());
@@ -0,0 +1,48 @@
+package com.scada.monitoring.storage;
+
+import java.nio.ByteBuffer;
+
+/**
+ * MSB-first bit reader over a region of a heap or memory-mapped buffer. Uses absolute
+ * gets only, so several readers can share one mapped buffer.
+ */
+final class BitReader {
+
+    private final ByteBuffer buffer;
+    private final int offset;
+    private long position;
+
+    BitReader(ByteBuffer buffer, int offset) {
+        this.buffer = buffer;
+        this.offset = offset;
+    }
+
+    boolean readBit() {
+        int current = buffer.get(offset + (int) (position >>> 3));
+        boolean bit = ((current >>> (7 - (int) (position & 7))) & 1) != 0;
+        position++;
+        return bit;
+    }
+
+    long readBits(int bits) {
+        long value = 0;
+        while (bits > 0) {
+            int current = buffer.get(offset + (int) (position >>> 3)) & 0xFF;
+            int available = 8 - (int) (position & 7);
+            int take = Math.min(available, bits);
+            int chunk = (current >>> (available - take)) & ((1 << take) - 1);
+            value = (value << take) | chunk;
+            position += take;
+            bits -= take;
+        }
+        return value;
+    }
+
+    /**
+     * Reads {@code bits} bits as a two's complement number.
+     */
+    long readSigned(int bits) {
+        long value = readBits(bits);
+        return (value << (64 - bits)) >> (64 - bits);
+    }
+}
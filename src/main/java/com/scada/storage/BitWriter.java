@@ -0,0 +1,59 @@
+package com.scada.monitoring.storage;
+
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+
+/**
+ * Growable MSB-first bit buffer used to encode the open chunk of a series.
+ */
+final class BitWriter {
+
+    private byte[] buffer;
+    private long bitLength;
+
+    BitWriter(int initialBytes) {
+        this.buffer = new byte[Math.max(16, initialBytes)];
+    }
+
+    void writeBit(boolean bit) {
+        writeBits(bit ? 1L : 0L, 1);
+    }
+
+    /**
+     * Appends the low {@code bits} bits of {@code value}, most significant first.
+     */
+    void writeBits(long value, int bits) {
+        ensureCapacity(bitLength + bits);
+        while (bits > 0) {
+            int index = (int) (bitLength >>> 3);
+            int free = 8 - (int) (bitLength & 7);
+            int take = Math.min(free, bits);
+            int chunk = (int) (value >>> (bits - take)) & ((1 << take) - 1);
+            buffer[index] |= (byte) (chunk << (free - take));
+            bitLength += take;
+            bits -= take;
+        }
+    }
+
+    long bitLength() {
+        return bitLength;
+    }
+
+    int byteLength() {
+        return (int) ((bitLength + 7) >>> 3);
+    }
+
+    /**
+     * Copy of the bytes written so far; the writer can keep appending afterwards.
+     */
+    ByteBuffer snapshot() {
+        return ByteBuffer.wrap(Arrays.copyOf(buffer, byteLength()));
+    }
+
+    private void ensureCapacity(long bits) {
+        int needed = (int) ((bits + 7) >>> 3);
+        if (needed > buffer.length) {
+            buffer = Arrays.copyOf(buffer, Math.max(needed, buffer.length * 2));
+        }
+    }
+}
@@ -0,0 +1,104 @@
+package com.scada.monitoring.storage;
+
+import com.scada.monitoring.alarm.AlarmCodes;
+import com.scada.monitoring.entity.SensorReading;
+import com.scada.monitoring.util.EpochTime;
+
+import java.nio.ByteBuffer;
+
+/**
+ * Sequential reader for a chunk written by {@link ChunkEncoder}.
+ */
+final class ChunkDecoder {
+
+    private final String sensorId;
+    private final BitReader in;
+    private final int count;
+    private final XorDecoder temperature = new XorDecoder();
+    private final XorDecoder pressure = new XorDecoder();
+    private final XorDecoder tempLimit = new XorDecoder();
+    private final XorDecoder pressureLimit = new XorDecoder();
+
+    private int decoded;
+    private long timestamp;
+    private long delta;
+    private int mask;
+
+    ChunkDecoder(String sensorId, ByteBuffer buffer, int offset, int count) {
+        this.sensorId = sensorId;
+        this.in = new BitReader(buffer, offset);
+        this.count = count;
+    }
+
+    boolean hasNext() {
+        return decoded < count;
+    }
+
+    SensorReading next() {
+        boolean first = decoded == 0;
+        readTimestamp(first);
+        double temperatureValue = temperature.read(in, first);
+        double pressureValue = pressure.read(in, first);
+        double tempLimitValue = tempLimit.read(in, first);
+        double pressureLimitValue = pressureLimit.read(in, first);
+        boolean motorOn = in.readBit();
+        if (first || in.readBit()) {
+            mask = (int) in.readBits(ChunkEncoder.MASK_BITS);
+        }
+        decoded++;
+
+        SensorReading reading = new SensorReading();
+        reading.setSensorId(sensorId);
+        reading.setTimestamp(EpochTime.toLocalDateTime(timestamp));
+        reading.setTemperature(temperatureValue);
+        reading.setPressure(pressureValue);
+        reading.setMotorOn(motorOn);
+        reading.setAlarmMask(mask);
+        reading.setTempWarning(AlarmCodes.has(mask, AlarmCodes.TEMPERATURE_ALARMS));
+        reading.setPressureWarning(AlarmCodes.has(mask, AlarmCodes.PRESSURE_ALARMS));
+        reading.setTempLimit(tempLimitValue);
+        reading.setPressureLimit(pressureLimitValue);
+        return reading;
+    }
+
+    private void readTimestamp(boolean first) {
+        if (first) {
+            timestamp = in.readBits(64);
+            return;
+        }
+        long deltaOfDelta;
+        if (!in.readBit()) {
+            deltaOfDelta = 0;
+        } else if (!in.readBit()) {
+            deltaOfDelta = in.readSigned(7);
+        } else if (!in.readBit()) {
+            deltaOfDelta = in.readSigned(9);
+        } else if (!in.readBit()) {
+            deltaOfDelta = in.readSigned(12);
+        } else {
+            deltaOfDelta = in.readBits(64);
+        }
+        delta += deltaOfDelta;
+        timestamp += delta;
+    }
+
+    private static final class XorDecoder {
+        private long previous;
+        private int leading;
+        private int trailing;
+
+        double read(BitReader in, boolean first) {
+            if (first) {
+                previous = in.readBits(64);
+            } else if (in.readBit()) {
+                if (in.readBit()) {
+                    leading = (int) in.readBits(5);
+                    int significant = (int) in.readBits(6) + 1;
+                    trailing = 64 - leading - significant;
+                }
+                previous ^= in.readBits(64 - leading - trailing) << trailing;
+            }
+            return Double.longBitsToDouble(previous);
+        }
+    }
+}
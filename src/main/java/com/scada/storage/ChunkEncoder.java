@@ -0,0 +1,160 @@
+package com.scada.monitoring.storage;
+
+import com.scada.monitoring.entity.SensorReading;
+import com.scada.monitoring.util.EpochTime;
+
+import java.nio.ByteBuffer;
+
+/**
+ * Encodes one chunk of a sensor's readings column by column, following the Gorilla scheme:
+ * <ul>
+ *     <li>timestamps as delta-of-delta in millis, so a steady sample rate costs one bit;</li>
+ *     <li>temperature, pressure and both limits XOR'ed with the previous value, so an unchanged
+ *     limit costs one bit and a slowly moving value only its changed mantissa bits;</li>
+ *     <li>the motor state as one bit and the alarm mask as one bit unless it changed.</li>
+ * </ul>
+ * The first sample of a chunk is stored raw, so each chunk decodes on its own.
+ */
+final class ChunkEncoder {
+
+    static final int MASK_BITS = 8;
+
+    private final BitWriter out;
+    private final XorEncoder temperature = new XorEncoder();
+    private final XorEncoder pressure = new XorEncoder();
+    private final XorEncoder tempLimit = new XorEncoder();
+    private final XorEncoder pressureLimit = new XorEncoder();
+
+    private int count;
+    private int alarmed;
+    private long previousTimestamp;
+    private long previousDelta;
+    private int previousMask;
+    private long minTimestamp = Long.MAX_VALUE;
+    private long maxTimestamp = Long.MIN_VALUE;
+
+    ChunkEncoder(int initialBytes) {
+        this.out = new BitWriter(initialBytes);
+    }
+
+    void append(SensorReading reading) {
+        long timestamp = EpochTime.toEpochMillis(reading.getTimestamp());
+        writeTimestamp(timestamp);
+        temperature.write(out, reading.getTemperature(), count == 0);
+        pressure.write(out, reading.getPressure(), count == 0);
+        tempLimit.write(out, reading.getTempLimit(), count == 0);
+        pressureLimit.write(out, reading.getPressureLimit(), count == 0);
+        out.writeBit(reading.isMotorOn());
+        writeMask(reading.getAlarmMask());
+        if (reading.getAlarmMask() != 0) {
+            alarmed++;
+        }
+
+        minTimestamp = Math.min(minTimestamp, timestamp);
+        maxTimestamp = Math.max(maxTimestamp, timestamp);
+        count++;
+    }
+
+    int count() {
+        return count;
+    }
+
+    /** Samples with a non-zero alarm mask. */
+    int alarmedCount() {
+        return alarmed;
+    }
+
+    int byteLength() {
+        return out.byteLength();
+    }
+
+    long minTimestamp() {
+        return minTimestamp;
+    }
+
+    long maxTimestamp() {
+        return maxTimestamp;
+    }
+
+    ByteBuffer snapshot() {
+        return out.snapshot();
+    }
+
+    private void writeTimestamp(long timestamp) {
+        if (count == 0) {
+            out.writeBits(timestamp, 64);
+        } else {
+            long delta = timestamp - previousTimestamp;
+            long deltaOfDelta = delta - previousDelta;
+            if (deltaOfDelta == 0) {
+                out.writeBit(false);
+            } else if (deltaOfDelta >= -64 && deltaOfDelta <= 63) {
+                out.writeBits(0b10, 2);
+                out.writeBits(deltaOfDelta, 7);
+            } else if (deltaOfDelta >= -256 && deltaOfDelta <= 255) {
+                out.writeBits(0b110, 3);
+                out.writeBits(deltaOfDelta, 9);
+            } else if (deltaOfDelta >= -2048 && deltaOfDelta <= 2047) {
+                out.writeBits(0b1110, 4);
+                out.writeBits(deltaOfDelta, 12);
+            } else {
+                out.writeBits(0b1111, 4);
+                out.writeBits(deltaOfDelta, 64);
+            }
+            previousDelta = delta;
+        }
+        previousTimestamp = timestamp;
+    }
+
+    private void writeMask(int mask) {
+        if (count > 0 && mask == previousMask) {
+            out.writeBit(false);
+        } else {
+            if (count > 0) {
+                out.writeBit(true);
+            }
+            out.writeBits(mask, MASK_BITS);
+            previousMask = mask;
+        }
+    }
+
+    private static final class XorEncoder {
+        private long previous;
+        private int leading = -1;
+        private int trailing;
+
+        void write(BitWriter out, double value, boolean first) {
+            long bits = Double.doubleToRawLongBits(value);
+            if (first) {
+                out.writeBits(bits, 64);
+                previous = bits;
+                leading = -1;
+                return;
+            }
+
+            long xor = bits ^ previous;
+            previous = bits;
+            if (xor == 0) {
+                out.writeBit(false);
+                return;
+            }
+            out.writeBit(true);
+
+            int newLeading = Math.min(Long.numberOfLeadingZeros(xor), 31);
+            int newTrailing = Long.numberOfTrailingZeros(xor);
+            if (leading >= 0 && newLeading >= leading && newTrailing >= trailing) {
+                // Changed bits fit inside the previous window
+                out.writeBit(false);
+                out.writeBits(xor >>> trailing, 64 - leading - trailing);
+            } else {
+                int significant = 64 - newLeading - newTrailing;
+                out.writeBit(true);
+                out.writeBits(newLeading, 5);
+                out.writeBits(significant - 1, 6);
+                out.writeBits(xor >>> newTrailing, significant);
+                leading = newLeading;
+                trailing = newTrailing;
+            }
+        }
+    }
+}
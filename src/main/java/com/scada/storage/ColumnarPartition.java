@@ -0,0 +1,156 @@
+package com.scada.monitoring.storage;
+
+import com.scada.monitoring.cache.SensorDictionary;
+import com.scada.monitoring.cache.SensorTable;
+import com.scada.monitoring.entity.SensorReading;
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.util.List;
+
+/**
+ * One UTC day of columnar readings: a directory named {@code yyyy-MM-dd} holding one
+ * {@link ColumnarSeries} file per sensor, held in memory by {@link SensorDictionary} key.
+ * Expiring the day deletes the directory, so retention never rewrites or scans the data it keeps.
+ */
+@Slf4j
+final class ColumnarPartition {
+
+    private final long day;
+    private final Path directory;
+    private final int chunkSize;
+    private final long latenessMillis;
+    private final SensorDictionary dictionary;
+    private final SensorTable<ColumnarSeries> series = new SensorTable<>();
+
+    private ColumnarPartition(long day, Path directory, int chunkSize, long latenessMillis, SensorDictionary dictionary) {
+        this.day = day;
+        this.directory = directory;
+        this.chunkSize = chunkSize;
+        this.latenessMillis = latenessMillis;
+        this.dictionary = dictionary;
+    }
+
+    static ColumnarPartition create(Path dataDir, long day, int chunkSize, long latenessMillis,
+                                    SensorDictionary dictionary) throws IOException {
+        Path directory = dataDir.resolve(LocalDate.ofEpochDay(day).toString());
+        Files.createDirectories(directory);
+        return new ColumnarPartition(day, directory, chunkSize, latenessMillis, dictionary);
+    }
+
+    static ColumnarPartition open(Path directory, int chunkSize, long latenessMillis,
+                                  SensorDictionary dictionary) throws IOException {
+        long day = LocalDate.parse(directory.getFileName().toString()).toEpochDay();
+        ColumnarPartition partition = new ColumnarPartition(day, directory, chunkSize, latenessMillis, dictionary);
+        try (DirectoryStream<Path> files = Files.newDirectoryStream(directory, "*" + ColumnarSeries.FILE_SUFFIX)) {
+            for (Path file : files) {
+                ColumnarSeries opened = ColumnarSeries.open(file, chunkSize, latenessMillis);
+                partition.series.compute(dictionary.keyOf(opened.getSensorId()), existing -> opened);
+            }
+        }
+        return partition;
+    }
+
+    long getDay() {
+        return day;
+    }
+
+    ColumnarSeries get(int sensorKey) {
+        return series.get(sensorKey);
+    }
+
+    List<ColumnarSeries> all() {
+        return series.values();
+    }
+
+    /**
+     * @return false if the series for this reading's sensor has already been closed
+     */
+    boolean append(SensorReading reading, long sequence) {
+        int key = dictionary.keyOf(reading);
+        ColumnarSeries target = series.get(key);
+        if (target == null) {
+            String id = reading.getSensorId();
+            target = series.computeIfAbsent(key, k -> {
+                try {
+                    return ColumnarSeries.create(directory.resolve(fileName(id)), id, chunkSize, latenessMillis);
+                } catch (IOException e) {
+                    throw new UncheckedIOException("Failed to create chunk file for sensor " + id, e);
+                }
+            });
+        }
+        return target.append(reading, sequence);
+    }
+
+    /**
+     * Oldest append sequence not yet sealed by any of the day's series.
+     */
+    long unsealedSince() {
+        long oldest = Long.MAX_VALUE;
+        for (ColumnarSeries s : series.values()) {
+            oldest = Math.min(oldest, s.unsealedSince());
+        }
+        return oldest;
+    }
+
+    void flush(long sequence) {
+        for (ColumnarSeries s : series.values()) {
+            s.flush(sequence);
+        }
+    }
+
+    long sampleCount() {
+        long count = 0;
+        for (ColumnarSeries s : series.values()) {
+            count += s.sampleCount();
+        }
+        return count;
+    }
+
+    long byteSize() {
+        long bytes = 0;
+        for (ColumnarSeries s : series.values()) {
+            bytes += s.byteSize();
+        }
+        return bytes;
+    }
+
+    void close() {
+        for (ColumnarSeries s : series.values()) {
+            try {
+                s.close();
+            } catch (IOException | UncheckedIOException e) {
+                log.error("Failed to close chunk file for sensor {}", s.getSensorId(), e);
+            }
+        }
+    }
+
+    /**
+     * Closes every series and deletes the partition directory.
+     */
+    void drop() throws IOException {
+        close();
+        try (DirectoryStream<Path> files = Files.newDirectoryStream(directory)) {
+            for (Path file : files) {
+                Files.delete(file);
+            }
+        }
+        Files.delete(directory);
+    }
+
+    /**
+     * File name safe on any file system; the exact sensor ID is kept in the file header.
+     */
+    static String fileName(String sensorId) {
+        String safe = sensorId.replaceAll("[^A-Za-z0-9_.-]", "_");
+        if (safe.length() > 64) {
+            safe = safe.substring(0, 64);
+        }
+        return safe + "-" + Integer.toHexString(sensorId.hashCode()) + ColumnarSeries.FILE_SUFFIX;
+    }
+}
@@ -0,0 +1,467 @@
+package com.scada.monitoring.storage;
+
+import com.scada.monitoring.cache.SensorDictionary;
+import com.scada.monitoring.entity.SensorReading;
+import com.scada.monitoring.util.EpochTime;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
+
+/**
+ * {@link ReadingStore} that keeps readings in daily partitions ({@link ColumnarPartition}),
+ * each holding an append-only file of Gorilla-compressed chunks ({@link ChunkEncoder}) per
+ * sensor. A steady series costs roughly 10-20 bytes per sample on disk and in memory instead
+ * of a few hundred for a table row. A range scan only opens the days inside the range and
+ * only decodes the chunks whose time span overlaps it, and retention drops whole days.
+ * <p>
+ * Readings come back in timestamp order within a day: each series holds readings back for
+ * {@code scada.ingest.lateness-ms} of sample time and encodes them sorted, so device-stamped
+ * readings that arrive out of order within that window are stored in order. They have no id,
+ * so {@link #findPage} pages by sample time instead.
+ * <p>
+ * Readings in a series' open chunk or reorder buffer are only in memory, so
+ * {@link #durableSequence()} stops short of the oldest of them and the ingest pipeline keeps
+ * them in its write-ahead log until they are sealed.
+ */
+@Component
+@ConditionalOnProperty(name = "scada.storage.backend", havingValue = "columnar")
+@Slf4j
+public class ColumnarReadingStore implements ReadingStore {
+
+    private static final long DAY_MILLIS = TimeUnit.DAYS.toMillis(1);
+    /** Low bits of a page cursor: readings at the cursor's millisecond already returned. */
+    private static final int CURSOR_TIE_BITS = 20;
+    private static final long CURSOR_TIE_MASK = (1L << CURSOR_TIE_BITS) - 1;
+    private static final Comparator<PageEntry> PAGE_ORDER = Comparator.comparingLong((PageEntry e) -> e.millis)
+            .thenComparing(e -> e.reading.getSensorId())
+            .thenComparingLong(e -> e.sequence);
+
+    private final Path dataDir;
+    private final int chunkSize;
+    private final long latenessMillis;
+    private final SensorDictionary dictionary;
+    private final ConcurrentSkipListMap<Long, ColumnarPartition> partitions = new ConcurrentSkipListMap<>();
+    private final AtomicLong appended = new AtomicLong();
+
+    /** Days before this one have been expired; readings for them are discarded on arrival. */
+    private volatile long firstRetainedDay = Long.MIN_VALUE;
+
+    public ColumnarReadingStore(@Value("${scada.storage.columnar.data-dir:data/readings}") String dataDir,
+                                @Value("${scada.storage.columnar.chunk-size:1024}") int chunkSize,
+                                @Value("${scada.ingest.lateness-ms:5000}") long latenessMillis,
+                                SensorDictionary dictionary) {
+        this.dataDir = Paths.get(dataDir);
+        this.chunkSize = chunkSize;
+        this.latenessMillis = latenessMillis;
+        this.dictionary = dictionary;
+    }
+
+    @PostConstruct
+    public void open() throws IOException {
+        Files.createDirectories(dataDir);
+        try (DirectoryStream<Path> directories = Files.newDirectoryStream(dataDir, Files::isDirectory)) {
+            for (Path directory : directories) {
+                try {
+                    ColumnarPartition partition = ColumnarPartition.open(directory, chunkSize, latenessMillis, dictionary);
+                    partitions.put(partition.getDay(), partition);
+                } catch (DateTimeParseException e) {
+                    log.warn("Ignoring {}: not a daily partition", directory);
+                }
+            }
+        }
+        log.info("Columnar reading store opened in {} ({} partitions, {} readings, {} bytes)",
+                dataDir.toAbsolutePath(), partitions.size(), getSampleCount(), getByteSize());
+    }
+
+    @PreDestroy
+    public void close() {
+        for (ColumnarPartition partition : partitions.values()) {
+            partition.close();
+        }
+    }
+
+    @Override
+    public SensorReading save(SensorReading reading) {
+        append(reading);
+        return reading;
+    }
+
+    @Override
+    public List<SensorReading> saveAll(List<SensorReading> readings) {
+        appendBatch(readings);
+        return readings;
+    }
+
+    @Override
+    public void appendBatch(List<SensorReading> readings) {
+        for (SensorReading reading : readings) {
+            append(reading);
+        }
+    }
+
+    @Override
+    public long appendSequence() {
+        return appended.get();
+    }
+
+    @Override
+    public long durableSequence() {
+        // Read first: a reading counted after this may not be in its series yet
+        long durable = appended.get();
+        for (ColumnarPartition partition : partitions.values()) {
+            long unsealed = partition.unsealedSince();
+            if (unsealed != Long.MAX_VALUE) {
+                durable = Math.min(durable, unsealed - 1);
+            }
+        }
+        return durable;
+    }
+
+    @Override
+    public void flush(long sequence) {
+        for (ColumnarPartition partition : partitions.values()) {
+            partition.flush(sequence);
+        }
+    }
+
+    @Override
+    public List<SensorReading> findRecent(String sensorId, int limit) {
+        return newest(sensorId, limit, false);
+    }
+
+    @Override
+    public List<SensorReading> findRange(String sensorId, LocalDateTime start, LocalDateTime end) {
+        List<SensorReading> readings = new ArrayList<>();
+        scanRange(sensorId, start, end, readings::add);
+        Collections.reverse(readings);
+        return readings;
+    }
+
+    @Override
+    public void scanRange(String sensorId, LocalDateTime start, LocalDateTime end, Consumer<SensorReading> sink) {
+        long startMillis = EpochTime.toEpochMillis(start);
+        long endMillis = EpochTime.toEpochMillis(end);
+        int key = dictionary.find(sensorId);
+        if (endMillis < startMillis || key == SensorDictionary.NO_KEY) {
+            return;
+        }
+        for (ColumnarPartition partition : partitions.subMap(dayOf(startMillis), true, dayOf(endMillis), true).values()) {
+            ColumnarSeries s = partition.get(key);
+            if (s == null) {
+                continue;
+            }
+            for (ColumnarSeries.ChunkView chunk : s.chunks(startMillis, endMillis)) {
+                ChunkDecoder decoder = chunk.decoder();
+                while (decoder.hasNext()) {
+                    SensorReading reading = decoder.next();
+                    long timestamp = EpochTime.toEpochMillis(reading.getTimestamp());
+                    if (timestamp >= startMillis && timestamp <= endMillis) {
+                        sink.accept(reading);
+                    }
+                }
+            }
+        }
+    }
+
+    @Override
+    public List<SensorReading> findAll(String sensorId) {
+        List<SensorReading> readings = new ArrayList<>();
+        scan(sensorId, readings::add);
+        if (sensorId != null) {
+            Collections.reverse(readings);
+        }
+        return readings;
+    }
+
+    @Override
+    public void scan(String sensorId, Consumer<SensorReading> sink) {
+        int key = sensorId != null ? dictionary.find(sensorId) : SensorDictionary.NO_KEY;
+        if (sensorId != null && key == SensorDictionary.NO_KEY) {
+            return;
+        }
+        for (ColumnarPartition partition : partitions.values()) {
+            if (sensorId != null) {
+                ColumnarSeries s = partition.get(key);
+                if (s != null) {
+                    scanAll(s, sink);
+                }
+            } else {
+                for (ColumnarSeries s : partition.all()) {
+                    scanAll(s, sink);
+                }
+            }
+        }
+    }
+
+    /**
+     * Walks days newest first and stops after the day that brings the total to {@code limit},
+     * since every older day holds older readings. Chunks without alarmed samples are not decoded.
+     */
+    @Override
+    public List<SensorReading> findWarnings(String sensorId, int limit) {
+        if (sensorId != null) {
+            return newest(sensorId, limit, true);
+        }
+        List<SensorReading> warnings = new ArrayList<>();
+        List<SensorReading> series = new ArrayList<>();
+        for (ColumnarPartition partition : partitions.descendingMap().values()) {
+            for (ColumnarSeries s : partition.all()) {
+                series.clear();
+                newestOf(s, limit, true, series);
+                warnings.addAll(series);
+            }
+            if (warnings.size() >= limit) {
+                break;
+            }
+        }
+        warnings.sort(Comparator.comparing(SensorReading::getTimestamp).reversed());
+        return warnings.size() > limit ? new ArrayList<>(warnings.subList(0, limit)) : warnings;
+    }
+
+    /**
+     * Pages in sample-time order, then by sensor ID and storage order. The cursor packs the
+     * newest sample time of the previous page, in millis, with how many readings at exactly that
+     * millisecond it returned: {@code millis << 20 | returned}. A reading stored behind the cursor
+     * after the page was served, such as a late one, is not returned by later pages.
+     */
+    @Override
+    public ReadingPage findPage(String sensorId, long after, int size) {
+        long afterMillis = after >>> CURSOR_TIE_BITS;
+        int seen = (int) (after & CURSOR_TIE_MASK);
+        int key = sensorId != null ? dictionary.find(sensorId) : SensorDictionary.NO_KEY;
+        if (sensorId != null && key == SensorDictionary.NO_KEY) {
+            return new ReadingPage(Collections.emptyList(), null);
+        }
+
+        // The first seen + size entries at or after the cursor, largest on top
+        int wanted = seen + size;
+        PriorityQueue<PageEntry> first = new PriorityQueue<>(PAGE_ORDER.reversed());
+        long sequence = 0;
+        for (ColumnarPartition partition : partitions.tailMap(dayOf(afterMillis), true).values()) {
+            if (first.size() >= wanted) {
+                // Later days only hold later readings
+                break;
+            }
+            List<ColumnarSeries> candidates = sensorId != null
+                    ? (partition.get(key) != null ? Collections.singletonList(partition.get(key)) : Collections.emptyList())
+                    : partition.all();
+            for (ColumnarSeries s : candidates) {
+                for (ColumnarSeries.ChunkView chunk : s.chunks(afterMillis, Long.MAX_VALUE)) {
+                    if (first.size() >= wanted && chunk.minTimestamp() > first.peek().millis) {
+                        continue;
+                    }
+                    ChunkDecoder decoder = chunk.decoder();
+                    while (decoder.hasNext()) {
+                        SensorReading reading = decoder.next();
+                        long millis = EpochTime.toEpochMillis(reading.getTimestamp());
+                        if (millis < afterMillis) {
+                            continue;
+                        }
+                        first.add(new PageEntry(millis, sequence++, reading));
+                        if (first.size() > wanted) {
+                            first.poll();
+                        }
+                    }
+                }
+            }
+        }
+
+        List<PageEntry> ordered = new ArrayList<>(first);
+        ordered.sort(PAGE_ORDER);
+        int skip = 0;
+        while (skip < seen && skip < ordered.size() && ordered.get(skip).millis == afterMillis) {
+            skip++;
+        }
+        List<SensorReading> page = new ArrayList<>(Math.min(size, ordered.size() - skip));
+        for (int i = skip; i < ordered.size() && page.size() < size; i++) {
+            page.add(ordered.get(i).reading);
+        }
+        if (page.size() < size) {
+            return new ReadingPage(page, null);
+        }
+
+        long lastMillis = ordered.get(skip + size - 1).millis;
+        long returned = lastMillis == afterMillis ? seen : 0;
+        for (int i = skip; i < skip + size; i++) {
+            if (ordered.get(i).millis == lastMillis) {
+                returned++;
+            }
+        }
+        if (returned > CURSOR_TIE_MASK) {
+            throw new IllegalStateException("Too many readings at " + lastMillis + " ms to page through");
+        }
+        return new ReadingPage(page, lastMillis << CURSOR_TIE_BITS | returned);
+    }
+
+    /**
+     * Drops every daily partition that ends at or before the start of {@code cutoff}'s day.
+     * Readings from earlier in that day are kept until the whole day has expired.
+     */
+    @Override
+    public long expireBefore(LocalDateTime cutoff) {
+        long cutoffDay = dayOf(EpochTime.toEpochMillis(cutoff));
+        firstRetainedDay = Math.max(firstRetainedDay, cutoffDay);
+        long dropped = 0;
+        for (Map.Entry<Long, ColumnarPartition> entry : partitions.headMap(cutoffDay).entrySet()) {
+            ColumnarPartition partition = entry.getValue();
+            partitions.remove(entry.getKey(), partition);
+            long samples = partition.sampleCount();
+            try {
+                partition.drop();
+            } catch (IOException e) {
+                log.error("Failed to delete expired partition {}", entry.getKey(), e);
+                continue;
+            }
+            dropped += samples;
+            log.info("Dropped reading partition {} ({} readings)", LocalDate.ofEpochDay(entry.getKey()), samples);
+        }
+        return dropped;
+    }
+
+    public int getPartitionCount() {
+        return partitions.size();
+    }
+
+    public long getSampleCount() {
+        long count = 0;
+        for (ColumnarPartition partition : partitions.values()) {
+            count += partition.sampleCount();
+        }
+        return count;
+    }
+
+    public long getByteSize() {
+        long bytes = 0;
+        for (ColumnarPartition partition : partitions.values()) {
+            bytes += partition.byteSize();
+        }
+        return bytes;
+    }
+
+    private void append(SensorReading reading) {
+        long day = dayOf(EpochTime.toEpochMillis(reading.getTimestamp()));
+        if (day < firstRetainedDay) {
+            log.debug("Discarding reading for sensor {} older than the retention window", reading.getSensorId());
+            return;
+        }
+        long sequence = appended.incrementAndGet();
+        ColumnarPartition partition = partitionFor(day);
+        // Dropped by retention between lookup and append, so its series are closed
+        while (!partition.append(reading, sequence)) {
+            partitions.remove(day, partition);
+            if (day < firstRetainedDay) {
+                return;
+            }
+            partition = partitionFor(day);
+        }
+    }
+
+    private ColumnarPartition partitionFor(long day) {
+        ColumnarPartition existing = partitions.get(day);
+        if (existing != null) {
+            return existing;
+        }
+        return partitions.computeIfAbsent(day, d -> {
+            try {
+                return ColumnarPartition.create(dataDir, d, chunkSize, latenessMillis, dictionary);
+            } catch (IOException e) {
+                throw new UncheckedIOException("Failed to create reading partition " + d, e);
+            }
+        });
+    }
+
+    /**
+     * Walks a sensor's days newest first until {@code limit} readings are found.
+     */
+    private List<SensorReading> newest(String sensorId, int limit, boolean warningsOnly) {
+        List<SensorReading> result = new ArrayList<>(Math.min(limit, 1024));
+        int key = dictionary.find(sensorId);
+        if (key == SensorDictionary.NO_KEY) {
+            return result;
+        }
+        for (ColumnarPartition partition : partitions.descendingMap().values()) {
+            ColumnarSeries s = partition.get(key);
+            if (s != null) {
+                newestOf(s, limit, warningsOnly, result);
+            }
+            if (result.size() >= limit) {
+                break;
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Adds a series' readings to {@code result}, newest chunk first and decoding each one whole,
+     * until it holds {@code limit}. For warnings, chunks without alarmed samples are skipped.
+     */
+    private static void newestOf(ColumnarSeries s, int limit, boolean warningsOnly, List<SensorReading> result) {
+        List<SensorReading> decoded = new ArrayList<>();
+        List<ColumnarSeries.ChunkView> chunks = s.chunks(Long.MIN_VALUE, Long.MAX_VALUE);
+        for (int i = chunks.size() - 1; i >= 0 && result.size() < limit; i--) {
+            ColumnarSeries.ChunkView chunk = chunks.get(i);
+            if (warningsOnly && chunk.alarmed() == 0) {
+                continue;
+            }
+            decoded.clear();
+            ChunkDecoder decoder = chunk.decoder();
+            while (decoder.hasNext()) {
+                decoded.add(decoder.next());
+            }
+            for (int j = decoded.size() - 1; j >= 0 && result.size() < limit; j--) {
+                SensorReading reading = decoded.get(j);
+                if (!warningsOnly || reading.getAlarmMask() != 0) {
+                    result.add(reading);
+                }
+            }
+        }
+    }
+
+    private static void scanAll(ColumnarSeries s, Consumer<SensorReading> sink) {
+        for (ColumnarSeries.ChunkView chunk : s.chunks(Long.MIN_VALUE, Long.MAX_VALUE)) {
+            ChunkDecoder decoder = chunk.decoder();
+            while (decoder.hasNext()) {
+                sink.accept(decoder.next());
+            }
+        }
+    }
+
+    private static long dayOf(long epochMillis) {
+        return Math.floorDiv(epochMillis, DAY_MILLIS);
+    }
+
+    private static final class PageEntry {
+        private final long millis;
+        private final long sequence;
+        private final SensorReading reading;
+
+        private PageEntry(long millis, long sequence, SensorReading reading) {
+            this.millis = millis;
+            this.sequence = sequence;
+            this.reading = reading;
+        }
+    }
+}
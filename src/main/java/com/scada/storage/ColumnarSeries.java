@@ -0,0 +1,468 @@
+package com.scada.monitoring.storage;
+
+import com.scada.monitoring.entity.SensorReading;
+import com.scada.monitoring.util.EpochTime;
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.PriorityQueue;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Append-only chunk file for one sensor. Layout:
+ * <pre>
+ *   header: int magic, short version, short idLength, byte[idLength] sensorId (UTF-8)
+ *   chunk:  int payloadBytes, int count, long minTimestamp, long maxTimestamp, int alarmed,
+ *           byte[payloadBytes]
+ * </pre>
+ * {@code alarmed} counts the chunk's samples with a non-zero alarm mask, so warning queries
+ * skip chunks without any. Version 1 files, written before it was added, are still read and
+ * appended to in their own layout; their chunks count as possibly alarmed.
+ * New readings are encoded into an in-heap open chunk. When it reaches {@code chunkSize}
+ * samples it is appended to the file and forced to disk. Sealed chunks are read straight from
+ * the page cache through read-only mappings of consecutive segments of whole chunks, about
+ * {@value #SEGMENT_BYTES} bytes each: a seal only re-maps the last segment, earlier ones are
+ * mapped once, and the file may grow past what a single mapping can cover. A chunk cut short by a crash
+ * is truncated away when the file is reopened; readings still in the open chunk at that
+ * point are lost, while a graceful shutdown seals it. Each reading carries the store's append
+ * sequence, and the series reports the oldest one it has not yet sealed, so a write-ahead log in
+ * front of the store is not checkpointed past readings that would be lost.
+ * <p>
+ * Readings carry the device's sample time and may arrive out of order. They wait in a reorder
+ * buffer until the series' newest sample time has moved {@code latenessMillis} past them, and
+ * are encoded in timestamp order from there, so queries that walk chunks in file order see
+ * timestamp order. A reading that arrives after newer ones have already been encoded is
+ * encoded where it arrives; chunk time spans still cover it, so range scans find it.
+ */
+@Slf4j
+final class ColumnarSeries {
+
+    static final String FILE_SUFFIX = ".tsc";
+
+    private static final int MAGIC = 0x53435443;
+    private static final short VERSION = 2;
+    private static final short VERSION_WITHOUT_ALARMED = 1;
+    private static final int CHUNK_HEADER_BYTES = 28;
+    private static final int V1_CHUNK_HEADER_BYTES = 24;
+    static final int SEGMENT_BYTES = 4 << 20;
+    private static final Comparator<Pending> SAMPLE_ORDER =
+            Comparator.comparingLong((Pending p) -> p.millis).thenComparingLong(p -> p.sequence);
+
+    private final String sensorId;
+    private final FileChannel channel;
+    private final int chunkHeaderBytes;
+    private final int chunkSize;
+    private final long latenessMillis;
+    private final List<Chunk> sealed = new ArrayList<>();
+    private final List<Segment> segments = new ArrayList<>();
+    private final PriorityQueue<Pending> reorder = new PriorityQueue<>(SAMPLE_ORDER);
+    // Not a monitor: sealing writes and forces the file while ingest threads, possibly virtual, wait
+    private final ReentrantLock lock = new ReentrantLock();
+
+    private long fileSize;
+    private ChunkEncoder open;
+    private long sealedSamples;
+    private long newestMillis = Long.MIN_VALUE;
+    /** Oldest append sequence still in the open chunk or the reorder buffer. */
+    private long unsealedSince = Long.MAX_VALUE;
+    private boolean closed;
+
+    private ColumnarSeries(String sensorId, FileChannel channel, short version, int chunkSize, long latenessMillis) {
+        this.sensorId = sensorId;
+        this.channel = channel;
+        this.chunkHeaderBytes = version == VERSION_WITHOUT_ALARMED ? V1_CHUNK_HEADER_BYTES : CHUNK_HEADER_BYTES;
+        this.chunkSize = chunkSize;
+        this.latenessMillis = latenessMillis;
+        // The first segment also maps the file header
+        segments.add(new Segment(0));
+    }
+
+    static ColumnarSeries create(Path file, String sensorId, int chunkSize, long latenessMillis) throws IOException {
+        FileChannel channel = FileChannel.open(file, StandardOpenOption.CREATE_NEW,
+                StandardOpenOption.READ, StandardOpenOption.WRITE);
+        byte[] id = sensorId.getBytes(StandardCharsets.UTF_8);
+        ByteBuffer header = ByteBuffer.allocate(8 + id.length);
+        header.putInt(MAGIC).putShort(VERSION).putShort((short) id.length).put(id).flip();
+        writeFully(channel, header, 0);
+        channel.force(true);
+
+        ColumnarSeries series = new ColumnarSeries(sensorId, channel, VERSION, chunkSize, latenessMillis);
+        series.fileSize = header.limit();
+        series.mapTail();
+        return series;
+    }
+
+    static ColumnarSeries open(Path file, int chunkSize, long latenessMillis) throws IOException {
+        FileChannel channel = FileChannel.open(file, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        try {
+            long size = channel.size();
+            ByteBuffer header = ByteBuffer.allocate(8);
+            readFully(channel, header, 0);
+            short version = header.getShort(4);
+            if (header.getInt(0) != MAGIC || (version != VERSION && version != VERSION_WITHOUT_ALARMED)) {
+                throw new IOException("Not a reading chunk file: " + file);
+            }
+            byte[] id = new byte[header.getShort(6)];
+            readFully(channel, ByteBuffer.wrap(id), 8);
+
+            ColumnarSeries series = new ColumnarSeries(new String(id, StandardCharsets.UTF_8), channel, version,
+                    chunkSize, latenessMillis);
+            int headerBytes = series.chunkHeaderBytes;
+            long position = 8 + id.length;
+            ByteBuffer chunkHeader = ByteBuffer.allocate(headerBytes);
+            while (position + headerBytes <= size) {
+                chunkHeader.clear();
+                readFully(channel, chunkHeader, position);
+                int payloadBytes = chunkHeader.getInt(0);
+                long end = position + headerBytes + payloadBytes;
+                if (payloadBytes <= 0 || end > size) {
+                    break;
+                }
+                int count = chunkHeader.getInt(4);
+                int alarmed = headerBytes == CHUNK_HEADER_BYTES ? chunkHeader.getInt(24) : count;
+                series.sealed.add(new Chunk(series.segmentFor(position), position + headerBytes, count,
+                        chunkHeader.getLong(8), chunkHeader.getLong(16), alarmed));
+                series.sealedSamples += chunkHeader.getInt(4);
+                position = end;
+            }
+            if (position < size) {
+                log.warn("Truncating {} bytes of an incomplete chunk in {}", size - position, file);
+                channel.truncate(position);
+            }
+            series.fileSize = position;
+            for (int i = 0; i < series.segments.size() - 1; i++) {
+                Segment segment = series.segments.get(i);
+                segment.buffer = series.map(segment.start, series.segments.get(i + 1).start);
+            }
+            series.mapTail();
+            return series;
+        } catch (IOException | RuntimeException e) {
+            channel.close();
+            throw e;
+        }
+    }
+
+    String getSensorId() {
+        return sensorId;
+    }
+
+    /**
+     * Adds a reading to the reorder buffer, and encodes every buffered reading that has fallen
+     * {@code latenessMillis} behind the newest one into the open chunk.
+     *
+     * @param sequence the store's append sequence of the reading
+     * @return false if the series has been closed, e.g. because its partition was dropped
+     */
+    boolean append(SensorReading reading, long sequence) {
+        lock.lock();
+        try {
+            if (closed) {
+                return false;
+            }
+            unsealedSince = Math.min(unsealedSince, sequence);
+            long millis = EpochTime.toEpochMillis(reading.getTimestamp());
+            newestMillis = Math.max(newestMillis, millis);
+            long releaseUpTo = newestMillis - latenessMillis;
+            if (reorder.isEmpty() && millis <= releaseUpTo) {
+                encode(reading);
+                return true;
+            }
+            reorder.add(new Pending(millis, sequence, reading));
+            while (!reorder.isEmpty() && reorder.peek().millis <= releaseUpTo) {
+                encode(reorder.poll().reading);
+            }
+            return true;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private void encode(SensorReading reading) {
+        if (open == null) {
+            open = new ChunkEncoder(chunkSize * 8);
+        }
+        open.append(reading);
+        if (open.count() >= chunkSize) {
+            seal();
+        }
+    }
+
+    /**
+     * Writes the open chunk, if any, to the file.
+     */
+    void seal() {
+        lock.lock();
+        try {
+            if (open == null || open.count() == 0) {
+                return;
+            }
+            long stillBuffered = Long.MAX_VALUE;
+            for (Pending pending : reorder) {
+                stillBuffered = Math.min(stillBuffered, pending.sequence);
+            }
+            ByteBuffer payload = open.snapshot();
+            ByteBuffer header = ByteBuffer.allocate(chunkHeaderBytes);
+            header.putInt(payload.remaining()).putInt(open.count())
+                    .putLong(open.minTimestamp()).putLong(open.maxTimestamp());
+            if (chunkHeaderBytes == CHUNK_HEADER_BYTES) {
+                header.putInt(open.alarmedCount());
+            }
+            header.flip();
+            int segment = segmentFor(fileSize);
+            try {
+                writeFully(channel, header, fileSize);
+                writeFully(channel, payload, fileSize + chunkHeaderBytes);
+                channel.force(false);
+            } catch (IOException e) {
+                throw new UncheckedIOException("Failed to write chunk for sensor " + sensorId, e);
+            }
+            sealed.add(new Chunk(segment, fileSize + chunkHeaderBytes, open.count(),
+                    open.minTimestamp(), open.maxTimestamp(), open.alarmedCount()));
+            sealedSamples += open.count();
+            fileSize += chunkHeaderBytes + header.getInt(0);
+            open = null;
+            unsealedSince = stillBuffered;
+            mapTail();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Chunks overlapping {@code [startMillis, endMillis]}, oldest first, including a copy of the
+     * open chunk and, last, the reorder buffer encoded as a chunk. The returned readers are
+     * independent of later appends.
+     */
+    List<ChunkView> chunks(long startMillis, long endMillis) {
+        lock.lock();
+        try {
+            List<ChunkView> views = new ArrayList<>();
+            for (Chunk chunk : sealed) {
+                if (chunk.maxTimestamp >= startMillis && chunk.minTimestamp <= endMillis) {
+                    Segment segment = segments.get(chunk.segment);
+                    views.add(new ChunkView(sensorId, segment.buffer, (int) (chunk.offset - segment.start), chunk.count,
+                            chunk.minTimestamp, chunk.maxTimestamp, chunk.alarmed));
+                }
+            }
+            if (open != null && open.count() > 0
+                    && open.maxTimestamp() >= startMillis && open.minTimestamp() <= endMillis) {
+                views.add(new ChunkView(sensorId, open.snapshot(), 0, open.count(),
+                        open.minTimestamp(), open.maxTimestamp(), open.alarmedCount()));
+            }
+            if (!reorder.isEmpty()) {
+                List<Pending> buffered = new ArrayList<>(reorder);
+                buffered.sort(SAMPLE_ORDER);
+                if (buffered.get(buffered.size() - 1).millis >= startMillis && buffered.get(0).millis <= endMillis) {
+                    ChunkEncoder encoder = new ChunkEncoder(buffered.size() * 16);
+                    for (Pending pending : buffered) {
+                        encoder.append(pending.reading);
+                    }
+                    views.add(new ChunkView(sensorId, encoder.snapshot(), 0, encoder.count(),
+                            encoder.minTimestamp(), encoder.maxTimestamp(), encoder.alarmedCount()));
+                }
+            }
+            return views;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Encodes the reorder buffer and seals the open chunk if either holds a reading appended at
+     * or before {@code sequence}. Readings arriving later with older sample times are encoded
+     * where they arrive.
+     */
+    void flush(long sequence) {
+        lock.lock();
+        try {
+            if (closed || unsealedSince > sequence) {
+                return;
+            }
+            while (!reorder.isEmpty()) {
+                encode(reorder.poll().reading);
+            }
+            seal();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Oldest append sequence not yet sealed, or {@link Long#MAX_VALUE} if every reading is.
+     */
+    long unsealedSince() {
+        lock.lock();
+        try {
+            return unsealedSince;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    long sampleCount() {
+        lock.lock();
+        try {
+            return sealedSamples + (open != null ? open.count() : 0) + reorder.size();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    long byteSize() {
+        lock.lock();
+        try {
+            return fileSize + (open != null ? open.byteLength() : 0);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    void close() throws IOException {
+        lock.lock();
+        try {
+            if (closed) {
+                return;
+            }
+            flush(Long.MAX_VALUE);
+            closed = true;
+            channel.close();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Segment of the chunk starting at file offset {@code chunkStart}; starts a new last segment
+     * there once the current one holds {@link #SEGMENT_BYTES}.
+     */
+    private int segmentFor(long chunkStart) {
+        if (chunkStart - segments.get(segments.size() - 1).start >= SEGMENT_BYTES) {
+            segments.add(new Segment(chunkStart));
+        }
+        return segments.size() - 1;
+    }
+
+    private void mapTail() {
+        Segment tail = segments.get(segments.size() - 1);
+        tail.buffer = map(tail.start, fileSize);
+    }
+
+    private MappedByteBuffer map(long start, long end) {
+        try {
+            return channel.map(FileChannel.MapMode.READ_ONLY, start, end - start);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to map chunk file for sensor " + sensorId, e);
+        }
+    }
+
+    private static void writeFully(FileChannel channel, ByteBuffer buffer, long position) throws IOException {
+        while (buffer.hasRemaining()) {
+            position += channel.write(buffer, position);
+        }
+    }
+
+    private static void readFully(FileChannel channel, ByteBuffer buffer, long position) throws IOException {
+        while (buffer.hasRemaining()) {
+            int read = channel.read(buffer, position);
+            if (read < 0) {
+                throw new IOException("Unexpected end of chunk file");
+            }
+            position += read;
+        }
+    }
+
+    private static final class Pending {
+        private final long millis;
+        private final long sequence;
+        private final SensorReading reading;
+
+        private Pending(long millis, long sequence, SensorReading reading) {
+            this.millis = millis;
+            this.sequence = sequence;
+            this.reading = reading;
+        }
+    }
+
+    private static final class Segment {
+        private final long start;
+        private MappedByteBuffer buffer;
+
+        private Segment(long start) {
+            this.start = start;
+        }
+    }
+
+    private static final class Chunk {
+        private final int segment;
+        /** File offset of the payload. */
+        private final long offset;
+        private final int count;
+        private final long minTimestamp;
+        private final long maxTimestamp;
+        private final int alarmed;
+
+        private Chunk(int segment, long offset, int count, long minTimestamp, long maxTimestamp, int alarmed) {
+            this.segment = segment;
+            this.offset = offset;
+            this.count = count;
+            this.minTimestamp = minTimestamp;
+            this.maxTimestamp = maxTimestamp;
+            this.alarmed = alarmed;
+        }
+    }
+
+    /**
+     * Decodable chunk captured by {@link #chunks}.
+     */
+    static final class ChunkView {
+        private final String sensorId;
+        private final ByteBuffer buffer;
+        private final int offset;
+        private final int count;
+        private final long minTimestamp;
+        private final long maxTimestamp;
+        private final int alarmed;
+
+        private ChunkView(String sensorId, ByteBuffer buffer, int offset, int count,
+                          long minTimestamp, long maxTimestamp, int alarmed) {
+            this.sensorId = sensorId;
+            this.buffer = buffer;
+            this.offset = offset;
+            this.count = count;
+            this.minTimestamp = minTimestamp;
+            this.maxTimestamp = maxTimestamp;
+            this.alarmed = alarmed;
+        }
+
+        ChunkDecoder decoder() {
+            return new ChunkDecoder(sensorId, buffer, offset, count);
+        }
+
+        int count() {
+            return count;
+        }
+
+        long minTimestamp() {
+            return minTimestamp;
+        }
+
+        long maxTimestamp() {
+            return maxTimestamp;
+        }
+
+        /** Samples with a non-zero alarm mask; the sample count if unknown. */
+        int alarmed() {
+            return alarmed;
+        }
+    }
+}
@@ -0,0 +1,118 @@
+package com.scada.monitoring.storage;
+
+import com.scada.monitoring.entity.SensorReading;
+import com.scada.monitoring.repository.SensorReadingBatchWriter;
+import com.scada.monitoring.repository.SensorReadingQueryRepository;
+import com.scada.monitoring.repository.SensorReadingRepository;
+import com.scada.monitoring.repository.SensorReadingStreamRepository;
+import jakarta.persistence.EntityManager;
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+
+/**
+ * Default {@link ReadingStore} on the {@code sensor_readings} table. Per-sensor recent and
+ * range reads go through {@link SensorReadingQueryRepository} and return unmanaged objects.
+ * Whole-table scans read through a database cursor and detach each entity once it has been
+ * handed on, so memory use does not depend on the table size.
+ */
+@Component
+@ConditionalOnProperty(name = "scada.storage.backend", havingValue = "jpa", matchIfMissing = true)
+@RequiredArgsConstructor
+public class JpaReadingStore implements ReadingStore {
+
+    private final SensorReadingRepository readingRepository;
+    private final SensorReadingStreamRepository readingStreamRepository;
+    private final SensorReadingQueryRepository readingQueryRepository;
+    private final SensorReadingBatchWriter batchWriter;
+    private final EntityManager entityManager;
+
+    @Override
+    public SensorReading save(SensorReading reading) {
+        return readingRepository.save(reading);
+    }
+
+    @Override
+    @Transactional
+    public List<SensorReading> saveAll(List<SensorReading> readings) {
+        return readingRepository.saveAll(readings);
+    }
+
+    @Override
+    public void appendBatch(List<SensorReading> readings) {
+        batchWriter.insertBatch(readings);
+    }
+
+    @Override
+    public List<SensorReading> findRecent(String sensorId, int limit) {
+        return readingQueryRepository.findRecent(sensorId, PageRequest.of(0, limit));
+    }
+
+    @Override
+    public List<SensorReading> findRange(String sensorId, LocalDateTime start, LocalDateTime end) {
+        return readingQueryRepository.findRange(sensorId, start, end);
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public void scanRange(String sensorId, LocalDateTime start, LocalDateTime end, Consumer<SensorReading> sink) {
+        try (Stream<SensorReading> readings = readingQueryRepository.streamRange(sensorId, start, end)) {
+            readings.forEach(sink);
+        }
+    }
+
+    @Override
+    public List<SensorReading> findAll(String sensorId) {
+        if (sensorId != null) {
+            return readingRepository.findBySensorIdOrderByTimestampDesc(sensorId, Pageable.unpaged());
+        }
+        return readingRepository.findAll();
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public void scan(String sensorId, Consumer<SensorReading> sink) {
+        try (Stream<SensorReading> readings = sensorId != null
+                ? readingStreamRepository.streamBySensorIdOrderByIdAsc(sensorId)
+                : readingStreamRepository.streamAllByOrderByIdAsc()) {
+            readings.forEach(reading -> {
+                sink.accept(reading);
+                entityManager.detach(reading);
+            });
+        }
+    }
+
+    @Override
+    public List<SensorReading> findWarnings(String sensorId, int limit) {
+        Pageable pageable = PageRequest.of(0, limit);
+        return sensorId != null
+                ? readingRepository.findWarningsBySensorId(sensorId, pageable)
+                : readingRepository.findAllWarnings(pageable);
+    }
+
+    /**
+     * H2 has no table partitions, so the table expires rows with batched deletes on the
+     * timestamp index; use the columnar backend for partition drops.
+     */
+    @Override
+    public long expireBefore(LocalDateTime cutoff) {
+        return batchWriter.deleteOlderThan(cutoff);
+    }
+
+    @Override
+    public ReadingPage findPage(String sensorId, long after, int size) {
+        Pageable page = PageRequest.of(0, size);
+        List<SensorReading> readings = sensorId != null
+                ? readingStreamRepository.findBySensorIdAndIdGreaterThanOrderByIdAsc(sensorId, after, page)
+                : readingStreamRepository.findByIdGreaterThanOrderByIdAsc(after, page);
+        return new ReadingPage(readings, readings.size() < size ? null : readings.get(readings.size() - 1).getId());
+    }
+}
@@ -0,0 +1,16 @@
+package com.scada.monitoring.storage;
+
+import com.scada.monitoring.entity.SensorReading;
+import lombok.Value;
+
+import java.util.List;
+
+/**
+ * One page of {@link ReadingStore#findPage}, with the cursor for the next page.
+ */
+@Value
+public class ReadingPage {
+    List<SensorReading> readings;
+    /** Pass as {@code after} for the following page; null once the last page is reached. */
+    Long next;
+}
@@ -0,0 +1,96 @@
+package com.scada.monitoring.storage;
+
+import com.scada.monitoring.entity.SensorReading;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.function.Consumer;
+
+/**
+ * Storage for raw sensor readings. The backend is chosen with {@code scada.storage.backend}:
+ * {@code jpa} (default) keeps them in the {@code sensor_readings} table, {@code columnar}
+ * in compressed per-sensor chunk files ({@link ColumnarReadingStore}).
+ */
+public interface ReadingStore {
+
+    /**
+     * Stores a reading written by a synchronous request and returns it with any generated id.
+     */
+    SensorReading save(SensorReading reading);
+
+    List<SensorReading> saveAll(List<SensorReading> readings);
+
+    /**
+     * Stores a batch drained by the ingest pipeline. Generated ids are not reported back.
+     */
+    void appendBatch(List<SensorReading> readings);
+
+    /**
+     * Number of readings appended so far. A reading is on disk once {@link #durableSequence()}
+     * has reached the value read after it was appended, so a write-ahead log in front of the
+     * store is only checkpointed that far. Backends that write through return 0.
+     */
+    default long appendSequence() {
+        return 0;
+    }
+
+    /**
+     * Every reading appended up to this sequence is on disk; see {@link #appendSequence()}.
+     */
+    default long durableSequence() {
+        return Long.MAX_VALUE;
+    }
+
+    /**
+     * Forces readings appended up to {@code sequence} to disk, for readings that would otherwise
+     * stay buffered for a long time, e.g. those of a sensor that has gone quiet.
+     */
+    default void flush(long sequence) {
+    }
+
+    /**
+     * The {@code limit} newest readings of a sensor, newest first.
+     */
+    List<SensorReading> findRecent(String sensorId, int limit);
+
+    /**
+     * Readings of a sensor with {@code start <= timestamp <= end}, newest first.
+     */
+    List<SensorReading> findRange(String sensorId, LocalDateTime start, LocalDateTime end);
+
+    /**
+     * Hands the readings of a sensor with {@code start <= timestamp <= end} to {@code sink},
+     * oldest first, without materialising the range.
+     */
+    void scanRange(String sensorId, LocalDateTime start, LocalDateTime end, Consumer<SensorReading> sink);
+
+    /**
+     * Every reading of a sensor newest first, or of all sensors when {@code sensorId} is null.
+     */
+    List<SensorReading> findAll(String sensorId);
+
+    /**
+     * Hands every reading, optionally filtered by sensor, to {@code sink} in insertion order
+     * without materialising the result.
+     */
+    void scan(String sensorId, Consumer<SensorReading> sink);
+
+    /**
+     * The {@code limit} newest readings with a temperature or pressure warning, optionally for one sensor.
+     */
+    List<SensorReading> findWarnings(String sensorId, int limit);
+
+    /**
+     * Removes readings older than {@code cutoff}, at the granularity of the backend's partitions.
+     *
+     * @return the number of readings removed
+     */
+    long expireBefore(LocalDateTime cutoff);
+
+    /**
+     * Up to {@code size} readings after the cursor {@code after}, in the backend's paging order;
+     * 0 starts at the beginning. The table backend pages by id; the columnar backend, which
+     * assigns no ids, by sample time.
+     */
+    ReadingPage findPage(String sensorId, long after, int size);
+}
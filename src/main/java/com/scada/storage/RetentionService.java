@@ -0,0 +1,81 @@
+package com.scada.monitoring.storage;
+
+import com.scada.monitoring.entity.RollupResolution;
+import com.scada.monitoring.repository.ReadingRollupRepository;
+import com.scada.monitoring.util.EpochTime;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.util.EnumMap;
+import java.util.Map;
+
+/**
+ * Applies the per-resolution retention policy: raw readings are expired through
+ * {@link ReadingStore#expireBefore}, which is a partition drop for the columnar backend,
+ * and each rollup resolution is trimmed in short batches on its own schedule of days.
+ */
+@Component
+@Slf4j
+public class RetentionService {
+
+    static final int ROLLUP_DELETE_BATCH_SIZE = 10_000;
+
+    private final ReadingStore readingStore;
+    private final ReadingRollupRepository rollupRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final int rawDays;
+    private final Map<RollupResolution, Integer> rollupDays = new EnumMap<>(RollupResolution.class);
+
+    public RetentionService(ReadingStore readingStore,
+                            ReadingRollupRepository rollupRepository,
+                            TransactionTemplate transactionTemplate,
+                            @Value("${scada.retention.raw-days:30}") int rawDays,
+                            @Value("${scada.retention.rollup-1s-days:2}") int oneSecondDays,
+                            @Value("${scada.retention.rollup-1m-days:90}") int oneMinuteDays,
+                            @Value("${scada.retention.rollup-1h-days:730}") int oneHourDays) {
+        this.readingStore = readingStore;
+        this.rollupRepository = rollupRepository;
+        this.transactionTemplate = transactionTemplate;
+        this.rawDays = rawDays;
+        rollupDays.put(RollupResolution.ONE_SECOND, oneSecondDays);
+        rollupDays.put(RollupResolution.ONE_MINUTE, oneMinuteDays);
+        rollupDays.put(RollupResolution.ONE_HOUR, oneHourDays);
+    }
+
+    @Scheduled(fixedDelayString = "${scada.retention.check-interval-ms:3600000}")
+    public void expire() {
+        expire(EpochTime.now());
+    }
+
+    void expire(LocalDateTime now) {
+        if (rawDays > 0) {
+            long expired = readingStore.expireBefore(now.minusDays(rawDays));
+            if (expired > 0) {
+                log.info("Expired {} readings older than {} days", expired, rawDays);
+            }
+        }
+        for (Map.Entry<RollupResolution, Integer> entry : rollupDays.entrySet()) {
+            if (entry.getValue() > 0) {
+                expireRollups(entry.getKey(), now.minusDays(entry.getValue()));
+            }
+        }
+    }
+
+    private void expireRollups(RollupResolution resolution, LocalDateTime cutoff) {
+        long total = 0;
+        int deleted;
+        do {
+            Integer batch = transactionTemplate.execute(status ->
+                    rollupRepository.deleteExpired(resolution.name(), cutoff, ROLLUP_DELETE_BATCH_SIZE));
+            deleted = batch != null ? batch : 0;
+            total += deleted;
+        } while (deleted == ROLLUP_DELETE_BATCH_SIZE);
+        if (total > 0) {
+            log.info("Expired {} {} rollups before {}", total, resolution.getCode(), cutoff);
+        }
+    }
+}
@@ -0,0 +1,106 @@
+package com.scada.monitoring.trend;
+
+/**
+ * Exact statistics over the last {@code capacity} readings. Samples live in primitive ring
+ * arrays; evicting the oldest sample reverses its Welford contribution and the sliding
+ * extremum deques keep min and max current. The window is the last readings to arrive, but
+ * its first and last samples, for rate of change, are the oldest and newest by sample time.
+ */
+final class CountWindow {
+
+    private final int capacity;
+    private final long[] times;
+    private final double[] temperatures;
+    private final double[] pressures;
+    private final boolean[] warnings;
+
+    private final RunningStats temperature = new RunningStats();
+    private final RunningStats pressure = new RunningStats();
+    private final SlidingExtremum minTemperature;
+    private final SlidingExtremum maxTemperature;
+    private final SlidingExtremum minPressure;
+    private final SlidingExtremum maxPressure;
+    private int warningCount;
+    private long sequence;
+
+    CountWindow(int capacity) {
+        this.capacity = capacity;
+        this.times = new long[capacity];
+        this.temperatures = new double[capacity];
+        this.pressures = new double[capacity];
+        this.warnings = new boolean[capacity];
+        this.minTemperature = new SlidingExtremum(capacity, false);
+        this.maxTemperature = new SlidingExtremum(capacity, true);
+        this.minPressure = new SlidingExtremum(capacity, false);
+        this.maxPressure = new SlidingExtremum(capacity, true);
+    }
+
+    void add(long epochMillis, double temp, double press, boolean warning) {
+        int slot = (int) (sequence % capacity);
+        if (sequence >= capacity) {
+            temperature.remove(temperatures[slot]);
+            pressure.remove(pressures[slot]);
+            if (warnings[slot]) {
+                warningCount--;
+            }
+        }
+        times[slot] = epochMillis;
+        temperatures[slot] = temp;
+        pressures[slot] = press;
+        warnings[slot] = warning;
+
+        temperature.add(temp);
+        pressure.add(press);
+        if (warning) {
+            warningCount++;
+        }
+        minTemperature.push(sequence, temp);
+        maxTemperature.push(sequence, temp);
+        minPressure.push(sequence, press);
+        maxPressure.push(sequence, press);
+        sequence++;
+    }
+
+    int size() {
+        return (int) Math.min(sequence, capacity);
+    }
+
+    boolean isFull() {
+        return sequence >= capacity;
+    }
+
+    void summarize(WindowSummary out) {
+        if (sequence == 0) {
+            return;
+        }
+        // Late readings arrive out of sample order, so the first and last samples are found by time,
+        // with ties broken by arrival as WindowSummary.add does
+        int size = size();
+        int start = sequence >= capacity ? (int) (sequence % capacity) : 0;
+        int oldest = start;
+        int newest = start;
+        for (int i = 1; i < size; i++) {
+            int slot = (start + i) % capacity;
+            if (times[slot] < times[oldest]) {
+                oldest = slot;
+            }
+            if (times[slot] >= times[newest]) {
+                newest = slot;
+            }
+        }
+
+        out.temperature.copyFrom(temperature);
+        out.temperature.min = minTemperature.get();
+        out.temperature.max = maxTemperature.get();
+        out.pressure.copyFrom(pressure);
+        out.pressure.min = minPressure.get();
+        out.pressure.max = maxPressure.get();
+        out.warningCount = warningCount;
+        out.firstTime = times[oldest];
+        out.firstTemperature = temperatures[oldest];
+        out.firstPressure = pressures[oldest];
+        out.lastTime = times[newest];
+        out.lastTemperature = temperatures[newest];
+        out.lastPressure = pressures[newest];
+    }
+}
@@ -0,0 +1,82 @@
+package com.scada.monitoring.trend;
+
+/**
+ * Welford accumulator for mean and variance that also supports removing a sample and merging
+ * two partial aggregates (Chan et al.), so sliding windows never need a second pass.
+ */
+final class RunningStats {
+
+    long count;
+    double mean;
+    double m2;
+    double min = Double.POSITIVE_INFINITY;
+    double max = Double.NEGATIVE_INFINITY;
+
+    void add(double value) {
+        count++;
+        double delta = value - mean;
+        mean += delta / count;
+        m2 += delta * (value - mean);
+        if (value < min) {
+            min = value;
+        }
+        if (value > max) {
+            max = value;
+        }
+    }
+
+    /**
+     * Reverses {@link #add} for mean and variance. Min and max are not maintained on removal;
+     * windows that remove samples track extremes separately.
+     */
+    void remove(double value) {
+        if (count <= 1) {
+            reset();
+            return;
+        }
+        double delta = value - mean;
+        count--;
+        mean -= delta / count;
+        m2 -= delta * (value - mean);
+        if (m2 < 0) {
+            m2 = 0;
+        }
+    }
+
+    void merge(RunningStats other) {
+        if (other.count == 0) {
+            return;
+        }
+        if (count == 0) {
+            copyFrom(other);
+            return;
+        }
+        long total = count + other.count;
+        double delta = other.mean - mean;
+        mean += delta * other.count / total;
+        m2 += other.m2 + delta * delta * count * other.count / total;
+        count = total;
+        min = Math.min(min, other.min);
+        max = Math.max(max, other.max);
+    }
+
+    void copyFrom(RunningStats other) {
+        count = other.count;
+        mean = other.mean;
+        m2 = other.m2;
+        min = other.min;
+        max = other.max;
+    }
+
+    void reset() {
+        count = 0;
+        mean = 0;
+        m2 = 0;
+        min = Double.POSITIVE_INFINITY;
+        max = Double.NEGATIVE_INFINITY;
+    }
+
+    double stdDev() {
+        return count > 0 ? Math.sqrt(m2 / count) : 0.0;
+    }
+}
@@ -0,0 +1,43 @@
+package com.scada.monitoring.trend;
+
+/**
+ * All running aggregates of one sensor. Updates and snapshots are serialised per sensor, so
+ * contention only arises between readings of the same sensor.
+ */
+final class SensorTrendState {
+
+    private final CountWindow lastN;
+    private final TimeBucketWindow[] timeWindows;
+
+    SensorTrendState(int windowSize) {
+        this.lastN = new CountWindow(windowSize);
+        TrendWindow[] windows = TrendWindow.values();
+        this.timeWindows = new TimeBucketWindow[windows.length];
+        for (int i = 0; i < windows.length; i++) {
+            timeWindows[i] = new TimeBucketWindow(windows[i].getMillis(), TrendWindow.BUCKETS);
+        }
+    }
+
+    synchronized void add(long epochMillis, double temp, double press, boolean warning) {
+        lastN.add(epochMillis, temp, press, warning);
+        for (TimeBucketWindow window : timeWindows) {
+            window.add(epochMillis, temp, press, warning);
+        }
+    }
+
+    synchronized boolean isLastNFull() {
+        return lastN.isFull();
+    }
+
+    synchronized WindowSummary summarizeLastN() {
+        WindowSummary summary = new WindowSummary();
+        lastN.summarize(summary);
+        return summary;
+    }
+
+    synchronized WindowSummary summarize(TrendWindow window, long nowMillis) {
+        WindowSummary summary = new WindowSummary();
+        timeWindows[window.ordinal()].summarize(nowMillis, summary);
+        return summary;
+    }
+}
@@ -0,0 +1,45 @@
+package com.scada.monitoring.trend;
+
+/**
+ * Monotonic deque over primitive arrays giving the min or max of the last {@code window}
+ * samples in amortised O(1) per push.
+ */
+final class SlidingExtremum {
+
+    private final boolean max;
+    private final int window;
+    private final long[] sequences;
+    private final double[] values;
+    private int head;
+    private int size;
+
+    SlidingExtremum(int window, boolean max) {
+        this.max = max;
+        this.window = window;
+        this.sequences = new long[window];
+        this.values = new double[window];
+    }
+
+    void push(long sequence, double value) {
+        while (size > 0 && sequences[head] <= sequence - window) {
+            head = (head + 1) % window;
+            size--;
+        }
+        while (size > 0) {
+            double back = values[(head + size - 1) % window];
+            if (max ? back <= value : back >= value) {
+                size--;
+            } else {
+                break;
+            }
+        }
+        int tail = (head + size) % window;
+        sequences[tail] = sequence;
+        values[tail] = value;
+        size++;
+    }
+
+    double get() {
+        return values[head];
+    }
+}
@@ -0,0 +1,48 @@
+package com.scada.monitoring.trend;
+
+/**
+ * Wall-clock window made of {@code bucketCount} fixed-width buckets. Each bucket is a partial
+ * {@link WindowSummary}; a query merges the buckets still inside the window, so cost depends
+ * on the bucket count and not on the number of readings.
+ */
+final class TimeBucketWindow {
+
+    private final long bucketMillis;
+    private final int bucketCount;
+    private final long[] bucketIds;
+    private final WindowSummary[] buckets;
+
+    TimeBucketWindow(long windowMillis, int bucketCount) {
+        this.bucketMillis = windowMillis / bucketCount;
+        this.bucketCount = bucketCount;
+        this.bucketIds = new long[bucketCount];
+        this.buckets = new WindowSummary[bucketCount];
+        for (int i = 0; i < bucketCount; i++) {
+            bucketIds[i] = Long.MIN_VALUE;
+            buckets[i] = new WindowSummary();
+        }
+    }
+
+    void add(long epochMillis, double temp, double press, boolean warning) {
+        long bucketId = Math.floorDiv(epochMillis, bucketMillis);
+        int slot = (int) Math.floorMod(bucketId, (long) bucketCount);
+        if (bucketIds[slot] != bucketId) {
+            if (bucketId < bucketIds[slot]) {
+                // Slot already reused by a newer bucket, so this reading is older than the window
+                return;
+            }
+            buckets[slot].reset();
+            bucketIds[slot] = bucketId;
+        }
+        buckets[slot].add(epochMillis, temp, press, warning);
+    }
+
+    void summarize(long nowMillis, WindowSummary out) {
+        long current = Math.floorDiv(nowMillis, bucketMillis);
+        for (int i = 0; i < bucketCount; i++) {
+            if (bucketIds[i] > current - bucketCount && bucketIds[i] <= current) {
+                out.merge(buckets[i]);
+            }
+        }
+    }
+}
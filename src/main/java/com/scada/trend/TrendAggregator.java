@@ -0,0 +1,71 @@
+package com.scada.monitoring.trend;
+
+import com.scada.monitoring.cache.SensorDictionary;
+import com.scada.monitoring.cache.SensorTable;
+import com.scada.monitoring.dto.TrendAnalysisResponse;
+import com.scada.monitoring.entity.SensorReading;
+import com.scada.monitoring.ingest.ReadingIngestListener;
+import com.scada.monitoring.util.EpochTime;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.Optional;
+
+/**
+ * Maintains per-sensor trend statistics as readings are ingested: the last {@code window-size}
+ * readings plus 1m/15m/1h wall-clock windows. Answers come from running aggregates instead of
+ * reloading readings from the database.
+ */
+@Component
+public class TrendAggregator implements ReadingIngestListener {
+
+    private final SensorDictionary dictionary;
+    private final int windowSize;
+    private final SensorTable<SensorTrendState> states = new SensorTable<>();
+
+    public TrendAggregator(SensorDictionary dictionary, @Value("${scada.trends.window-size:100}") int windowSize) {
+        this.dictionary = dictionary;
+        this.windowSize = windowSize;
+    }
+
+    @Override
+    public void onReading(SensorReading reading) {
+        int key = dictionary.keyOf(reading);
+        SensorTrendState state = states.get(key);
+        if (state == null) {
+            state = states.computeIfAbsent(key, k -> new SensorTrendState(windowSize));
+        }
+        state.add(EpochTime.toEpochMillis(reading.getTimestamp()), reading.getTemperature(),
+                reading.getPressure(), reading.isTempWarning() || reading.isPressureWarning());
+    }
+
+    @Override
+    public void onSensorRemoved(String sensorId) {
+        states.remove(dictionary.find(sensorId));
+    }
+
+    public int getWindowSize() {
+        return windowSize;
+    }
+
+    /**
+     * Trend over the last {@code window-size} readings. Empty until that many readings have been
+     * seen, because a partial window cannot tell whether older readings exist in storage.
+     */
+    public Optional<TrendAnalysisResponse> getLastNTrend(String sensorId) {
+        SensorTrendState state = states.get(dictionary.find(sensorId));
+        if (state == null || !state.isLastNFull()) {
+            return Optional.empty();
+        }
+        return Optional.of(state.summarizeLastN().toResponse(sensorId));
+    }
+
+    public Optional<TrendAnalysisResponse> getTrend(String sensorId, TrendWindow window) {
+        SensorTrendState state = states.get(dictionary.find(sensorId));
+        if (state == null) {
+            return Optional.empty();
+        }
+        WindowSummary summary = state.summarize(window, EpochTime.nowMillis());
+        return summary.isEmpty() ? Optional.empty() : Optional.of(summary.toResponse(sensorId));
+    }
+}
@@ -0,0 +1,37 @@
+package com.scada.monitoring.trend;
+
+import java.util.concurrent.TimeUnit;
+
+public enum TrendWindow {
+    ONE_MINUTE("1m", TimeUnit.MINUTES.toMillis(1)),
+    FIFTEEN_MINUTES("15m", TimeUnit.MINUTES.toMillis(15)),
+    ONE_HOUR("1h", TimeUnit.HOURS.toMillis(1));
+
+    /** Buckets per window; bounds both memory per sensor and query cost. */
+    static final int BUCKETS = 60;
+
+    private final String code;
+    private final long millis;
+
+    TrendWindow(String code, long millis) {
+        this.code = code;
+        this.millis = millis;
+    }
+
+    public String getCode() {
+        return code;
+    }
+
+    long getMillis() {
+        return millis;
+    }
+
+    public static TrendWindow fromCode(String code) {
+        for (TrendWindow window : values()) {
+            if (window.code.equalsIgnoreCase(code)) {
+                return window;
+            }
+        }
+        throw new IllegalArgumentException("Unknown trend window: " + code + " (expected 1m, 15m or 1h)");
+    }
+}
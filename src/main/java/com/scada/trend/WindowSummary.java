@@ -0,0 +1,95 @@
+package com.scada.monitoring.trend;
+
+import com.scada.monitoring.dto.TrendAnalysisResponse;
+
+import static com.scada.monitoring.util.EpochTime.toLocalDateTime;
+
+/**
+ * Aggregate of a set of readings: count, warnings, Welford statistics for temperature and
+ * pressure, and the first and last sample for rate of change.
+ */
+public final class WindowSummary {
+
+    final RunningStats temperature = new RunningStats();
+    final RunningStats pressure = new RunningStats();
+    int warningCount;
+    long firstTime;
+    double firstTemperature;
+    double firstPressure;
+    long lastTime;
+    double lastTemperature;
+    double lastPressure;
+
+    public void add(long epochMillis, double temp, double press, boolean warning) {
+        temperature.add(temp);
+        pressure.add(press);
+        if (warning) {
+            warningCount++;
+        }
+        if (temperature.count == 1 || epochMillis < firstTime) {
+            firstTime = epochMillis;
+            firstTemperature = temp;
+            firstPressure = press;
+        }
+        if (temperature.count == 1 || epochMillis >= lastTime) {
+            lastTime = epochMillis;
+            lastTemperature = temp;
+            lastPressure = press;
+        }
+    }
+
+    void merge(WindowSummary other) {
+        if (other.isEmpty()) {
+            return;
+        }
+        if (isEmpty() || other.firstTime < firstTime) {
+            firstTime = other.firstTime;
+            firstTemperature = other.firstTemperature;
+            firstPressure = other.firstPressure;
+        }
+        if (isEmpty() || other.lastTime >= lastTime) {
+            lastTime = other.lastTime;
+            lastTemperature = other.lastTemperature;
+            lastPressure = other.lastPressure;
+        }
+        temperature.merge(other.temperature);
+        pressure.merge(other.pressure);
+        warningCount += other.warningCount;
+    }
+
+    void reset() {
+        temperature.reset();
+        pressure.reset();
+        warningCount = 0;
+    }
+
+    public boolean isEmpty() {
+        return temperature.count == 0;
+    }
+
+    public long getCount() {
+        return temperature.count;
+    }
+
+    public TrendAnalysisResponse toResponse(String sensorId) {
+        TrendAnalysisResponse analysis = new TrendAnalysisResponse();
+        analysis.setSensorId(sensorId);
+        analysis.setTotalReadings((int) temperature.count);
+        analysis.setWarningCount(warningCount);
+        analysis.setAvgTemperature(temperature.mean);
+        analysis.setMaxTemperature(temperature.max);
+        analysis.setMinTemperature(temperature.min);
+        analysis.setStdDevTemperature(temperature.stdDev());
+        analysis.setAvgPressure(pressure.mean);
+        analysis.setMaxPressure(pressure.max);
+        analysis.setMinPressure(pressure.min);
+        analysis.setStdDevPressure(pressure.stdDev());
+        analysis.setStartTime(toLocalDateTime(firstTime));
+        analysis.setEndTime(toLocalDateTime(lastTime));
+
+        double spanSeconds = (lastTime - firstTime) / 1000.0;
+        analysis.setTemperatureRateOfChange(spanSeconds > 0 ? (lastTemperature - firstTemperature) / spanSeconds : 0.0);
+        analysis.setPressureRateOfChange(spanSeconds > 0 ? (lastPressure - firstPressure) / spanSeconds : 0.0);
+        return analysis;
+    }
+}
@@ -0,0 +1,45 @@
+package com.scada.monitoring.util;
+
+import java.time.Clock;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+
+/**
+ * Conversions between reading timestamps and epoch millis for in-memory aggregation.
+ * Reading timestamps are zone-less {@link LocalDateTime}s, so UTC is used only as a fixed
+ * offset; the conversion round-trips and does not allocate. Device sample times are UTC, so
+ * readings stamped by the server use {@link #now()}, never the system zone.
+ */
+public final class EpochTime {
+
+    private static final Clock CLOCK = Clock.systemUTC();
+
+    private EpochTime() {
+    }
+
+    public static long toEpochMillis(LocalDateTime timestamp) {
+        return timestamp.toEpochSecond(ZoneOffset.UTC) * 1000L + timestamp.getNano() / 1_000_000;
+    }
+
+    public static LocalDateTime toLocalDateTime(long epochMillis) {
+        return LocalDateTime.ofEpochSecond(Math.floorDiv(epochMillis, 1000L),
+                (int) Math.floorMod(epochMillis, 1000L) * 1_000_000, ZoneOffset.UTC);
+    }
+
+    public static long toEpochNanos(LocalDateTime timestamp) {
+        return timestamp.toEpochSecond(ZoneOffset.UTC) * 1_000_000_000L + timestamp.getNano();
+    }
+
+    public static LocalDateTime fromEpochNanos(long epochNanos) {
+        return LocalDateTime.ofEpochSecond(Math.floorDiv(epochNanos, 1_000_000_000L),
+                (int) Math.floorMod(epochNanos, 1_000_000_000L), ZoneOffset.UTC);
+    }
+
+    public static LocalDateTime now() {
+        return LocalDateTime.now(CLOCK);
+    }
+
+    public static long nowMillis() {
+        return CLOCK.millis();
+    }
+}
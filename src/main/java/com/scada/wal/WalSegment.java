@@ -0,0 +1,264 @@
+package com.scada.monitoring.wal;
+
+import com.scada.monitoring.entity.SensorReading;
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.ClosedChannelException;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.function.ObjLongConsumer;
+import java.util.zip.CRC32;
+
+/**
+ * One file of the write-ahead log, named after the first log sequence number (LSN) it holds.
+ * Layout:
+ * <pre>
+ *   header: int magic, short version, short reserved, long firstLsn
+ *   record: int payloadBytes, int crc32 (of lsn and payload), long lsn, byte[payloadBytes]
+ *   payload: short idLength, byte[idLength] sensorId (UTF-8), double temperature, double pressure,
+ *            long epochSecond, int nano (UTC), byte flags, int alarmMask, double tempLimit, double pressureLimit
+ * </pre>
+ * Records are written with a single positional write each. A record torn by a crash fails its
+ * length or checksum check and is truncated away, together with anything after it, when the
+ * segment is reopened.
+ */
+@Slf4j
+final class WalSegment {
+
+    static final String FILE_SUFFIX = ".wal";
+
+    private static final int MAGIC = 0x5343574C;
+    private static final short VERSION = 1;
+    private static final int HEADER_BYTES = 16;
+    private static final int RECORD_HEADER_BYTES = 16;
+    private static final int FIXED_PAYLOAD_BYTES = 2 + 8 + 8 + 8 + 4 + 1 + 4 + 8 + 8;
+    private static final int MAX_PAYLOAD_BYTES = FIXED_PAYLOAD_BYTES + 4 * Short.MAX_VALUE;
+
+    private static final int MOTOR_ON = 1;
+    private static final int TEMP_WARNING = 1 << 1;
+    private static final int PRESSURE_WARNING = 1 << 2;
+
+    private final Path file;
+    private final FileChannel channel;
+    private final long firstLsn;
+    private long lastLsn;
+    private long size;
+
+    private WalSegment(Path file, FileChannel channel, long firstLsn) {
+        this.file = file;
+        this.channel = channel;
+        this.firstLsn = firstLsn;
+        this.lastLsn = firstLsn - 1;
+    }
+
+    static WalSegment create(Path dir, long firstLsn) throws IOException {
+        Path file = dir.resolve(String.format("%020d%s", firstLsn, FILE_SUFFIX));
+        FileChannel channel = FileChannel.open(file, StandardOpenOption.CREATE_NEW,
+                StandardOpenOption.READ, StandardOpenOption.WRITE);
+        ByteBuffer header = ByteBuffer.allocate(HEADER_BYTES);
+        header.putInt(MAGIC).putShort(VERSION).putShort((short) 0).putLong(firstLsn).flip();
+        writeFully(channel, header, 0);
+        channel.force(true);
+
+        WalSegment segment = new WalSegment(file, channel, firstLsn);
+        segment.size = HEADER_BYTES;
+        return segment;
+    }
+
+    /**
+     * Opens an existing segment, validating every record and truncating a torn tail.
+     */
+    static WalSegment open(Path file) throws IOException {
+        FileChannel channel = FileChannel.open(file, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        try {
+            ByteBuffer header = ByteBuffer.allocate(HEADER_BYTES);
+            readFully(channel, header, 0);
+            if (header.getInt(0) != MAGIC || header.getShort(4) != VERSION) {
+                throw new IOException("Not a write-ahead log segment: " + file);
+            }
+            WalSegment segment = new WalSegment(file, channel, header.getLong(8));
+            long end = segment.scan(Long.MIN_VALUE, null);
+            long fileSize = channel.size();
+            if (end < fileSize) {
+                log.warn("Truncating {} bytes of torn or corrupt records from {}", fileSize - end, file);
+                channel.truncate(end);
+                channel.force(true);
+            }
+            segment.size = end;
+            return segment;
+        } catch (IOException | RuntimeException e) {
+            channel.close();
+            throw e;
+        }
+    }
+
+    long getFirstLsn() {
+        return firstLsn;
+    }
+
+    long getLastLsn() {
+        return lastLsn;
+    }
+
+    long size() {
+        return size;
+    }
+
+    boolean isEmpty() {
+        return lastLsn < firstLsn;
+    }
+
+    Path getFile() {
+        return file;
+    }
+
+    /**
+     * Writes {@code record}, produced by {@link #encode}, at the end of the segment.
+     */
+    void append(ByteBuffer record, long lsn) throws IOException {
+        int length = record.remaining();
+        writeFully(channel, record, size);
+        size += length;
+        lastLsn = lsn;
+    }
+
+    void force() throws IOException {
+        try {
+            channel.force(false);
+        } catch (ClosedChannelException e) {
+            // Rotated out concurrently; segments are forced before they are closed
+        }
+    }
+
+    void close() throws IOException {
+        channel.close();
+    }
+
+    void delete() throws IOException {
+        channel.close();
+        Files.deleteIfExists(file);
+    }
+
+    /**
+     * Hands every valid record with an LSN greater than {@code afterLsn} to {@code sink}, in order.
+     *
+     * @return the file offset just past the last valid record
+     */
+    long scan(long afterLsn, ObjLongConsumer<SensorReading> sink) throws IOException {
+        long fileSize = channel.size();
+        long position = HEADER_BYTES;
+        long expectedLsn = firstLsn;
+        ByteBuffer recordHeader = ByteBuffer.allocate(RECORD_HEADER_BYTES);
+        ByteBuffer payload = ByteBuffer.allocate(FIXED_PAYLOAD_BYTES + 64);
+        CRC32 crc = new CRC32();
+        while (position + RECORD_HEADER_BYTES <= fileSize) {
+            recordHeader.clear();
+            readFully(channel, recordHeader, position);
+            int payloadBytes = recordHeader.getInt(0);
+            long lsn = recordHeader.getLong(8);
+            if (payloadBytes < FIXED_PAYLOAD_BYTES || payloadBytes > MAX_PAYLOAD_BYTES
+                    || position + RECORD_HEADER_BYTES + payloadBytes > fileSize || lsn != expectedLsn) {
+                break;
+            }
+            if (payload.capacity() < payloadBytes) {
+                payload = ByteBuffer.allocate(payloadBytes);
+            }
+            payload.clear().limit(payloadBytes);
+            readFully(channel, payload, position + RECORD_HEADER_BYTES);
+            payload.flip();
+            crc.reset();
+            crc.update(recordHeader.array(), 8, 8);
+            crc.update(payload.array(), 0, payloadBytes);
+            if ((int) crc.getValue() != recordHeader.getInt(4)) {
+                break;
+            }
+            if (sink != null && lsn > afterLsn) {
+                sink.accept(decode(payload), lsn);
+            }
+            lastLsn = lsn;
+            expectedLsn = lsn + 1;
+            position += RECORD_HEADER_BYTES + payloadBytes;
+        }
+        return position;
+    }
+
+    /**
+     * Serialises {@code reading} as a complete record into {@code buffer}, growing it if needed.
+     *
+     * @return the buffer holding the record, flipped for writing
+     */
+    static ByteBuffer encode(SensorReading reading, long lsn, ByteBuffer buffer) {
+        byte[] id = reading.getSensorId().getBytes(StandardCharsets.UTF_8);
+        if (id.length > Short.MAX_VALUE) {
+            throw new IllegalArgumentException("Sensor id too long for the write-ahead log: " + reading.getSensorId());
+        }
+        int payloadBytes = FIXED_PAYLOAD_BYTES + id.length;
+        if (buffer == null || buffer.capacity() < RECORD_HEADER_BYTES + payloadBytes) {
+            buffer = ByteBuffer.allocate(RECORD_HEADER_BYTES + payloadBytes + 64);
+        }
+        LocalDateTime timestamp = reading.getTimestamp();
+        int flags = (reading.isMotorOn() ? MOTOR_ON : 0)
+                | (reading.isTempWarning() ? TEMP_WARNING : 0)
+                | (reading.isPressureWarning() ? PRESSURE_WARNING : 0);
+
+        buffer.clear();
+        buffer.putInt(payloadBytes).putInt(0).putLong(lsn)
+                .putShort((short) id.length).put(id)
+                .putDouble(reading.getTemperature())
+                .putDouble(reading.getPressure())
+                .putLong(timestamp.toEpochSecond(ZoneOffset.UTC))
+                .putInt(timestamp.getNano())
+                .put((byte) flags)
+                .putInt(reading.getAlarmMask())
+                .putDouble(reading.getTempLimit())
+                .putDouble(reading.getPressureLimit());
+
+        CRC32 crc = new CRC32();
+        crc.update(buffer.array(), 8, 8 + payloadBytes);
+        buffer.putInt(4, (int) crc.getValue());
+        buffer.flip();
+        return buffer;
+    }
+
+    private static SensorReading decode(ByteBuffer payload) {
+        byte[] id = new byte[payload.getShort()];
+        payload.get(id);
+        SensorReading reading = new SensorReading();
+        reading.setSensorId(new String(id, StandardCharsets.UTF_8));
+        reading.setTemperature(payload.getDouble());
+        reading.setPressure(payload.getDouble());
+        long epochSecond = payload.getLong();
+        reading.setTimestamp(LocalDateTime.ofEpochSecond(epochSecond, payload.getInt(), ZoneOffset.UTC));
+        int flags = payload.get();
+        reading.setMotorOn((flags & MOTOR_ON) != 0);
+        reading.setTempWarning((flags & TEMP_WARNING) != 0);
+        reading.setPressureWarning((flags & PRESSURE_WARNING) != 0);
+        reading.setAlarmMask(payload.getInt());
+        reading.setTempLimit(payload.getDouble());
+        reading.setPressureLimit(payload.getDouble());
+        return reading;
+    }
+
+    private static void writeFully(FileChannel channel, ByteBuffer buffer, long position) throws IOException {
+        while (buffer.hasRemaining()) {
+            position += channel.write(buffer, position);
+        }
+    }
+
+    private static void readFully(FileChannel channel, ByteBuffer buffer, long position) throws IOException {
+        while (buffer.hasRemaining()) {
+            int read = channel.read(buffer, position);
+            if (read < 0) {
+                throw new IOException("Unexpected end of write-ahead log segment");
+            }
+            position += read;
+        }
+    }
+}
@@ -0,0 +1,33 @@
+package com.scada.monitoring.wal;
+
+/**
+ * When the write-ahead log forces appended records to disk, trading acknowledgement latency
+ * for how much an OS crash or power loss can take with it.
+ */
+public enum WalSyncPolicy {
+    /** Every acknowledgement waits for an fsync; concurrent appends share one (group commit). */
+    BATCH("batch"),
+    /** A background thread forces the log every {@code fsync-interval-ms}; that much can be lost. */
+    INTERVAL("interval"),
+    /** Only forced when a segment is rotated or the log is closed; survives a process crash only. */
+    NONE("none");
+
+    private final String code;
+
+    WalSyncPolicy(String code) {
+        this.code = code;
+    }
+
+    public String getCode() {
+        return code;
+    }
+
+    public static WalSyncPolicy fromCode(String code) {
+        for (WalSyncPolicy policy : values()) {
+            if (policy.code.equalsIgnoreCase(code)) {
+                return policy;
+            }
+        }
+        throw new IllegalArgumentException("Unknown WAL fsync policy: " + code + " (expected batch, interval or none)");
+    }
+}
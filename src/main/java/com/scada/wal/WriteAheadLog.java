@@ -0,0 +1,441 @@
+package com.scada.monitoring.wal;
+
+import com.scada.monitoring.entity.SensorReading;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileLock;
+import java.nio.channels.OverlappingFileLockException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.ObjLongConsumer;
+import java.util.zip.CRC32;
+
+/**
+ * Append-only log of readings accepted by the ingest pipeline but not yet written to the
+ * {@code ReadingStore}. Each reading gets a log sequence number (LSN) and is appended to the
+ * active {@link WalSegment}; a new segment is started once the active one reaches
+ * {@code segment-bytes}. Once a batch is durable in storage the pipeline calls {@link #markApplied},
+ * which records the LSN in the checkpoint file and deletes segments that are entirely applied.
+ * On startup, {@link #replay} hands back everything logged after the checkpoint.
+ * <p>
+ * With the {@code batch} fsync policy, {@link #awaitDurable} blocks until the record is on
+ * disk. Callers arriving while an fsync is in flight wait for the next one, which covers all of
+ * their records at once, so the number of fsyncs grows with time rather than with load.
+ * <p>
+ * Both locks are {@link ReentrantLock}s rather than monitors because they are held across file
+ * I/O and waited on by request threads, which may be virtual threads.
+ * <p>
+ * Delivery is at-least-once: a crash between a batch write and its checkpoint replays that batch.
+ */
+@Component
+@Slf4j
+public class WriteAheadLog {
+
+    private static final String CHECKPOINT_FILE = "checkpoint";
+    private static final int CHECKPOINT_BYTES = 12;
+
+    private final boolean enabled;
+    private final Path dir;
+    private final long segmentBytes;
+    private final WalSyncPolicy syncPolicy;
+    private final long syncIntervalMs;
+    private final MeterRegistry meterRegistry;
+
+    private final Timer fsyncs;
+    private final DistributionSummary groupSizes;
+
+    private final ReentrantLock writeLock = new ReentrantLock();
+    private final Deque<WalSegment> retired = new ArrayDeque<>();
+    private WalSegment active;
+    private ByteBuffer recordBuffer;
+    private long nextLsn = 1;
+    private volatile long writtenLsn;
+
+    private final ReentrantLock syncLock = new ReentrantLock();
+    private final Condition synced = syncLock.newCondition();
+    private long durableLsn;
+    private boolean syncing;
+
+    private FileChannel checkpointChannel;
+    private volatile long appliedLsn;
+
+    private volatile boolean running;
+    private Thread syncThread;
+
+    public WriteAheadLog(@Value("${scada.ingest.wal.enabled:true}") boolean enabled,
+                         @Value("${scada.ingest.wal.dir:data/wal}") String dir,
+                         @Value("${scada.ingest.wal.segment-bytes:67108864}") long segmentBytes,
+                         @Value("${scada.ingest.wal.fsync:batch}") String syncPolicy,
+                         @Value("${scada.ingest.wal.fsync-interval-ms:100}") long syncIntervalMs,
+                         MeterRegistry meterRegistry) {
+        this.enabled = enabled;
+        this.dir = Paths.get(dir);
+        this.segmentBytes = segmentBytes;
+        this.syncPolicy = WalSyncPolicy.fromCode(syncPolicy);
+        this.syncIntervalMs = syncIntervalMs;
+        this.meterRegistry = meterRegistry;
+
+        this.fsyncs = Timer.builder("scada.wal.fsync")
+                .description("Time spent forcing the write-ahead log to disk")
+                .register(meterRegistry);
+        this.groupSizes = DistributionSummary.builder("scada.wal.fsync.group.size")
+                .description("Readings made durable by one fsync")
+                .baseUnit("readings")
+                .register(meterRegistry);
+    }
+
+    @PostConstruct
+    public void open() throws IOException {
+        // Registered here rather than in the constructor, which must not publish this
+        Gauge.builder("scada.wal.pending", this, wal -> wal.writtenLsn - wal.appliedLsn)
+                .description("Logged readings not yet applied to storage")
+                .register(meterRegistry);
+        if (!enabled) {
+            log.info("Write-ahead log disabled");
+            return;
+        }
+        Files.createDirectories(dir);
+        checkpointChannel = FileChannel.open(dir.resolve(CHECKPOINT_FILE), StandardOpenOption.CREATE,
+                StandardOpenOption.READ, StandardOpenOption.WRITE);
+        // Held until close; a second writer would interleave LSNs and delete segments under us
+        FileLock lock;
+        try {
+            lock = checkpointChannel.tryLock();
+        } catch (OverlappingFileLockException e) {
+            lock = null;
+        }
+        if (lock == null) {
+            checkpointChannel.close();
+            throw new IllegalStateException("Write-ahead log directory is already in use: " + dir.toAbsolutePath());
+        }
+        appliedLsn = readCheckpoint();
+
+        List<Path> files = new ArrayList<>();
+        try (DirectoryStream<Path> stream = Files.newDirectoryStream(dir, "*" + WalSegment.FILE_SUFFIX)) {
+            for (Path file : stream) {
+                files.add(file);
+            }
+        }
+        // Zero-padded LSNs, so name order is log order
+        files.sort(null);
+
+        long lastLsn = appliedLsn;
+        for (Path file : files) {
+            WalSegment segment = WalSegment.open(file);
+            if (segment.isEmpty() || segment.getLastLsn() <= appliedLsn) {
+                segment.delete();
+                continue;
+            }
+            if (segment.getFirstLsn() > lastLsn + 1) {
+                log.warn("Write-ahead log has a gap: LSNs {} to {} are missing", lastLsn + 1, segment.getFirstLsn() - 1);
+            }
+            retired.addLast(segment);
+            lastLsn = Math.max(lastLsn, segment.getLastLsn());
+        }
+
+        nextLsn = lastLsn + 1;
+        writtenLsn = lastLsn;
+        durableLsn = lastLsn;
+        active = WalSegment.create(dir, nextLsn);
+
+        if (syncPolicy == WalSyncPolicy.INTERVAL) {
+            running = true;
+            syncThread = new Thread(this::syncLoop, "wal-sync");
+            syncThread.setDaemon(true);
+            syncThread.start();
+        }
+        log.info("Write-ahead log opened in {} (fsync: {}, {} readings to replay after LSN {})",
+                dir.toAbsolutePath(), syncPolicy.getCode(), lastLsn - appliedLsn, appliedLsn);
+    }
+
+    @PreDestroy
+    public void close() throws InterruptedException {
+        if (!enabled) {
+            return;
+        }
+        running = false;
+        if (syncThread != null) {
+            syncThread.interrupt();
+            syncThread.join(TimeUnit.SECONDS.toMillis(5));
+        }
+        writeLock.lock();
+        try {
+            active.force();
+            active.close();
+            for (WalSegment segment : retired) {
+                segment.close();
+            }
+            checkpointChannel.close();
+        } catch (IOException e) {
+            log.error("Failed to close the write-ahead log", e);
+        } finally {
+            writeLock.unlock();
+        }
+        log.info("Write-ahead log closed at LSN {} (applied through {})", writtenLsn, appliedLsn);
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * Appends a reading to the log. The record reaches the OS immediately but is only known to
+     * be on disk once {@link #awaitDurable} returns for its LSN.
+     *
+     * @return the reading's log sequence number
+     */
+    public long append(SensorReading reading) {
+        writeLock.lock();
+        try {
+            long lsn = nextLsn;
+            recordBuffer = WalSegment.encode(reading, lsn, recordBuffer);
+            if (!active.isEmpty() && active.size() + recordBuffer.remaining() > segmentBytes) {
+                rotate();
+            }
+            active.append(recordBuffer, lsn);
+            nextLsn = lsn + 1;
+            writtenLsn = lsn;
+            return lsn;
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to append to the write-ahead log", e);
+        } finally {
+            writeLock.unlock();
+        }
+    }
+
+    /**
+     * Blocks until the record with {@code lsn} has been forced to disk. Returns immediately
+     * unless the fsync policy is {@code batch}.
+     */
+    public void awaitDurable(long lsn) {
+        if (!enabled || syncPolicy != WalSyncPolicy.BATCH) {
+            return;
+        }
+        syncLock.lock();
+        try {
+            while (syncing && durableLsn < lsn) {
+                synced.await();
+            }
+            if (durableLsn >= lsn) {
+                return;
+            }
+            syncing = true;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while waiting for the write-ahead log", e);
+        } finally {
+            syncLock.unlock();
+        }
+        // This thread leads the next group: one fsync for every record written so far
+        sync();
+    }
+
+    /**
+     * Records that every reading up to {@code lsn} is in storage and deletes segments that no
+     * longer hold anything to replay.
+     */
+    public void markApplied(long lsn) {
+        if (!enabled || lsn <= appliedLsn) {
+            return;
+        }
+        checkpoint(lsn);
+        deleteAppliedSegments();
+    }
+
+    /**
+     * Hands each reading logged after the checkpoint, with its LSN, to {@code sink}, oldest
+     * first. The caller checkpoints with {@link #markApplied} once they are in storage. Call
+     * before the first append.
+     *
+     * @return the number of readings replayed
+     */
+    public long replay(ObjLongConsumer<SensorReading> sink) {
+        if (!enabled) {
+            return 0;
+        }
+        List<WalSegment> segments;
+        writeLock.lock();
+        try {
+            segments = new ArrayList<>(retired);
+        } finally {
+            writeLock.unlock();
+        }
+        long[] count = new long[1];
+        try {
+            for (WalSegment segment : segments) {
+                segment.scan(appliedLsn, (reading, lsn) -> {
+                    sink.accept(reading, lsn);
+                    count[0]++;
+                });
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to replay the write-ahead log", e);
+        }
+        if (count[0] > 0) {
+            log.info("Replayed {} readings from the write-ahead log", count[0]);
+        }
+        return count[0];
+    }
+
+    public long getAppliedLsn() {
+        return appliedLsn;
+    }
+
+    public long getWrittenLsn() {
+        return writtenLsn;
+    }
+
+    int getSegmentCount() {
+        writeLock.lock();
+        try {
+            return retired.size() + 1;
+        } finally {
+            writeLock.unlock();
+        }
+    }
+
+    private void rotate() throws IOException {
+        active.force();
+        active.close();
+        retired.addLast(active);
+        active = WalSegment.create(dir, nextLsn);
+    }
+
+    private void sync() {
+        long target;
+        WalSegment segment;
+        writeLock.lock();
+        try {
+            target = writtenLsn;
+            segment = active;
+        } finally {
+            writeLock.unlock();
+        }
+        boolean forced = false;
+        try {
+            long start = System.nanoTime();
+            segment.force();
+            fsyncs.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+            forced = true;
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to force the write-ahead log", e);
+        } finally {
+            syncLock.lock();
+            try {
+                if (forced && target > durableLsn) {
+                    groupSizes.record(target - durableLsn);
+                    durableLsn = target;
+                }
+                syncing = false;
+                synced.signalAll();
+            } finally {
+                syncLock.unlock();
+            }
+        }
+    }
+
+    private void syncLoop() {
+        while (running) {
+            try {
+                Thread.sleep(syncIntervalMs);
+            } catch (InterruptedException e) {
+                return;
+            }
+            syncLock.lock();
+            try {
+                if (syncing || durableLsn >= writtenLsn) {
+                    continue;
+                }
+                syncing = true;
+            } finally {
+                syncLock.unlock();
+            }
+            try {
+                sync();
+            } catch (RuntimeException e) {
+                log.error("Periodic write-ahead log fsync failed", e);
+            }
+        }
+    }
+
+    private long readCheckpoint() throws IOException {
+        if (checkpointChannel.size() == 0) {
+            return 0;
+        }
+        ByteBuffer buffer = ByteBuffer.allocate(CHECKPOINT_BYTES);
+        while (buffer.hasRemaining()) {
+            if (checkpointChannel.read(buffer, buffer.position()) < 0) {
+                break;
+            }
+        }
+        long lsn = buffer.getLong(0);
+        if (buffer.hasRemaining() || buffer.getInt(8) != checksum(lsn)) {
+            log.warn("Ignoring corrupt write-ahead log checkpoint; replaying every retained segment");
+            return 0;
+        }
+        return lsn;
+    }
+
+    private void checkpoint(long lsn) {
+        ByteBuffer buffer = ByteBuffer.allocate(CHECKPOINT_BYTES);
+        buffer.putLong(lsn).putInt(checksum(lsn)).flip();
+        try {
+            while (buffer.hasRemaining()) {
+                checkpointChannel.write(buffer, buffer.position());
+            }
+            // A stale checkpoint only replays readings twice, so it follows the log's own policy
+            if (syncPolicy != WalSyncPolicy.NONE) {
+                checkpointChannel.force(false);
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to write the write-ahead log checkpoint", e);
+        }
+        appliedLsn = lsn;
+    }
+
+    private void deleteAppliedSegments() {
+        writeLock.lock();
+        try {
+            while (!retired.isEmpty() && retired.peekFirst().getLastLsn() <= appliedLsn) {
+                WalSegment segment = retired.pollFirst();
+                try {
+                    segment.delete();
+                } catch (IOException e) {
+                    log.warn("Failed to delete applied write-ahead log segment {}", segment.getFile(), e);
+                }
+            }
+        } finally {
+            writeLock.unlock();
+        }
+    }
+
+    private static int checksum(long lsn) {
+        CRC32 crc = new CRC32();
+        for (int shift = 56; shift >= 0; shift -= 8) {
+            crc.update((int) (lsn >>> shift));
+        }
+        return (int) crc.getValue();
+    }
+}
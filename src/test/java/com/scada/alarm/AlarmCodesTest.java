@@ -0,0 +1,31 @@
+package com.scada.monitoring.alarm;
+
+import com.scada.monitoring.entity.RuleType;
+import com.scada.monitoring.entity.RuleVariable;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class AlarmCodesTest {
+
+    @Test
+    void codeFor_MapsEachVariableAndTypeToItsOwnBit() {
+        assertEquals(AlarmCodes.HIGH_TEMPERATURE, AlarmCodes.codeFor(RuleVariable.TEMPERATURE, RuleType.HIGH));
+        assertEquals(AlarmCodes.LOW_PRESSURE, AlarmCodes.codeFor(RuleVariable.PRESSURE, RuleType.LOW));
+        assertEquals(AlarmCodes.PRESSURE_RATE, AlarmCodes.codeFor(RuleVariable.PRESSURE, RuleType.RATE_OF_CHANGE));
+        assertTrue(AlarmCodes.has(AlarmCodes.TEMPERATURE_ALARMS, AlarmCodes.TEMPERATURE_RATE));
+        assertFalse(AlarmCodes.has(AlarmCodes.TEMPERATURE_ALARMS, AlarmCodes.HIGH_PRESSURE));
+    }
+
+    @Test
+    void describe_RendersBothWarnings() {
+        String message = AlarmCodes.describe(AlarmCodes.HIGH_TEMPERATURE | AlarmCodes.HIGH_PRESSURE, 30.0, 26.0, 25.0, 25.0);
+
+        assertEquals("HIGH TEMPERATURE WARNING: 30.0°C >= 25.0°C | HIGH PRESSURE WARNING: 26.0 PSI >= 25.0 PSI", message);
+    }
+
+    @Test
+    void describe_NoAlarm_ReturnsNull() {
+        assertNull(AlarmCodes.describe(AlarmCodes.NONE, 20.0, 10.0, 25.0, 25.0));
+    }
+}
@@ -0,0 +1,203 @@
+package com.scada.monitoring.alarm;
+
+import com.scada.monitoring.cache.SensorDictionary;
+import com.scada.monitoring.cache.SensorSnapshot;
+import com.scada.monitoring.entity.AlarmRule;
+import com.scada.monitoring.entity.MotorCondition;
+import com.scada.monitoring.entity.RuleCombinator;
+import com.scada.monitoring.entity.RuleType;
+import com.scada.monitoring.entity.RuleVariable;
+import com.scada.monitoring.entity.SensorReading;
+import com.scada.monitoring.repository.AlarmRuleRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.time.LocalDateTime;
+import java.util.Arrays;
+import java.util.Collections;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class AlarmEngineTest {
+
+    private static final LocalDateTime START = LocalDateTime.of(2024, 1, 1, 0, 0, 0);
+
+    @Mock
+    private AlarmRuleRepository ruleRepository;
+
+    private final SensorDictionary dictionary = new SensorDictionary();
+    private AlarmEngine alarmEngine;
+    private SensorSnapshot sensor;
+
+    @BeforeEach
+    void setUp() {
+        alarmEngine = new AlarmEngine(ruleRepository, dictionary);
+        sensor = new SensorSnapshot(1L, "TEST-001", dictionary.keyOf("TEST-001"), 25.0, 25.0, true);
+    }
+
+    @Test
+    void evaluate_NoRules_UsesSensorThresholds() {
+        when(ruleRepository.findBySensorIdAndEnabledTrueOrderByIdAsc("TEST-001")).thenReturn(Collections.emptyList());
+
+        SensorReading reading = evaluate(0, 25.0, 10.0, true);
+
+        assertEquals(AlarmCodes.HIGH_TEMPERATURE, reading.getAlarmMask());
+        assertTrue(reading.isTempWarning());
+        assertFalse(reading.isPressureWarning());
+        assertEquals(25.0, reading.getTempLimit());
+    }
+
+    @Test
+    void evaluate_ThresholdsChanged_Recompiles() {
+        when(ruleRepository.findBySensorIdAndEnabledTrueOrderByIdAsc("TEST-001")).thenReturn(Collections.emptyList());
+        evaluate(0, 20.0, 10.0, true);
+
+        sensor = new SensorSnapshot(1L, "TEST-001", sensor.getKey(), 15.0, 25.0, true);
+
+        assertEquals(AlarmCodes.HIGH_TEMPERATURE, evaluate(1, 20.0, 10.0, true).getAlarmMask());
+        verify(ruleRepository, times(2)).findBySensorIdAndEnabledTrueOrderByIdAsc("TEST-001");
+    }
+
+    @Test
+    void evaluate_Deadband_HoldsAlarmUntilValueDropsBelowLimitMinusDeadband() {
+        AlarmRule high = rule(RuleVariable.TEMPERATURE, RuleType.HIGH, 80.0);
+        high.setDeadband(5.0);
+        when(ruleRepository.findBySensorIdAndEnabledTrueOrderByIdAsc("TEST-001")).thenReturn(Collections.singletonList(high));
+
+        assertEquals(AlarmCodes.HIGH_TEMPERATURE, evaluate(0, 81.0, 10.0, true).getAlarmMask());
+        assertEquals(AlarmCodes.HIGH_TEMPERATURE, evaluate(1, 77.0, 10.0, true).getAlarmMask());
+        assertEquals(AlarmCodes.NONE, evaluate(2, 74.0, 10.0, true).getAlarmMask());
+    }
+
+    @Test
+    void evaluate_DelayOn_RequiresConditionToPersist() {
+        AlarmRule low = rule(RuleVariable.PRESSURE, RuleType.LOW, 5.0);
+        low.setDelayOnMs(2000);
+        when(ruleRepository.findBySensorIdAndEnabledTrueOrderByIdAsc("TEST-001")).thenReturn(Collections.singletonList(low));
+
+        assertEquals(AlarmCodes.NONE, evaluate(0, 20.0, 4.0, true).getAlarmMask());
+        assertEquals(AlarmCodes.NONE, evaluate(1, 20.0, 4.0, true).getAlarmMask());
+        SensorReading reading = evaluate(2, 20.0, 4.0, true);
+        assertEquals(AlarmCodes.LOW_PRESSURE, reading.getAlarmMask());
+        assertTrue(reading.isPressureWarning());
+    }
+
+    @Test
+    void evaluate_DelayOff_KeepsAlarmThroughShortRecovery() {
+        AlarmRule high = rule(RuleVariable.TEMPERATURE, RuleType.HIGH, 80.0);
+        high.setDelayOffMs(5000);
+        when(ruleRepository.findBySensorIdAndEnabledTrueOrderByIdAsc("TEST-001")).thenReturn(Collections.singletonList(high));
+
+        evaluate(0, 90.0, 10.0, true);
+
+        assertEquals(AlarmCodes.HIGH_TEMPERATURE, evaluate(1, 70.0, 10.0, true).getAlarmMask());
+        assertEquals(AlarmCodes.NONE, evaluate(6, 70.0, 10.0, true).getAlarmMask());
+    }
+
+    @Test
+    void evaluate_RateOfChange_UsesChangePerSecond() {
+        AlarmRule rate = rule(RuleVariable.TEMPERATURE, RuleType.RATE_OF_CHANGE, 2.0);
+        when(ruleRepository.findBySensorIdAndEnabledTrueOrderByIdAsc("TEST-001")).thenReturn(Collections.singletonList(rate));
+
+        assertEquals(AlarmCodes.NONE, evaluate(0, 20.0, 10.0, true).getAlarmMask());
+        assertEquals(AlarmCodes.NONE, evaluate(10, 30.0, 10.0, true).getAlarmMask());
+        assertEquals(AlarmCodes.TEMPERATURE_RATE, evaluate(11, 25.0, 10.0, true).getAlarmMask());
+    }
+
+    @Test
+    void evaluate_RateOfChange_LateReadingKeepsAlarm() {
+        AlarmRule rate = rule(RuleVariable.TEMPERATURE, RuleType.RATE_OF_CHANGE, 2.0);
+        when(ruleRepository.findBySensorIdAndEnabledTrueOrderByIdAsc("TEST-001")).thenReturn(Collections.singletonList(rate));
+        evaluate(10, 30.0, 10.0, true);
+        assertEquals(AlarmCodes.TEMPERATURE_RATE, evaluate(11, 25.0, 10.0, true).getAlarmMask());
+
+        // Sampled before the previous reading, so there is no rate to clear the alarm with
+        assertEquals(AlarmCodes.TEMPERATURE_RATE, evaluate(9, 25.0, 10.0, true).getAlarmMask());
+        assertEquals(AlarmCodes.NONE, evaluate(12, 25.0, 10.0, true).getAlarmMask());
+    }
+
+    @Test
+    void evaluate_MotorCondition_OnlyAlarmsInMatchingMotorState() {
+        AlarmRule low = rule(RuleVariable.PRESSURE, RuleType.LOW, 5.0);
+        low.setMotorCondition(MotorCondition.ON);
+        AlarmRule high = rule(RuleVariable.PRESSURE, RuleType.HIGH, 30.0);
+        when(ruleRepository.findBySensorIdAndEnabledTrueOrderByIdAsc("TEST-001")).thenReturn(Arrays.asList(low, high));
+
+        assertEquals(AlarmCodes.NONE, evaluate(0, 20.0, 1.0, false).getAlarmMask());
+        assertEquals(AlarmCodes.LOW_PRESSURE, evaluate(1, 20.0, 1.0, true).getAlarmMask());
+        SensorReading reading = evaluate(2, 20.0, 31.0, false);
+        assertEquals(AlarmCodes.HIGH_PRESSURE, reading.getAlarmMask());
+        assertEquals(30.0, reading.getPressureLimit());
+    }
+
+    @Test
+    void evaluate_AndCombination_RequiresBothConditions() {
+        AlarmRule high = rule(RuleVariable.TEMPERATURE, RuleType.HIGH, 80.0);
+        high.setCombinator(RuleCombinator.AND);
+        high.setSecondVariable(RuleVariable.PRESSURE);
+        high.setSecondType(RuleType.LOW);
+        high.setSecondLimit(5.0);
+        when(ruleRepository.findBySensorIdAndEnabledTrueOrderByIdAsc("TEST-001")).thenReturn(Collections.singletonList(high));
+
+        assertEquals(AlarmCodes.NONE, evaluate(0, 90.0, 10.0, true).getAlarmMask());
+        assertEquals(AlarmCodes.NONE, evaluate(1, 70.0, 4.0, true).getAlarmMask());
+        SensorReading reading = evaluate(2, 90.0, 4.0, true);
+        assertEquals(AlarmCodes.HIGH_TEMPERATURE, reading.getAlarmMask());
+        assertEquals(80.0, reading.getTempLimit());
+    }
+
+    @Test
+    void evaluate_OrCombination_WithRateAndMotorFilter() {
+        AlarmRule high = rule(RuleVariable.PRESSURE, RuleType.HIGH, 30.0);
+        high.setCombinator(RuleCombinator.OR);
+        high.setSecondVariable(RuleVariable.PRESSURE);
+        high.setSecondType(RuleType.RATE_OF_CHANGE);
+        high.setSecondLimit(5.0);
+        high.setMotorCondition(MotorCondition.ON);
+        when(ruleRepository.findBySensorIdAndEnabledTrueOrderByIdAsc("TEST-001")).thenReturn(Collections.singletonList(high));
+
+        assertEquals(AlarmCodes.NONE, evaluate(0, 20.0, 10.0, true).getAlarmMask());
+        // Rising 8/s trips the rate branch below the limit
+        assertEquals(AlarmCodes.HIGH_PRESSURE, evaluate(1, 20.0, 18.0, true).getAlarmMask());
+        assertEquals(AlarmCodes.NONE, evaluate(2, 20.0, 18.0, true).getAlarmMask());
+        assertEquals(AlarmCodes.HIGH_PRESSURE, evaluate(3, 20.0, 31.0, true).getAlarmMask());
+        assertEquals(AlarmCodes.NONE, evaluate(4, 20.0, 31.0, false).getAlarmMask());
+    }
+
+    @Test
+    void invalidate_ReloadsRules() {
+        when(ruleRepository.findBySensorIdAndEnabledTrueOrderByIdAsc("TEST-001")).thenReturn(Collections.emptyList());
+        evaluate(0, 20.0, 10.0, true);
+        evaluate(1, 20.0, 10.0, true);
+
+        alarmEngine.invalidate("TEST-001");
+        evaluate(2, 20.0, 10.0, true);
+
+        verify(ruleRepository, times(2)).findBySensorIdAndEnabledTrueOrderByIdAsc("TEST-001");
+    }
+
+    private SensorReading evaluate(int second, double temperature, double pressure, boolean motorOn) {
+        SensorReading reading = new SensorReading();
+        reading.setSensorId("TEST-001");
+        reading.setTemperature(temperature);
+        reading.setPressure(pressure);
+        reading.setMotorOn(motorOn);
+        reading.setTimestamp(START.plusSeconds(second));
+        alarmEngine.evaluate(sensor, reading);
+        return reading;
+    }
+
+    private AlarmRule rule(RuleVariable variable, RuleType type, double limit) {
+        AlarmRule rule = new AlarmRule();
+        rule.setSensorId("TEST-001");
+        rule.setVariable(variable);
+        rule.setType(type);
+        rule.setLimit(limit);
+        return rule;
+    }
+}
@@ -0,0 +1,121 @@
+package com.scada.monitoring.alarm;
+
+import com.scada.monitoring.cache.SensorRegistry;
+import com.scada.monitoring.cache.SensorSnapshot;
+import com.scada.monitoring.dto.AlarmRuleResponse;
+import com.scada.monitoring.dto.CreateAlarmRuleRequest;
+import com.scada.monitoring.entity.AlarmRule;
+import com.scada.monitoring.entity.MotorCondition;
+import com.scada.monitoring.entity.RuleCombinator;
+import com.scada.monitoring.entity.RuleType;
+import com.scada.monitoring.entity.RuleVariable;
+import com.scada.monitoring.repository.AlarmRuleRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class AlarmRuleServiceTest {
+
+    @Mock
+    private AlarmRuleRepository ruleRepository;
+
+    @Mock
+    private SensorRegistry sensorRegistry;
+
+    @Mock
+    private AlarmEngine alarmEngine;
+
+    @InjectMocks
+    private AlarmRuleService alarmRuleService;
+
+    private CreateAlarmRuleRequest createRequest;
+
+    @BeforeEach
+    void setUp() {
+        createRequest = new CreateAlarmRuleRequest();
+        createRequest.setSensorId("TEST-001");
+        createRequest.setVariable(RuleVariable.TEMPERATURE);
+        createRequest.setType(RuleType.HIGH);
+        createRequest.setLimit(80.0);
+        createRequest.setDeadband(2.0);
+    }
+
+    @Test
+    void createRule_AppliesDefaultsAndRecompiles() {
+        when(sensorRegistry.find("TEST-001")).thenReturn(Optional.of(new SensorSnapshot(1L, "TEST-001", 0, 25.0, 25.0, true)));
+        when(ruleRepository.save(any(AlarmRule.class))).thenAnswer(invocation -> {
+            AlarmRule rule = invocation.getArgument(0);
+            rule.setId(7L);
+            return rule;
+        });
+
+        AlarmRuleResponse response = alarmRuleService.createRule(createRequest);
+
+        assertEquals(7L, response.getId());
+        assertEquals(2.0, response.getDeadband());
+        assertEquals(0L, response.getDelayOnMs());
+        assertEquals(MotorCondition.ANY, response.getMotorCondition());
+        assertTrue(response.isEnabled());
+        verify(alarmEngine, times(1)).invalidate("TEST-001");
+    }
+
+    @Test
+    void createRule_UnknownSensor_ThrowsException() {
+        when(sensorRegistry.find("TEST-001")).thenReturn(Optional.empty());
+
+        assertThrows(IllegalArgumentException.class, () -> alarmRuleService.createRule(createRequest));
+
+        verify(ruleRepository, never()).save(any(AlarmRule.class));
+    }
+
+    @Test
+    void createRule_CombinedWithoutSecondCondition_ThrowsException() {
+        when(sensorRegistry.find("TEST-001")).thenReturn(Optional.of(new SensorSnapshot(1L, "TEST-001", 0, 25.0, 25.0, true)));
+        createRequest.setCombinator(RuleCombinator.AND);
+        createRequest.setSecondVariable(RuleVariable.PRESSURE);
+
+        assertThrows(IllegalArgumentException.class, () -> alarmRuleService.createRule(createRequest));
+
+        verify(ruleRepository, never()).save(any(AlarmRule.class));
+    }
+
+    @Test
+    void createRule_Combined_StoresSecondCondition() {
+        when(sensorRegistry.find("TEST-001")).thenReturn(Optional.of(new SensorSnapshot(1L, "TEST-001", 0, 25.0, 25.0, true)));
+        when(ruleRepository.save(any(AlarmRule.class))).thenAnswer(invocation -> invocation.getArgument(0));
+        createRequest.setCombinator(RuleCombinator.OR);
+        createRequest.setSecondVariable(RuleVariable.PRESSURE);
+        createRequest.setSecondType(RuleType.HIGH);
+        createRequest.setSecondLimit(40.0);
+
+        AlarmRuleResponse response = alarmRuleService.createRule(createRequest);
+
+        assertEquals(RuleCombinator.OR, response.getCombinator());
+        assertEquals(RuleType.HIGH, response.getSecondType());
+        assertEquals(40.0, response.getSecondLimit());
+        assertEquals(0.0, response.getSecondDeadband());
+    }
+
+    @Test
+    void deleteRule_RecompilesSensor() {
+        AlarmRule rule = new AlarmRule();
+        rule.setId(7L);
+        rule.setSensorId("TEST-001");
+        when(ruleRepository.findById(7L)).thenReturn(Optional.of(rule));
+
+        alarmRuleService.deleteRule(7L);
+
+        verify(ruleRepository, times(1)).delete(rule);
+        verify(alarmEngine, times(1)).invalidate("TEST-001");
+    }
+}
@@ -0,0 +1,190 @@
+package com.scada.monitoring.alarm;
+
+import com.scada.monitoring.cache.SensorDictionary;
+import com.scada.monitoring.dto.AlarmResponse;
+import com.scada.monitoring.entity.Alarm;
+import com.scada.monitoring.entity.AlarmState;
+import com.scada.monitoring.entity.SensorReading;
+import com.scada.monitoring.repository.AlarmRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.Spy;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.time.LocalDateTime;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class AlarmServiceTest {
+
+    @Mock
+    private AlarmRepository alarmRepository;
+
+    @Spy
+    private SensorDictionary dictionary = new SensorDictionary();
+
+    @InjectMocks
+    private AlarmService alarmService;
+
+    private final AtomicLong ids = new AtomicLong();
+
+    @BeforeEach
+    void setUp() {
+        lenient().when(alarmRepository.save(any(Alarm.class))).thenAnswer(invocation -> {
+            Alarm alarm = invocation.getArgument(0);
+            if (alarm.getId() == null) {
+                alarm.setId(ids.incrementAndGet());
+            }
+            return alarm;
+        });
+    }
+
+    @Test
+    void onReading_UnchangedMaskDoesNotTouchRepository() {
+        alarmService.onReading(reading("TEST-001", AlarmCodes.NONE));
+        alarmService.onReading(reading("TEST-001", AlarmCodes.HIGH_TEMPERATURE));
+        alarmService.onReading(reading("TEST-001", AlarmCodes.HIGH_TEMPERATURE));
+
+        verify(alarmRepository, times(1)).save(any(Alarm.class));
+    }
+
+    @Test
+    void onReading_RisingBitRaisesActiveAlarm() {
+        alarmService.onReading(reading("TEST-001", AlarmCodes.HIGH_TEMPERATURE | AlarmCodes.HIGH_PRESSURE));
+
+        List<AlarmResponse> open = alarmService.getOpenAlarms("TEST-001");
+        assertEquals(2, open.size());
+        AlarmResponse temperature = open.stream().filter(a -> a.getCode() == AlarmCodes.HIGH_TEMPERATURE).findFirst().orElseThrow();
+        assertEquals("HIGH_TEMPERATURE", temperature.getType());
+        assertEquals(AlarmState.ACTIVE, temperature.getState());
+        assertEquals(90.0, temperature.getValue());
+        assertEquals(80.0, temperature.getLimit());
+        assertEquals(2, alarmService.getOpenAlarmCount());
+    }
+
+    @Test
+    void onReading_OlderThanLastTransition_Ignored() {
+        SensorReading raised = reading("TEST-001", AlarmCodes.HIGH_TEMPERATURE);
+        SensorReading earlier = reading("TEST-001", AlarmCodes.NONE);
+        earlier.setTimestamp(raised.getTimestamp().minusSeconds(1));
+
+        // Published by another request after the newer reading
+        alarmService.onReading(raised);
+        alarmService.onReading(earlier);
+
+        assertEquals(AlarmState.ACTIVE, alarmService.getOpenAlarms("TEST-001").get(0).getState());
+        verify(alarmRepository, times(1)).save(any(Alarm.class));
+    }
+
+    @Test
+    void lifecycle_ClearThenAcknowledgeCloses() {
+        alarmService.onReading(reading("TEST-001", AlarmCodes.HIGH_TEMPERATURE));
+        alarmService.onReading(reading("TEST-001", AlarmCodes.NONE));
+
+        AlarmResponse cleared = alarmService.getOpenAlarms(null).get(0);
+        assertEquals(AlarmState.CLEARED, cleared.getState());
+        assertNotNull(cleared.getClearedAt());
+
+        AlarmResponse closed = alarmService.acknowledge(cleared.getId(), "alice");
+        assertEquals(AlarmState.CLOSED, closed.getState());
+        assertEquals("alice", closed.getAcknowledgedBy());
+        assertTrue(alarmService.getOpenAlarms(null).isEmpty());
+    }
+
+    @Test
+    void lifecycle_AcknowledgeThenClearCloses() {
+        alarmService.onReading(reading("TEST-001", AlarmCodes.LOW_PRESSURE));
+        Long id = alarmService.getOpenAlarms("TEST-001").get(0).getId();
+
+        assertEquals(AlarmState.ACKNOWLEDGED, alarmService.acknowledge(id, "bob").getState());
+        assertNull(alarmService.getOpenAlarms("TEST-001").get(0).getLimit());
+
+        alarmService.onReading(reading("TEST-001", AlarmCodes.NONE));
+        assertEquals(0, alarmService.getOpenAlarmCount());
+    }
+
+    @Test
+    void onReading_ReturningConditionReactivatesUnacknowledgedAlarm() {
+        alarmService.onReading(reading("TEST-001", AlarmCodes.HIGH_TEMPERATURE));
+        alarmService.onReading(reading("TEST-001", AlarmCodes.NONE));
+        alarmService.onReading(reading("TEST-001", AlarmCodes.HIGH_TEMPERATURE));
+
+        List<AlarmResponse> open = alarmService.getOpenAlarms("TEST-001");
+        assertEquals(1, open.size());
+        assertEquals(AlarmState.ACTIVE, open.get(0).getState());
+        assertNull(open.get(0).getClearedAt());
+    }
+
+    @Test
+    void acknowledge_UnknownAlarmThrows() {
+        assertThrows(IllegalArgumentException.class, () -> alarmService.acknowledge(99L, "alice"));
+    }
+
+    @Test
+    void load_RestoresOpenAlarms() {
+        Alarm active = alarm(5L, AlarmCodes.HIGH_TEMPERATURE, AlarmState.ACTIVE);
+        Alarm cleared = alarm(6L, AlarmCodes.HIGH_PRESSURE, AlarmState.CLEARED);
+        when(alarmRepository.findByStateNot(AlarmState.CLOSED)).thenReturn(List.of(active, cleared));
+
+        alarmService.load();
+        assertEquals(2, alarmService.getOpenAlarmCount());
+
+        // Still in alarm after restart: no new alarm is raised
+        alarmService.onReading(reading("TEST-001", AlarmCodes.HIGH_TEMPERATURE));
+        verify(alarmRepository, never()).save(any(Alarm.class));
+    }
+
+    @Test
+    void onSensorRemoved_ClosesOpenAlarms() {
+        alarmService.onReading(reading("TEST-001", AlarmCodes.HIGH_TEMPERATURE));
+
+        alarmService.onSensorRemoved("TEST-001");
+
+        assertEquals(0, alarmService.getOpenAlarmCount());
+        verify(alarmRepository, times(2)).save(any(Alarm.class));
+    }
+
+    @Test
+    void getHistory_ReadsRepository() {
+        when(alarmRepository.findBySensorIdOrderByRaisedAtDesc(eq("TEST-001"), any()))
+                .thenReturn(Collections.singletonList(alarm(1L, AlarmCodes.HIGH_TEMPERATURE, AlarmState.CLOSED)));
+
+        List<AlarmResponse> history = alarmService.getHistory("TEST-001", 10);
+
+        assertEquals(1, history.size());
+        assertEquals(AlarmState.CLOSED, history.get(0).getState());
+    }
+
+    private static SensorReading reading(String sensorId, int mask) {
+        SensorReading reading = new SensorReading();
+        reading.setSensorId(sensorId);
+        reading.setTemperature(90.0);
+        reading.setPressure(10.0);
+        reading.setTimestamp(LocalDateTime.now());
+        reading.setAlarmMask(mask);
+        reading.setTempLimit(80.0);
+        reading.setPressureLimit(50.0);
+        return reading;
+    }
+
+    private static Alarm alarm(Long id, int code, AlarmState state) {
+        Alarm alarm = new Alarm();
+        alarm.setId(id);
+        alarm.setSensorId("TEST-001");
+        alarm.setCode(code);
+        alarm.setState(state);
+        alarm.setValue(90.0);
+        alarm.setLimit(80.0);
+        alarm.setRaisedAt(LocalDateTime.now());
+        return alarm;
+    }
+}
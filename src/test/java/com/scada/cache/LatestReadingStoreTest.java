@@ -0,0 +1,64 @@
+package com.scada.monitoring.cache;
+
+import com.scada.monitoring.entity.SensorReading;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDateTime;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class LatestReadingStoreTest {
+
+    private final LatestReadingStore store = new LatestReadingStore(new SensorDictionary());
+
+    @Test
+    void onReading_KeepsNewestPerSensor() {
+        LocalDateTime now = LocalDateTime.now();
+        store.onReading(reading("TEST-001", 20.0, now));
+        store.onReading(reading("TEST-001", 21.0, now.plusSeconds(1)));
+
+        assertEquals(21.0, store.get("TEST-001").getTemperature());
+    }
+
+    @Test
+    void onReading_IgnoresOlderReading() {
+        LocalDateTime now = LocalDateTime.now();
+        store.onReading(reading("TEST-001", 21.0, now));
+        store.onReading(reading("TEST-001", 20.0, now.minusSeconds(5)));
+
+        assertEquals(21.0, store.get("TEST-001").getTemperature());
+    }
+
+    @Test
+    void getAll_FiltersBySensorIds() {
+        LocalDateTime now = LocalDateTime.now();
+        store.onReading(reading("TEST-001", 20.0, now));
+        store.onReading(reading("TEST-002", 30.0, now));
+
+        List<SensorReading> selected = store.getAll(Arrays.asList("TEST-002", "NONEXISTENT"));
+        assertEquals(1, selected.size());
+        assertEquals("TEST-002", selected.get(0).getSensorId());
+
+        assertEquals(2, store.getAll(Collections.emptyList()).size());
+    }
+
+    @Test
+    void onSensorRemoved_DropsSensor() {
+        store.onReading(reading("TEST-001", 20.0, LocalDateTime.now()));
+        store.onSensorRemoved("TEST-001");
+
+        assertNull(store.get("TEST-001"));
+    }
+
+    private SensorReading reading(String sensorId, double temperature, LocalDateTime timestamp) {
+        SensorReading reading = new SensorReading();
+        reading.setSensorId(sensorId);
+        reading.setTemperature(temperature);
+        reading.setPressure(15.0);
+        reading.setTimestamp(timestamp);
+        return reading;
+    }
+}
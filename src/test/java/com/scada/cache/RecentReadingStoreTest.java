@@ -0,0 +1,154 @@
+package com.scada.monitoring.cache;
+
+import com.scada.monitoring.alarm.AlarmCodes;
+import com.scada.monitoring.entity.SensorReading;
+import com.scada.monitoring.trend.WindowSummary;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class RecentReadingStoreTest {
+
+    private static final LocalDateTime START = LocalDateTime.of(2024, 1, 1, 0, 0, 0);
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final RecentReadingStore store = new RecentReadingStore(new SensorDictionary(), 100, meterRegistry);
+
+    @Test
+    void findRecent_NewestFirstAndRebuiltFromColumns() {
+        for (int i = 0; i < 5; i++) {
+            store.onReading(reading("TEST-001", i, START.plusSeconds(i)));
+        }
+
+        List<SensorReading> recent = store.findRecent("TEST-001", 3).orElseThrow();
+
+        assertEquals(3, recent.size());
+        assertEquals(START.plusSeconds(4), recent.get(0).getTimestamp());
+        assertEquals(START.plusSeconds(2), recent.get(2).getTimestamp());
+        SensorReading newest = recent.get(0);
+        assertEquals("TEST-001", newest.getSensorId());
+        assertEquals(24.0, newest.getTemperature());
+        assertEquals(19.0, newest.getPressure());
+        assertTrue(newest.isMotorOn());
+        assertEquals(AlarmCodes.HIGH_PRESSURE, newest.getAlarmMask());
+        assertTrue(newest.isPressureWarning());
+        assertFalse(newest.isTempWarning());
+        assertEquals(50.0, newest.getPressureLimit());
+        assertEquals(104L, newest.getId());
+        assertFalse(recent.get(1).isMotorOn());
+    }
+
+    @Test
+    void findRecent_QueuedReadingWithoutId_ServedWithoutId() {
+        SensorReading queued = reading("TEST-001", 0, START);
+        queued.setId(null);
+        store.onReading(queued);
+
+        assertNull(store.findRecent("TEST-001", 1).orElseThrow().get(0).getId());
+    }
+
+    @Test
+    void findRecent_AlarmBitsPastAByte_Kept() {
+        SensorReading reading = reading("TEST-001", 0, START);
+        // A code past the eighth bit, which a byte per sample would drop
+        int mask = 1 << 9 | AlarmCodes.PRESSURE_RATE;
+        reading.setAlarmMask(mask);
+        store.onReading(reading);
+
+        assertEquals(mask, store.findRecent("TEST-001", 1).orElseThrow().get(0).getAlarmMask());
+    }
+
+    @Test
+    void findRecent_FewerThanLimit_Empty() {
+        store.onReading(reading("TEST-001", 0, START));
+
+        assertTrue(store.findRecent("TEST-001", 2).isEmpty());
+        assertTrue(store.findRecent("TEST-001", 101).isEmpty());
+        assertTrue(store.findRecent("UNKNOWN", 1).isEmpty());
+        assertTrue(store.summarize("TEST-001", 2).isEmpty());
+    }
+
+    @Test
+    void onReading_OutOfOrder_KeptInSampleTimeOrder() {
+        store.onReading(reading("TEST-001", 0, START));
+        store.onReading(reading("TEST-001", 2, START.plusSeconds(2)));
+        store.onReading(reading("TEST-001", 1, START.plusSeconds(1)));
+
+        List<SensorReading> recent = store.findRecent("TEST-001", 3).orElseThrow();
+
+        assertEquals(START.plusSeconds(2), recent.get(0).getTimestamp());
+        assertEquals(START.plusSeconds(1), recent.get(1).getTimestamp());
+        assertEquals(START, recent.get(2).getTimestamp());
+    }
+
+    @Test
+    void onReading_PastDepth_KeepsNewest() {
+        for (int i = 0; i < 250; i++) {
+            store.onReading(reading("TEST-001", i, START.plusSeconds(i)));
+        }
+        // Older than everything still held, so it is not among the newest hundred
+        store.onReading(reading("TEST-001", -1, START.minusSeconds(1)));
+        // Within the held range, and pushes out the oldest
+        store.onReading(reading("TEST-001", 0, START.plusSeconds(200).plusNanos(500_000_000)));
+
+        List<SensorReading> recent = store.findRecent("TEST-001", 100).orElseThrow();
+
+        assertEquals(START.plusSeconds(249), recent.get(0).getTimestamp());
+        assertEquals(START.plusSeconds(151), recent.get(99).getTimestamp());
+        assertEquals(START.plusSeconds(200).plusNanos(500_000_000), recent.get(49).getTimestamp());
+        for (int i = 1; i < recent.size(); i++) {
+            assertTrue(recent.get(i).getTimestamp().isBefore(recent.get(i - 1).getTimestamp()));
+        }
+    }
+
+    @Test
+    void summarize_NewestLimitReadings() {
+        for (int i = 0; i < 10; i++) {
+            store.onReading(reading("TEST-001", i, START.plusSeconds(i)));
+        }
+
+        WindowSummary summary = store.summarize("TEST-001", 4).orElseThrow();
+
+        // Readings 6..9; every fifth reading raises a pressure alarm
+        assertEquals(4, summary.toResponse("TEST-001").getTotalReadings());
+        assertEquals(27.5, summary.toResponse("TEST-001").getAvgTemperature(), 1e-9);
+        assertEquals(1, summary.toResponse("TEST-001").getWarningCount());
+    }
+
+    @Test
+    void memory_FixedPerSensor() {
+        store.onReading(reading("TEST-001", 0, START));
+        store.onReading(reading("TEST-002", 0, START));
+
+        // 52 bytes a sample and two words of motor bits, for each of two sensors
+        assertEquals(2 * (100 * 52 + 16), meterRegistry.get("scada.readings.recent.bytes").gauge().value());
+    }
+
+    @Test
+    void onSensorRemoved_DropsBuffer() {
+        store.onReading(reading("TEST-001", 0, START));
+        store.onSensorRemoved("TEST-001");
+
+        assertTrue(store.findRecent("TEST-001", 1).isEmpty());
+    }
+
+    private static SensorReading reading(String sensorId, int i, LocalDateTime timestamp) {
+        boolean alarm = i % 5 == 4;
+        SensorReading reading = new SensorReading();
+        reading.setId(i + 100L);
+        reading.setSensorId(sensorId);
+        reading.setTimestamp(timestamp);
+        reading.setTemperature(20.0 + i);
+        reading.setPressure(15.0 + i);
+        reading.setMotorOn(i % 2 == 0);
+        reading.setAlarmMask(alarm ? AlarmCodes.HIGH_PRESSURE : AlarmCodes.NONE);
+        reading.setPressureWarning(alarm);
+        reading.setTempLimit(80.0);
+        reading.setPressureLimit(50.0);
+        return reading;
+    }
+}
@@ -0,0 +1,63 @@
+package com.scada.monitoring.cache;
+
+import com.scada.monitoring.entity.SensorReading;
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class SensorDictionaryTest {
+
+    private final SensorDictionary dictionary = new SensorDictionary();
+
+    @Test
+    void keyOf_AssignsDenseStableKeys() {
+        assertEquals(0, dictionary.keyOf("TEST-001"));
+        assertEquals(1, dictionary.keyOf("TEST-002"));
+        assertEquals(0, dictionary.keyOf(new String("TEST-001")));
+        assertEquals("TEST-002", dictionary.sensorIdOf(1));
+        assertEquals(2, dictionary.size());
+    }
+
+    @Test
+    void find_UnknownSensor_DoesNotAssign() {
+        assertEquals(SensorDictionary.NO_KEY, dictionary.find("TEST-001"));
+        assertEquals(SensorDictionary.NO_KEY, dictionary.find(null));
+        assertNull(dictionary.sensorIdOf(0));
+        assertEquals(0, dictionary.size());
+    }
+
+    @Test
+    void keyOf_ReadingWithoutKey_StoresKeyOnReading() {
+        dictionary.keyOf("TEST-001");
+        SensorReading reading = new SensorReading();
+        reading.setSensorId("TEST-002");
+
+        assertEquals(1, dictionary.keyOf(reading));
+        assertEquals(1, reading.getSensorKey());
+    }
+
+    @Test
+    void keyOf_ManySensors_GrowsReverseTable() {
+        for (int i = 0; i < 1000; i++) {
+            assertEquals(i, dictionary.keyOf("TEST-" + i));
+        }
+        assertEquals("TEST-999", dictionary.sensorIdOf(999));
+    }
+
+    @Test
+    void sensorTable_IndexesByKeyAndGrows() {
+        SensorTable<String> table = new SensorTable<>();
+        table.computeIfAbsent(3, key -> "three");
+        table.computeIfAbsent(100, key -> "hundred");
+
+        assertEquals("three", table.computeIfAbsent(3, key -> "other"));
+        assertEquals(Arrays.asList("three", "hundred"), table.values());
+        assertEquals("three", table.remove(3));
+        assertNull(table.get(3));
+        assertNull(table.get(SensorDictionary.NO_KEY));
+        assertNull(table.remove(SensorDictionary.NO_KEY));
+        assertEquals(1, table.size());
+    }
+}
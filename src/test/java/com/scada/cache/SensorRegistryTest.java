@@ -0,0 +1,106 @@
+package com.scada.monitoring.cache;
+
+import com.scada.monitoring.entity.Sensor;
+import com.scada.monitoring.repository.SensorLookupRepository;
+import com.scada.monitoring.repository.SensorRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.util.Arrays;
+import java.util.Map;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class SensorRegistryTest {
+
+    @Mock
+    private SensorRepository sensorRepository;
+
+    @Mock
+    private SensorLookupRepository sensorLookupRepository;
+
+    private SensorRegistry registry;
+
+    @BeforeEach
+    void setUp() {
+        registry = new SensorRegistry(sensorRepository, sensorLookupRepository, new SensorDictionary(), 2);
+    }
+
+    @Test
+    void find_LoadsOnMissThenServesFromCache() {
+        when(sensorRepository.findBySensorId("TEST-001")).thenReturn(Optional.of(sensor("TEST-001", 25.0)));
+
+        assertTrue(registry.find("TEST-001").isPresent());
+        assertEquals(25.0, registry.find("TEST-001").get().getTempThreshold());
+
+        verify(sensorRepository, times(1)).findBySensorId("TEST-001");
+        assertEquals(1, registry.getStats().getHits());
+        assertEquals(1, registry.getStats().getMisses());
+    }
+
+    @Test
+    void find_UnknownSensor_ReturnsEmpty() {
+        when(sensorRepository.findBySensorId("NONEXISTENT")).thenReturn(Optional.empty());
+
+        assertFalse(registry.find("NONEXISTENT").isPresent());
+        assertEquals(0, registry.getStats().getSize());
+    }
+
+    @Test
+    void findAll_LoadsMissesInOneQuery() {
+        registry.put(sensor("TEST-001", 25.0));
+        when(sensorLookupRepository.findBySensorIdIn(anyCollection()))
+                .thenReturn(Arrays.asList(sensor("TEST-002", 30.0)));
+
+        Map<String, SensorSnapshot> sensors = registry.findAll(Arrays.asList("TEST-001", "TEST-002", "NONEXISTENT"));
+
+        assertEquals(2, sensors.size());
+        assertEquals(30.0, sensors.get("TEST-002").getTempThreshold());
+        verify(sensorLookupRepository, times(1)).findBySensorIdIn(Arrays.asList("TEST-002", "NONEXISTENT"));
+    }
+
+    @Test
+    void put_ReplacesCachedThresholds() {
+        registry.put(sensor("TEST-001", 25.0));
+        registry.put(sensor("TEST-001", 40.0));
+
+        assertEquals(40.0, registry.find("TEST-001").get().getTempThreshold());
+        verifyNoInteractions(sensorRepository);
+    }
+
+    @Test
+    void evict_ForcesReload() {
+        registry.put(sensor("TEST-001", 25.0));
+        registry.evict("TEST-001");
+        when(sensorRepository.findBySensorId("TEST-001")).thenReturn(Optional.empty());
+
+        assertFalse(registry.find("TEST-001").isPresent());
+    }
+
+    @Test
+    void put_BeyondMaxSize_Evicts() {
+        registry.put(sensor("TEST-001", 25.0));
+        registry.put(sensor("TEST-002", 25.0));
+        registry.put(sensor("TEST-003", 25.0));
+
+        assertEquals(2, registry.getStats().getSize());
+        assertEquals(1, registry.getStats().getEvictions());
+    }
+
+    private Sensor sensor(String sensorId, double tempThreshold) {
+        Sensor sensor = new Sensor();
+        sensor.setId(1L);
+        sensor.setSensorId(sensorId);
+        sensor.setName("Test Sensor");
+        sensor.setTempThreshold(tempThreshold);
+        sensor.setPressureThreshold(25.0);
+        return sensor;
+    }
+}
@@ -0,0 +1,87 @@
+package com.scada.monitoring.controller;
+
+import com.scada.monitoring.alarm.AlarmCodes;
+import com.scada.monitoring.alarm.AlarmService;
+import com.scada.monitoring.dto.AlarmResponse;
+import com.scada.monitoring.entity.AlarmState;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.time.LocalDateTime;
+import java.util.Collections;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+@WebMvcTest(AlarmController.class)
+class AlarmControllerTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @MockBean
+    private AlarmService alarmService;
+
+    private AlarmResponse alarmResponse;
+
+    @BeforeEach
+    void setUp() {
+        alarmResponse = new AlarmResponse(1L, "TEST-001", AlarmCodes.HIGH_TEMPERATURE, "HIGH_TEMPERATURE",
+                AlarmState.ACTIVE, 90.0, 80.0, "High temperature: 90.0 (limit 80.0)",
+                LocalDateTime.now(), null, null, null);
+    }
+
+    @Test
+    void getActiveAlarms() throws Exception {
+        when(alarmService.getOpenAlarms("TEST-001")).thenReturn(Collections.singletonList(alarmResponse));
+
+        mockMvc.perform(get("/api/alarms/active").param("sensorId", "TEST-001"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[0].type").value("HIGH_TEMPERATURE"))
+                .andExpect(jsonPath("$[0].state").value("ACTIVE"));
+    }
+
+    @Test
+    void acknowledge() throws Exception {
+        alarmResponse.setState(AlarmState.ACKNOWLEDGED);
+        alarmResponse.setAcknowledgedBy("alice");
+        when(alarmService.acknowledge(1L, "alice")).thenReturn(alarmResponse);
+
+        mockMvc.perform(post("/api/alarms/1/acknowledge").param("user", "alice"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.state").value("ACKNOWLEDGED"))
+                .andExpect(jsonPath("$.acknowledgedBy").value("alice"));
+    }
+
+    @Test
+    void acknowledge_UnknownAlarm_ReturnsNotFound() throws Exception {
+        when(alarmService.acknowledge(eq(99L), any())).thenThrow(new IllegalArgumentException("Open alarm not found: 99"));
+
+        mockMvc.perform(post("/api/alarms/99/acknowledge"))
+                .andExpect(status().isNotFound());
+    }
+
+    @Test
+    void getHistory() throws Exception {
+        when(alarmService.getHistory(null, 100)).thenReturn(Collections.singletonList(alarmResponse));
+
+        mockMvc.perform(get("/api/alarms/history"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[0].id").value(1));
+        verify(alarmService).getHistory(null, 100);
+    }
+
+    @Test
+    void getHistory_LimitOutOfRange_ReturnsBadRequest() throws Exception {
+        mockMvc.perform(get("/api/alarms/history").param("limit", "0"))
+                .andExpect(status().isBadRequest());
+    }
+}
@@ -0,0 +1,93 @@
+package com.scada.monitoring.controller;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.scada.monitoring.alarm.AlarmRuleService;
+import com.scada.monitoring.dto.AlarmRuleResponse;
+import com.scada.monitoring.dto.CreateAlarmRuleRequest;
+import com.scada.monitoring.entity.MotorCondition;
+import com.scada.monitoring.entity.RuleType;
+import com.scada.monitoring.entity.RuleVariable;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.time.LocalDateTime;
+import java.util.Collections;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+@WebMvcTest(AlarmRuleController.class)
+class AlarmRuleControllerTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @MockBean
+    private AlarmRuleService alarmRuleService;
+
+    private AlarmRuleResponse ruleResponse;
+
+    @BeforeEach
+    void setUp() {
+        ruleResponse = new AlarmRuleResponse(1L, "TEST-001", RuleVariable.TEMPERATURE, RuleType.HIGH,
+                80.0, 2.0, 1000L, 0L, MotorCondition.ON, true, LocalDateTime.now(), null, null, null, null, 0.0);
+    }
+
+    @Test
+    void createRule() throws Exception {
+        CreateAlarmRuleRequest request = new CreateAlarmRuleRequest();
+        request.setSensorId("TEST-001");
+        request.setVariable(RuleVariable.TEMPERATURE);
+        request.setType(RuleType.HIGH);
+        request.setLimit(80.0);
+        when(alarmRuleService.createRule(any(CreateAlarmRuleRequest.class))).thenReturn(ruleResponse);
+
+        mockMvc.perform(post("/api/alarm-rules")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(request)))
+                .andExpect(status().isCreated())
+                .andExpect(jsonPath("$.type").value("HIGH"))
+                .andExpect(jsonPath("$.motorCondition").value("ON"));
+    }
+
+    @Test
+    void createRule_MissingLimit_ReturnsBadRequest() throws Exception {
+        CreateAlarmRuleRequest request = new CreateAlarmRuleRequest();
+        request.setSensorId("TEST-001");
+        request.setVariable(RuleVariable.TEMPERATURE);
+        request.setType(RuleType.HIGH);
+
+        mockMvc.perform(post("/api/alarm-rules")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(request)))
+                .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    void getRules() throws Exception {
+        when(alarmRuleService.getRules("TEST-001")).thenReturn(Collections.singletonList(ruleResponse));
+
+        mockMvc.perform(get("/api/alarm-rules").param("sensorId", "TEST-001"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[0].limit").value(80.0));
+    }
+
+    @Test
+    void deleteRule() throws Exception {
+        mockMvc.perform(delete("/api/alarm-rules/1"))
+                .andExpect(status().isNoContent());
+
+        verify(alarmRuleService).deleteRule(1L);
+    }
+}
@@ -0,0 +1,62 @@
+package com.scada.monitoring.controller;
+
+import com.scada.monitoring.dto.PushStatsResponse;
+import com.scada.monitoring.push.ReadingPushService;
+import com.scada.monitoring.push.SubscriberLimitException;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.util.Collections;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.when;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+@WebMvcTest(ReadingPushController.class)
+class ReadingPushControllerTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @MockBean
+    private ReadingPushService pushService;
+
+    @Test
+    void subscribe_StartsEventStream() throws Exception {
+        when(pushService.subscribe(eq(Collections.singletonList("TEST-001")), any())).thenReturn(new SseEmitter());
+
+        mockMvc.perform(get("/api/push/readings").param("sensorIds", "TEST-001"))
+                .andExpect(request().asyncStarted());
+    }
+
+    @Test
+    void subscribe_NoFilter_ReturnsBadRequest() throws Exception {
+        mockMvc.perform(get("/api/push/readings"))
+                .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    void subscribe_LimitReached_ReturnsServiceUnavailable() throws Exception {
+        when(pushService.subscribe(any(), any())).thenThrow(new SubscriberLimitException(10));
+
+        mockMvc.perform(get("/api/push/readings").param("patterns", "PUMP-*"))
+                .andExpect(status().isServiceUnavailable())
+                .andExpect(header().string("Retry-After", "5"));
+    }
+
+    @Test
+    void getStats() throws Exception {
+        when(pushService.getStats()).thenReturn(new PushStatsResponse(3, 5000, 120, 40, 0, 0));
+
+        mockMvc.perform(get("/api/push/stats"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.subscribers").value(3))
+                .andExpect(jsonPath("$.conflated").value(40));
+    }
+}
@@ -3,6 +3,7 @@ package com.scada.monitoring.controller;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.scada.monitoring.dto.CreateSensorRequest;
 import com.scada.monitoring.dto.MotorControlRequest;
+import com.scada.monitoring.dto.SensorRegistryStatsResponse;
 import com.scada.monitoring.dto.SensorResponse;
 import com.scada.monitoring.dto.UpdateSensorThresholdsRequest;
 import com.scada.monitoring.service.SensorService;
@@ -89,6 +90,17 @@ class SensorControllerTest {
                 .andExpect(jsonPath("$.sensorId").value("TEST-001"));
     }
 
+    @Test
+    void getRegistryStats() throws Exception {
+        when(sensorService.getRegistryStats())
+                .thenReturn(new SensorRegistryStatsResponse(9, 1, 0, 1, 10000, 0.9));
+
+        mockMvc.perform(get("/api/sensors/registry/stats"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.hits").value(9))
+                .andExpect(jsonPath("$.hitRatio").value(0.9));
+    }
+
     @Test
     void controlMotor() throws Exception {
         MotorControlRequest motorRequest = new MotorControlRequest();
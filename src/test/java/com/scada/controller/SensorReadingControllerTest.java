@@ -2,8 +2,18 @@ package com.scada.monitoring.controller;
 
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.scada.monitoring.dto.CreateReadingRequest;
+import com.scada.monitoring.dto.FrameIngestResponse;
+import com.scada.monitoring.dto.ReadingPageResponse;
 import com.scada.monitoring.dto.SensorReadingResponse;
+import com.scada.monitoring.dto.StreamIngestResponse;
 import com.scada.monitoring.dto.TrendAnalysisResponse;
+import com.scada.monitoring.dto.RollupPointResponse;
+import com.scada.monitoring.dto.RollupRangeResponse;
+import com.scada.monitoring.ingest.IngestQueueFullException;
+import com.scada.monitoring.ingest.MalformedFrameException;
+import com.scada.monitoring.ingest.ReadingFrames;
+import com.scada.monitoring.rollup.RollupService;
+import com.scada.monitoring.service.ReadingStreamService;
 import com.scada.monitoring.service.SensorReadingService;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
@@ -12,14 +22,20 @@ import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
 import org.springframework.boot.test.mock.mockito.MockBean;
 import org.springframework.http.MediaType;
 import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.transaction.CannotCreateTransactionException;
 
 import java.time.LocalDateTime;
 import java.util.Arrays;
 import java.util.List;
+import java.util.function.Consumer;
 
+import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.anyInt;
 import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doAnswer;
 import static org.mockito.Mockito.when;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
@@ -36,6 +52,12 @@ class SensorReadingControllerTest {
     @MockBean
     private SensorReadingService readingService;
 
+    @MockBean
+    private ReadingStreamService readingStreamService;
+
+    @MockBean
+    private RollupService rollupService;
+
     private SensorReadingResponse readingResponse;
     private CreateReadingRequest createRequest;
 
@@ -70,6 +92,90 @@ class SensorReadingControllerTest {
                 .andExpect(jsonPath("$.temperature").value(22.5));
     }
 
+    @Test
+    void enqueueReading_Accepted() throws Exception {
+        when(readingService.enqueueReading(any(CreateReadingRequest.class), eq(false))).thenReturn(readingResponse);
+
+        mockMvc.perform(post("/api/readings/async")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(createRequest)))
+                .andExpect(status().isAccepted())
+                .andExpect(jsonPath("$.sensorId").value("TEST-001"));
+    }
+
+    @Test
+    void enqueueReading_Durable_Created() throws Exception {
+        when(readingService.enqueueReading(any(CreateReadingRequest.class), eq(true))).thenReturn(readingResponse);
+
+        mockMvc.perform(post("/api/readings/async")
+                        .param("durable", "true")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(createRequest)))
+                .andExpect(status().isCreated());
+    }
+
+    @Test
+    void enqueueFrames_Accepted() throws Exception {
+        byte[] body = new ReadingFrames.Writer(Arrays.asList("TEST-001"))
+                .add(0, 0, 22.5, 15.0, false)
+                .toByteArray();
+        when(readingService.enqueueFrames(any())).thenReturn(new FrameIngestResponse(1, 0));
+
+        mockMvc.perform(post("/api/readings/frames")
+                        .contentType(ReadingFrames.MEDIA_TYPE)
+                        .content(body))
+                .andExpect(status().isAccepted())
+                .andExpect(jsonPath("$.accepted").value(1));
+    }
+
+    @Test
+    void enqueueFrames_Malformed_BadRequest() throws Exception {
+        when(readingService.enqueueFrames(any())).thenThrow(new MalformedFrameException("Not a reading frame batch"));
+
+        mockMvc.perform(post("/api/readings/frames")
+                        .contentType(ReadingFrames.MEDIA_TYPE)
+                        .content(new byte[] {1, 2, 3}))
+                .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    void ingestStream_Accepted() throws Exception {
+        when(readingStreamService.ingest(any())).thenReturn(
+                new StreamIngestResponse(2, 1, 0, Arrays.asList("line 2: Sensor not found: TEST-999")));
+
+        mockMvc.perform(post("/api/readings/stream")
+                        .contentType(MediaType.APPLICATION_NDJSON)
+                        .content("{\"sensorId\":\"TEST-001\"}\n"))
+                .andExpect(status().isAccepted())
+                .andExpect(jsonPath("$.accepted").value(2))
+                .andExpect(jsonPath("$.rejected").value(1))
+                .andExpect(jsonPath("$.errors[0]").value("line 2: Sensor not found: TEST-999"));
+    }
+
+    @Test
+    void enqueueReading_QueueFull_ServiceUnavailable() throws Exception {
+        when(readingService.enqueueReading(any(CreateReadingRequest.class), eq(false)))
+                .thenThrow(new IngestQueueFullException(10));
+
+        mockMvc.perform(post("/api/readings/async")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(createRequest)))
+                .andExpect(status().isServiceUnavailable())
+                .andExpect(header().string("Retry-After", "1"));
+    }
+
+    @Test
+    void createReading_NoDatabaseConnection_ServiceUnavailable() throws Exception {
+        when(readingService.createReading(any(CreateReadingRequest.class)))
+                .thenThrow(new CannotCreateTransactionException("Connection is not available"));
+
+        mockMvc.perform(post("/api/readings")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(createRequest)))
+                .andExpect(status().isServiceUnavailable())
+                .andExpect(header().string("Retry-After", "1"));
+    }
+
     @Test
     void createBulkReadings() throws Exception {
         List<CreateReadingRequest> requests = Arrays.asList(createRequest, createRequest);
@@ -84,6 +190,17 @@ class SensorReadingControllerTest {
                 .andExpect(jsonPath("$[0].sensorId").value("TEST-001"));
     }
 
+    @Test
+    void getLatestReadings() throws Exception {
+        when(readingService.getLatestReadings(Arrays.asList("TEST-001", "TEST-002")))
+                .thenReturn(Arrays.asList(readingResponse));
+
+        mockMvc.perform(get("/api/readings/latest")
+                        .param("sensorIds", "TEST-001,TEST-002"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[0].sensorId").value("TEST-001"));
+    }
+
     @Test
     void getRecentReadings() throws Exception {
         List<SensorReadingResponse> readings = Arrays.asList(readingResponse);
@@ -107,6 +224,92 @@ class SensorReadingControllerTest {
                 .andExpect(jsonPath("$[0].sensorId").value("TEST-001"));
     }
 
+    @Test
+    void getReadingsByTimeRange_Downsampled() throws Exception {
+        when(readingService.getDownsampledReadings(eq("TEST-001"), any(LocalDateTime.class), any(LocalDateTime.class), eq(200)))
+                .thenReturn(Arrays.asList(readingResponse));
+
+        mockMvc.perform(get("/api/readings/range")
+                        .param("sensorId", "TEST-001")
+                        .param("start", "2024-01-01T00:00:00")
+                        .param("end", "2024-01-31T00:00:00")
+                        .param("maxPoints", "200"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[0].sensorId").value("TEST-001"));
+    }
+
+    @Test
+    void streamReadings_Ndjson() throws Exception {
+        doAnswer(invocation -> {
+            Consumer<SensorReadingResponse> sink = invocation.getArgument(1);
+            sink.accept(readingResponse);
+            sink.accept(readingResponse);
+            return null;
+        }).when(readingService).streamReadings(eq("TEST-001"), any());
+
+        MvcResult result = mockMvc.perform(get("/api/readings/stream")
+                        .param("sensorId", "TEST-001")
+                        .accept(MediaType.APPLICATION_NDJSON))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        String body = mockMvc.perform(asyncDispatch(result))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getContentAsString();
+        String[] lines = body.trim().split("\n");
+        assertEquals(2, lines.length);
+        assertEquals("TEST-001", objectMapper.readValue(lines[1], SensorReadingResponse.class).getSensorId());
+    }
+
+    @Test
+    void streamReadings_JsonArray() throws Exception {
+        doAnswer(invocation -> {
+            Consumer<SensorReadingResponse> sink = invocation.getArgument(1);
+            sink.accept(readingResponse);
+            return null;
+        }).when(readingService).streamReadings(any(), any());
+
+        MvcResult result = mockMvc.perform(get("/api/readings/stream")
+                        .accept(MediaType.APPLICATION_JSON))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        mockMvc.perform(asyncDispatch(result))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.length()").value(1))
+                .andExpect(jsonPath("$[0].sensorId").value("TEST-001"));
+    }
+
+    @Test
+    void getReadingsPage() throws Exception {
+        when(readingService.getReadingsPage("TEST-001", 40L, 2))
+                .thenReturn(new ReadingPageResponse(Arrays.asList(readingResponse, readingResponse), 42L));
+
+        mockMvc.perform(get("/api/readings/page")
+                        .param("sensorId", "TEST-001")
+                        .param("after", "40")
+                        .param("size", "2"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.readings.length()").value(2))
+                .andExpect(jsonPath("$.nextAfterId").value(42));
+    }
+
+    @Test
+    void getRollups() throws Exception {
+        RollupPointResponse point = new RollupPointResponse(LocalDateTime.now(), 60, 20.0, 25.0, 22.5, 14.0, 16.0, 15.0, 0);
+        when(rollupService.getRollups(eq("TEST-001"), any(LocalDateTime.class), any(LocalDateTime.class), eq(100)))
+                .thenReturn(new RollupRangeResponse("TEST-001", "1m", Arrays.asList(point)));
+
+        mockMvc.perform(get("/api/readings/rollups")
+                        .param("sensorId", "TEST-001")
+                        .param("start", "2024-01-01T00:00:00")
+                        .param("end", "2024-01-02T00:00:00")
+                        .param("points", "100"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.resolution").value("1m"))
+                .andExpect(jsonPath("$.points[0].sampleCount").value(60));
+    }
+
     @Test
     void getWarnings() throws Exception {
         readingResponse.setTempWarning(true);
@@ -137,4 +340,20 @@ class SensorReadingControllerTest {
                 .andExpect(jsonPath("$.sensorId").value("TEST-001"))
                 .andExpect(jsonPath("$.totalReadings").value(10));
     }
+
+    @Test
+    void getTrendAnalysis_TimeWindow() throws Exception {
+        TrendAnalysisResponse trend = new TrendAnalysisResponse();
+        trend.setSensorId("TEST-001");
+        trend.setTotalReadings(60);
+        trend.setStdDevTemperature(0.5);
+
+        when(readingService.getWindowedTrendAnalysis("TEST-001", "1m")).thenReturn(trend);
+
+        mockMvc.perform(get("/api/readings/trends/TEST-001")
+                        .param("window", "1m"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.totalReadings").value(60))
+                .andExpect(jsonPath("$.stdDevTemperature").value(0.5));
+    }
 }
\ No newline at end of file
@@ -0,0 +1,65 @@
+package com.scada.monitoring.downsample;
+
+import com.scada.monitoring.entity.SensorReading;
+import com.scada.monitoring.util.EpochTime;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class MinMaxDownsamplerTest {
+
+    private static final LocalDateTime START = LocalDateTime.of(2024, 1, 1, 0, 0, 0);
+
+    @Test
+    void finish_KeepsExtremesOfEachBucket() {
+        LocalDateTime end = START.plusSeconds(100);
+        MinMaxDownsampler downsampler = new MinMaxDownsampler(
+                EpochTime.toEpochMillis(START), EpochTime.toEpochMillis(end), 8);
+
+        // Two buckets of ~50s; a temperature spike in the first, a pressure dip in the second
+        for (int i = 0; i < 100; i++) {
+            double temperature = i == 10 ? 95.0 : 20.0 + (i % 3);
+            double pressure = i == 70 ? 1.0 : 15.0;
+            downsampler.accept(reading(START.plusSeconds(i), temperature, pressure));
+        }
+
+        List<SensorReading> sampled = downsampler.finish();
+
+        assertTrue(sampled.size() <= 8);
+        assertTrue(sampled.stream().anyMatch(r -> r.getTemperature() == 95.0));
+        assertTrue(sampled.stream().anyMatch(r -> r.getPressure() == 1.0));
+        for (int i = 1; i < sampled.size(); i++) {
+            assertFalse(sampled.get(i).getTimestamp().isBefore(sampled.get(i - 1).getTimestamp()));
+        }
+    }
+
+    @Test
+    void finish_FewerReadingsThanPoints_ReturnsAll() {
+        MinMaxDownsampler downsampler = new MinMaxDownsampler(
+                EpochTime.toEpochMillis(START), EpochTime.toEpochMillis(START.plusHours(1)), 400);
+
+        downsampler.accept(reading(START.plusMinutes(1), 20.0, 15.0));
+        downsampler.accept(reading(START.plusMinutes(30), 21.0, 15.5));
+
+        assertEquals(2, downsampler.finish().size());
+    }
+
+    @Test
+    void finish_NoReadings_ReturnsEmpty() {
+        MinMaxDownsampler downsampler = new MinMaxDownsampler(0, 1000, 100);
+
+        assertTrue(downsampler.finish().isEmpty());
+    }
+
+    private SensorReading reading(LocalDateTime timestamp, double temperature, double pressure) {
+        SensorReading reading = new SensorReading();
+        reading.setSensorId("TEST-001");
+        reading.setTimestamp(timestamp);
+        reading.setTemperature(temperature);
+        reading.setPressure(pressure);
+        return reading;
+    }
+}
@@ -0,0 +1,87 @@
+package com.scada.monitoring.ingest;
+
+import com.scada.monitoring.entity.SensorReading;
+import com.scada.monitoring.util.EpochTime;
+import org.junit.jupiter.api.Test;
+
+import java.nio.ByteBuffer;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ReadingFramesTest {
+
+    @Test
+    void parse_DecodesFramesInOrder() {
+        LocalDateTime timestamp = LocalDateTime.of(2024, 3, 1, 12, 0, 0, 123456789);
+        long epochNanos = timestamp.toEpochSecond(ZoneOffset.UTC) * 1_000_000_000L + timestamp.getNano();
+        byte[] body = new ReadingFrames.Writer(Arrays.asList("TEST-001", "TEST-002"))
+                .add(1, epochNanos, 22.5, 15.0, true)
+                .add(0, epochNanos + 1_000, 23.5, 16.0, false)
+                .toByteArray();
+
+        ReadingFrames frames = ReadingFrames.parse(ByteBuffer.wrap(body));
+        List<SensorReading> readings = new ArrayList<>();
+        List<Integer> indexes = new ArrayList<>();
+        frames.forEach((reading, sensorIndex) -> {
+            readings.add(reading);
+            indexes.add(sensorIndex);
+        });
+
+        assertEquals(2, frames.getFrameCount());
+        assertEquals(Arrays.asList(1, 0), indexes);
+        SensorReading first = readings.get(0);
+        assertEquals("TEST-002", first.getSensorId());
+        assertEquals(timestamp, first.getTimestamp());
+        assertEquals(22.5, first.getTemperature());
+        assertEquals(15.0, first.getPressure());
+        assertTrue(first.isMotorOn());
+        assertEquals("TEST-001", readings.get(1).getSensorId());
+        assertEquals(timestamp.plusNanos(1_000), readings.get(1).getTimestamp());
+        assertFalse(readings.get(1).isMotorOn());
+    }
+
+    @Test
+    void forEach_ZeroTimestamp_StampsOnArrival() {
+        byte[] body = new ReadingFrames.Writer(Collections.singletonList("TEST-001"))
+                .add(0, 0, 22.5, 15.0, false)
+                .toByteArray();
+        LocalDateTime before = EpochTime.now();
+
+        List<SensorReading> readings = new ArrayList<>();
+        ReadingFrames.parse(ByteBuffer.wrap(body)).forEach((reading, sensorIndex) -> readings.add(reading));
+
+        assertFalse(readings.get(0).getTimestamp().isBefore(before));
+    }
+
+    @Test
+    void parse_WrongMagic_ThrowsException() {
+        assertThrows(MalformedFrameException.class,
+                () -> ReadingFrames.parse(ByteBuffer.wrap("[{\"sensorId\":\"TEST-001\"}]".getBytes())));
+    }
+
+    @Test
+    void parse_PartialFrame_ThrowsException() {
+        byte[] body = new ReadingFrames.Writer(Collections.singletonList("TEST-001"))
+                .add(0, 0, 22.5, 15.0, false)
+                .toByteArray();
+
+        assertThrows(MalformedFrameException.class,
+                () -> ReadingFrames.parse(ByteBuffer.wrap(body, 0, body.length - 1)));
+    }
+
+    @Test
+    void forEach_UnknownSensorIndex_ThrowsException() {
+        byte[] body = new ReadingFrames.Writer(Collections.singletonList("TEST-001"))
+                .add(1, 0, 22.5, 15.0, false)
+                .toByteArray();
+        ReadingFrames frames = ReadingFrames.parse(ByteBuffer.wrap(body));
+
+        assertThrows(MalformedFrameException.class, () -> frames.forEach((reading, sensorIndex) -> { }));
+    }
+}
@@ -0,0 +1,147 @@
+package com.scada.monitoring.ingest;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ReadingIngestLanesTest {
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private ReadingIngestLanes lanes;
+
+    @AfterEach
+    void tearDown() throws InterruptedException {
+        lanes.stop();
+    }
+
+    @Test
+    void submit_RunsEachKeysTasksInOrder() throws InterruptedException {
+        lanes = new ReadingIngestLanes(2, 1000, meterRegistry);
+        lanes.start();
+        List<List<Integer>> seen = List.of(
+                Collections.synchronizedList(new ArrayList<>()),
+                Collections.synchronizedList(new ArrayList<>()),
+                Collections.synchronizedList(new ArrayList<>()));
+
+        for (int i = 0; i < 300; i++) {
+            int key = i % 3;
+            int value = i;
+            lanes.execute(key, () -> seen.get(key).add(value));
+        }
+        lanes.stop();
+
+        for (List<Integer> values : seen) {
+            assertEquals(100, values.size());
+            for (int i = 1; i < values.size(); i++) {
+                assertTrue(values.get(i) > values.get(i - 1));
+            }
+        }
+        assertEquals(0, lanes.laneOf(2));
+        assertEquals(1, lanes.laneOf(3));
+    }
+
+    @Test
+    void call_ReturnsResultAndRethrows() {
+        lanes = new ReadingIngestLanes(2, 10, meterRegistry);
+        lanes.start();
+
+        assertEquals("reading-ingest-lane-1", lanes.call(1, () -> Thread.currentThread().getName()));
+        IllegalArgumentException thrown = assertThrows(IllegalArgumentException.class,
+                () -> lanes.call(0, () -> {
+                    throw new IllegalArgumentException("bad reading");
+                }));
+        assertEquals("bad reading", thrown.getMessage());
+    }
+
+    @Test
+    void submit_LaneFull_ThrowsException() throws InterruptedException {
+        lanes = new ReadingIngestLanes(1, 1, meterRegistry);
+        lanes.start();
+        CountDownLatch running = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        CompletableFuture<Void> blocker = lanes.execute(0, () -> {
+            running.countDown();
+            awaitQuietly(release);
+        });
+        assertTrue(running.await(5, TimeUnit.SECONDS));
+        lanes.execute(0, () -> { });
+
+        assertThrows(IngestQueueFullException.class, () -> lanes.execute(0, () -> { }));
+        assertEquals(1.0, meterRegistry.get("scada.ingest.lane.rejected").tag("lane", "0").counter().count());
+        assertEquals(1.0, meterRegistry.get("scada.ingest.lane.queue.depth").tag("lane", "0").gauge().value());
+
+        release.countDown();
+        blocker.join();
+    }
+
+    @Test
+    void submitAll_OneLaneFull_QueuesNothing() throws InterruptedException {
+        lanes = new ReadingIngestLanes(2, 1, meterRegistry);
+        lanes.start();
+        CountDownLatch running = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        CompletableFuture<Void> blocker = lanes.execute(1, () -> {
+            running.countDown();
+            awaitQuietly(release);
+        });
+        assertTrue(running.await(5, TimeUnit.SECONDS));
+        lanes.execute(1, () -> { });
+        List<String> ran = Collections.synchronizedList(new ArrayList<>());
+
+        assertThrows(IngestQueueFullException.class, () -> lanes.submitAll(new int[] {0, 1},
+                List.of(() -> ran.add("lane 0"), () -> ran.add("lane 1"))));
+        assertEquals(0.0, meterRegistry.get("scada.ingest.lane.queue.depth").tag("lane", "0").gauge().value());
+
+        release.countDown();
+        blocker.join();
+        List<CompletableFuture<Boolean>> queued = lanes.submitAll(new int[] {0, 1},
+                List.of(() -> ran.add("lane 0"), () -> ran.add("lane 1")));
+        queued.forEach(CompletableFuture::join);
+        assertEquals(2, ran.size());
+    }
+
+    @Test
+    void stop_FinishesQueuedTasksAndRecordsBusyTime() throws InterruptedException {
+        lanes = new ReadingIngestLanes(1, 100, meterRegistry);
+        lanes.start();
+        for (int i = 0; i < 5; i++) {
+            lanes.execute(0, () -> sleepQuietly(2));
+        }
+
+        lanes.stop();
+
+        assertEquals(5.0, meterRegistry.get("scada.ingest.lane.tasks").tag("lane", "0").functionCounter().count());
+        assertTrue(meterRegistry.get("scada.ingest.lane.busy").tag("lane", "0").functionCounter().count() >= 0.01);
+    }
+
+    @Test
+    void constructor_NoLanes_Throws() {
+        lanes = new ReadingIngestLanes(1, 1, meterRegistry);
+        assertThrows(IllegalArgumentException.class, () -> new ReadingIngestLanes(0, 1, new SimpleMeterRegistry()));
+    }
+
+    private static void awaitQuietly(CountDownLatch latch) {
+        try {
+            latch.await(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private static void sleepQuietly(long millis) {
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -0,0 +1,292 @@
+package com.scada.monitoring.ingest;
+
+import com.scada.monitoring.entity.SensorReading;
+import com.scada.monitoring.storage.ReadingStore;
+import com.scada.monitoring.wal.WriteAheadLog;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.junit.jupiter.api.io.TempDir;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.util.Arrays;
+import java.util.List;
+import java.util.function.BooleanSupplier;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class ReadingIngestPipelineTest {
+
+    @Mock
+    private ReadingStore readingStore;
+
+    @Mock
+    private WriteAheadLog wal;
+
+    @Mock
+    private ReadingIngestNotifier ingestNotifier;
+
+    private SimpleMeterRegistry meterRegistry;
+    private ReadingIngestPipeline pipeline;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        pipeline = new ReadingIngestPipeline(readingStore, wal, ingestNotifier, 2, 10, 5, 2000, 10, 60000, meterRegistry);
+    }
+
+    @AfterEach
+    void tearDown() throws InterruptedException {
+        pipeline.stop();
+    }
+
+    @Test
+    void submitDurable_WaitsForBatchWrite() {
+        pipeline.start();
+
+        pipeline.submitDurable(reading("TEST-001"));
+
+        @SuppressWarnings("unchecked")
+        ArgumentCaptor<List<SensorReading>> captor = ArgumentCaptor.forClass(List.class);
+        verify(readingStore, atLeastOnce()).appendBatch(captor.capture());
+        assertEquals("TEST-001", captor.getValue().get(0).getSensorId());
+        assertEquals(1, meterRegistry.get("scada.ingest.batch.size").summary().count());
+    }
+
+    @Test
+    void submitDurable_WriteKeepsFailing_ThrowsException() {
+        doThrow(new IllegalStateException("db down")).when(readingStore).appendBatch(anyList());
+        pipeline.start();
+
+        assertThrows(IllegalStateException.class, () -> pipeline.submitDurable(reading("TEST-001")));
+        assertTrue(meterRegistry.get("scada.ingest.failed").counter().count() > 1);
+    }
+
+    @Test
+    void submitDurable_WriteFailsOnce_RetriedAndAcknowledged() {
+        doThrow(new IllegalStateException("db down")).doNothing().when(readingStore).appendBatch(anyList());
+        pipeline.start();
+
+        pipeline.submitDurable(reading("TEST-001"));
+
+        verify(readingStore, times(2)).appendBatch(anyList());
+        assertEquals(0.0, meterRegistry.get("scada.ingest.retrying").gauge().value());
+    }
+
+    @Test
+    void submit_FailedBatchAwaitingRetry_TakesQueueSpace() throws Exception {
+        doThrow(new IllegalStateException("db down")).when(readingStore).appendBatch(anyList());
+        pipeline.start();
+        pipeline.submitAll(Arrays.asList(reading("TEST-001"), reading("TEST-002")));
+
+        awaitTrue(() -> meterRegistry.get("scada.ingest.retrying").gauge().value() == 2.0);
+        assertThrows(IngestQueueFullException.class, () -> pipeline.submit(reading("TEST-003")));
+    }
+
+    @Test
+    void checkpoint_WaitsForFailedBatchToBeRetried(@TempDir Path walDir) throws Exception {
+        WriteAheadLog realWal = openWal(walDir);
+        doThrow(new IllegalStateException("db down")).doNothing().when(readingStore).appendBatch(anyList());
+        ReadingIngestPipeline retrying = pipeline(realWal, 60000);
+        retrying.start();
+
+        retrying.submitAll(Arrays.asList(reading("TEST-001"), reading("TEST-002")));
+
+        awaitTrue(() -> realWal.getAppliedLsn() == 2);
+        verify(readingStore, times(2)).appendBatch(anyList());
+        retrying.stop();
+        realWal.close();
+    }
+
+    @Test
+    void checkpoint_StopsAtStoreDurableSequence(@TempDir Path walDir) throws Exception {
+        WriteAheadLog realWal = openWal(walDir);
+        when(readingStore.appendSequence()).thenReturn(1L, 2L);
+        when(readingStore.durableSequence()).thenReturn(1L);
+        ReadingIngestPipeline buffered = pipeline(realWal, 60000);
+        buffered.start();
+
+        buffered.submitDurable(reading("TEST-001"));
+        buffered.submitDurable(reading("TEST-002"));
+
+        // The store has only made the first reading durable, so the second stays in the log
+        awaitTrue(() -> realWal.getAppliedLsn() == 1);
+        Thread.sleep(50);
+        assertEquals(1, realWal.getAppliedLsn());
+        buffered.stop();
+        realWal.close();
+    }
+
+    @Test
+    void checkpoint_BufferedPastMaxLag_FlushesStore(@TempDir Path walDir) throws Exception {
+        WriteAheadLog realWal = openWal(walDir);
+        when(readingStore.appendSequence()).thenReturn(1L);
+        when(readingStore.durableSequence()).thenReturn(0L);
+        ReadingIngestPipeline buffered = pipeline(realWal, 0);
+        buffered.start();
+
+        buffered.submitDurable(reading("TEST-001"));
+
+        verify(readingStore, timeout(2000).atLeastOnce()).flush(1L);
+        assertEquals(0, realWal.getAppliedLsn());
+        buffered.stop();
+        realWal.close();
+    }
+
+    @Test
+    void submit_QueueFull_ThrowsException() {
+        // Writer thread not started, so nothing drains the queue
+        pipeline.submit(reading("TEST-001"));
+        pipeline.submit(reading("TEST-002"));
+
+        assertThrows(IngestQueueFullException.class, () -> pipeline.submit(reading("TEST-003")));
+        assertEquals(2, pipeline.getQueueDepth());
+        assertEquals(2.0, meterRegistry.get("scada.ingest.queue.depth").gauge().value());
+        assertEquals(1.0, meterRegistry.get("scada.ingest.rejected").counter().count());
+    }
+
+    @Test
+    void submitAll_QueueTooSmall_RejectsWholeBatch() {
+        assertThrows(IngestQueueFullException.class,
+                () -> pipeline.submitAll(Arrays.asList(reading("TEST-001"), reading("TEST-002"), reading("TEST-003"))));
+
+        assertEquals(0, pipeline.getQueueDepth());
+        assertEquals(3.0, meterRegistry.get("scada.ingest.rejected").counter().count());
+    }
+
+    @Test
+    void submitAllWithWait_QueueFull_WaitsForWriter() throws Exception {
+        pipeline.submit(reading("TEST-001"));
+        pipeline.submit(reading("TEST-002"));
+        Thread writerStarter = new Thread(() -> {
+            try {
+                Thread.sleep(50);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            pipeline.start();
+        });
+        writerStarter.start();
+
+        pipeline.submitAll(Arrays.asList(reading("TEST-003"), reading("TEST-004")), 2000);
+        writerStarter.join();
+
+        assertEquals(0.0, meterRegistry.get("scada.ingest.rejected").counter().count());
+    }
+
+    @Test
+    void submitAllWithWait_QueueStaysFull_RejectsAfterWait() {
+        pipeline.submit(reading("TEST-001"));
+
+        assertThrows(IngestQueueFullException.class,
+                () -> pipeline.submitAll(Arrays.asList(reading("TEST-002"), reading("TEST-003")), 20));
+        assertEquals(1, pipeline.getQueueDepth());
+    }
+
+    @Test
+    void reserve_ReservedSpaceNotAvailableToOthers() {
+        ReadingIngestPipeline.Reservation reservation = pipeline.reserve(2, 0);
+
+        assertThrows(IngestQueueFullException.class, () -> pipeline.submit(reading("TEST-001")));
+        reservation.enqueueAll(List.of(reading("TEST-002")));
+        reservation.enqueueAll(List.of(reading("TEST-003")));
+        reservation.await();
+
+        assertEquals(2, pipeline.getQueueDepth());
+    }
+
+    @Test
+    void reserve_MoreThanReserved_ThrowsException() {
+        ReadingIngestPipeline.Reservation reservation = pipeline.reserve(1, 0);
+
+        assertThrows(IllegalStateException.class,
+                () -> reservation.enqueueAll(Arrays.asList(reading("TEST-001"), reading("TEST-002"))));
+        assertEquals(0, pipeline.getQueueDepth());
+    }
+
+    @Test
+    void release_FreesUnusedSpace() {
+        ReadingIngestPipeline.Reservation reservation = pipeline.reserve(2, 0);
+        reservation.enqueueAll(List.of(reading("TEST-001")));
+
+        reservation.release();
+
+        pipeline.submit(reading("TEST-002"));
+        assertEquals(2, pipeline.getQueueDepth());
+    }
+
+    @Test
+    void enqueue_ReceiptWaitsForBatchWrite() {
+        ReadingIngestPipeline.Receipt receipt = pipeline.enqueue(reading("TEST-001"), true);
+        assertEquals(1, pipeline.getQueueDepth());
+        verify(readingStore, never()).appendBatch(anyList());
+
+        pipeline.start();
+        receipt.await();
+
+        verify(readingStore).appendBatch(anyList());
+        assertEquals("TEST-001", receipt.getReading().getSensorId());
+    }
+
+    @Test
+    void start_ReplaysReadingsLoggedBeforeCrash(@TempDir Path walDir) throws Exception {
+        WriteAheadLog crashedWal = openWal(walDir);
+        // Writer thread not started, so both readings are only in the log when the process "dies"
+        ReadingIngestPipeline crashed = pipeline(crashedWal, 60000);
+        crashed.submit(reading("TEST-001"));
+        crashed.submit(reading("TEST-002"));
+        crashedWal.close();
+
+        WriteAheadLog recoveredWal = openWal(walDir);
+        ReadingIngestPipeline recovered = pipeline(recoveredWal, 60000);
+        recovered.start();
+        recovered.stop();
+
+        @SuppressWarnings("unchecked")
+        ArgumentCaptor<List<SensorReading>> captor = ArgumentCaptor.forClass(List.class);
+        verify(readingStore).appendBatch(captor.capture());
+        assertEquals(2, captor.getValue().size());
+        assertEquals("TEST-002", captor.getValue().get(1).getSensorId());
+        assertEquals(2, recoveredWal.getAppliedLsn());
+        // Listeners lost the readings with the crash, so they see them again
+        verify(ingestNotifier).publishAll(captor.getValue());
+        recoveredWal.close();
+    }
+
+    private ReadingIngestPipeline pipeline(WriteAheadLog log, long maxCheckpointLagMs) {
+        return new ReadingIngestPipeline(readingStore, log, ingestNotifier, 10, 10, 5, 2000, 10,
+                maxCheckpointLagMs, new SimpleMeterRegistry());
+    }
+
+    private static WriteAheadLog openWal(Path dir) throws Exception {
+        WriteAheadLog wal = new WriteAheadLog(true, dir.toString(), 1 << 20, "batch", 100, new SimpleMeterRegistry());
+        wal.open();
+        return wal;
+    }
+
+    private static void awaitTrue(BooleanSupplier condition) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + 2000;
+        while (!condition.getAsBoolean()) {
+            assertTrue(System.currentTimeMillis() < deadline, "condition not met within 2 s");
+            Thread.sleep(5);
+        }
+    }
+
+    private SensorReading reading(String sensorId) {
+        SensorReading reading = new SensorReading();
+        reading.setSensorId(sensorId);
+        reading.setTemperature(22.5);
+        reading.setPressure(15.0);
+        reading.setTimestamp(LocalDateTime.now());
+        return reading;
+    }
+}
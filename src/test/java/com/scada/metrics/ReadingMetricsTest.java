@@ -0,0 +1,56 @@
+package com.scada.monitoring.metrics;
+
+import com.scada.monitoring.cache.SensorDictionary;
+import com.scada.monitoring.entity.SensorReading;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDateTime;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ReadingMetricsTest {
+
+    private SimpleMeterRegistry meterRegistry;
+    private ReadingMetrics readingMetrics;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        readingMetrics = new ReadingMetrics(meterRegistry, new SensorDictionary());
+    }
+
+    @Test
+    void onReading_CountsReadingsAndWarningsPerSensor() {
+        readingMetrics.onReading(reading("TEST-001", true, false));
+        readingMetrics.onReading(reading("TEST-001", false, false));
+        readingMetrics.onReading(reading("TEST-002", false, true));
+
+        assertEquals(2.0, meterRegistry.get("scada.readings.ingested").tag("sensor", "TEST-001").counter().count());
+        assertEquals(1.0, meterRegistry.get("scada.readings.warnings")
+                .tags("sensor", "TEST-001", "type", "temperature").counter().count());
+        assertEquals(1.0, meterRegistry.get("scada.readings.warnings")
+                .tags("sensor", "TEST-002", "type", "pressure").counter().count());
+    }
+
+    @Test
+    void onSensorRemoved_RemovesMeters() {
+        readingMetrics.onReading(reading("TEST-001", false, false));
+
+        readingMetrics.onSensorRemoved("TEST-001");
+
+        assertNull(meterRegistry.find("scada.readings.ingested").tag("sensor", "TEST-001").counter());
+    }
+
+    private SensorReading reading(String sensorId, boolean tempWarning, boolean pressureWarning) {
+        SensorReading reading = new SensorReading();
+        reading.setSensorId(sensorId);
+        reading.setTemperature(22.5);
+        reading.setPressure(15.0);
+        reading.setTimestamp(LocalDateTime.now());
+        reading.setTempWarning(tempWarning);
+        reading.setPressureWarning(pressureWarning);
+        return reading;
+    }
+}
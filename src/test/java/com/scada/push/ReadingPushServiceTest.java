@@ -0,0 +1,134 @@
+package com.scada.monitoring.push;
+
+import com.scada.monitoring.cache.LatestReadingStore;
+import com.scada.monitoring.cache.SensorDictionary;
+import com.scada.monitoring.dto.PushStatsResponse;
+import com.scada.monitoring.entity.SensorReading;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ReadingPushServiceTest {
+
+    private final List<Runnable> pendingDrains = new ArrayList<>();
+    private SensorDictionary dictionary;
+    private LatestReadingStore latestReadingStore;
+    private ReadingPushService pushService;
+
+    @BeforeEach
+    void setUp() {
+        dictionary = new SensorDictionary();
+        latestReadingStore = new LatestReadingStore(dictionary);
+        pushService = new ReadingPushService(latestReadingStore, dictionary, pendingDrains::add, 2, 2, 100, 60000);
+    }
+
+    @Test
+    void onReading_SlowSubscriber_KeepsLatestValueOnly() {
+        pushService.subscribe(Collections.singletonList("TEST-001"), null);
+
+        pushService.onReading(reading("TEST-001", 20.0, false));
+        pushService.onReading(reading("TEST-001", 21.0, false));
+        pushService.onReading(reading("TEST-001", 22.0, false));
+        runDrains();
+
+        PushStatsResponse stats = pushService.getStats();
+        assertEquals(1, stats.getDelivered());
+        assertEquals(2, stats.getConflated());
+    }
+
+    @Test
+    void onReading_AlarmsAreQueuedAndOldestDroppedWhenFull() {
+        pushService.subscribe(Collections.singletonList("TEST-001"), null);
+
+        pushService.onReading(reading("TEST-001", 90.0, true));
+        pushService.onReading(reading("TEST-001", 91.0, true));
+        pushService.onReading(reading("TEST-001", 92.0, true));
+        runDrains();
+
+        PushStatsResponse stats = pushService.getStats();
+        assertEquals(2, stats.getDelivered());
+        assertEquals(1, stats.getDroppedAlarms());
+    }
+
+    @Test
+    void onReading_PatternSubscriber_ReceivesMatchingSensorsOnly() {
+        pushService.subscribe(null, Collections.singletonList("PUMP-*"));
+
+        pushService.onReading(reading("PUMP-001", 20.0, false));
+        pushService.onReading(reading("PUMP-002", 20.0, false));
+        pushService.onReading(reading("VALVE-001", 20.0, false));
+        runDrains();
+
+        assertEquals(2, pushService.getStats().getDelivered());
+    }
+
+    @Test
+    void subscribe_UnknownSensorIds_AllocateNoKeys() {
+        pushService.subscribe(Arrays.asList("NO-SUCH-1", "NO-SUCH-2"), null);
+        pushService.subscribe(Collections.singletonList("NO-SUCH-1"), null);
+
+        assertEquals(0, dictionary.size());
+    }
+
+    @Test
+    void onReading_SensorSubscribedBeforeFirstReport_Delivered() {
+        pushService.subscribe(Collections.singletonList("TEST-001"), null);
+
+        pushService.onReading(reading("TEST-002", 20.0, false));
+        pushService.onReading(reading("TEST-001", 20.0, false));
+        runDrains();
+        pushService.onReading(reading("TEST-001", 21.0, false));
+        runDrains();
+
+        assertEquals(2, pushService.getStats().getDelivered());
+    }
+
+    @Test
+    void subscribe_SendsCurrentValues() {
+        latestReadingStore.onReading(reading("TEST-001", 20.0, false));
+
+        pushService.subscribe(Collections.singletonList("TEST-001"), null);
+        runDrains();
+
+        assertEquals(1, pushService.getStats().getDelivered());
+    }
+
+    @Test
+    void subscribe_OverLimit_Throws() {
+        pushService.subscribe(Collections.singletonList("A"), null);
+        pushService.subscribe(Collections.singletonList("B"), null);
+
+        assertThrows(SubscriberLimitException.class,
+                () -> pushService.subscribe(Collections.singletonList("C"), null));
+    }
+
+    @Test
+    void compileGlob_QuotesLiterals() {
+        assertTrue(ReadingPushService.compileGlob("PUMP.?-*").matcher("PUMP.1-A").matches());
+        assertFalse(ReadingPushService.compileGlob("PUMP.?-*").matcher("PUMPX1-A").matches());
+    }
+
+    private void runDrains() {
+        List<Runnable> drains = new ArrayList<>(pendingDrains);
+        pendingDrains.clear();
+        drains.forEach(Runnable::run);
+    }
+
+    private SensorReading reading(String sensorId, double temperature, boolean warning) {
+        SensorReading reading = new SensorReading();
+        reading.setSensorId(sensorId);
+        reading.setTemperature(temperature);
+        reading.setPressure(15.0);
+        reading.setTimestamp(LocalDateTime.now());
+        reading.setTempWarning(warning);
+        return reading;
+    }
+}
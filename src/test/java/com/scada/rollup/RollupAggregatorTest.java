@@ -0,0 +1,150 @@
+package com.scada.monitoring.rollup;
+
+import com.scada.monitoring.cache.SensorDictionary;
+import com.scada.monitoring.entity.ReadingRollup;
+import com.scada.monitoring.entity.RollupResolution;
+import com.scada.monitoring.entity.SensorReading;
+import com.scada.monitoring.repository.ReadingRollupRepository;
+import com.scada.monitoring.util.EpochTime;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.transaction.TransactionStatus;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+import java.util.function.Consumer;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class RollupAggregatorTest {
+
+    private static final LocalDateTime BASE = LocalDateTime.of(2024, 1, 1, 12, 0, 0);
+
+    @Mock
+    private ReadingRollupRepository rollupRepository;
+
+    @Mock
+    private TransactionTemplate transactionTemplate;
+
+    private RollupAggregator aggregator;
+
+    @BeforeEach
+    void setUp() {
+        aggregator = new RollupAggregator(rollupRepository, transactionTemplate, new SensorDictionary(), 0);
+        lenient().doAnswer(invocation -> {
+            Consumer<TransactionStatus> action = invocation.getArgument(0);
+            action.accept(null);
+            return null;
+        }).when(transactionTemplate).executeWithoutResult(any());
+    }
+
+    @Test
+    void flush_WritesOnlyClosedBuckets() {
+        aggregator.onReading(reading(20.0, BASE));
+        aggregator.onReading(reading(24.0, BASE.plusNanos(500_000_000)));
+        aggregator.onReading(reading(30.0, BASE.plusSeconds(1)));
+
+        aggregator.flush(EpochTime.toEpochMillis(BASE.plusSeconds(1)));
+
+        List<ReadingRollup> saved = captureSaveAll();
+        assertEquals(1, saved.size());
+        ReadingRollup second = saved.get(0);
+        assertEquals(RollupResolution.ONE_SECOND, second.getResolution());
+        assertEquals(2, second.getSampleCount());
+        assertEquals(22.0, second.getAvgTemperature(), 1e-9);
+        assertEquals(24.0, second.getMaxTemperature());
+        assertEquals(1, second.getWarningCount());
+    }
+
+    @Test
+    void flush_LateReadingMergesIntoExistingRow() {
+        aggregator.onReading(reading(20.0, BASE));
+        aggregator.flush(EpochTime.toEpochMillis(BASE.plusSeconds(1)));
+
+        ReadingRollup existing = new ReadingRollup(1L, "TEST-001", RollupResolution.ONE_SECOND, BASE, 1,
+                20.0, 20.0, 20.0, 15.0, 15.0, 15.0, 0);
+        when(rollupRepository.findBySensorIdAndResolutionAndBucketStart("TEST-001", RollupResolution.ONE_SECOND, BASE))
+                .thenReturn(Optional.of(existing));
+
+        aggregator.onReading(reading(30.0, BASE.plusNanos(100_000_000)));
+        aggregator.flush(EpochTime.toEpochMillis(BASE.plusSeconds(2)));
+
+        assertEquals(2, existing.getSampleCount());
+        assertEquals(25.0, existing.getAvgTemperature(), 1e-9);
+        assertEquals(30.0, existing.getMaxTemperature());
+        verify(rollupRepository).save(existing);
+    }
+
+    @Test
+    void flush_WriteFails_BucketsWrittenByNextFlush() {
+        aggregator.onReading(reading(20.0, BASE));
+        when(rollupRepository.saveAll(anyList()))
+                .thenThrow(new IllegalStateException("database down"))
+                .thenAnswer(invocation -> invocation.getArgument(0));
+
+        aggregator.flush(EpochTime.toEpochMillis(BASE.plusSeconds(1)));
+
+        // A reading for the failed bucket arrives before the retry
+        aggregator.onReading(reading(30.0, BASE.plusNanos(100_000_000)));
+        when(rollupRepository.findBySensorIdAndResolutionAndBucketStart(any(), any(), any())).thenReturn(Optional.empty());
+        aggregator.flush(EpochTime.toEpochMillis(BASE.plusSeconds(2)));
+
+        ArgumentCaptor<ReadingRollup> captor = ArgumentCaptor.forClass(ReadingRollup.class);
+        verify(rollupRepository, atLeastOnce()).save(captor.capture());
+        ReadingRollup second = captor.getAllValues().stream()
+                .filter(r -> r.getResolution() == RollupResolution.ONE_SECOND)
+                .findFirst().orElseThrow();
+        assertEquals(BASE, second.getBucketStart());
+        assertEquals(2, second.getSampleCount());
+        assertEquals(25.0, second.getAvgTemperature(), 1e-9);
+    }
+
+    @Test
+    void openBuckets_IncludesUnflushedData() {
+        aggregator.onReading(reading(20.0, BASE));
+
+        long from = EpochTime.toEpochMillis(BASE.minusHours(1));
+        long to = EpochTime.toEpochMillis(BASE.plusHours(1));
+        assertEquals(1, aggregator.openBuckets("TEST-001", RollupResolution.ONE_MINUTE, from, to).size());
+        assertTrue(aggregator.openBuckets("TEST-002", RollupResolution.ONE_MINUTE, from, to).isEmpty());
+    }
+
+    @Test
+    void selectResolution_PicksCoarsestMeetingPointCount() {
+        assertEquals(RollupResolution.ONE_HOUR, RollupService.selectResolution(30L * 24 * 3600 * 1000, 500));
+        assertEquals(RollupResolution.ONE_MINUTE, RollupService.selectResolution(24L * 3600 * 1000, 500));
+        assertEquals(RollupResolution.ONE_SECOND, RollupService.selectResolution(3600L * 1000, 500));
+        assertNull(RollupService.selectResolution(60L * 1000, 500));
+    }
+
+    @SuppressWarnings("unchecked")
+    private List<ReadingRollup> captureSaveAll() {
+        ArgumentCaptor<List<ReadingRollup>> captor = ArgumentCaptor.forClass(List.class);
+        verify(rollupRepository, atLeastOnce()).saveAll(captor.capture());
+        return captor.getAllValues().stream()
+                .flatMap(List::stream)
+                .filter(r -> r.getResolution() == RollupResolution.ONE_SECOND)
+                .collect(Collectors.toList());
+    }
+
+    private SensorReading reading(double temperature, LocalDateTime timestamp) {
+        SensorReading reading = new SensorReading();
+        reading.setSensorId("TEST-001");
+        reading.setTemperature(temperature);
+        reading.setPressure(15.0);
+        reading.setTimestamp(timestamp);
+        reading.setTempWarning(temperature >= 24.0);
+        return reading;
+    }
+}
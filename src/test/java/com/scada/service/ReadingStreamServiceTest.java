@@ -0,0 +1,215 @@
+package com.scada.monitoring.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.scada.monitoring.alarm.AlarmEngine;
+import com.scada.monitoring.cache.LatestReadingStore;
+import com.scada.monitoring.cache.RecentReadingStore;
+import com.scada.monitoring.cache.SensorDictionary;
+import com.scada.monitoring.cache.SensorRegistry;
+import com.scada.monitoring.cache.SensorSnapshot;
+import com.scada.monitoring.dto.StreamIngestResponse;
+import com.scada.monitoring.entity.Sensor;
+import com.scada.monitoring.entity.SensorReading;
+import com.scada.monitoring.ingest.IngestQueueFullException;
+import com.scada.monitoring.ingest.ReadingIngestLanes;
+import com.scada.monitoring.ingest.ReadingIngestNotifier;
+import com.scada.monitoring.ingest.ReadingIngestPipeline;
+import com.scada.monitoring.ingest.ReadingWatermarks;
+import com.scada.monitoring.repository.AlarmRuleRepository;
+import com.scada.monitoring.storage.ReadingStore;
+import com.scada.monitoring.trend.TrendAggregator;
+import com.scada.monitoring.wal.WriteAheadLog;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.validation.Validation;
+import jakarta.validation.Validator;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class ReadingStreamServiceTest {
+
+    @Mock
+    private SensorRegistry sensorRegistry;
+
+    @Mock
+    private ReadingStore readingStore;
+
+    @Mock
+    private WriteAheadLog wal;
+
+    @Mock
+    private ReadingIngestNotifier ingestNotifier;
+
+    private final Validator validator = Validation.buildDefaultValidatorFactory().getValidator();
+    private ReadingIngestLanes lanes;
+    private ReadingIngestPipeline pipeline;
+    private ReadingStreamService streamService;
+
+    @BeforeEach
+    void setUp() {
+        SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+        lanes = new ReadingIngestLanes(2, 100, meterRegistry);
+        lanes.start();
+        pipeline = new ReadingIngestPipeline(readingStore, wal, ingestNotifier, 4, 10, 5, 2000, 100, 60000, meterRegistry);
+        // Real engine with no configured rules, so the sensor thresholds apply
+        AlarmEngine alarmEngine = new AlarmEngine(mock(AlarmRuleRepository.class), new SensorDictionary());
+        SensorReadingService readingService = new SensorReadingService(readingStore, sensorRegistry, pipeline,
+                ingestNotifier, lanes, new ReadingWatermarks(new SensorDictionary(), 5000, 60_000, meterRegistry),
+                mock(LatestReadingStore.class), mock(RecentReadingStore.class),
+                mock(TrendAggregator.class), alarmEngine);
+        streamService = new ReadingStreamService(sensorRegistry, readingService, pipeline, new ObjectMapper(), validator,
+                2, 2, 2, 50);
+    }
+
+    @AfterEach
+    void tearDown() throws InterruptedException {
+        streamService.shutdown();
+        pipeline.stop();
+        lanes.stop();
+    }
+
+    @Test
+    void ingest_KeepsEachSensorsReadingsInStreamOrder() throws IOException, InterruptedException {
+        when(sensorRegistry.find(anyString())).thenAnswer(invocation -> Optional.of(snapshot(invocation.getArgument(0))));
+        List<SensorReading> published = Collections.synchronizedList(new ArrayList<>());
+        doAnswer(invocation -> published.addAll(invocation.getArgument(0))).when(ingestNotifier).publishAll(anyList());
+        pipeline.start();
+        StringBuilder body = new StringBuilder();
+        for (int i = 0; i < 30; i++) {
+            body.append(line("TEST-00" + (i % 3), 20.0 + i * 0.1)).append('\n');
+        }
+
+        StreamIngestResponse response = streamService.ingest(stream(body.toString()));
+        pipeline.stop();
+
+        assertEquals(30, response.getAccepted());
+        assertEquals(0, response.getRejected());
+        @SuppressWarnings("unchecked")
+        ArgumentCaptor<List<SensorReading>> captor = ArgumentCaptor.forClass(List.class);
+        verify(readingStore, atLeastOnce()).appendBatch(captor.capture());
+        Map<String, List<Double>> bySensor = new HashMap<>();
+        for (List<SensorReading> batch : captor.getAllValues()) {
+            for (SensorReading reading : batch) {
+                bySensor.computeIfAbsent(reading.getSensorId(), id -> new ArrayList<>()).add(reading.getTemperature());
+            }
+        }
+        for (List<Double> temperatures : bySensor.values()) {
+            assertEquals(10, temperatures.size());
+            for (int i = 1; i < temperatures.size(); i++) {
+                assertTrue(temperatures.get(i) > temperatures.get(i - 1), "out of order: " + temperatures);
+            }
+        }
+        assertEquals(30, published.size());
+    }
+
+    @Test
+    void ingest_EvaluatesThresholds() throws IOException {
+        when(sensorRegistry.find("TEST-001")).thenReturn(Optional.of(snapshot("TEST-001")));
+        List<SensorReading> published = new ArrayList<>();
+        doAnswer(invocation -> published.addAll(invocation.getArgument(0))).when(ingestNotifier).publishAll(anyList());
+
+        streamService.ingest(stream(line("TEST-001", 26.0) + "\n" + line("TEST-001", 22.0)));
+
+        assertTrue(published.get(0).isTempWarning());
+        assertFalse(published.get(1).isTempWarning());
+    }
+
+    @Test
+    void ingest_DeviceTimestamps_KeptAndLateCounted() throws IOException {
+        when(sensorRegistry.find("TEST-001")).thenReturn(Optional.of(snapshot("TEST-001")));
+        List<SensorReading> published = new ArrayList<>();
+        doAnswer(invocation -> published.addAll(invocation.getArgument(0))).when(ingestNotifier).publishAll(anyList());
+        long newest = 1_704_067_200_000_000_000L;
+        String body = line("TEST-001", 22.0, newest) + "\n"
+                + line("TEST-001", 22.1, newest - 10_000_000_000L) + "\n";
+
+        StreamIngestResponse response = streamService.ingest(stream(body));
+
+        assertEquals(2, response.getAccepted());
+        assertEquals(1, response.getLate());
+        assertEquals(LocalDateTime.of(2024, 1, 1, 0, 0), published.get(0).getTimestamp());
+        assertEquals(LocalDateTime.of(2023, 12, 31, 23, 59, 50), published.get(1).getTimestamp());
+    }
+
+    @Test
+    void ingest_BadLines_SkippedAndReported() throws IOException {
+        when(sensorRegistry.find("TEST-001")).thenReturn(Optional.of(snapshot("TEST-001")));
+        when(sensorRegistry.find("TEST-999")).thenReturn(Optional.empty());
+        String body = line("TEST-001", 22.0) + "\n"
+                + "not json\n"
+                + "\n"
+                + line("TEST-999", 22.0) + "\n"
+                + "{\"sensorId\":\"TEST-001\",\"temperature\":22.0,\"motorOn\":true}\n";
+
+        StreamIngestResponse response = streamService.ingest(stream(body));
+
+        assertEquals(1, response.getAccepted());
+        assertEquals(3, response.getRejected());
+        assertTrue(response.getErrors().get(0).startsWith("line 2: "));
+        assertEquals("line 4: Sensor not found: TEST-999", response.getErrors().get(1));
+        assertEquals("line 5: pressure must not be null", response.getErrors().get(2));
+    }
+
+    @Test
+    void ingest_QueueStaysFull_Throws() {
+        when(sensorRegistry.find("TEST-001")).thenReturn(Optional.of(snapshot("TEST-001")));
+        // Writer thread not started: the first two chunks fill the queue and the third cannot get in
+        StringBuilder body = new StringBuilder();
+        for (int i = 0; i < 6; i++) {
+            body.append(line("TEST-001", 22.0)).append('\n');
+        }
+
+        assertThrows(IngestQueueFullException.class, () -> streamService.ingest(stream(body.toString())));
+        assertEquals(4, pipeline.getQueueDepth());
+    }
+
+    @Test
+    void constructor_ChunkLargerThanQueue_Throws() {
+        assertThrows(IllegalArgumentException.class, () -> new ReadingStreamService(sensorRegistry,
+                mock(SensorReadingService.class), pipeline, new ObjectMapper(), validator, 1, 5, 2, 50));
+    }
+
+    private static SensorSnapshot snapshot(String sensorId) {
+        Sensor sensor = new Sensor();
+        sensor.setId(1L);
+        sensor.setSensorId(sensorId);
+        sensor.setTempThreshold(25.0);
+        sensor.setPressureThreshold(25.0);
+        return SensorSnapshot.of(sensor, sensorId.charAt(sensorId.length() - 1) - '0');
+    }
+
+    private static String line(String sensorId, double temperature) {
+        return "{\"sensorId\":\"" + sensorId + "\",\"temperature\":" + temperature + ",\"pressure\":15.0,\"motorOn\":false}";
+    }
+
+    private static String line(String sensorId, double temperature, long timestampNanos) {
+        return "{\"sensorId\":\"" + sensorId + "\",\"temperature\":" + temperature
+                + ",\"pressure\":15.0,\"motorOn\":false,\"timestampNanos\":" + timestampNanos + "}";
+    }
+
+    private static InputStream stream(String body) {
+        return new ByteArrayInputStream(body.getBytes(StandardCharsets.UTF_8));
+    }
+}
@@ -1,37 +1,103 @@
 package com.scada.monitoring.service;
 
+import com.scada.monitoring.alarm.AlarmCodes;
+import com.scada.monitoring.alarm.AlarmEngine;
+import com.scada.monitoring.cache.LatestReadingStore;
+import com.scada.monitoring.cache.RecentReadingStore;
+import com.scada.monitoring.cache.SensorDictionary;
+import com.scada.monitoring.cache.SensorRegistry;
+import com.scada.monitoring.cache.SensorSnapshot;
 import com.scada.monitoring.dto.CreateReadingRequest;
+import com.scada.monitoring.dto.FrameIngestResponse;
+import com.scada.monitoring.dto.ReadingPageResponse;
 import com.scada.monitoring.dto.SensorReadingResponse;
+import com.scada.monitoring.dto.TrendAnalysisResponse;
+import com.scada.monitoring.entity.AlarmRule;
+import com.scada.monitoring.entity.RuleType;
+import com.scada.monitoring.entity.RuleVariable;
 import com.scada.monitoring.entity.Sensor;
 import com.scada.monitoring.entity.SensorReading;
-import com.scada.monitoring.repository.SensorReadingRepository;
-import com.scada.monitoring.repository.SensorRepository;
+import com.scada.monitoring.ingest.MalformedFrameException;
+import com.scada.monitoring.ingest.ReadingFrames;
+import com.scada.monitoring.ingest.ReadingIngestLanes;
+import com.scada.monitoring.ingest.ReadingIngestNotifier;
+import com.scada.monitoring.ingest.ReadingIngestPipeline;
+import com.scada.monitoring.ingest.ReadingWatermarks;
+import com.scada.monitoring.repository.AlarmRuleRepository;
+import com.scada.monitoring.storage.ReadingPage;
+import com.scada.monitoring.storage.ReadingStore;
+import com.scada.monitoring.trend.TrendAggregator;
+import com.scada.monitoring.util.EpochTime;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
+import org.mockito.Spy;
 import org.mockito.junit.jupiter.MockitoExtension;
-import org.springframework.data.domain.Pageable;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
 
+import java.nio.ByteBuffer;
 import java.time.LocalDateTime;
+import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Collections;
 import java.util.List;
 import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.anyLong;
 import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.*;
 
 @ExtendWith(MockitoExtension.class)
 class SensorReadingServiceTest {
 
     @Mock
-    private SensorReadingRepository readingRepository;
+    private ReadingStore readingStore;
 
     @Mock
-    private SensorRepository sensorRepository;
+    private SensorRegistry sensorRegistry;
+
+    @Mock
+    private ReadingIngestPipeline ingestPipeline;
+
+    @Mock
+    private ReadingIngestNotifier ingestNotifier;
+
+    @Mock
+    private ReadingIngestLanes ingestLanes;
+
+    private final SensorDictionary dictionary = new SensorDictionary();
+
+    @Spy
+    private ReadingWatermarks watermarks = new ReadingWatermarks(dictionary, 5000, 60_000, new SimpleMeterRegistry());
+
+    @Mock
+    private LatestReadingStore latestReadingStore;
+
+    @Spy
+    private RecentReadingStore recentReadings = new RecentReadingStore(dictionary, 16, new SimpleMeterRegistry());
+
+    @Mock
+    private TrendAggregator trendAggregator;
+
+    private final AlarmRuleRepository ruleRepository = mock(AlarmRuleRepository.class);
+
+    // Real engine with no configured rules, so the sensor thresholds apply
+    @Spy
+    private AlarmEngine alarmEngine = new AlarmEngine(ruleRepository, new SensorDictionary());
 
     @InjectMocks
     private SensorReadingService readingService;
@@ -42,6 +108,18 @@ class SensorReadingServiceTest {
 
     @BeforeEach
     void setUp() {
+        // One lane, and its tasks run inline on the test thread
+        lenient().when(ingestLanes.getLaneCount()).thenReturn(1);
+        lenient().when(ingestPipeline.getQueueCapacity()).thenReturn(10_000);
+        lenient().when(ingestLanes.call(anyInt(), any())).thenAnswer(invocation -> invocation.<Supplier<?>>getArgument(1).get());
+        lenient().when(ingestLanes.submitAll(any(int[].class), anyList())).thenAnswer(invocation -> {
+            List<CompletableFuture<Object>> futures = new ArrayList<>();
+            for (Supplier<?> task : invocation.<List<Supplier<?>>>getArgument(1)) {
+                futures.add(CompletableFuture.completedFuture(task.get()));
+            }
+            return futures;
+        });
+
         testSensor = new Sensor();
         testSensor.setId(1L);
         testSensor.setSensorId("TEST-001");
@@ -69,8 +147,8 @@ class SensorReadingServiceTest {
 
     @Test
     void createReading_NoWarnings() {
-        when(sensorRepository.findBySensorId("TEST-001")).thenReturn(Optional.of(testSensor));
-        when(readingRepository.save(any(SensorReading.class))).thenReturn(testReading);
+        when(sensorRegistry.find("TEST-001")).thenReturn(Optional.of(SensorSnapshot.of(testSensor, 0)));
+        when(readingStore.save(any(SensorReading.class))).thenReturn(testReading);
 
         SensorReadingResponse response = readingService.createReading(createRequest);
 
@@ -79,15 +157,41 @@ class SensorReadingServiceTest {
         assertEquals(22.5, response.getTemperature());
         assertFalse(response.isTempWarning());
         assertFalse(response.isPressureWarning());
-        verify(readingRepository, times(1)).save(any(SensorReading.class));
+        verify(readingStore, times(1)).save(any(SensorReading.class));
+        verify(ingestNotifier, times(1)).publish(testReading);
+    }
+
+    @Test
+    void createReading_DeviceTimestamp_KeptWithNanos() {
+        createRequest.setTimestampNanos(1_704_067_200_123_456_789L);
+        when(sensorRegistry.find("TEST-001"))
+                .thenReturn(Optional.of(SensorSnapshot.of(testSensor, dictionary.keyOf("TEST-001"))));
+        when(readingStore.save(any(SensorReading.class))).thenAnswer(invocation -> invocation.getArgument(0));
+
+        SensorReadingResponse response = readingService.createReading(createRequest);
+
+        assertEquals(LocalDateTime.of(2024, 1, 1, 0, 0, 0, 123_456_789), response.getTimestamp());
+        assertEquals(1_704_067_200_123_456_789L, watermarks.get("TEST-001"));
+    }
+
+    @Test
+    void createReading_DeviceTimestampFarAhead_Rejected() {
+        createRequest.setTimestampNanos(EpochTime.toEpochNanos(EpochTime.now().plusHours(1)));
+        when(sensorRegistry.find("TEST-001"))
+                .thenReturn(Optional.of(SensorSnapshot.of(testSensor, dictionary.keyOf("TEST-001"))));
+
+        assertThrows(IllegalArgumentException.class, () -> readingService.createReading(createRequest));
+
+        verify(readingStore, never()).save(any(SensorReading.class));
+        assertEquals(Long.MIN_VALUE, watermarks.get("TEST-001"));
     }
 
     @Test
     void createReading_WithTempWarning() {
         createRequest.setTemperature(26.0); // Above threshold
 
-        when(sensorRepository.findBySensorId("TEST-001")).thenReturn(Optional.of(testSensor));
-        when(readingRepository.save(any(SensorReading.class))).thenAnswer(invocation -> {
+        when(sensorRegistry.find("TEST-001")).thenReturn(Optional.of(SensorSnapshot.of(testSensor, 0)));
+        when(readingStore.save(any(SensorReading.class))).thenAnswer(invocation -> {
             SensorReading reading = invocation.getArgument(0);
             reading.setId(1L);
             return reading;
@@ -104,8 +208,8 @@ class SensorReadingServiceTest {
     void createReading_WithPressureWarning() {
         createRequest.setPressure(26.0); // Above threshold
 
-        when(sensorRepository.findBySensorId("TEST-001")).thenReturn(Optional.of(testSensor));
-        when(readingRepository.save(any(SensorReading.class))).thenAnswer(invocation -> {
+        when(sensorRegistry.find("TEST-001")).thenReturn(Optional.of(SensorSnapshot.of(testSensor, 0)));
+        when(readingStore.save(any(SensorReading.class))).thenAnswer(invocation -> {
             SensorReading reading = invocation.getArgument(0);
             reading.setId(1L);
             return reading;
@@ -115,12 +219,13 @@ class SensorReadingServiceTest {
 
         assertNotNull(response);
         assertTrue(response.isPressureWarning());
-        assertNotNull(response.getWarningMessage());
+        assertEquals(2, response.getAlarmMask());
+        assertEquals("HIGH PRESSURE WARNING: 26.0 PSI >= 25.0 PSI", response.getWarningMessage());
     }
 
     @Test
     void createReading_SensorNotFound_ThrowsException() {
-        when(sensorRepository.findBySensorId("NONEXISTENT")).thenReturn(Optional.empty());
+        when(sensorRegistry.find("NONEXISTENT")).thenReturn(Optional.empty());
 
         createRequest.setSensorId("NONEXISTENT");
 
@@ -128,14 +233,25 @@ class SensorReadingServiceTest {
             readingService.createReading(createRequest);
         });
 
-        verify(readingRepository, never()).save(any(SensorReading.class));
+        verify(readingStore, never()).save(any(SensorReading.class));
+        verifyNoInteractions(ingestNotifier);
+    }
+
+    @Test
+    void getLatestReadings() {
+        when(latestReadingStore.getAll(Arrays.asList("TEST-001"))).thenReturn(Arrays.asList(testReading));
+
+        List<SensorReadingResponse> responses = readingService.getLatestReadings(Arrays.asList("TEST-001"));
+
+        assertEquals(1, responses.size());
+        assertEquals(22.5, responses.get(0).getTemperature());
+        verifyNoInteractions(readingStore);
     }
 
     @Test
     void getRecentReadings() {
         List<SensorReading> readings = Arrays.asList(testReading);
-        when(readingRepository.findBySensorIdOrderByTimestampDesc(anyString(), any(Pageable.class)))
-                .thenReturn(readings);
+        when(readingStore.findRecent("TEST-001", 10)).thenReturn(readings);
 
         List<SensorReadingResponse> responses = readingService.getRecentReadings("TEST-001", 10);
 
@@ -144,17 +260,345 @@ class SensorReadingServiceTest {
         assertEquals("TEST-001", responses.get(0).getSensorId());
     }
 
+    @Test
+    void getRecentReadings_Buffered_ServedFromMemory() {
+        LocalDateTime start = testReading.getTimestamp();
+        for (int i = 0; i < 12; i++) {
+            SensorReading reading = new SensorReading();
+            reading.setSensorId("TEST-001");
+            reading.setTemperature(20.0 + i);
+            reading.setPressure(15.0);
+            reading.setMotorOn(i % 2 == 0);
+            reading.setTimestamp(start.plusSeconds(i));
+            recentReadings.onReading(reading);
+        }
+
+        List<SensorReadingResponse> responses = readingService.getRecentReadings("TEST-001", 10);
+
+        assertEquals(10, responses.size());
+        assertEquals(31.0, responses.get(0).getTemperature());
+        assertEquals(start.plusSeconds(11), responses.get(0).getTimestamp());
+        assertFalse(responses.get(0).isMotorOn());
+        assertEquals(22.0, responses.get(9).getTemperature());
+        verifyNoInteractions(readingStore);
+
+        // Deeper than the buffer goes to storage
+        when(readingStore.findRecent("TEST-001", 20)).thenReturn(Arrays.asList(testReading));
+        assertEquals(1, readingService.getRecentReadings("TEST-001", 20).size());
+    }
+
+    @Test
+    void getTrendAnalysis_FromRunningAggregates() {
+        TrendAnalysisResponse running = new TrendAnalysisResponse();
+        running.setSensorId("TEST-001");
+        when(trendAggregator.getWindowSize()).thenReturn(100);
+        when(trendAggregator.getLastNTrend("TEST-001")).thenReturn(Optional.of(running));
+
+        TrendAnalysisResponse analysis = readingService.getTrendAnalysis("TEST-001", 100);
+
+        assertSame(running, analysis);
+        verifyNoInteractions(readingStore);
+    }
+
+    @Test
+    void getTrendAnalysis_OtherLimit_ReadsStoredReadings() {
+        SensorReading older = new SensorReading();
+        older.setSensorId("TEST-001");
+        older.setTemperature(20.5);
+        older.setPressure(13.0);
+        older.setTimestamp(testReading.getTimestamp().minusSeconds(10));
+        older.setTempWarning(true);
+
+        when(trendAggregator.getWindowSize()).thenReturn(100);
+        when(readingStore.findRecent("TEST-001", 10)).thenReturn(Arrays.asList(testReading, older));
+
+        TrendAnalysisResponse analysis = readingService.getTrendAnalysis("TEST-001", 10);
+
+        assertEquals(2, analysis.getTotalReadings());
+        assertEquals(21.5, analysis.getAvgTemperature(), 1e-9);
+        assertEquals(22.5, analysis.getMaxTemperature());
+        assertEquals(20.5, analysis.getMinTemperature());
+        assertEquals(1.0, analysis.getStdDevTemperature(), 1e-9);
+        assertEquals(0.2, analysis.getTemperatureRateOfChange(), 1e-9);
+        assertEquals(1, analysis.getWarningCount());
+        verify(trendAggregator, never()).getLastNTrend(anyString());
+    }
+
+    @Test
+    void getTrendAnalysis_WithinBufferDepth_SummarizedFromMemory() {
+        SensorReading older = new SensorReading();
+        older.setSensorId("TEST-001");
+        older.setTemperature(20.5);
+        older.setPressure(13.0);
+        older.setTimestamp(testReading.getTimestamp().minusSeconds(10));
+        older.setAlarmMask(AlarmCodes.HIGH_TEMPERATURE);
+        older.setTempWarning(true);
+        // Arrives after the newer reading, and is still summarized in sample-time order
+        recentReadings.onReading(testReading);
+        recentReadings.onReading(older);
+        when(trendAggregator.getWindowSize()).thenReturn(100);
+
+        TrendAnalysisResponse analysis = readingService.getTrendAnalysis("TEST-001", 2);
+
+        assertEquals(2, analysis.getTotalReadings());
+        assertEquals(21.5, analysis.getAvgTemperature(), 1e-9);
+        assertEquals(0.2, analysis.getTemperatureRateOfChange(), 1e-9);
+        assertEquals(1, analysis.getWarningCount());
+        verifyNoInteractions(readingStore);
+    }
+
     @Test
     void createBulkReadings() {
         List<CreateReadingRequest> requests = Arrays.asList(createRequest, createRequest);
 
-        when(sensorRepository.findBySensorId("TEST-001")).thenReturn(Optional.of(testSensor));
-        when(readingRepository.save(any(SensorReading.class))).thenReturn(testReading);
+        when(sensorRegistry.findAll(anyCollection()))
+                .thenReturn(Collections.singletonMap("TEST-001", SensorSnapshot.of(testSensor, 0)));
+        when(readingStore.saveAll(anyList())).thenAnswer(invocation -> invocation.getArgument(0));
 
         List<SensorReadingResponse> responses = readingService.createBulkReadings(requests);
 
         assertNotNull(responses);
         assertEquals(2, responses.size());
-        verify(readingRepository, times(2)).save(any(SensorReading.class));
+        verify(sensorRegistry, times(1)).findAll(anyCollection());
+        verify(readingStore, times(1)).saveAll(anyList());
+        verify(readingStore, never()).save(any(SensorReading.class));
+        verify(ingestNotifier, times(1)).publishAll(anyList());
+    }
+
+    @Test
+    void createBulkReadings_PublishesOnlyAfterCommit() {
+        when(sensorRegistry.findAll(anyCollection()))
+                .thenReturn(Collections.singletonMap("TEST-001", SensorSnapshot.of(testSensor, 0)));
+        when(readingStore.saveAll(anyList())).thenAnswer(invocation -> invocation.getArgument(0));
+
+        TransactionSynchronizationManager.initSynchronization();
+        try {
+            readingService.createBulkReadings(Collections.singletonList(createRequest));
+
+            verify(ingestLanes).submitAll(any(int[].class), anyList());
+            verify(ingestNotifier, never()).publishAll(anyList());
+            for (TransactionSynchronization synchronization : TransactionSynchronizationManager.getSynchronizations()) {
+                synchronization.afterCommit();
+            }
+        } finally {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+
+        verify(ingestNotifier).publishAll(anyList());
+    }
+
+    @Test
+    void createBulkReadings_WriteFails_AlarmStateAndWatermarkPutBack() {
+        // A high limit that, once raised, clears only below 20
+        AlarmRule high = new AlarmRule();
+        high.setSensorId("TEST-001");
+        high.setVariable(RuleVariable.TEMPERATURE);
+        high.setType(RuleType.HIGH);
+        high.setLimit(25.0);
+        high.setDeadband(5.0);
+        when(ruleRepository.findBySensorIdAndEnabledTrueOrderByIdAsc("TEST-001")).thenReturn(Collections.singletonList(high));
+        SensorSnapshot sensor = SensorSnapshot.of(testSensor, dictionary.keyOf("TEST-001"));
+        when(sensorRegistry.findAll(anyCollection())).thenReturn(Collections.singletonMap("TEST-001", sensor));
+        when(readingStore.saveAll(anyList())).thenThrow(new IllegalStateException("database down"));
+        createRequest.setTemperature(26.0);
+        createRequest.setTimestampNanos(1_704_067_200_000_000_000L);
+
+        assertThrows(IllegalStateException.class,
+                () -> readingService.createBulkReadings(Collections.singletonList(createRequest)));
+
+        assertEquals(Long.MIN_VALUE, watermarks.get("TEST-001"));
+        SensorReading next = new SensorReading();
+        next.setTemperature(22.0);
+        next.setPressure(15.0);
+        next.setTimestamp(LocalDateTime.of(2024, 1, 1, 0, 0, 1));
+        alarmEngine.evaluate(sensor, next);
+        // Had the unsaved reading raised the alarm, 22 would still be inside its deadband
+        assertEquals(AlarmCodes.NONE, next.getAlarmMask());
+        verify(ingestNotifier, never()).publishAll(anyList());
+    }
+
+    @Test
+    void createBulkReadings_UnknownSensor_ThrowsException() {
+        CreateReadingRequest unknown = new CreateReadingRequest();
+        unknown.setSensorId("NONEXISTENT");
+        unknown.setTemperature(22.5);
+        unknown.setPressure(15.0);
+        unknown.setMotorOn(false);
+
+        when(sensorRegistry.findAll(anyCollection()))
+                .thenReturn(Collections.singletonMap("TEST-001", SensorSnapshot.of(testSensor, 0)));
+
+        assertThrows(IllegalArgumentException.class, () -> {
+            readingService.createBulkReadings(Arrays.asList(createRequest, unknown));
+        });
+
+        verify(readingStore, never()).saveAll(anyList());
+    }
+
+    @Test
+    void enqueueReading_QueuesOnSensorLaneAndWaits() {
+        when(sensorRegistry.find("TEST-001")).thenReturn(Optional.of(SensorSnapshot.of(testSensor, 3)));
+        ReadingIngestPipeline.Receipt receipt = mock(ReadingIngestPipeline.Receipt.class);
+        when(ingestPipeline.enqueue(any(SensorReading.class), eq(true))).thenReturn(receipt);
+        when(receipt.getReading()).thenReturn(testReading);
+
+        SensorReadingResponse response = readingService.enqueueReading(createRequest, true);
+
+        assertEquals("TEST-001", response.getSensorId());
+        verify(ingestLanes).call(eq(3), any());
+        verify(ingestNotifier).publish(any(SensorReading.class));
+        verify(receipt).await();
+    }
+
+    @Test
+    void enqueueFrames_EvaluatesThresholdsAndSubmitsBatch() {
+        byte[] body = new ReadingFrames.Writer(Collections.singletonList("TEST-001"))
+                .add(0, 0, 26.0, 15.0, true)
+                .add(0, 0, 22.5, 15.0, true)
+                .toByteArray();
+        when(sensorRegistry.findAll(anyCollection()))
+                .thenReturn(Collections.singletonMap("TEST-001", SensorSnapshot.of(testSensor, 0)));
+        ReadingIngestPipeline.Reservation reservation = mock(ReadingIngestPipeline.Reservation.class);
+        when(ingestPipeline.reserve(2, 0)).thenReturn(reservation);
+
+        FrameIngestResponse response = readingService.enqueueFrames(ByteBuffer.wrap(body));
+
+        assertEquals(2, response.getAccepted());
+        assertEquals(0, response.getLate());
+        @SuppressWarnings("unchecked")
+        ArgumentCaptor<List<SensorReading>> captor = ArgumentCaptor.forClass(List.class);
+        verify(reservation).enqueueAll(captor.capture());
+        assertTrue(captor.getValue().get(0).isTempWarning());
+        assertFalse(captor.getValue().get(1).isTempWarning());
+        verify(ingestNotifier).publishAll(captor.getValue());
+        verify(reservation).await();
+        verify(sensorRegistry, times(1)).findAll(anyCollection());
+    }
+
+    @Test
+    void enqueueFrames_OlderThanLateness_CountedAsLate() {
+        long newest = EpochTime.toEpochNanos(LocalDateTime.of(2024, 1, 1, 12, 0));
+        byte[] body = new ReadingFrames.Writer(Collections.singletonList("TEST-001"))
+                .add(0, newest, 22.5, 15.0, true)
+                .add(0, newest - 4_000_000_000L, 22.5, 15.0, true)
+                .add(0, newest - 6_000_000_000L, 22.5, 15.0, true)
+                .toByteArray();
+        when(sensorRegistry.findAll(anyCollection())).thenReturn(
+                Collections.singletonMap("TEST-001", SensorSnapshot.of(testSensor, dictionary.keyOf("TEST-001"))));
+        when(ingestPipeline.reserve(3, 0)).thenReturn(mock(ReadingIngestPipeline.Reservation.class));
+
+        FrameIngestResponse response = readingService.enqueueFrames(ByteBuffer.wrap(body));
+
+        // Within the 5s lateness window is only out of order; beyond it is late, but still queued
+        assertEquals(3, response.getAccepted());
+        assertEquals(1, response.getLate());
+        assertEquals(newest, watermarks.get("TEST-001"));
+    }
+
+    @Test
+    void enqueueFrames_SampleTimeFarAhead_RejectsBatch() {
+        long now = EpochTime.toEpochNanos(EpochTime.now());
+        byte[] body = new ReadingFrames.Writer(Collections.singletonList("TEST-001"))
+                .add(0, now, 22.5, 15.0, true)
+                .add(0, now + 3_600_000_000_000L, 22.5, 15.0, true)
+                .toByteArray();
+        when(sensorRegistry.findAll(anyCollection())).thenReturn(
+                Collections.singletonMap("TEST-001", SensorSnapshot.of(testSensor, dictionary.keyOf("TEST-001"))));
+
+        assertThrows(MalformedFrameException.class, () -> readingService.enqueueFrames(ByteBuffer.wrap(body)));
+
+        verify(ingestPipeline, never()).reserve(anyInt(), anyLong());
+        assertEquals(Long.MIN_VALUE, watermarks.get("TEST-001"));
+    }
+
+    @Test
+    void enqueueFrames_MoreFramesThanQueueCapacity_RejectedBeforeDecoding() {
+        when(ingestPipeline.getQueueCapacity()).thenReturn(2);
+        byte[] body = new ReadingFrames.Writer(Collections.singletonList("TEST-001"))
+                .add(0, 0, 22.5, 15.0, true)
+                .add(0, 0, 22.5, 15.0, true)
+                .add(0, 0, 22.5, 15.0, true)
+                .toByteArray();
+
+        assertThrows(MalformedFrameException.class, () -> readingService.enqueueFrames(ByteBuffer.wrap(body)));
+
+        verify(sensorRegistry, never()).findAll(anyCollection());
+        verify(ingestPipeline, never()).reserve(anyInt(), anyLong());
+    }
+
+    @Test
+    void enqueueFrames_UnknownSensor_ThrowsException() {
+        byte[] body = new ReadingFrames.Writer(Collections.singletonList("NONEXISTENT"))
+                .add(0, 0, 22.5, 15.0, false)
+                .toByteArray();
+        when(sensorRegistry.findAll(anyCollection())).thenReturn(Collections.emptyMap());
+
+        assertThrows(IllegalArgumentException.class, () -> readingService.enqueueFrames(ByteBuffer.wrap(body)));
+
+        verify(ingestPipeline, never()).reserve(anyInt(), anyLong());
+    }
+
+    @Test
+    void getDownsampledReadings_ReturnsNewestFirst() {
+        LocalDateTime start = LocalDateTime.of(2024, 1, 1, 0, 0, 0);
+        SensorReading older = new SensorReading();
+        older.setId(1L);
+        older.setSensorId("TEST-001");
+        older.setTemperature(20.0);
+        older.setPressure(15.0);
+        older.setTimestamp(start.plusMinutes(1));
+        SensorReading newer = new SensorReading();
+        newer.setId(2L);
+        newer.setSensorId("TEST-001");
+        newer.setTemperature(21.0);
+        newer.setPressure(16.0);
+        newer.setTimestamp(start.plusMinutes(50));
+        doAnswer(invocation -> {
+            Consumer<SensorReading> sink = invocation.getArgument(3);
+            sink.accept(older);
+            sink.accept(newer);
+            return null;
+        }).when(readingStore).scanRange(eq("TEST-001"), eq(start), eq(start.plusHours(1)), any());
+
+        List<SensorReadingResponse> responses =
+                readingService.getDownsampledReadings("TEST-001", start, start.plusHours(1), 100);
+
+        assertEquals(2, responses.size());
+        assertEquals(2L, responses.get(0).getId());
+    }
+
+    @Test
+    void streamReadings_MapsEachReading() {
+        doAnswer(invocation -> {
+            Consumer<SensorReading> sink = invocation.getArgument(1);
+            sink.accept(testReading);
+            sink.accept(testReading);
+            return null;
+        }).when(readingStore).scan(eq("TEST-001"), any());
+        List<SensorReadingResponse> received = new ArrayList<>();
+
+        readingService.streamReadings("TEST-001", received::add);
+
+        assertEquals(2, received.size());
+        assertEquals("TEST-001", received.get(0).getSensorId());
+    }
+
+    @Test
+    void getReadingsPage_FullPage_ReturnsCursor() {
+        when(readingStore.findPage(null, 0L, 1)).thenReturn(new ReadingPage(Collections.singletonList(testReading), 1L));
+
+        ReadingPageResponse page = readingService.getReadingsPage(null, null, 1);
+
+        assertEquals(1, page.getReadings().size());
+        assertEquals(testReading.getId(), page.getNextAfterId());
+    }
+
+    @Test
+    void getReadingsPage_LastPage_HasNoCursor() {
+        when(readingStore.findPage("TEST-001", 10L, 50)).thenReturn(new ReadingPage(Collections.singletonList(testReading), null));
+
+        ReadingPageResponse page = readingService.getReadingsPage("TEST-001", 10L, 50);
+
+        assertNull(page.getNextAfterId());
     }
 }
@@ -1,9 +1,12 @@
 package com.scada.monitoring.service;
 
+import com.scada.monitoring.alarm.AlarmRuleService;
+import com.scada.monitoring.cache.SensorRegistry;
 import com.scada.monitoring.dto.CreateSensorRequest;
 import com.scada.monitoring.dto.SensorResponse;
 import com.scada.monitoring.dto.UpdateSensorThresholdsRequest;
 import com.scada.monitoring.entity.Sensor;
+import com.scada.monitoring.ingest.ReadingIngestNotifier;
 import com.scada.monitoring.repository.SensorRepository;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
@@ -26,6 +29,15 @@ class SensorServiceTest {
     @Mock
     private SensorRepository sensorRepository;
 
+    @Mock
+    private SensorRegistry sensorRegistry;
+
+    @Mock
+    private ReadingIngestNotifier ingestNotifier;
+
+    @Mock
+    private AlarmRuleService alarmRuleService;
+
     @InjectMocks
     private SensorService sensorService;
 
@@ -61,6 +73,7 @@ class SensorServiceTest {
         assertEquals("TEST-001", response.getSensorId());
         assertEquals("Test Sensor", response.getName());
         verify(sensorRepository, times(1)).save(any(Sensor.class));
+        verify(sensorRegistry, times(1)).put(testSensor);
     }
 
     @Test
@@ -114,6 +127,7 @@ class SensorServiceTest {
 
         assertNotNull(response);
         verify(sensorRepository, times(1)).save(any(Sensor.class));
+        verify(sensorRegistry, times(1)).put(testSensor);
     }
 
     @Test
@@ -129,6 +143,7 @@ class SensorServiceTest {
 
         assertNotNull(response);
         verify(sensorRepository, times(1)).save(any(Sensor.class));
+        verify(sensorRegistry, times(1)).put(testSensor);
     }
 
     @Test
@@ -139,5 +154,8 @@ class SensorServiceTest {
         sensorService.deleteSensor("TEST-001");
 
         verify(sensorRepository, times(1)).delete(any(Sensor.class));
+        verify(sensorRegistry, times(1)).evict("TEST-001");
+        verify(ingestNotifier, times(1)).sensorRemoved("TEST-001");
+        verify(alarmRuleService, times(1)).deleteRulesForSensor("TEST-001");
     }
 }
@@ -0,0 +1,93 @@
+package com.scada.monitoring.storage;
+
+import com.scada.monitoring.alarm.AlarmCodes;
+import com.scada.monitoring.entity.SensorReading;
+import org.junit.jupiter.api.Test;
+
+import java.nio.ByteBuffer;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ChunkEncoderTest {
+
+    private static final LocalDateTime START = LocalDateTime.of(2024, 1, 1, 0, 0, 0);
+
+    @Test
+    void roundTrip_PreservesEveryColumn() {
+        Random random = new Random(42);
+        List<SensorReading> readings = new ArrayList<>();
+        LocalDateTime timestamp = START;
+        for (int i = 0; i < 500; i++) {
+            // Mostly steady 1s sampling with occasional jitter, gaps and a step backwards
+            long step = i % 50 == 0 ? 3_600_000L : i % 7 == 0 ? 1000 + random.nextInt(600) - 300 : 1000;
+            timestamp = i == 250 ? timestamp.minusNanos(5_000_000) : timestamp.plusNanos(step * 1_000_000);
+            int mask = i % 20 < 5 ? AlarmCodes.HIGH_TEMPERATURE | AlarmCodes.PRESSURE_RATE : AlarmCodes.NONE;
+            readings.add(reading(timestamp, 20 + random.nextGaussian(), Math.round(random.nextDouble() * 100) / 10.0,
+                    i % 3 == 0, mask, i < 400 ? 80.0 : 85.5));
+        }
+        readings.add(reading(timestamp.plusSeconds(1), Double.NaN, -0.0, true, AlarmCodes.NONE, Double.MAX_VALUE));
+
+        List<SensorReading> decoded = decode(encode(readings), readings.size());
+
+        for (int i = 0; i < readings.size(); i++) {
+            SensorReading expected = readings.get(i);
+            SensorReading actual = decoded.get(i);
+            assertEquals(expected.getTimestamp(), actual.getTimestamp(), "timestamp " + i);
+            assertEquals(Double.doubleToRawLongBits(expected.getTemperature()),
+                    Double.doubleToRawLongBits(actual.getTemperature()), "temperature " + i);
+            assertEquals(expected.getPressure(), actual.getPressure(), "pressure " + i);
+            assertEquals(expected.isMotorOn(), actual.isMotorOn(), "motor " + i);
+            assertEquals(expected.getAlarmMask(), actual.getAlarmMask(), "mask " + i);
+            assertEquals(expected.getTempLimit(), actual.getTempLimit(), "limit " + i);
+            assertEquals(AlarmCodes.has(expected.getAlarmMask(), AlarmCodes.TEMPERATURE_ALARMS), actual.isTempWarning());
+            assertEquals("TEST-001", actual.getSensorId());
+        }
+    }
+
+    @Test
+    void steadySeries_CompressesToAFewBytesPerSample() {
+        List<SensorReading> readings = new ArrayList<>();
+        for (int i = 0; i < 1000; i++) {
+            readings.add(reading(START.plusSeconds(i), 20.0 + (i % 10) * 0.5, 15.0, true, AlarmCodes.NONE, 80.0));
+        }
+
+        ChunkEncoder encoder = encode(readings);
+
+        assertTrue(encoder.byteLength() < 1000 * 4, "bytes: " + encoder.byteLength());
+        assertEquals(START.plusSeconds(999), decode(encoder, 1000).get(999).getTimestamp());
+    }
+
+    private static ChunkEncoder encode(List<SensorReading> readings) {
+        ChunkEncoder encoder = new ChunkEncoder(64);
+        readings.forEach(encoder::append);
+        return encoder;
+    }
+
+    private static List<SensorReading> decode(ChunkEncoder encoder, int count) {
+        ByteBuffer bytes = encoder.snapshot();
+        ChunkDecoder decoder = new ChunkDecoder("TEST-001", bytes, 0, count);
+        List<SensorReading> decoded = new ArrayList<>();
+        while (decoder.hasNext()) {
+            decoded.add(decoder.next());
+        }
+        return decoded;
+    }
+
+    private static SensorReading reading(LocalDateTime timestamp, double temperature, double pressure,
+                                         boolean motorOn, int mask, double tempLimit) {
+        SensorReading reading = new SensorReading();
+        reading.setSensorId("TEST-001");
+        reading.setTimestamp(timestamp);
+        reading.setTemperature(temperature);
+        reading.setPressure(pressure);
+        reading.setMotorOn(motorOn);
+        reading.setAlarmMask(mask);
+        reading.setTempLimit(tempLimit);
+        reading.setPressureLimit(50.0);
+        return reading;
+    }
+}
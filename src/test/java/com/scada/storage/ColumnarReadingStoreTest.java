@@ -0,0 +1,302 @@
+package com.scada.monitoring.storage;
+
+import com.scada.monitoring.alarm.AlarmCodes;
+import com.scada.monitoring.cache.SensorDictionary;
+import com.scada.monitoring.entity.SensorReading;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ColumnarReadingStoreTest {
+
+    private static final LocalDateTime START = LocalDateTime.of(2024, 1, 1, 0, 0, 0);
+
+    @TempDir
+    Path dataDir;
+
+    private ColumnarReadingStore store;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        store = new ColumnarReadingStore(dataDir.toString(), 100, 0, new SensorDictionary());
+        store.open();
+    }
+
+    @AfterEach
+    void tearDown() {
+        store.close();
+    }
+
+    @Test
+    void findRange_SpansSealedAndOpenChunks() {
+        store.appendBatch(readings("TEST-001", 250));
+
+        List<SensorReading> range = store.findRange("TEST-001", START.plusSeconds(90), START.plusSeconds(210));
+
+        assertEquals(121, range.size());
+        assertEquals(START.plusSeconds(210), range.get(0).getTimestamp());
+        assertEquals(START.plusSeconds(90), range.get(120).getTimestamp());
+        assertNull(range.get(0).getId());
+    }
+
+    @Test
+    void findRecent_NewestFirstAcrossChunks() {
+        store.appendBatch(readings("TEST-001", 250));
+        store.appendBatch(readings("TEST-002", 10));
+
+        List<SensorReading> recent = store.findRecent("TEST-001", 60);
+
+        assertEquals(60, recent.size());
+        assertEquals(START.plusSeconds(249), recent.get(0).getTimestamp());
+        assertEquals(START.plusSeconds(190), recent.get(59).getTimestamp());
+        assertTrue(store.findRecent("UNKNOWN", 10).isEmpty());
+    }
+
+    @Test
+    void findWarnings_FiltersByAlarmMask() {
+        store.appendBatch(readings("TEST-001", 250));
+        store.appendBatch(readings("TEST-002", 30));
+
+        List<SensorReading> warnings = store.findWarnings("TEST-001", 1000);
+        List<SensorReading> allWarnings = store.findWarnings(null, 5);
+
+        assertEquals(25, warnings.size());
+        assertTrue(warnings.get(0).isTempWarning());
+        assertEquals(5, allWarnings.size());
+        assertEquals(START.plusSeconds(240), allWarnings.get(0).getTimestamp());
+    }
+
+    @Test
+    void reopen_RestoresSealedAndClosedChunks() throws IOException {
+        store.appendBatch(readings("sensor/with:odd chars", 150));
+        store.close();
+
+        store = new ColumnarReadingStore(dataDir.toString(), 100, 0, new SensorDictionary());
+        store.open();
+
+        assertEquals(150, store.getSampleCount());
+        List<SensorReading> all = new ArrayList<>();
+        store.scan("sensor/with:odd chars", all::add);
+        assertEquals(150, all.size());
+        assertEquals(START, all.get(0).getTimestamp());
+    }
+
+    @Test
+    void reopen_TruncatesIncompleteChunk() throws IOException {
+        store.appendBatch(readings("TEST-001", 100));
+        store.close();
+        Path file = dataDir.resolve("2024-01-01").resolve(ColumnarPartition.fileName("TEST-001"));
+        long size = Files.size(file);
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.WRITE, StandardOpenOption.APPEND)) {
+            // Header of a chunk whose payload never made it to disk
+            channel.write(java.nio.ByteBuffer.allocate(24).putInt(0, 500).putInt(4, 100));
+        }
+
+        store = new ColumnarReadingStore(dataDir.toString(), 100, 0, new SensorDictionary());
+        store.open();
+
+        assertEquals(size, Files.size(file));
+        assertEquals(100, store.findAll("TEST-001").size());
+        store.appendBatch(readings("TEST-001", 1));
+        assertEquals(101, store.getSampleCount());
+    }
+
+    @Test
+    void durableSequence_StopsAtOldestUnsealedReading() {
+        store.appendBatch(readings("TEST-001", 150));
+        store.appendBatch(readings("TEST-002", 100));
+        store.appendBatch(readings("TEST-001", 10));
+
+        // TEST-001's first chunk and all of TEST-002 are sealed; TEST-001's 51st reading is not
+        assertEquals(260, store.appendSequence());
+        assertEquals(100, store.durableSequence());
+
+        store.flush(store.appendSequence());
+
+        assertEquals(260, store.durableSequence());
+    }
+
+    @Test
+    void appendBatch_SplitsReadingsIntoDailyPartitions() {
+        store.appendBatch(readings("TEST-001", 10, START.minusSeconds(5)));
+
+        assertEquals(2, store.getPartitionCount());
+        assertTrue(Files.isDirectory(dataDir.resolve("2023-12-31")));
+        assertEquals(5, store.findRange("TEST-001", START, START.plusDays(1)).size());
+        assertEquals(10, store.findRange("TEST-001", START.minusDays(1), START.plusDays(1)).size());
+        assertEquals(START.plusSeconds(4), store.findRecent("TEST-001", 1).get(0).getTimestamp());
+    }
+
+    @Test
+    void expireBefore_DropsWholeDaysOnly() {
+        store.appendBatch(readings("TEST-001", 10, START.minusDays(2)));
+        store.appendBatch(readings("TEST-001", 10, START.minusDays(1)));
+        store.appendBatch(readings("TEST-001", 10, START));
+
+        long expired = store.expireBefore(START.minusDays(1).plusHours(12));
+
+        assertEquals(10, expired);
+        assertEquals(2, store.getPartitionCount());
+        assertFalse(Files.exists(dataDir.resolve("2023-12-30")));
+        assertEquals(20, store.findAll("TEST-001").size());
+
+        // Late readings for an expired day are not written back
+        store.appendBatch(readings("TEST-001", 1, START.minusDays(2)));
+        assertEquals(2, store.getPartitionCount());
+    }
+
+    @Test
+    void append_OutOfOrderWithinLateness_StoredInTimestampOrder() throws IOException {
+        store.close();
+        store = new ColumnarReadingStore(dataDir.toString(), 100, 10_000, new SensorDictionary());
+        store.open();
+        List<SensorReading> shuffled = readings("TEST-001", 250);
+        // Swap neighbours so every other reading arrives a second late
+        for (int i = 0; i + 1 < shuffled.size(); i += 2) {
+            shuffled.add(i, shuffled.remove(i + 1));
+        }
+        store.appendBatch(shuffled);
+
+        // The newest ten seconds are still in the reorder buffer, and served from it
+        List<SensorReading> recent = store.findRecent("TEST-001", 20);
+        assertEquals(START.plusSeconds(249), recent.get(0).getTimestamp());
+        assertEquals(START.plusSeconds(230), recent.get(19).getTimestamp());
+        assertEquals(250, store.getSampleCount());
+
+        store.close();
+        store = new ColumnarReadingStore(dataDir.toString(), 100, 10_000, new SensorDictionary());
+        store.open();
+        List<SensorReading> all = new ArrayList<>();
+        store.scan("TEST-001", all::add);
+        assertEquals(250, all.size());
+        for (int i = 0; i < all.size(); i++) {
+            assertEquals(START.plusSeconds(i), all.get(i).getTimestamp());
+        }
+    }
+
+    @Test
+    void findPage_WalksAllSensorsInSampleTimeOrder() {
+        // Two days, and both sensors share every timestamp so pages split ties
+        store.appendBatch(readings("TEST-002", 250, START.minusSeconds(100)));
+        store.appendBatch(readings("TEST-001", 250, START.minusSeconds(100)));
+
+        List<SensorReading> all = new ArrayList<>();
+        long cursor = 0;
+        int pages = 0;
+        do {
+            ReadingPage page = store.findPage(null, cursor, 7);
+            all.addAll(page.getReadings());
+            pages++;
+            cursor = page.getNext() != null ? page.getNext() : -1;
+        } while (cursor >= 0);
+
+        assertEquals(500, all.size());
+        assertEquals(72, pages);
+        for (int i = 0; i < all.size(); i++) {
+            assertEquals(START.minusSeconds(100).plusSeconds(i / 2), all.get(i).getTimestamp());
+            assertEquals(i % 2 == 0 ? "TEST-001" : "TEST-002", all.get(i).getSensorId());
+        }
+    }
+
+    @Test
+    void findPage_BySensor_LastPageHasNoCursor() {
+        store.appendBatch(readings("TEST-001", 250));
+        store.appendBatch(readings("TEST-002", 250));
+
+        ReadingPage first = store.findPage("TEST-001", 0, 200);
+        ReadingPage second = store.findPage("TEST-001", first.getNext(), 200);
+
+        assertEquals(200, first.getReadings().size());
+        assertEquals(START.plusSeconds(199), first.getReadings().get(199).getTimestamp());
+        assertEquals(50, second.getReadings().size());
+        assertEquals(START.plusSeconds(200), second.getReadings().get(0).getTimestamp());
+        assertNull(second.getNext());
+        assertTrue(store.findPage("UNKNOWN", 0, 10).getReadings().isEmpty());
+    }
+
+    @Test
+    void findWarnings_AllSensors_StopsAtNewestDayThatFillsLimit() {
+        store.appendBatch(readings("TEST-001", 100, START.minusDays(1)));
+        store.appendBatch(readings("TEST-001", 100, START));
+        store.appendBatch(readings("TEST-002", 100, START));
+
+        List<SensorReading> warnings = store.findWarnings(null, 15);
+
+        // Ten warnings per sensor per day; today's twenty are enough
+        assertEquals(15, warnings.size());
+        for (SensorReading warning : warnings) {
+            assertFalse(warning.getTimestamp().isBefore(START));
+        }
+        assertEquals(30, store.findWarnings(null, 100).size());
+    }
+
+    @Test
+    void sealedChunks_SpanSeveralMappedSegments() throws IOException {
+        List<SensorReading> noisy = new ArrayList<>();
+        for (int i = 0; i < 300_000; i++) {
+            SensorReading reading = new SensorReading();
+            reading.setSensorId("TEST-001");
+            reading.setTimestamp(START.plusNanos(i * 100_000_000L));
+            // Values that change every mantissa bit, so chunks stay large
+            reading.setTemperature(Math.sin(i));
+            reading.setPressure(Math.cos(i));
+            noisy.add(reading);
+        }
+        store.appendBatch(noisy);
+        assertTrue(store.getByteSize() > ColumnarSeries.SEGMENT_BYTES, "bytes: " + store.getByteSize());
+
+        store.close();
+        store = new ColumnarReadingStore(dataDir.toString(), 100, 0, new SensorDictionary());
+        store.open();
+
+        List<SensorReading> all = new ArrayList<>();
+        store.scan("TEST-001", all::add);
+        assertEquals(300_000, all.size());
+        for (int i = 0; i < all.size(); i += 997) {
+            assertEquals(Math.sin(i), all.get(i).getTemperature());
+        }
+        assertEquals(Math.cos(299_999), store.findRecent("TEST-001", 1).get(0).getPressure());
+    }
+
+    @Test
+    void storage_FarSmallerThanTableRows() {
+        store.appendBatch(readings("TEST-001", 10_000));
+
+        // A sensor_readings row is well over 100 bytes before indexes
+        assertTrue(store.getByteSize() < 10_000 * 20, "bytes: " + store.getByteSize());
+    }
+
+    private static List<SensorReading> readings(String sensorId, int count) {
+        return readings(sensorId, count, START);
+    }
+
+    private static List<SensorReading> readings(String sensorId, int count, LocalDateTime start) {
+        List<SensorReading> readings = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            SensorReading reading = new SensorReading();
+            reading.setSensorId(sensorId);
+            reading.setTimestamp(start.plusSeconds(i));
+            reading.setTemperature(20.0 + (i % 17) * 0.1);
+            reading.setPressure(15.0 + (i % 5));
+            reading.setMotorOn(i % 2 == 0);
+            reading.setAlarmMask(i % 10 == 0 ? AlarmCodes.HIGH_TEMPERATURE : AlarmCodes.NONE);
+            reading.setTempWarning(i % 10 == 0);
+            reading.setTempLimit(80.0);
+            reading.setPressureLimit(50.0);
+            readings.add(reading);
+        }
+        return readings;
+    }
+}
@@ -0,0 +1,122 @@
+package com.scada.monitoring.storage;
+
+import com.scada.monitoring.entity.SensorReading;
+import com.scada.monitoring.repository.SensorReadingBatchWriter;
+import com.scada.monitoring.repository.SensorReadingQueryRepository;
+import com.scada.monitoring.repository.SensorReadingRepository;
+import com.scada.monitoring.repository.SensorReadingStreamRepository;
+import jakarta.persistence.EntityManager;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.domain.Pageable;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class JpaReadingStoreTest {
+
+    @Mock
+    private SensorReadingRepository readingRepository;
+
+    @Mock
+    private SensorReadingStreamRepository readingStreamRepository;
+
+    @Mock
+    private SensorReadingQueryRepository readingQueryRepository;
+
+    @Mock
+    private SensorReadingBatchWriter batchWriter;
+
+    @Mock
+    private EntityManager entityManager;
+
+    @InjectMocks
+    private JpaReadingStore readingStore;
+
+    @Test
+    void scanRange_UsesProjectedCursor() {
+        LocalDateTime start = LocalDateTime.of(2024, 1, 1, 0, 0, 0);
+        SensorReading reading = new SensorReading();
+        when(readingQueryRepository.streamRange("TEST-001", start, start.plusHours(1)))
+                .thenReturn(Stream.of(reading, reading));
+        List<SensorReading> received = new ArrayList<>();
+
+        readingStore.scanRange("TEST-001", start, start.plusHours(1), received::add);
+
+        assertEquals(2, received.size());
+        verifyNoInteractions(entityManager);
+    }
+
+    @Test
+    void scan_DetachesEachReading() {
+        SensorReading reading = new SensorReading();
+        when(readingStreamRepository.streamBySensorIdOrderByIdAsc("TEST-001")).thenReturn(Stream.of(reading, reading));
+
+        readingStore.scan("TEST-001", r -> { });
+
+        verify(entityManager, times(2)).detach(reading);
+    }
+
+    @Test
+    void findRecent_UsesProjection() {
+        when(readingQueryRepository.findRecent(eq("TEST-001"), any(Pageable.class)))
+                .thenReturn(Collections.singletonList(new SensorReading()));
+
+        assertEquals(1, readingStore.findRecent("TEST-001", 10).size());
+        verifyNoInteractions(readingRepository);
+    }
+
+    @Test
+    void scan_AllSensors_UsesIdOrderedCursor() {
+        when(readingStreamRepository.streamAllByOrderByIdAsc()).thenReturn(Stream.of(new SensorReading()));
+        List<SensorReading> received = new ArrayList<>();
+
+        readingStore.scan(null, received::add);
+
+        assertEquals(1, received.size());
+        verify(readingStreamRepository, never()).streamBySensorIdOrderByIdAsc(any());
+    }
+
+    @Test
+    void appendBatch_UsesJdbcBatchWriter() {
+        List<SensorReading> batch = Collections.singletonList(new SensorReading());
+
+        readingStore.appendBatch(batch);
+
+        verify(batchWriter).insertBatch(batch);
+        verifyNoInteractions(readingRepository);
+    }
+
+    @Test
+    void findPage_BySensor() {
+        when(readingStreamRepository.findBySensorIdAndIdGreaterThanOrderByIdAsc(eq("TEST-001"), eq(10L), any(Pageable.class)))
+                .thenReturn(Collections.emptyList());
+
+        ReadingPage page = readingStore.findPage("TEST-001", 10L, 50);
+
+        assertTrue(page.getReadings().isEmpty());
+        assertNull(page.getNext());
+    }
+
+    @Test
+    void findPage_FullPage_CursorIsLastId() {
+        SensorReading reading = new SensorReading();
+        reading.setId(42L);
+        when(readingStreamRepository.findByIdGreaterThanOrderByIdAsc(eq(0L), any(Pageable.class)))
+                .thenReturn(Collections.singletonList(reading));
+
+        assertEquals(42L, readingStore.findPage(null, 0L, 1).getNext());
+    }
+}
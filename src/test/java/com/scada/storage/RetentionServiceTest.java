@@ -0,0 +1,64 @@
+package com.scada.monitoring.storage;
+
+import com.scada.monitoring.repository.ReadingRollupRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.transaction.support.TransactionCallback;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class RetentionServiceTest {
+
+    private static final LocalDateTime NOW = LocalDateTime.of(2024, 6, 1, 12, 0, 0);
+
+    @Mock
+    private ReadingStore readingStore;
+
+    @Mock
+    private ReadingRollupRepository rollupRepository;
+
+    @Mock
+    private TransactionTemplate transactionTemplate;
+
+    @BeforeEach
+    void setUp() {
+        lenient().when(transactionTemplate.execute(any())).thenAnswer(invocation -> {
+            TransactionCallback<?> action = invocation.getArgument(0);
+            return action.doInTransaction(null);
+        });
+    }
+
+    @Test
+    void expire_AppliesEachResolutionsOwnWindow() {
+        RetentionService retention = new RetentionService(readingStore, rollupRepository, transactionTemplate, 30, 2, 90, 0);
+
+        retention.expire(NOW);
+
+        verify(readingStore).expireBefore(NOW.minusDays(30));
+        verify(rollupRepository).deleteExpired("ONE_SECOND", NOW.minusDays(2), RetentionService.ROLLUP_DELETE_BATCH_SIZE);
+        verify(rollupRepository).deleteExpired("ONE_MINUTE", NOW.minusDays(90), RetentionService.ROLLUP_DELETE_BATCH_SIZE);
+        verify(rollupRepository, never()).deleteExpired(eq("ONE_HOUR"), any(), anyInt());
+    }
+
+    @Test
+    void expire_RepeatsFullRollupBatches() {
+        RetentionService retention = new RetentionService(readingStore, rollupRepository, transactionTemplate, 0, 2, 0, 0);
+        when(rollupRepository.deleteExpired(eq("ONE_SECOND"), any(), anyInt()))
+                .thenReturn(RetentionService.ROLLUP_DELETE_BATCH_SIZE, RetentionService.ROLLUP_DELETE_BATCH_SIZE, 5);
+
+        retention.expire(NOW);
+
+        verify(rollupRepository, times(3)).deleteExpired(eq("ONE_SECOND"), any(), anyInt());
+        verifyNoInteractions(readingStore);
+    }
+}
@@ -0,0 +1,101 @@
+package com.scada.monitoring.trend;
+
+import com.scada.monitoring.cache.SensorDictionary;
+import com.scada.monitoring.dto.TrendAnalysisResponse;
+import com.scada.monitoring.entity.SensorReading;
+import com.scada.monitoring.util.EpochTime;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDateTime;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class TrendAggregatorTest {
+
+    private final TrendAggregator aggregator = new TrendAggregator(new SensorDictionary(), 3);
+
+    @Test
+    void getLastNTrend_EmptyUntilWindowIsFull() {
+        LocalDateTime now = EpochTime.now();
+        aggregator.onReading(reading(20.0, 10.0, now.minusSeconds(2), false));
+        aggregator.onReading(reading(22.0, 11.0, now.minusSeconds(1), false));
+
+        assertFalse(aggregator.getLastNTrend("TEST-001").isPresent());
+    }
+
+    @Test
+    void getLastNTrend_SlidesOverLastReadings() {
+        LocalDateTime now = EpochTime.now();
+        aggregator.onReading(reading(50.0, 40.0, now.minusSeconds(4), true));
+        aggregator.onReading(reading(20.0, 10.0, now.minusSeconds(3), false));
+        aggregator.onReading(reading(22.0, 12.0, now.minusSeconds(2), false));
+        aggregator.onReading(reading(24.0, 14.0, now.minusSeconds(1), false));
+
+        TrendAnalysisResponse trend = aggregator.getLastNTrend("TEST-001").get();
+
+        assertEquals(3, trend.getTotalReadings());
+        assertEquals(22.0, trend.getAvgTemperature(), 1e-9);
+        assertEquals(24.0, trend.getMaxTemperature());
+        assertEquals(20.0, trend.getMinTemperature());
+        assertEquals(14.0, trend.getMaxPressure());
+        assertEquals(Math.sqrt(8.0 / 3.0), trend.getStdDevTemperature(), 1e-9);
+        assertEquals(2.0, trend.getTemperatureRateOfChange(), 1e-9);
+        assertEquals(0, trend.getWarningCount());
+    }
+
+    @Test
+    void getLastNTrend_LateReading_RateFromSampleTimes() {
+        LocalDateTime now = LocalDateTime.of(2024, 1, 1, 12, 0, 0);
+        aggregator.onReading(reading(20.0, 10.0, now.minusSeconds(3), false));
+        aggregator.onReading(reading(24.0, 14.0, now.minusSeconds(1), false));
+        // Arrives last but was sampled between the other two
+        aggregator.onReading(reading(30.0, 20.0, now.minusSeconds(2), false));
+
+        TrendAnalysisResponse trend = aggregator.getLastNTrend("TEST-001").get();
+
+        assertEquals(now.minusSeconds(3), trend.getStartTime());
+        assertEquals(now.minusSeconds(1), trend.getEndTime());
+        assertEquals(2.0, trend.getTemperatureRateOfChange(), 1e-9);
+        assertEquals(2.0, trend.getPressureRateOfChange(), 1e-9);
+    }
+
+    @Test
+    void getTrend_TimeWindowExcludesOldReadings() {
+        LocalDateTime now = EpochTime.now();
+        aggregator.onReading(reading(90.0, 90.0, now.minusMinutes(5), true));
+        aggregator.onReading(reading(20.0, 10.0, now.minusSeconds(30), false));
+        aggregator.onReading(reading(30.0, 12.0, now.minusSeconds(10), true));
+
+        TrendAnalysisResponse minute = aggregator.getTrend("TEST-001", TrendWindow.ONE_MINUTE).get();
+        assertEquals(2, minute.getTotalReadings());
+        assertEquals(30.0, minute.getMaxTemperature());
+        assertEquals(1, minute.getWarningCount());
+
+        TrendAnalysisResponse quarter = aggregator.getTrend("TEST-001", TrendWindow.FIFTEEN_MINUTES).get();
+        assertEquals(3, quarter.getTotalReadings());
+        assertEquals(90.0, quarter.getMaxTemperature());
+    }
+
+    @Test
+    void onSensorRemoved_DropsState() {
+        aggregator.onReading(reading(20.0, 10.0, EpochTime.now(), false));
+        aggregator.onSensorRemoved("TEST-001");
+
+        assertFalse(aggregator.getTrend("TEST-001", TrendWindow.ONE_HOUR).isPresent());
+    }
+
+    @Test
+    void fromCode_UnknownWindow_ThrowsException() {
+        assertThrows(IllegalArgumentException.class, () -> TrendWindow.fromCode("2d"));
+    }
+
+    private SensorReading reading(double temperature, double pressure, LocalDateTime timestamp, boolean warning) {
+        SensorReading reading = new SensorReading();
+        reading.setSensorId("TEST-001");
+        reading.setTemperature(temperature);
+        reading.setPressure(pressure);
+        reading.setTimestamp(timestamp);
+        reading.setTempWarning(warning);
+        return reading;
+    }
+}
@@ -0,0 +1,170 @@
+package com.scada.monitoring.wal;
+
+import com.scada.monitoring.entity.SensorReading;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class WriteAheadLogTest {
+
+    @TempDir
+    Path dir;
+
+    private SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    @Test
+    void replay_AfterRestart_ReturnsReadingsAfterCheckpoint() throws Exception {
+        WriteAheadLog wal = open("batch", 1 << 20);
+        LocalDateTime timestamp = LocalDateTime.of(2024, 3, 1, 12, 0, 0, 123456789);
+        for (int i = 0; i < 3; i++) {
+            SensorReading reading = reading("TEST-00" + i, timestamp.plusSeconds(i));
+            reading.setAlarmMask(5);
+            reading.setTempWarning(true);
+            wal.awaitDurable(wal.append(reading));
+        }
+        wal.markApplied(1);
+        wal.close();
+
+        List<SensorReading> replayed = replayAll(open("batch", 1 << 20));
+
+        assertEquals(2, replayed.size());
+        SensorReading first = replayed.get(0);
+        assertEquals("TEST-001", first.getSensorId());
+        assertEquals(timestamp.plusSeconds(1), first.getTimestamp());
+        assertEquals(22.5, first.getTemperature());
+        assertEquals(5, first.getAlarmMask());
+        assertTrue(first.isTempWarning());
+        assertFalse(first.isPressureWarning());
+        assertTrue(first.isMotorOn());
+        assertEquals(80.0, first.getTempLimit());
+    }
+
+    @Test
+    void open_TornRecord_TruncatesAndContinuesLsns() throws Exception {
+        WriteAheadLog wal = open("none", 1 << 20);
+        wal.append(reading("TEST-001", LocalDateTime.now()));
+        wal.append(reading("TEST-002", LocalDateTime.now()));
+        wal.close();
+        Path segment = segments().get(0);
+        try (FileChannel channel = FileChannel.open(segment, StandardOpenOption.WRITE)) {
+            channel.truncate(channel.size() - 5);
+        }
+
+        WriteAheadLog reopened = open("none", 1 << 20);
+        List<SensorReading> replayed = replayAll(reopened);
+
+        assertEquals(1, replayed.size());
+        assertEquals("TEST-001", replayed.get(0).getSensorId());
+        assertEquals(2, reopened.append(reading("TEST-003", LocalDateTime.now())));
+    }
+
+    @Test
+    void open_CorruptRecord_StopsAtChecksum() throws Exception {
+        WriteAheadLog wal = open("none", 1 << 20);
+        wal.append(reading("TEST-001", LocalDateTime.now()));
+        long firstEnd = Files.size(segments().get(0));
+        wal.append(reading("TEST-002", LocalDateTime.now()));
+        wal.close();
+        try (FileChannel channel = FileChannel.open(segments().get(0), StandardOpenOption.WRITE)) {
+            channel.write(ByteBuffer.wrap(new byte[] {0x7f}), firstEnd + 20);
+        }
+
+        assertEquals(1, replayAll(open("none", 1 << 20)).size());
+    }
+
+    @Test
+    void markApplied_DeletesSegmentsThatAreFullyApplied() throws Exception {
+        WriteAheadLog wal = open("batch", 256);
+        for (int i = 0; i < 10; i++) {
+            wal.append(reading("TEST-001", LocalDateTime.now()));
+        }
+        assertTrue(wal.getSegmentCount() > 2);
+
+        wal.markApplied(10);
+        wal.close();
+
+        assertEquals(1, segments().size());
+        WriteAheadLog reopened = open("batch", 256);
+        assertTrue(replayAll(reopened).isEmpty());
+        assertEquals(11, reopened.append(reading("TEST-001", LocalDateTime.now())));
+    }
+
+    @Test
+    void open_DirectoryInUse_Fails() {
+        open("none", 1 << 20);
+
+        assertThrows(IllegalStateException.class, () -> open("none", 1 << 20));
+    }
+
+    @Test
+    void awaitDurable_BatchPolicy_SharesOneFsyncPerGroup() {
+        WriteAheadLog wal = open("batch", 1 << 20);
+        wal.append(reading("TEST-001", LocalDateTime.now()));
+        long second = wal.append(reading("TEST-002", LocalDateTime.now()));
+
+        wal.awaitDurable(second);
+        wal.awaitDurable(1);
+
+        assertEquals(1, meterRegistry.get("scada.wal.fsync").timer().count());
+        assertEquals(2.0, meterRegistry.get("scada.wal.fsync.group.size").summary().totalAmount());
+    }
+
+    @Test
+    void awaitDurable_NonePolicy_DoesNotForce() {
+        WriteAheadLog wal = open("none", 1 << 20);
+        wal.awaitDurable(wal.append(reading("TEST-001", LocalDateTime.now())));
+
+        assertEquals(0, meterRegistry.get("scada.wal.fsync").timer().count());
+    }
+
+    private WriteAheadLog open(String fsync, long segmentBytes) {
+        meterRegistry = new SimpleMeterRegistry();
+        WriteAheadLog wal = new WriteAheadLog(true, dir.toString(), segmentBytes, fsync, 100, meterRegistry);
+        try {
+            wal.open();
+        } catch (IOException e) {
+            fail(e);
+        }
+        return wal;
+    }
+
+    private static List<SensorReading> replayAll(WriteAheadLog wal) {
+        List<SensorReading> replayed = new ArrayList<>();
+        wal.replay((reading, lsn) -> replayed.add(reading));
+        return replayed;
+    }
+
+    private List<Path> segments() throws IOException {
+        try (Stream<Path> files = Files.list(dir)) {
+            return files.filter(file -> file.toString().endsWith(WalSegment.FILE_SUFFIX))
+                    .sorted()
+                    .collect(Collectors.toList());
+        }
+    }
+
+    private static SensorReading reading(String sensorId, LocalDateTime timestamp) {
+        SensorReading reading = new SensorReading();
+        reading.setSensorId(sensorId);
+        reading.setTemperature(22.5);
+        reading.setPressure(15.0);
+        reading.setMotorOn(true);
+        reading.setTimestamp(timestamp);
+        reading.setTempLimit(80.0);
+        reading.setPressureLimit(30.0);
+        return reading;
+    }
+}